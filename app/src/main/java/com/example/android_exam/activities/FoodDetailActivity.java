@@ -86,8 +86,8 @@ public class FoodDetailActivity extends AppCompatActivity {
 
     private void setupRecyclerViews() {
         // Setup ingredients adapter
-        ingredientsAdapter = new IngredientsFoodAdapter((ingredientId, newQuantity) ->
-                viewModel.updateIngredientQuantity(ingredientId, newQuantity));
+        ingredientsAdapter = new IngredientsFoodAdapter((ingredientId, increase) ->
+                viewModel.stepIngredientQuantity(ingredientId, increase));
 
         // Setup steps adapter
         instructionsAdapter = new InstructionsAdapter();
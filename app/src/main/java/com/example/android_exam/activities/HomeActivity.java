@@ -86,6 +86,8 @@ public class HomeActivity extends BaseActivity {
                     Toast.makeText(this, "Cài đặt", Toast.LENGTH_SHORT).show();
                 } else if(itemId == R.id.nav_help) {
                     Toast.makeText(this, "Trợ giúp", Toast.LENGTH_SHORT).show();
+                } else if (itemId == R.id.nav_network_debug) {
+                    startActivity(new Intent(this, NetworkDebugActivity.class));
                 } else if (itemId == R.id.nav_logout) {
                     // Handle logout logic
                     // viewModel.logout();
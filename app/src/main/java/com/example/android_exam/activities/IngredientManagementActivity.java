@@ -29,6 +29,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.android_exam.activities.dialog.IngredientDialog;
 import com.example.android_exam.adapters.IngredientAdapter;
+import com.example.android_exam.data.repository.IngredientStats;
 import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
 import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
 import com.example.android_exam.data.models.base.Ingredient;
@@ -36,9 +37,11 @@ import com.example.android_exam.data.models.enums.IngredientCategory;
 import com.example.android_exam.data.models.enums.IngredientUnit;
 import com.example.android_exam.databinding.ActivityIngredientManagementBinding;
 import com.example.android_exam.databinding.DialogIngredientDetailBinding;
+import com.example.android_exam.expiry.ExpiryNotifier;
 import com.example.android_exam.module.image.ImagePickerHelper;
 import com.example.android_exam.utils.IngredientUtils;
 import com.example.android_exam.viewmodels.IngredientViewModel;
+import com.example.android_exam.module.image.ImageSource;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
@@ -49,7 +52,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -92,6 +94,7 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
 
         initializeComponents();
         initializeDialog();
+        ExpiryNotifier.requestPermissionIfNeeded(this);
 
 
 
@@ -140,17 +143,16 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
         viewModel.getErrorLiveData().observe(this, this::handleError);
         viewModel.getSuccessMessageLiveData().observe(this, this::handleSuccessMessage);
         viewModel.getValidationErrorLiveData().observe(this, this::handleValidationErrors);
+        viewModel.getStatsLiveData().observe(this, this::updateChipCounts);
+        viewModel.getUploadProgressLiveData().observe(this, this::updateUploadProgress);
     }
 
     private void updateIngredientsDisplay(List<IngredientDataResponseDto> ingredients) {
         if (ingredients == null) return;
 
-        adapter.submitList(null);
-        adapter.submitList(new ArrayList<>(ingredients));
+        adapter.submit(ingredients);
 
         binding.layoutEmptyState.setVisibility(ingredients.isEmpty() ? View.VISIBLE : View.GONE);
-        updateExpiringBanner(ingredients);
-        updateChipCounts();
     }
 
     private void updateLoadingState(Boolean isLoading) {
@@ -158,6 +160,18 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
 
         binding.progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
         binding.swipeRefreshLayout.setRefreshing(isLoading);
+        if (!isLoading) {
+            binding.tvUploadProgress.setVisibility(View.GONE);
+        }
+    }
+
+    private void updateUploadProgress(Integer percent) {
+        if (percent == null) {
+            binding.tvUploadProgress.setVisibility(View.GONE);
+            return;
+        }
+        binding.tvUploadProgress.setVisibility(View.VISIBLE);
+        binding.tvUploadProgress.setText("Đang tải ảnh lên... " + percent + "%");
     }
 
     private void handleError(String error) {
@@ -181,10 +195,8 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
         }
     }
 
-    private void updateExpiringBanner(List<IngredientDataResponseDto> ingredients) {
-        long expiringCount = ingredients.stream()
-                .filter(IngredientDataResponseDto::isExpiringSoon)
-                .count();
+    private void updateExpiringBanner(IngredientStats.Snapshot stats) {
+        int expiringCount = stats.getExpiringSoon();
 
         binding.expiringBanner.setVisibility(expiringCount > 0 ? View.VISIBLE : View.GONE);
         if (expiringCount > 0) {
@@ -412,13 +424,15 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
         }
     }
 
-    private void updateChipCounts() {
-        updateCategoryChipCounts();
-        updateExpiryChipCounts();
+    private void updateChipCounts(IngredientStats.Snapshot stats) {
+        if (stats == null) return;
+        updateCategoryChipCounts(stats);
+        updateExpiryChipCounts(stats);
+        updateExpiringBanner(stats);
     }
 
     @SuppressLint("DefaultLocale")
-    private void updateCategoryChipCounts() {
+    private void updateCategoryChipCounts(IngredientStats.Snapshot stats) {
         binding.getRoot().post(() -> {
             for (int i = 0; i < binding.chipGroupCategories.getChildCount(); i++) {
                 View view = binding.chipGroupCategories.getChildAt(i);
@@ -432,17 +446,17 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
                     if (category != null) {
                         chip.setText(String.format("%s (%d)",
                                 IngredientUtils.getCategoryDisplayName(category),
-                                viewModel.getCountByCategory(category)));
+                                stats.getCount(category)));
                     }
                 }
             }
         });
     }
 
-    private void updateExpiryChipCounts() {
+    private void updateExpiryChipCounts(IngredientStats.Snapshot stats) {
         binding.getRoot().post(() -> {
-            binding.chipExpired.setText(String.format("Hết hạn (%d)", viewModel.getExpiredIngredients().size()));
-            binding.chipNotExpired.setText(String.format("Còn hạn (%d)", viewModel.getNotExpiredIngredients().size()));
+            binding.chipExpired.setText(String.format("Hết hạn (%d)", stats.getExpired()));
+            binding.chipNotExpired.setText(String.format("Còn hạn (%d)", stats.getNotExpired()));
         });
     }
 
@@ -497,6 +511,13 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
         return true;
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Sang ngày mới khi app ở background: bucket hạn dùng được tính lại
+        viewModel.refreshStats();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
@@ -513,11 +534,11 @@ public class IngredientManagementActivity extends AppCompatActivity implements I
 
 
     @Override
-    public void onIngredientSaved(Ingredient ingredient, boolean isEditing, int existingId, File imageFile) {
+    public void onIngredientSaved(Ingredient ingredient, boolean isEditing, int existingId, ImageSource image) {
         if (isEditing) {
-            viewModel.updateIngredient(existingId, ingredient, imageFile);
+            viewModel.updateIngredient(existingId, ingredient, image);
         } else {
-            viewModel.addIngredient(ingredient, imageFile); // Assuming no image for simplicity
+            viewModel.addIngredient(ingredient, image); // Assuming no image for simplicity
         }
     }
 
@@ -2,15 +2,20 @@ package com.example.android_exam.activities;
 
 import android.app.Dialog;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.Window;
+import android.widget.TextView;
 
 import com.example.android_exam.R;
 
 public class LoadingActivity {
     private static LoadingActivity instance;
     private Dialog loadingDialog;
+    private TextView progressText;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private static Context appContext;
 
     public static LoadingActivity getInstance() {
@@ -42,6 +47,7 @@ public class LoadingActivity {
 
             View view = LayoutInflater.from(context).inflate(R.layout.dialog_loading, null);
             loadingDialog.setContentView(view);
+            progressText = view.findViewById(R.id.tv_loading_progress);
             loadingDialog.setCancelable(false);
             loadingDialog.setCanceledOnTouchOutside(false);
 
@@ -53,6 +59,15 @@ public class LoadingActivity {
         }
     }
 
+    // Hiện % upload ảnh dưới loading (gọi được từ thread bất kỳ, ví dụ ApiCall.onProgress)
+    public void setProgress(int percent) {
+        mainHandler.post(() -> {
+            if (loadingDialog == null || progressText == null) return;
+            progressText.setVisibility(View.VISIBLE);
+            progressText.setText("Đang tải ảnh lên... " + percent + "%");
+        });
+    }
+
     // Method hide
     public void hide() {
         try {
@@ -63,6 +78,7 @@ public class LoadingActivity {
             // Ignore
         } finally {
             loadingDialog = null;
+            progressText = null;
         }
     }
 }
@@ -0,0 +1,75 @@
+package com.example.android_exam.activities;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.android_exam.R;
+import com.example.android_exam.data.api.ApiManager;
+import com.example.android_exam.data.api.BaseApiClient;
+import com.example.android_exam.data.api.NetworkMetrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Màn hình debug: thống kê HTTP engine và report timing theo endpoint (NetworkMetrics)
+ */
+public class NetworkDebugActivity extends BaseActivity {
+    private static final String TAG = "NetworkDebugActivity";
+    private static final String REPORT_FILE_NAME = "network_report.json";
+
+    private TextView tvEngineStats;
+    private TextView tvReport;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_network_debug);
+
+        tvEngineStats = findViewById(R.id.tvEngineStats);
+        tvReport = findViewById(R.id.tvReport);
+        Button btnRefresh = findViewById(R.id.btnRefresh);
+        Button btnDump = findViewById(R.id.btnDump);
+        Button btnClear = findViewById(R.id.btnClear);
+
+        btnRefresh.setOnClickListener(v -> render());
+        btnDump.setOnClickListener(v -> dumpReport());
+        btnClear.setOnClickListener(v -> {
+            NetworkMetrics.getInstance().clear();
+            render();
+        });
+
+        render();
+    }
+
+    private void render() {
+        ApiManager apiManager = ApiManager.getInstance();
+        String stats = apiManager.getHttpStats() + "\n" +
+                apiManager.getCoalescingStats() + "\n" +
+                apiManager.getSchedulerStats() + "\n" +
+                "Circuit: " + BaseApiClient.getBackendCircuitState();
+        tvEngineStats.setText(stats);
+        tvReport.setText(NetworkMetrics.getInstance().dumpJson());
+    }
+
+    /**
+     * Ghi report JSON ra file trong cache dir và logcat
+     */
+    private void dumpReport() {
+        String json = NetworkMetrics.getInstance().dumpJson();
+        File file = new File(getCacheDir(), REPORT_FILE_NAME);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+            Log.i(TAG, json);
+            Toast.makeText(this, "Đã lưu " + file.getAbsolutePath(), Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write network report", e);
+            Toast.makeText(this, "Không thể lưu report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+}
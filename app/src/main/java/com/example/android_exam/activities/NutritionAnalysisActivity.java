@@ -12,6 +12,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import com.example.android_exam.R;
 import com.example.android_exam.adapters.EnhancedMealAdapter;
 import com.example.android_exam.adapters.EnhancedWeeklyNutritionAdapter;
+import com.example.android_exam.data.api.ApiCallGroup;
 import com.example.android_exam.data.api.ApiManager;
 import com.example.android_exam.data.api.DataCallback;
 import com.example.android_exam.data.dto.food.FoodDataResponseDto;
@@ -38,6 +39,7 @@ public class NutritionAnalysisActivity extends AppCompatActivity {
     private SimpleDateFormat weekFormat = new SimpleDateFormat("dd/MM", new Locale("vi", "VN"));
     private SimpleDateFormat logFormat = new SimpleDateFormat("yyyy-MM-dd", new Locale("vi", "VN"));
     private Calendar selectedCalendar = Calendar.getInstance();
+    private final ApiCallGroup calls = new ApiCallGroup(TAG);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -149,6 +151,8 @@ public class NutritionAnalysisActivity extends AppCompatActivity {
         );
 
         binding.rvMeals.setLayoutManager(new LinearLayoutManager(this));
+        // Danh sách bữa ăn phẳng: mở một bữa sẽ thêm cả loạt dòng món ăn cùng lúc, giữ sẵn nhiều view hơn mặc định (5)
+        binding.rvMeals.getRecycledViewPool().setMaxRecycledViews(EnhancedMealAdapter.VIEW_TYPE_FOOD, 20);
         binding.rvMeals.setAdapter(mealAdapter);
     }
 
@@ -157,7 +161,7 @@ public class NutritionAnalysisActivity extends AppCompatActivity {
         // You can also show a toast message to confirm the click
         Toast.makeText(this, "Clicked: " + foodItem.getFoodName(), Toast.LENGTH_SHORT).show();
         LoadingActivity.getInstance().show();
-        ApiManager.getInstance().getFoodClient().getFoodById(foodItem.getFoodId(), new DataCallback<ApiResponse<FoodDataResponseDto>>() {
+        calls.track("foodDetail", ApiManager.getInstance().getFoodClient().getFoodById(foodItem.getFoodId(), new DataCallback<ApiResponse<FoodDataResponseDto>>() {
             @Override
             public void onSuccess(ApiResponse<FoodDataResponseDto> result) {
                 //Get the food data and show it in a dialog or new activity
@@ -180,7 +184,7 @@ public class NutritionAnalysisActivity extends AppCompatActivity {
             public void onFailure(Throwable throwable) {
                 LoadingActivity.getInstance().hide();
             }
-        });
+        }));
         //Call to api
     }
 
@@ -359,6 +363,8 @@ public class NutritionAnalysisActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        calls.cancelAll();
+        LoadingActivity.getInstance().hide();
         viewModel.getCurrentDate().removeObservers(this);
         viewModel.getDailyNutrition().removeObservers(this);
         viewModel.getWeeklyNutrition().removeObservers(this);
@@ -39,11 +39,10 @@ import com.example.android_exam.databinding.DialogIngredientDetailBinding;
 import com.example.android_exam.module.image.ImagePickerHelper;
 import com.example.android_exam.module.image.ImagePickerModule;
 import com.example.android_exam.utils.DateUtils;
-import com.example.android_exam.utils.FileUtils;
 import com.example.android_exam.utils.IngredientUtils;
+import com.example.android_exam.module.image.ImageSource;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
-import java.io.File;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -60,7 +59,7 @@ import java.util.Objects;
 public class IngredientDialog {
 
     public interface OnIngredientDialogListener {
-        void onIngredientSaved(Ingredient ingredient, boolean isEditing, int existingId, File imageFile);
+        void onIngredientSaved(Ingredient ingredient, boolean isEditing, int existingId, ImageSource image);
         void onIngredientDeleted(int ingredientId);
         void onImagePickerRequested(int requestCode);
     }
@@ -237,14 +236,10 @@ public class IngredientDialog {
                 }
 
                 //Todo: Call Api to detect ingredients
-                var file = FileUtils.getFileFromUri(context, selectedImageUri);
-                if (file == null) {
-                    Toast.makeText(context, "Lỗi khi xử lý ảnh đã chọn", Toast.LENGTH_SHORT).show();
-                    return;
-                }
+                var image = ImageSource.of(context, selectedImageUri);
 
                 LoadingActivity.getInstance().show(context);
-                ApiManager.getInstance().getAiClient().detectIngredient(file, new AuthCallback<ApiResponse<IngredientAnalysticResponseDto>>() {
+                ApiManager.getInstance().getAiClient().detectIngredient(image, new AuthCallback<ApiResponse<IngredientAnalysticResponseDto>>() {
                     @Override
                     public void onSuccess(ApiResponse<IngredientAnalysticResponseDto> result) {
                         LoadingActivity.getInstance().hide();
@@ -272,7 +267,7 @@ public class IngredientDialog {
                         LoadingActivity.getInstance().hide();
                         Log.e("IngredientDialog", "Error detecting ingredient: ", throwable);
                     }
-                });
+                }).onProgress(LoadingActivity.getInstance()::setProgress);
 
             });
         }else{
@@ -394,20 +389,11 @@ public class IngredientDialog {
         try {
             Ingredient ingredient = createIngredientFromDialog();
             int existingId = isEditing && currentIngredient != null ? currentIngredient.getId() : 0;
-            File imageFile = null;
-
-            if (selectedImageUri != null) {
-                imageFile = FileUtils.getFileFromUri(context, selectedImageUri);
-                if (imageFile == null) {
-                    Toast.makeText(context, "Lỗi khi xử lý ảnh đã chọn", Toast.LENGTH_SHORT).show();
-                    return false;
-                }
-                Log.d("IngredientDialog", "Image file created: " + imageFile.getName() +
-                        ", size: " + imageFile.length() + " bytes");
-            }
+            // Ảnh được đọc thẳng từ URI khi upload (không copy vào cacheDir)
+            ImageSource image = selectedImageUri != null ? ImageSource.of(context, selectedImageUri) : null;
 
             if (listener != null) {
-                listener.onIngredientSaved(ingredient, isEditing, existingId,  imageFile);
+                listener.onIngredientSaved(ingredient, isEditing, existingId, image);
             }
             return true;
         } catch (Exception e) {
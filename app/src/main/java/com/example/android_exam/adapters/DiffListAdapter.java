@@ -0,0 +1,137 @@
+package com.example.android_exam.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * ListAdapter dùng chung cho các RecyclerView:
+ * - Diff được tính trên một executor nền dùng chung, chỉ các dòng thay đổi mới được bind lại (giữ item animation).
+ * - Stable id lấy từ getItemKey(); key trùng nhau trong cùng danh sách được tách bằng thứ tự xuất hiện.
+ * - getChangePayload() cho phép bind lại một phần của dòng qua onBindPayloads() thay vì bind cả dòng.
+ * Các hàm so sánh chạy trên thread nền nên không được đọc state thay đổi của adapter.
+ */
+public abstract class DiffListAdapter<T, VH extends RecyclerView.ViewHolder> extends ListAdapter<T, VH> {
+
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "list-diff");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Stable id theo vị trí của danh sách hiện tại (đã tách key trùng)
+    private long[] itemIds = new long[0];
+
+    private static class KeyCallback<T> extends DiffUtil.ItemCallback<T> {
+        DiffListAdapter<T, ?> adapter;
+
+        @Override
+        public boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return adapter.getItemKey(oldItem) == adapter.getItemKey(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return adapter.areContentsTheSame(oldItem, newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
+            return adapter.getChangePayload(oldItem, newItem);
+        }
+    }
+
+    protected DiffListAdapter() {
+        this(new KeyCallback<>());
+    }
+
+    private DiffListAdapter(KeyCallback<T> callback) {
+        super(new AsyncDifferConfig.Builder<>(callback).setBackgroundThreadExecutor(DIFF_EXECUTOR).build());
+        callback.adapter = this;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Key định danh item (id từ server, ngày...) - dùng cho diff và stable id
+     */
+    protected abstract long getItemKey(@NonNull T item);
+
+    protected abstract boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+    /**
+     * Payload mô tả phần thay đổi, null để bind lại cả dòng
+     */
+    @Nullable
+    protected Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
+        return null;
+    }
+
+    /**
+     * Bind lại một phần dòng theo payload - mặc định bind cả dòng
+     */
+    protected void onBindPayloads(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        onBindViewHolder(holder, position);
+    }
+
+    /**
+     * Submit bản sao của danh sách (ListAdapter bỏ qua nếu nhận lại cùng instance đã bị sửa tại chỗ)
+     */
+    public void submit(@Nullable List<T> items) {
+        submitList(items != null ? new ArrayList<>(items) : Collections.emptyList());
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            onBindPayloads(holder, position, payloads);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position < itemIds.length ? itemIds[position] : RecyclerView.NO_ID;
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<T> previousList, @NonNull List<T> currentList) {
+        long[] ids = new long[currentList.size()];
+        Map<Long, Integer> occurrences = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            long key = getItemKey(currentList.get(i));
+            Integer seen = occurrences.put(key, occurrences.getOrDefault(key, 0) + 1);
+            ids[i] = seen == null ? key : key ^ (seen * GOLDEN_GAMMA);
+        }
+        itemIds = ids;
+    }
+
+    /**
+     * Key 64-bit (FNV-1a) cho item không có id, ví dụ theo tên
+     */
+    protected static long hashKey(@Nullable String value) {
+        long hash = 0xcbf29ce484222325L;
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xff);
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+}
@@ -1,31 +1,41 @@
 package com.example.android_exam.adapters;
 
-import android.app.DatePickerDialog;
-import android.content.Context;
 import android.util.Log;
 import android.view.LayoutInflater;
-import android.view.View;
 import android.view.ViewGroup;
-import android.view.animation.Animation;
-import android.view.animation.RotateAnimation;
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.android_exam.R;
 import com.example.android_exam.data.dto.nutrition.FoodNutritionDto;
 import com.example.android_exam.data.dto.nutrition.NutritionDto;
 import com.example.android_exam.databinding.ItemMealExpandableBinding;
+import com.example.android_exam.utils.NutritionFormat;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-
-public class EnhancedMealAdapter extends RecyclerView.Adapter<EnhancedMealAdapter.MealViewHolder> {
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Danh sách bữa ăn trong ngày dạng phẳng: mỗi bữa là một dòng header, các món của bữa đang mở rộng
+ * là các dòng ngay sau nó. Tất cả dùng chung một RecyclerView (và một view pool) thay vì mỗi bữa
+ * một RecyclerView con; mở / đóng bữa chỉ là insert / remove một khoảng dòng (diff của DiffListAdapter).
+ */
+public class EnhancedMealAdapter extends DiffListAdapter<EnhancedMealAdapter.Row, RecyclerView.ViewHolder> {
     private static final String TAG = "EnhancedMealAdapter";
-    private List<NutritionDto> meals = new ArrayList<>();
-    private List<Boolean> expandedStates = new ArrayList<>();
+
+    public static final int VIEW_TYPE_MEAL = 0;
+    public static final int VIEW_TYPE_FOOD = 1;
+
+    // Chỉ trạng thái mở rộng thay đổi: xoay mũi tên thay vì bind lại header
+    private static final Object PAYLOAD_EXPANDED = new Object();
+
+    // Trạng thái mở rộng theo mealId để không lệch khi danh sách thay đổi vị trí
+    private final Set<Integer> expandedMealIds = new HashSet<>();
+    private List<NutritionDto> meals = Collections.emptyList();
     private OnDateSelectedListener dateSelectedListener;
     private OnFoodItemClickListener foodItemClickListener;
     private Calendar selectedDate = Calendar.getInstance();
@@ -38,6 +48,86 @@ public class EnhancedMealAdapter extends RecyclerView.Adapter<EnhancedMealAdapte
         void onFoodItemClick(FoodNutritionDto foodItem);
     }
 
+    /**
+     * Một dòng của danh sách phẳng
+     */
+    abstract static class Row {
+        final int mealId;
+
+        Row(int mealId) {
+            this.mealId = mealId;
+        }
+
+        abstract long key();
+    }
+
+    /**
+     * Header của bữa ăn - chuỗi hiển thị được format sẵn một lần khi nhận dữ liệu
+     */
+    static final class MealRow extends Row {
+        final boolean expanded;
+        final String name;
+        final String time;
+        final String date;
+        final String calories;
+        final String itemCount;
+        final String protein;
+        final String carbs;
+        final String fat;
+        final String fiber;
+        final int iconRes;
+
+        MealRow(NutritionDto meal, boolean expanded) {
+            super(meal.getMealId());
+            this.expanded = expanded;
+            String mealType = meal.getMealType().toString();
+            List<FoodNutritionDto> foods = meal.getFoods() != null ? meal.getFoods() : Collections.emptyList();
+            double totalProtein = 0, totalCarbs = 0, totalFat = 0, totalFiber = 0;
+            for (FoodNutritionDto food : foods) {
+                totalProtein += food.getProtein() != null ? food.getProtein().doubleValue() : 0;
+                totalCarbs += food.getCarbs() != null ? food.getCarbs().doubleValue() : 0;
+                totalFat += food.getFat() != null ? food.getFat().doubleValue() : 0;
+                totalFiber += food.getFiber() != null ? food.getFiber().doubleValue() : 0;
+            }
+            this.name = mealType;
+            this.time = getMealTime(mealType);
+            this.date = NutritionFormat.date(meal.getMealDate());
+            this.calories = NutritionFormat.kcal(meal.getTotalCalories());
+            this.itemCount = foods.size() + " món";
+            this.protein = NutritionFormat.grams(totalProtein);
+            this.carbs = NutritionFormat.grams(totalCarbs);
+            this.fat = NutritionFormat.grams(totalFat);
+            this.fiber = NutritionFormat.grams(totalFiber);
+            this.iconRes = getMealIcon(mealType);
+        }
+
+        @Override
+        long key() {
+            return ((long) mealId << 32) | 0xFFFFFFFFL;
+        }
+
+        boolean sameDisplay(MealRow other) {
+            return name.equals(other.name) && date.equals(other.date) && calories.equals(other.calories) &&
+                    itemCount.equals(other.itemCount) && protein.equals(other.protein) &&
+                    carbs.equals(other.carbs) && fat.equals(other.fat) && fiber.equals(other.fiber) &&
+                    iconRes == other.iconRes && Objects.equals(time, other.time);
+        }
+    }
+
+    static final class FoodRow extends Row {
+        final FoodNutritionDto food;
+
+        FoodRow(int mealId, FoodNutritionDto food) {
+            super(mealId);
+            this.food = food;
+        }
+
+        @Override
+        long key() {
+            return ((long) mealId << 32) | (food.getFoodId() & 0x7FFFFFFFL);
+        }
+    }
+
     public EnhancedMealAdapter(OnDateSelectedListener dateSelectedListener) {
         this.dateSelectedListener = dateSelectedListener;
     }
@@ -48,51 +138,82 @@ public class EnhancedMealAdapter extends RecyclerView.Adapter<EnhancedMealAdapte
     }
 
     public void updateMeals(List<NutritionDto> newMeals) {
-        this.meals.clear();
-        this.meals.addAll(newMeals);
-
         // Debug log
         for (NutritionDto meal : newMeals) {
             Log.d(TAG, "Meal type: " + meal.getMealType().toString());
         }
 
-        // Initialize expanded states
-        this.expandedStates.clear();
-        for (int i = 0; i < newMeals.size(); i++) {
-            expandedStates.add(false);
+        // Bữa ăn không còn trong danh sách thì bỏ trạng thái mở rộng
+        Set<Integer> mealIds = new HashSet<>();
+        for (NutritionDto meal : newMeals) {
+            mealIds.add(meal.getMealId());
         }
+        expandedMealIds.retainAll(mealIds);
 
-        notifyDataSetChanged();
+        meals = new ArrayList<>(newMeals);
+        submitList(flatten());
     }
 
-    @NonNull
-    @Override
-    public MealViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        ItemMealExpandableBinding binding = ItemMealExpandableBinding.inflate(
-                LayoutInflater.from(parent.getContext()), parent, false);
-        return new MealViewHolder(binding);
+    /**
+     * Header của mọi bữa + các món của bữa đang mở rộng
+     */
+    private List<Row> flatten() {
+        List<Row> rows = new ArrayList<>();
+        for (NutritionDto meal : meals) {
+            boolean expanded = expandedMealIds.contains(meal.getMealId());
+            rows.add(new MealRow(meal, expanded));
+            if (expanded && meal.getFoods() != null) {
+                for (FoodNutritionDto food : meal.getFoods()) {
+                    rows.add(new FoodRow(meal.getMealId(), food));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void toggleExpanded(int mealId) {
+        if (!expandedMealIds.remove(mealId)) {
+            expandedMealIds.add(mealId);
+        }
+        submitList(flatten());
     }
 
     @Override
-    public void onBindViewHolder(@NonNull MealViewHolder holder, int position) {
-        holder.bind(meals.get(position), expandedStates.get(position));
+    protected long getItemKey(@NonNull Row item) {
+        return item.key();
     }
 
     @Override
-    public int getItemCount() {
-        return meals.size();
+    protected boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+        if (oldItem instanceof MealRow && newItem instanceof MealRow) {
+            MealRow oldMeal = (MealRow) oldItem, newMeal = (MealRow) newItem;
+            return oldMeal.expanded == newMeal.expanded && oldMeal.sameDisplay(newMeal);
+        }
+        if (oldItem instanceof FoodRow && newItem instanceof FoodRow) {
+            return FoodItemAdapter.sameContent(((FoodRow) oldItem).food, ((FoodRow) newItem).food);
+        }
+        return false;
     }
 
-    class MealViewHolder extends RecyclerView.ViewHolder {
-        private ItemMealExpandableBinding binding;
-        private FoodItemAdapter foodAdapter;
+    @Override
+    protected Object getChangePayload(@NonNull Row oldItem, @NonNull Row newItem) {
+        if (oldItem instanceof MealRow && newItem instanceof MealRow
+                && ((MealRow) oldItem).sameDisplay((MealRow) newItem)) {
+            return PAYLOAD_EXPANDED;
+        }
+        return null;
+    }
 
-        public MealViewHolder(ItemMealExpandableBinding binding) {
-            super(binding.getRoot());
-            this.binding = binding;
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position) instanceof MealRow ? VIEW_TYPE_MEAL : VIEW_TYPE_FOOD;
+    }
 
-            // Setup food items RecyclerView with click listener
-            foodAdapter = new FoodItemAdapter(foodItem -> {
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (viewType == VIEW_TYPE_FOOD) {
+            FoodItemAdapter.FoodItemViewHolder holder = FoodItemAdapter.FoodItemViewHolder.create(parent, foodItem -> {
                 // Log the food item data
                 Log.d(TAG, "Food item clicked from meal adapter: " + foodItem.getFoodName());
                 Log.d(TAG, "Food details - Calories: " + foodItem.getCalories() + ", Protein: " + foodItem.getProtein() + "g");
@@ -102,104 +223,97 @@ public class EnhancedMealAdapter extends RecyclerView.Adapter<EnhancedMealAdapte
                     foodItemClickListener.onFoodItemClick(foodItem);
                 }
             });
+            // Thụt lề như khi còn nằm trong card của bữa ăn
+            ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) holder.itemView.getLayoutParams();
+            int inset = parent.getResources().getDimensionPixelSize(R.dimen.spacing_large);
+            params.setMarginStart(inset);
+            params.setMarginEnd(inset);
+            return holder;
+        }
+        ItemMealExpandableBinding binding = ItemMealExpandableBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false);
+        return new MealViewHolder(binding);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Row row = getItem(position);
+        if (holder instanceof MealViewHolder) {
+            ((MealViewHolder) holder).bind((MealRow) row);
+        } else {
+            ((FoodItemAdapter.FoodItemViewHolder) holder).bind(((FoodRow) row).food);
+        }
+    }
+
+    @Override
+    protected void onBindPayloads(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (holder instanceof MealViewHolder && payloads.contains(PAYLOAD_EXPANDED)) {
+            ((MealViewHolder) holder).animateExpanded(((MealRow) getItem(position)).expanded);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    class MealViewHolder extends RecyclerView.ViewHolder {
+        private final ItemMealExpandableBinding binding;
 
-            binding.rvFoodItems.setLayoutManager(new LinearLayoutManager(binding.getRoot().getContext()));
-            binding.rvFoodItems.setAdapter(foodAdapter);
+        public MealViewHolder(ItemMealExpandableBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
 
             // Setup click listener for expand/collapse
             binding.layoutMealHeader.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION) {
-                    toggleExpanded(position);
+                    toggleExpanded(getItem(position).mealId);
                 }
             });
         }
 
-        public void bind(NutritionDto meal, boolean isExpanded) {
-            binding.tvMealName.setText(meal.getMealType().toString());
-            binding.tvMealCalories.setText(String.format("%.0f kcal", meal.getTotalCalories()));
-            binding.tvMealItemCount.setText(String.format("%d món", meal.getFoods().size()));
-
-            // Set meal time based on meal type
-            String mealTime = getMealTime(meal.getMealType().toString());
-            binding.tvMealTime.setText(mealTime);
-
-            // Set meal date
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd 'Tháng' MM, yyyy", new Locale("vi", "VN"));
-            binding.tvMealDate.setText(dateFormat.format(meal.getMealDate()));
-
-            // Set meal icon based on meal type
-            int iconRes = getMealIcon(meal.getMealType().toString());
-            binding.ivMealIcon.setImageResource(iconRes);
+        public void bind(MealRow meal) {
+            binding.tvMealName.setText(meal.name);
+            binding.tvMealCalories.setText(meal.calories);
+            binding.tvMealItemCount.setText(meal.itemCount);
+            binding.tvMealTime.setText(meal.time);
+            binding.tvMealDate.setText(meal.date);
+            binding.ivMealIcon.setImageResource(meal.iconRes);
 
             // Update macros
-            double totalProtein = meal.getFoods().stream()
-                    .mapToDouble(f -> f.getProtein().doubleValue())
-                    .sum();
-
-            double totalCarbs = meal.getFoods().stream()
-                    .mapToDouble(f -> f.getCarbs().doubleValue())
-                    .sum();
-
-            double totalFat = meal.getFoods().stream()
-                    .mapToDouble(f -> f.getFat().doubleValue())
-                    .sum();
-
-            binding.tvMealProtein.setText(String.format("%.0fg", totalProtein));
-            binding.tvMealCarbs.setText(String.format("%.0fg", totalCarbs));
-            binding.tvMealFat.setText(String.format("%.0fg", totalFat));
-
-            // Update expand/collapse state
-            updateExpandedState(isExpanded);
-
-            // Update food items
-            foodAdapter.updateFoodItems(meal.getFoods());
-        }
-
-        private void toggleExpanded(int position) {
-            boolean currentState = expandedStates.get(position);
-            expandedStates.set(position, !currentState);
-            updateExpandedState(!currentState);
+            binding.tvMealProtein.setText(meal.protein);
+            binding.tvMealCarbs.setText(meal.carbs);
+            binding.tvMealFat.setText(meal.fat);
+            binding.tvMealFiber.setText(meal.fiber);
+
+            // Update expand/collapse state (không animate khi bind lại)
+            binding.ivExpandArrow.animate().cancel();
+            binding.ivExpandArrow.setRotation(meal.expanded ? 180f : 0f);
         }
 
-        private void updateExpandedState(boolean isExpanded) {
-            if (isExpanded) {
-                binding.rvFoodItems.setVisibility(View.VISIBLE);
-                binding.ivExpandArrow.setRotation(180f);
-            } else {
-                binding.rvFoodItems.setVisibility(View.GONE);
-                binding.ivExpandArrow.setRotation(0f);
-            }
-
-            // Animate arrow rotation
-            float fromRotation = isExpanded ? 0f : 180f;
-            float toRotation = isExpanded ? 180f : 0f;
-
-            RotateAnimation rotate = new RotateAnimation(fromRotation, toRotation,
-                    Animation.RELATIVE_TO_SELF, 0.5f, Animation.RELATIVE_TO_SELF, 0.5f);
-            rotate.setDuration(200);
-            rotate.setFillAfter(true);
-            binding.ivExpandArrow.startAnimation(rotate);
+        void animateExpanded(boolean isExpanded) {
+            binding.ivExpandArrow.animate()
+                    .rotation(isExpanded ? 180f : 0f)
+                    .setDuration(200)
+                    .start();
         }
+    }
 
-        private String getMealTime(String mealType) {
-            return switch (mealType) {
-                case "Bữa Sáng" -> "7:30 AM";
-                case "Bữa Trưa" -> "12:00 PM";
-                case "Bữa Chiều" -> "3:00 PM";
-                case "Bữa Tối" -> "7:00 PM";
-                default -> "N/A";
-            };
-        }
+    private static String getMealTime(String mealType) {
+        return switch (mealType) {
+            case "Bữa Sáng" -> "7:30 AM";
+            case "Bữa Trưa" -> "12:00 PM";
+            case "Bữa Chiều" -> "3:00 PM";
+            case "Bữa Tối" -> "7:00 PM";
+            default -> "N/A";
+        };
+    }
 
-        private int getMealIcon(String mealType) {
-            return switch (mealType) {
-                case "Bữa Sáng" -> R.drawable.ic_breakfast;
-                case "Bữa Trưa" -> R.drawable.ic_lunch;
-                case "Bữa Chiều" -> R.drawable.ic_snack;
-                case "Bữa Tối" -> R.drawable.ic_dinner;
-                default -> R.drawable.ic_food_placeholder;
-            };
-        }
+    private static int getMealIcon(String mealType) {
+        return switch (mealType) {
+            case "Bữa Sáng" -> R.drawable.ic_breakfast;
+            case "Bữa Trưa" -> R.drawable.ic_lunch;
+            case "Bữa Chiều" -> R.drawable.ic_snack;
+            case "Bữa Tối" -> R.drawable.ic_dinner;
+            default -> R.drawable.ic_food_placeholder;
+        };
     }
-}
\ No newline at end of file
+}
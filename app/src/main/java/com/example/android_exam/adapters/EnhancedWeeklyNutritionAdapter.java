@@ -7,14 +7,13 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.android_exam.databinding.ItemWeeklyNutritionBinding;
 import com.example.android_exam.data.dto.nutrition.DailyNutritionSummaryDto;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import com.example.android_exam.utils.NutritionFormat;
+
 import java.util.Calendar;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
-public class EnhancedWeeklyNutritionAdapter extends RecyclerView.Adapter<EnhancedWeeklyNutritionAdapter.WeeklyDayViewHolder> {
-    private List<DailyNutritionSummaryDto> weeklyData = new ArrayList<>();
+public class EnhancedWeeklyNutritionAdapter extends DiffListAdapter<DailyNutritionSummaryDto, EnhancedWeeklyNutritionAdapter.WeeklyDayViewHolder> {
     private OnDaySelectedListener onDaySelectedListener;
     private Calendar selectedWeekStart = Calendar.getInstance();
 
@@ -27,11 +26,25 @@ public class EnhancedWeeklyNutritionAdapter extends RecyclerView.Adapter<Enhance
     }
 
     public void updateWeeklyData(List<DailyNutritionSummaryDto> newWeeklyData) {
-        this.weeklyData.clear();
-        if (newWeeklyData != null) {
-            this.weeklyData.addAll(newWeeklyData);
-        }
-        notifyDataSetChanged();
+        submit(newWeeklyData);
+    }
+
+    /**
+     * Mỗi ngày một dòng - định danh theo ngày
+     */
+    @Override
+    protected long getItemKey(@NonNull DailyNutritionSummaryDto item) {
+        return item.getDate() != null ? item.getDate().getTime() : 0L;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull DailyNutritionSummaryDto oldItem, @NonNull DailyNutritionSummaryDto newItem) {
+        return oldItem.getTotalCalories() == newItem.getTotalCalories() &&
+                oldItem.getTotalProtein() == newItem.getTotalProtein() &&
+                oldItem.getTotalCarbs() == newItem.getTotalCarbs() &&
+                oldItem.getTotalFat() == newItem.getTotalFat() &&
+                oldItem.getTotalFiber() == newItem.getTotalFiber() &&
+                Objects.equals(oldItem.getTargetCalories(), newItem.getTargetCalories());
     }
 
     @NonNull
@@ -44,18 +57,11 @@ public class EnhancedWeeklyNutritionAdapter extends RecyclerView.Adapter<Enhance
 
     @Override
     public void onBindViewHolder(@NonNull WeeklyDayViewHolder holder, int position) {
-        holder.bind(weeklyData.get(position));
-    }
-
-    @Override
-    public int getItemCount() {
-        return weeklyData.size();
+        holder.bind(getItem(position));
     }
 
     class WeeklyDayViewHolder extends RecyclerView.ViewHolder {
         private ItemWeeklyNutritionBinding binding;
-        private SimpleDateFormat dayFormat = new SimpleDateFormat("EEEE", new Locale("vi", "VN"));
-        private SimpleDateFormat dateFormat = new SimpleDateFormat("dd 'Tháng' MM, yyyy", new Locale("vi", "VN"));
 
         public WeeklyDayViewHolder(ItemWeeklyNutritionBinding binding) {
             super(binding.getRoot());
@@ -65,18 +71,18 @@ public class EnhancedWeeklyNutritionAdapter extends RecyclerView.Adapter<Enhance
             binding.getRoot().setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && onDaySelectedListener != null) {
-                    onDaySelectedListener.onDaySelected(weeklyData.get(position));
+                    onDaySelectedListener.onDaySelected(getItem(position));
                 }
             });
         }
 
         public void bind(DailyNutritionSummaryDto dayData) {
             // Set day name and date
-            binding.tvDayName.setText(dayFormat.format(dayData.getDate()));
-            binding.tvDayDate.setText(dateFormat.format(dayData.getDate()));
+            binding.tvDayName.setText(NutritionFormat.dayName(dayData.getDate()));
+            binding.tvDayDate.setText(NutritionFormat.date(dayData.getDate()));
 
             // Set calories
-            binding.tvDayCalories.setText(String.format("%.0f", dayData.getTotalCalories()));
+            binding.tvDayCalories.setText(NutritionFormat.number(dayData.getTotalCalories()));
 
             // Set progress
             if (dayData.getTargetCalories() != null && dayData.getTargetCalories() > 0) {
@@ -87,10 +93,10 @@ public class EnhancedWeeklyNutritionAdapter extends RecyclerView.Adapter<Enhance
             }
 
             // Set macros
-            binding.tvMealProtein.setText(String.format("%.0fg", dayData.getTotalProtein()));
-            binding.tvMealCarbs.setText(String.format("%.0fg", dayData.getTotalCarbs()));
-            binding.tvMealFat.setText(String.format("%.0fg", dayData.getTotalFat()));
-            binding.tvMealFiber.setText(String.format("%.0fg", dayData.getTotalFiber()));
+            binding.tvMealProtein.setText(NutritionFormat.grams(dayData.getTotalProtein()));
+            binding.tvMealCarbs.setText(NutritionFormat.grams(dayData.getTotalCarbs()));
+            binding.tvMealFat.setText(NutritionFormat.grams(dayData.getTotalFat()));
+            binding.tvMealFiber.setText(NutritionFormat.grams(dayData.getTotalFiber()));
         }
     }
 }
\ No newline at end of file
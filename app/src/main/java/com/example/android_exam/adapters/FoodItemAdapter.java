@@ -8,12 +8,12 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.android_exam.data.dto.nutrition.FoodNutritionDto;
 import com.example.android_exam.databinding.ItemFoodAnalystBinding;
-import java.util.ArrayList;
+import com.example.android_exam.utils.NutritionFormat;
 import java.util.List;
+import java.util.Objects;
 
-public class FoodItemAdapter extends RecyclerView.Adapter<FoodItemAdapter.FoodItemViewHolder> {
+public class FoodItemAdapter extends DiffListAdapter<FoodNutritionDto, FoodItemAdapter.FoodItemViewHolder> {
     private static final String TAG = "FoodItemAdapter";
-    private List<FoodNutritionDto> foodItems = new ArrayList<>();
     private OnFoodItemClickListener clickListener;
 
     // Interface for handling food item clicks
@@ -32,38 +32,60 @@ public class FoodItemAdapter extends RecyclerView.Adapter<FoodItemAdapter.FoodIt
     }
 
     public void updateFoodItems(List<FoodNutritionDto> newFoodItems) {
-        this.foodItems.clear();
-        if (newFoodItems != null) {
-            this.foodItems.addAll(newFoodItems);
-        }
-        notifyDataSetChanged();
+        submit(newFoodItems);
     }
 
-    @NonNull
     @Override
-    public FoodItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        ItemFoodAnalystBinding binding = ItemFoodAnalystBinding.inflate(
-                LayoutInflater.from(parent.getContext()), parent, false);
-        return new FoodItemViewHolder(binding);
+    protected long getItemKey(@NonNull FoodNutritionDto item) {
+        return item.getFoodId();
     }
 
     @Override
-    public void onBindViewHolder(@NonNull FoodItemViewHolder holder, int position) {
-        holder.bind(foodItems.get(position));
+    protected boolean areContentsTheSame(@NonNull FoodNutritionDto oldItem, @NonNull FoodNutritionDto newItem) {
+        return sameContent(oldItem, newItem);
+    }
+
+    /**
+     * Các field hiển thị trên dòng món ăn - dùng chung với EnhancedMealAdapter
+     */
+    static boolean sameContent(@NonNull FoodNutritionDto oldItem, @NonNull FoodNutritionDto newItem) {
+        return Objects.equals(oldItem.getFoodName(), newItem.getFoodName()) &&
+                Objects.equals(oldItem.getCalories(), newItem.getCalories()) &&
+                Objects.equals(oldItem.getProtein(), newItem.getProtein()) &&
+                Objects.equals(oldItem.getCarbs(), newItem.getCarbs()) &&
+                Objects.equals(oldItem.getFat(), newItem.getFat()) &&
+                Objects.equals(oldItem.getFiber(), newItem.getFiber());
+    }
+
+    @NonNull
+    @Override
+    public FoodItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return FoodItemViewHolder.create(parent, clickListener);
     }
 
     @Override
-    public int getItemCount() {
-        return foodItems.size();
+    public void onBindViewHolder(@NonNull FoodItemViewHolder holder, int position) {
+        holder.bind(getItem(position));
     }
 
-    class FoodItemViewHolder extends RecyclerView.ViewHolder {
-        private ItemFoodAnalystBinding binding;
+    /**
+     * ViewHolder dòng món ăn - static để EnhancedMealAdapter dùng lại cho danh sách phẳng
+     */
+    static class FoodItemViewHolder extends RecyclerView.ViewHolder {
+        private final ItemFoodAnalystBinding binding;
+        private final OnFoodItemClickListener clickListener;
         private FoodNutritionDto foodItem;
 
-        public FoodItemViewHolder(ItemFoodAnalystBinding binding) {
+        static FoodItemViewHolder create(@NonNull ViewGroup parent, OnFoodItemClickListener clickListener) {
+            ItemFoodAnalystBinding binding = ItemFoodAnalystBinding.inflate(
+                    LayoutInflater.from(parent.getContext()), parent, false);
+            return new FoodItemViewHolder(binding, clickListener);
+        }
+
+        FoodItemViewHolder(ItemFoodAnalystBinding binding, OnFoodItemClickListener clickListener) {
             super(binding.getRoot());
             this.binding = binding;
+            this.clickListener = clickListener;
 
             // Set click listener on the entire item view
             binding.getRoot().setOnClickListener(v -> {
@@ -88,11 +110,11 @@ public class FoodItemAdapter extends RecyclerView.Adapter<FoodItemAdapter.FoodIt
         public void bind(FoodNutritionDto foodItem) {
             this.foodItem = foodItem;
             binding.tvFoodName.setText(foodItem.getFoodName());
-            binding.tvFoodCalories.setText(String.format("%.0f kcal", foodItem.getCalories()));
-            binding.tvFoodProtein.setText(String.format("%.0fg", foodItem.getProtein()));
-            binding.tvFoodCarbs.setText(String.format("%.0fg", foodItem.getCarbs()));
-            binding.tvFoodFat.setText(String.format("%.0fg", foodItem.getFat()));
-            binding.tvFoodFiber.setText(String.format("%.0fg", foodItem.getFiber()));
+            binding.tvFoodCalories.setText(NutritionFormat.kcal(foodItem.getCalories()));
+            binding.tvFoodProtein.setText(NutritionFormat.grams(foodItem.getProtein()));
+            binding.tvFoodCarbs.setText(NutritionFormat.grams(foodItem.getCarbs()));
+            binding.tvFoodFat.setText(NutritionFormat.grams(foodItem.getFat()));
+            binding.tvFoodFiber.setText(NutritionFormat.grams(foodItem.getFiber()));
 
             // Load image if available
             // if (foodItem.getImageUrl() != null && !foodItem.getImageUrl().isEmpty()) {
@@ -15,11 +15,10 @@ import com.example.android_exam.R;
 import com.example.android_exam.data.dto.food.FoodDataResponseDto;
 import com.example.android_exam.data.dto.food.FoodSuggestionResponseDto;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class FoodSuggestionsAdapter extends RecyclerView.Adapter<FoodSuggestionsAdapter.ViewHolder> {
-    private List<FoodSuggestionResponseDto> foodList = new ArrayList<>();
+public class FoodSuggestionsAdapter extends DiffListAdapter<FoodSuggestionResponseDto, FoodSuggestionsAdapter.ViewHolder> {
     private OnFoodClickListener listener;
 
     public interface OnFoodClickListener {
@@ -31,9 +30,25 @@ public class FoodSuggestionsAdapter extends RecyclerView.Adapter<FoodSuggestions
     }
 
     public void updateData(List<FoodSuggestionResponseDto> newList) {
-        this.foodList.clear();
-        this.foodList.addAll(newList);
-        notifyDataSetChanged();
+        submit(newList);
+    }
+
+    /**
+     * Gợi ý không có id từ server - định danh theo tên món
+     */
+    @Override
+    protected long getItemKey(@NonNull FoodSuggestionResponseDto item) {
+        return hashKey(item.getName());
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull FoodSuggestionResponseDto oldItem, @NonNull FoodSuggestionResponseDto newItem) {
+        return Objects.equals(oldItem.getName(), newItem.getName()) &&
+                Objects.equals(oldItem.getKcal(), newItem.getKcal()) &&
+                oldItem.getDifficulty() == newItem.getDifficulty() &&
+                oldItem.getPrepTimeMinutes() == newItem.getPrepTimeMinutes() &&
+                oldItem.getCookTimeMinutes() == newItem.getCookTimeMinutes() &&
+                Objects.equals(oldItem.getImage(), newItem.getImage());
     }
 
     @NonNull
@@ -46,15 +61,10 @@ public class FoodSuggestionsAdapter extends RecyclerView.Adapter<FoodSuggestions
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        FoodSuggestionResponseDto food = foodList.get(position);
+        FoodSuggestionResponseDto food = getItem(position);
         holder.bind(food);
     }
 
-    @Override
-    public int getItemCount() {
-        return foodList.size();
-    }
-
     class ViewHolder extends RecyclerView.ViewHolder {
         private TextView tvFoodName, tvCalories, tvTimeCooking, tvDifficulty;
         private ImageView ivFoodImage;
@@ -69,7 +79,7 @@ public class FoodSuggestionsAdapter extends RecyclerView.Adapter<FoodSuggestions
 
             itemView.setOnClickListener(v -> {
                 if (listener != null && getAdapterPosition() != RecyclerView.NO_POSITION) {
-                    listener.onFoodClick(foodList.get(getAdapterPosition()));
+                    listener.onFoodClick(getItem(getAdapterPosition()));
                 }
             });
         }
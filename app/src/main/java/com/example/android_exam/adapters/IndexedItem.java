@@ -0,0 +1,53 @@
+package com.example.android_exam.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Item kèm vị trí cho các danh sách đánh số (các bước, mẹo): số thứ tự là một phần nội dung của dòng
+ */
+public final class IndexedItem<T> {
+    private final int index;
+    private final T value;
+
+    private IndexedItem(int index, T value) {
+        this.index = index;
+        this.value = value;
+    }
+
+    @NonNull
+    public static <T> List<IndexedItem<T>> wrap(@Nullable List<T> values) {
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        List<IndexedItem<T>> items = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            items.add(new IndexedItem<>(i, values.get(i)));
+        }
+        return items;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Số thứ tự hiển thị (bắt đầu từ 1)
+     */
+    public int getNumber() {
+        return index + 1;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public boolean sameValue(@NonNull IndexedItem<T> other) {
+        return Objects.equals(value, other.value);
+    }
+}
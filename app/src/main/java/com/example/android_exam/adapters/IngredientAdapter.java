@@ -11,8 +11,6 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
-import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
@@ -22,11 +20,11 @@ import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
 import com.example.android_exam.utils.IngredientUtils;
 
 import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Objects;
 
-public class IngredientAdapter extends ListAdapter<IngredientDataResponseDto, IngredientAdapter.IngredientViewHolder> {
+public class IngredientAdapter extends DiffListAdapter<IngredientDataResponseDto, IngredientAdapter.IngredientViewHolder> {
 
     private OnIngredientActionListener listener;
     private Context context;
@@ -40,51 +38,44 @@ public class IngredientAdapter extends ListAdapter<IngredientDataResponseDto, In
     }
 
     public IngredientAdapter(Context context) {
-        super(DIFF_CALLBACK);
         this.context = context;
     }
 
     public void setOnIngredientActionListener(OnIngredientActionListener listener) {
         this.listener = listener;
     }
-    private static final DiffUtil.ItemCallback<IngredientDataResponseDto> DIFF_CALLBACK =
-            new DiffUtil.ItemCallback<IngredientDataResponseDto>() {
-                @Override
-                public boolean areItemsTheSame(@NonNull IngredientDataResponseDto oldItem, @NonNull IngredientDataResponseDto newItem) {
-                    return oldItem.getId() == newItem.getId();
-                }
 
-                @Override
-                public boolean areContentsTheSame(@NonNull IngredientDataResponseDto oldItem, @NonNull IngredientDataResponseDto newItem) {
-                    // So sánh tất cả các trường quan trọng
-                    return oldItem.getName().equals(newItem.getName()) &&
-                            oldItem.getQuantity().compareTo(newItem.getQuantity()) == 0 &&
-                            compareExpiryDates(oldItem.getExpiryDate(), newItem.getExpiryDate()) &&
-                            oldItem.getUnit().equals(newItem.getUnit()) &&
-                            oldItem.getCategory().equals(newItem.getCategory()) &&
-                            oldItem.isExpired() == newItem.isExpired() &&
-                            compareStrings(oldItem.getDescription(), newItem.getDescription()) &&
-                            compareStrings(oldItem.getImageUrl(), newItem.getImageUrl());
-                }
+    @Override
+    protected long getItemKey(@NonNull IngredientDataResponseDto item) {
+        return item.getId();
+    }
 
-                private boolean compareExpiryDates(Date date1, Date date2) {
-                    if (date1 == null && date2 == null) return true;
-                    if (date1 == null || date2 == null) return false;
-                    return date1.getTime() == date2.getTime();
-                }
+    @Override
+    protected boolean areContentsTheSame(@NonNull IngredientDataResponseDto oldItem, @NonNull IngredientDataResponseDto newItem) {
+        // So sánh tất cả các trường quan trọng
+        return Objects.equals(oldItem.getName(), newItem.getName()) &&
+                compareQuantities(oldItem, newItem) &&
+                compareExpiryDates(oldItem.getExpiryDate(), newItem.getExpiryDate()) &&
+                oldItem.getUnit() == newItem.getUnit() &&
+                oldItem.getCategory() == newItem.getCategory() &&
+                oldItem.isExpired() == newItem.isExpired() &&
+                Objects.equals(oldItem.getDescription(), newItem.getDescription()) &&
+                Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
+    }
 
-                private boolean compareExpiryDates(LocalDateTime date1, LocalDateTime date2) {
-                    if (date1 == null && date2 == null) return true;
-                    if (date1 == null || date2 == null) return false;
-                    return date1.equals(date2);
-                }
+    private static boolean compareQuantities(IngredientDataResponseDto oldItem, IngredientDataResponseDto newItem) {
+        if (oldItem.getQuantity() == null || newItem.getQuantity() == null) {
+            return oldItem.getQuantity() == newItem.getQuantity();
+        }
+        return oldItem.getQuantity().compareTo(newItem.getQuantity()) == 0;
+    }
+
+    private static boolean compareExpiryDates(Date date1, Date date2) {
+        if (date1 == null && date2 == null) return true;
+        if (date1 == null || date2 == null) return false;
+        return date1.getTime() == date2.getTime();
+    }
 
-                private boolean compareStrings(String str1, String str2) {
-                    if (str1 == null && str2 == null) return true;
-                    if (str1 == null || str2 == null) return false;
-                    return str1.equals(str2);
-                }
-            };
     @NonNull
     @Override
     public IngredientViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -15,16 +15,22 @@ import com.example.android_exam.data.dto.food.FoodIngredientDto;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class IngredientsFoodAdapter extends RecyclerView.Adapter<IngredientsFoodAdapter.IngredientViewHolder> {
+public class IngredientsFoodAdapter extends DiffListAdapter<FoodIngredientDto, IngredientsFoodAdapter.IngredientViewHolder> {
+
+    // Chỉ số lượng thay đổi (nút +/-): bind lại tv_quantity thay vì cả dòng
+    private static final Object PAYLOAD_QUANTITY = new Object();
 
-    private List<FoodIngredientDto> ingredients = new ArrayList<>();
     private OnIngredientInteractionListener listener;
 
     public interface OnIngredientInteractionListener {
-        void onQuantityChanged(int ingredientId, BigDecimal newQuantity);
+        /**
+         * Nút +/- được bấm; ViewModel áp bước tăng / giảm lên số lượng hiện tại của chính nó
+         * (item của adapter có thể cũ hơn khi bấm liên tiếp trước lúc diff kịp cập nhật)
+         */
+        void onQuantityStep(int ingredientId, boolean increase);
     }
 
     public IngredientsFoodAdapter(OnIngredientInteractionListener listener) {
@@ -32,8 +38,50 @@ public class IngredientsFoodAdapter extends RecyclerView.Adapter<IngredientsFood
     }
 
     public void setIngredients(List<FoodIngredientDto> ingredients) {
-        this.ingredients = ingredients != null ? ingredients : new ArrayList<>();
-        notifyDataSetChanged();
+        submit(ingredients);
+    }
+
+    /**
+     * Nguyên liệu trong kho định danh theo ingredientId, nguyên liệu ngoài kho theo tên (key âm để không trùng id)
+     */
+    @Override
+    protected long getItemKey(@NonNull FoodIngredientDto item) {
+        if (item.getIngredientId() != null && item.getIngredientId() > 0) {
+            return item.getIngredientId();
+        }
+        return hashKey(item.getIngredientName()) | Long.MIN_VALUE;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull FoodIngredientDto oldItem, @NonNull FoodIngredientDto newItem) {
+        return sameQuantity(oldItem, newItem) && sameExceptQuantity(oldItem, newItem);
+    }
+
+    @Override
+    protected Object getChangePayload(@NonNull FoodIngredientDto oldItem, @NonNull FoodIngredientDto newItem) {
+        return sameExceptQuantity(oldItem, newItem) ? PAYLOAD_QUANTITY : null;
+    }
+
+    @Override
+    protected void onBindPayloads(@NonNull IngredientViewHolder holder, int position, @NonNull List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_QUANTITY) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        holder.bindQuantity(getItem(position));
+    }
+
+    private static boolean sameQuantity(FoodIngredientDto oldItem, FoodIngredientDto newItem) {
+        BigDecimal oldQty = oldItem.getQuantity(), newQty = newItem.getQuantity();
+        return oldQty == null ? newQty == null : newQty != null && oldQty.compareTo(newQty) == 0;
+    }
+
+    private static boolean sameExceptQuantity(FoodIngredientDto oldItem, FoodIngredientDto newItem) {
+        return Objects.equals(oldItem.getIngredientName(), newItem.getIngredientName()) &&
+                Objects.equals(oldItem.getIngredientId(), newItem.getIngredientId()) &&
+                oldItem.getUnit() == newItem.getUnit();
     }
 
     @NonNull
@@ -46,13 +94,7 @@ public class IngredientsFoodAdapter extends RecyclerView.Adapter<IngredientsFood
 
     @Override
     public void onBindViewHolder(@NonNull IngredientViewHolder holder, int position) {
-        FoodIngredientDto ingredient = ingredients.get(position);
-        holder.bind(ingredient, listener);
-    }
-
-    @Override
-    public int getItemCount() {
-        return ingredients.size();
+        holder.bind(getItem(position));
     }
 
     class IngredientViewHolder extends RecyclerView.ViewHolder {
@@ -69,17 +111,33 @@ public class IngredientsFoodAdapter extends RecyclerView.Adapter<IngredientsFood
             tvIngredientUnit = itemView.findViewById(R.id.tv_unit);
             btnDecrease = itemView.findViewById(R.id.btn_decrease);
             btnIncrease = itemView.findViewById(R.id.btn_increase);
+
+            // Không sửa DTO tại chỗ: ViewModel phát danh sách mới, diff chỉ bind lại số lượng của dòng này
+            btnDecrease.setOnClickListener(v -> changeQuantity(false));
+            btnIncrease.setOnClickListener(v -> changeQuantity(true));
+        }
+
+        private void changeQuantity(boolean increase) {
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || listener == null) {
+                return;
+            }
+            listener.onQuantityStep(getItem(position).getIngredientId(), increase);
+        }
+
+        void bindQuantity(FoodIngredientDto ingredient) {
+            BigDecimal quantity = ingredient.getQuantity() != null ? ingredient.getQuantity() : BigDecimal.ZERO;
+            tvQuantity.setText(formatQuantity(quantity));
         }
 
         @SuppressLint("SetTextI18n")
-        public void bind(FoodIngredientDto ingredient, OnIngredientInteractionListener listener) {
+        public void bind(FoodIngredientDto ingredient) {
             // Set ingredient name
             tvIngredientName.setText(ingredient.getIngredientName() != null
                     ? ingredient.getIngredientName() : "Unknown Ingredient");
 
             // Set quantity (check null)
-            BigDecimal quantity = ingredient.getQuantity() != null ? ingredient.getQuantity() : BigDecimal.ZERO;
-            tvQuantity.setText(formatQuantity(quantity));
+            bindQuantity(ingredient);
 
             // Set unit
             if (ingredient.getUnit() != null) {
@@ -94,104 +152,12 @@ public class IngredientsFoodAdapter extends RecyclerView.Adapter<IngredientsFood
             if (isInInventory) {
                 btnDecrease.setVisibility(View.VISIBLE);
                 btnIncrease.setVisibility(View.VISIBLE);
-                
-                // Setup decrease button
-                btnDecrease.setOnClickListener(v -> {
-                    BigDecimal currentQty = ingredient.getQuantity() != null ? ingredient.getQuantity() : BigDecimal.ZERO;
-                    BigDecimal newQty = currentQty.subtract(getStepSize(ingredient.getUnit()));
-                    if (newQty.compareTo(BigDecimal.ZERO) < 0) {
-                        newQty = BigDecimal.ZERO;
-                    }
-                    ingredient.setQuantity(newQty);
-                    tvQuantity.setText(formatQuantity(newQty));
-                    if (listener != null) {
-                        listener.onQuantityChanged(ingredient.getIngredientId(), newQty);
-                    }
-                });
-                
-                // Setup increase button
-                btnIncrease.setOnClickListener(v -> {
-                    BigDecimal currentQty = ingredient.getQuantity() != null ? ingredient.getQuantity() : BigDecimal.ZERO;
-                    BigDecimal newQty = currentQty.add(getStepSize(ingredient.getUnit()));
-                    ingredient.setQuantity(newQty);
-                    tvQuantity.setText(formatQuantity(newQty));
-                    if (listener != null) {
-                        listener.onQuantityChanged(ingredient.getIngredientId(), newQty);
-                    }
-                });
             } else {
                 btnDecrease.setVisibility(View.GONE);
                 btnIncrease.setVisibility(View.GONE);
             }
         }
 
-        /**
-         * Lấy bước nhảy phù hợp với đơn vị
-         */
-        private BigDecimal getStepSize(com.example.android_exam.data.models.enums.IngredientUnit unit) {
-            if (unit == null) {
-                return new BigDecimal("1");
-            }
-            
-            // Với đơn vị khối lượng nhỏ (Gram, Teaspoon, etc.) -> bước nhảy 0.1
-            // Với đơn vị lớn (Kilogram, Liter, etc.) -> bước nhảy 0.5
-            // Với đơn vị đếm (Piece, Slice, etc.) -> bước nhảy 1
-            switch (unit) {
-                // Weight Units - nhỏ
-                case GRAM:
-                case OUNCE:
-                // Volume Units - nhỏ
-                case MILLILITER:
-                case TEASPOON:
-                case TABLESPOON:
-                case FLUID_OUNCE:
-                // Small Quantity Units
-                case PINCH:
-                case DASH:
-                case DROP:
-                    return new BigDecimal("0.1");
-                
-                // Weight Units - lớn
-                case KILOGRAM:
-                case POUND:
-                // Volume Units - lớn
-                case LITER:
-                case CUP:
-                case PINT:
-                case QUART:
-                case GALLON:
-                    return new BigDecimal("0.5");
-                
-                // Countable Units
-                case PIECE:
-                case SLICE:
-                case CLOVE:
-                case HEAD:
-                case BUNCH:
-                case STALK:
-                case WEDGE:
-                case SHEET:
-                case POD:
-                // Container Units
-                case BOX:
-                case CAN:
-                case BOTTLE:
-                case PACKAGE:
-                case BAG:
-                case JAR:
-                case TUBE:
-                case CARTON:
-                // Other Units
-                case SERVING:
-                case PORTION:
-                case OTHER:
-                    return new BigDecimal("1");
-                
-                default:
-                    return new BigDecimal("0.1");
-            }
-        }
-
         /**
          * Format quantity để hiển thị đẹp (loại bỏ số 0 thừa)
          */
@@ -10,16 +10,22 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.android_exam.R;
 
-import java.util.ArrayList;
 import java.util.List;
 
-public class InstructionsAdapter extends RecyclerView.Adapter<InstructionsAdapter.InstructionViewHolder> {
-
-    private List<String> instructions = new ArrayList<>();
+public class InstructionsAdapter extends DiffListAdapter<IndexedItem<String>, InstructionsAdapter.InstructionViewHolder> {
 
     public void setInstructions(List<String> instructions) {
-        this.instructions = instructions != null ? instructions : new ArrayList<>();
-        notifyDataSetChanged();
+        submit(IndexedItem.wrap(instructions));
+    }
+
+    @Override
+    protected long getItemKey(@NonNull IndexedItem<String> item) {
+        return item.getIndex();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull IndexedItem<String> oldItem, @NonNull IndexedItem<String> newItem) {
+        return oldItem.sameValue(newItem);
     }
 
     @NonNull
@@ -32,13 +38,8 @@ public class InstructionsAdapter extends RecyclerView.Adapter<InstructionsAdapte
 
     @Override
     public void onBindViewHolder(@NonNull InstructionViewHolder holder, int position) {
-        String instruction = instructions.get(position);
-        holder.bind(instruction, position + 1);
-    }
-
-    @Override
-    public int getItemCount() {
-        return instructions.size();
+        IndexedItem<String> instruction = getItem(position);
+        holder.bind(instruction.getValue(), instruction.getNumber());
     }
 
     class InstructionViewHolder extends RecyclerView.ViewHolder {
@@ -10,16 +10,22 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.android_exam.R;
 
-import java.util.ArrayList;
 import java.util.List;
 
-public class TipsAdapter extends RecyclerView.Adapter<TipsAdapter.TipViewHolder> {
-
-    private List<String> tips = new ArrayList<>();
+public class TipsAdapter extends DiffListAdapter<IndexedItem<String>, TipsAdapter.TipViewHolder> {
 
     public void setTips(List<String> tips) {
-        this.tips = tips != null ? tips : new ArrayList<>();
-        notifyDataSetChanged();
+        submit(IndexedItem.wrap(tips));
+    }
+
+    @Override
+    protected long getItemKey(@NonNull IndexedItem<String> item) {
+        return item.getIndex();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull IndexedItem<String> oldItem, @NonNull IndexedItem<String> newItem) {
+        return oldItem.sameValue(newItem);
     }
 
     @NonNull
@@ -32,13 +38,8 @@ public class TipsAdapter extends RecyclerView.Adapter<TipsAdapter.TipViewHolder>
 
     @Override
     public void onBindViewHolder(@NonNull TipViewHolder holder, int position) {
-        String tip = tips.get(position);
-        holder.bind(tip, position + 1);
-    }
-
-    @Override
-    public int getItemCount() {
-        return tips.size();
+        IndexedItem<String> tip = getItem(position);
+        holder.bind(tip.getValue(), tip.getNumber());
     }
 
     class TipViewHolder extends RecyclerView.ViewHolder {
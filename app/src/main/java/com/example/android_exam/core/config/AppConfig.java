@@ -11,6 +11,75 @@ public class AppConfig {
     public static final String API_CONTENT_TYPE_JSON = "application/json";
     public static final String API_CONTENT_TYPE_IMAGE = "image/*";
 
+    // HTTP engine configuration (shared OkHttp client)
+    public static class Http {
+        public static final int MAX_IDLE_CONNECTIONS = 5;
+        public static final long KEEP_ALIVE_MINUTES = 5;
+        public static final int MAX_REQUESTS = 16;
+        public static final int MAX_REQUESTS_PER_HOST = 6;
+
+        // Small JSON calls
+        public static final int JSON_CONNECT_TIMEOUT_SECONDS = 10;
+        public static final int JSON_READ_TIMEOUT_SECONDS = API_TIMEOUT_SECONDS;
+        public static final int JSON_WRITE_TIMEOUT_SECONDS = 15;
+
+        // Multipart image uploads and AI detection
+        public static final int UPLOAD_CONNECT_TIMEOUT_SECONDS = 15;
+        public static final int UPLOAD_READ_TIMEOUT_SECONDS = 90;
+        public static final int UPLOAD_WRITE_TIMEOUT_SECONDS = 60;
+
+        // Response decoding: byte budget cho body thành công / lỗi
+        public static final long MAX_RESPONSE_BYTES = 8L * 1024 * 1024;
+        public static final long MAX_ERROR_RESPONSE_BYTES = 64L * 1024;
+
+        // Debug: log raw body cho một phần request (sampling)
+        public static final boolean DEBUG_LOG_RESPONSE_BODY = false;
+        public static final double DEBUG_BODY_SAMPLE_RATE = 0.1;
+        public static final long DEBUG_BODY_MAX_BYTES = 16L * 1024;
+
+        // HTTP disk cache (GET) và freshness theo endpoint
+        public static final String CACHE_DIR_NAME = "http_cache";
+        public static final long CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+        public static final int CACHE_FOOD_MAX_AGE_SECONDS = 300;
+        public static final int CACHE_INGREDIENT_MAX_AGE_SECONDS = 60;
+        public static final int CACHE_INGREDIENT_LIST_MAX_AGE_SECONDS = 30;
+        public static final int CACHE_AUTH_ME_MAX_AGE_SECONDS = 300;
+        public static final int CACHE_MAX_STALE_DAYS = 7;
+        public static final int DECODED_CACHE_MAX_ENTRIES = 64;
+
+        // Retry với exponential backoff + jitter
+        public static final int RETRY_MAX_ATTEMPTS = 3;
+        public static final long RETRY_BASE_DELAY_MS = 500;
+        public static final long RETRY_MAX_DELAY_MS = 8000;
+        public static final int UPLOAD_RETRY_MAX_ATTEMPTS = 2;
+        public static final long UPLOAD_RETRY_BASE_DELAY_MS = 1500;
+
+        // Circuit breaker theo host
+        public static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+        public static final long CIRCUIT_OPEN_MS = 30_000;
+
+        // Số mẫu timing giữ trong ring buffer của NetworkMetrics
+        public static final int METRICS_RING_CAPACITY = 512;
+
+        // RequestScheduler: số request VISIBLE_PREFETCH / BACKGROUND chạy đồng thời (tổng < MAX_REQUESTS_PER_HOST)
+        public static final int SCHEDULER_PREFETCH_MAX_CONCURRENT = 2;
+        public static final int SCHEDULER_BACKGROUND_MAX_CONCURRENT = 1;
+        // BACKGROUND chờ quá lâu thì được chạy cả khi đang có request INTERACTIVE
+        public static final long SCHEDULER_BACKGROUND_MAX_WAIT_MS = 10_000;
+
+        // Bulk-load kho nguyên liệu: số trang tải song song. Các trang chạy với VISIBLE_PREFETCH nên không
+        // vượt quá số slot RequestScheduler dành cho priority này
+        public static final int BULK_LOAD_MAX_PARALLEL_PAGES = SCHEDULER_PREFETCH_MAX_CONCURRENT;
+
+        // POST endpoints chỉ đọc dữ liệu, được phép gộp (single-flight) như GET
+        public static final String[] COALESCED_POST_ENDPOINTS = {
+                Endpoints.NUTRITION_DAILY,
+                Endpoints.NUTRITION_WEEKLY,
+                Endpoints.NUTRITION_OVERVIEW,
+                Endpoints.FOOD_SUGGESTIONS
+        };
+    }
+
     // API Endpoints
     public static class Endpoints {
         // Auth
@@ -52,6 +121,30 @@ public class AppConfig {
         public static final String HEALTH = "health";
     }
 
+    // Xử lý ảnh trước khi upload (cạnh dài tối đa theo px, chất lượng nén 0-100)
+    public static class Image {
+        public static final int AI_DETECTION_MAX_DIMENSION = 1024;
+        public static final int AI_DETECTION_QUALITY = 80;
+        public static final int UPLOAD_MAX_DIMENSION = 1600;
+        public static final int UPLOAD_QUALITY = 85;
+        // Thư mục con trong cacheDir cho ảnh đã nén (xoá sau khi request xong)
+        public static final String PROCESSED_DIR_NAME = "upload_images";
+        // Cache kết quả AI detection theo perceptual hash của ảnh
+        public static final String DETECTION_CACHE_DIR_NAME = "ai_detection_cache";
+        public static final int DETECTION_CACHE_MAX_ENTRIES = 200;
+        public static final long DETECTION_CACHE_TTL_MS = 7L * 24 * 60 * 60 * 1000;
+        // Số bit lệch tối đa của dHash để coi là cùng một ảnh
+        public static final int DETECTION_CACHE_MAX_HAMMING = 5;
+    }
+
+    // Upload ảnh: hàng đợi và tiến độ
+    public static class Upload {
+        // Số upload chạy song song trong UploadQueue
+        public static final int MAX_CONCURRENT_UPLOADS = 2;
+        // Khoảng cách tối thiểu giữa hai lần báo tiến độ
+        public static final long PROGRESS_MIN_INTERVAL_MS = 100;
+    }
+
     // Cache Configuration
     public static class Cache {
         public static final String PREF_NAME_FOOD = "FoodCache";
@@ -69,6 +162,10 @@ public class AppConfig {
     public static class UI {
         public static final int LOADING_DELAY_MS = 300;
         public static final int ANIMATION_DURATION_MS = 200;
+        // Deadline chung cho các phần của dashboard Home (overview, gợi ý, profile)
+        public static final long DASHBOARD_DEADLINE_MS = 8_000;
+        // Debounce ô tìm kiếm nguyên liệu
+        public static final long SEARCH_DEBOUNCE_MS = 150;
     }
 
     private AppConfig() {
@@ -0,0 +1,769 @@
+package com.example.android_exam.core.json;
+
+import com.example.android_exam.data.dto.food.FoodDataResponseDto;
+import com.example.android_exam.data.dto.food.FoodIngredientDto;
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
+import com.example.android_exam.data.dto.nutrition.DailyNutritionSummaryDto;
+import com.example.android_exam.data.dto.nutrition.FoodNutritionDto;
+import com.example.android_exam.data.dto.nutrition.NutritionDto;
+import com.example.android_exam.data.dto.nutrition.WeeklyNutritionSummaryDto;
+import com.example.android_exam.data.dto.response.ApiResponse;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+import com.example.android_exam.data.models.enums.IngredientUnit;
+import com.example.android_exam.data.models.enums.MealType;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TypeAdapter viết tay cho các DTO response lớn/hay dùng (ApiResponse, food, ingredient, nutrition).
+ * Đọc/ghi từng field trực tiếp trên JsonReader/JsonWriter qua switch theo tên field,
+ * không dùng reflection như ReflectiveTypeAdapterFactory của Gson.
+ * JSON đọc/ghi giữ nguyên như binding mặc định: null của field object được set null,
+ * null của field primitive giữ giá trị mặc định, field lạ bị bỏ qua.
+ * Khi thêm field vào các DTO này phải cập nhật adapter tương ứng (DtoTypeAdapterFactoryTest fail nếu quên).
+ */
+public class DtoTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        TypeAdapter<?> adapter;
+        if (raw == ApiResponse.class) {
+            adapter = new ApiResponseAdapter<>(gson, dataTypeOf(type.getType()));
+        } else if (raw == FoodDataResponseDto.class) {
+            adapter = new FoodDataAdapter(gson);
+        } else if (raw == FoodIngredientDto.class) {
+            adapter = new FoodIngredientAdapter(gson);
+        } else if (raw == IngredientDataResponseDto.class) {
+            adapter = new IngredientDataAdapter(gson);
+        } else if (raw == IngredientSearchResultDto.class) {
+            adapter = new IngredientSearchResultAdapter(gson);
+        } else if (raw == DailyNutritionSummaryDto.class) {
+            adapter = new DailyNutritionAdapter(gson);
+        } else if (raw == WeeklyNutritionSummaryDto.class) {
+            adapter = new WeeklyNutritionAdapter(gson);
+        } else if (raw == NutritionDto.class) {
+            adapter = new NutritionAdapter(gson);
+        } else if (raw == FoodNutritionDto.class) {
+            adapter = new FoodNutritionAdapter();
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) adapter.nullSafe();
+    }
+
+    private static Type dataTypeOf(Type apiResponseType) {
+        if (apiResponseType instanceof ParameterizedType) {
+            return ((ParameterizedType) apiResponseType).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    /**
+     * Khung chung: beginObject, switch theo tên field, endObject
+     */
+    abstract static class ObjectAdapter<T> extends TypeAdapter<T> {
+        abstract T newInstance();
+
+        /**
+         * @return false nếu không biết field này (sẽ bị skip)
+         */
+        abstract boolean readField(JsonReader in, String name, T target) throws IOException;
+
+        abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            T target = newInstance();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (!readField(in, name, target)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return target;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            out.beginObject();
+            writeFields(out, value);
+            out.endObject();
+        }
+    }
+
+    // region Helpers đọc giá trị (giống adapter mặc định của Gson)
+
+    static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    static BigDecimal readBigDecimal(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String value = in.nextString();
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException("Failed parsing '" + value + "' as BigDecimal; at path " + in.getPath(), e);
+        }
+    }
+
+    static Double readDouble(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextDouble();
+    }
+
+    static double readDouble(JsonReader in, double current) throws IOException {
+        Double value = readDouble(in);
+        return value != null ? value : current;
+    }
+
+    static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextInt();
+    }
+
+    static int readInt(JsonReader in, int current) throws IOException {
+        Integer value = readInteger(in);
+        return value != null ? value : current;
+    }
+
+    static boolean readBoolean(JsonReader in, boolean current) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    // endregion
+
+    static class ApiResponseAdapter<D> extends ObjectAdapter<ApiResponse<D>> {
+        private final TypeAdapter<D> dataAdapter;
+        private final TypeAdapter<Map<String, List<String>>> metadataAdapter;
+
+        @SuppressWarnings("unchecked")
+        ApiResponseAdapter(Gson gson, Type dataType) {
+            this.dataAdapter = (TypeAdapter<D>) gson.getAdapter(TypeToken.get(dataType));
+            this.metadataAdapter = gson.getAdapter(new TypeToken<Map<String, List<String>>>() {});
+        }
+
+        @Override
+        ApiResponse<D> newInstance() {
+            return new ApiResponse<>();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ApiResponse<D> target) throws IOException {
+            switch (name) {
+                case "success":
+                    target.setSuccess(readBoolean(in, target.isSuccess()));
+                    return true;
+                case "data":
+                    target.setData(dataAdapter.read(in));
+                    return true;
+                case "message":
+                    target.setMessage(readString(in));
+                    return true;
+                case "metadata":
+                    target.setMetadata(metadataAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ApiResponse<D> value) throws IOException {
+            out.name("success").value(value.isSuccess());
+            out.name("data");
+            dataAdapter.write(out, value.getData());
+            out.name("message").value(value.getMessage());
+            out.name("metadata");
+            metadataAdapter.write(out, value.getMetadata());
+        }
+    }
+
+    static class FoodDataAdapter extends ObjectAdapter<FoodDataResponseDto> {
+        private final TypeAdapter<List<String>> stringListAdapter;
+        private final TypeAdapter<List<FoodIngredientDto>> ingredientListAdapter;
+        private final TypeAdapter<MealType> mealTypeAdapter;
+
+        FoodDataAdapter(Gson gson) {
+            this.stringListAdapter = gson.getAdapter(new TypeToken<List<String>>() {});
+            this.ingredientListAdapter = gson.getAdapter(new TypeToken<List<FoodIngredientDto>>() {});
+            this.mealTypeAdapter = gson.getAdapter(MealType.class);
+        }
+
+        @Override
+        FoodDataResponseDto newInstance() {
+            return new FoodDataResponseDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, FoodDataResponseDto target) throws IOException {
+            switch (name) {
+                case "id":
+                    target.setId(readInt(in, target.getId()));
+                    return true;
+                case "name":
+                    target.setName(readString(in));
+                    return true;
+                case "description":
+                    target.setDescription(readString(in));
+                    return true;
+                case "imageUrl":
+                    target.setImageUrl(readString(in));
+                    return true;
+                case "preparationTimeMinutes":
+                    target.setPreparationTimeMinutes(readInt(in, target.getPreparationTimeMinutes()));
+                    return true;
+                case "cookingTimeMinutes":
+                    target.setCookingTimeMinutes(readInt(in, target.getCookingTimeMinutes()));
+                    return true;
+                case "calories":
+                    target.setCalories(readBigDecimal(in));
+                    return true;
+                case "protein":
+                    target.setProtein(readBigDecimal(in));
+                    return true;
+                case "carbohydrates":
+                    target.setCarbohydrates(readBigDecimal(in));
+                    return true;
+                case "fat":
+                    target.setFat(readBigDecimal(in));
+                    return true;
+                case "fiber":
+                    target.setFiber(readBigDecimal(in));
+                    return true;
+                case "instructions":
+                    target.setInstructions(stringListAdapter.read(in));
+                    return true;
+                case "tips":
+                    target.setTips(stringListAdapter.read(in));
+                    return true;
+                case "difficultyLevel":
+                    target.setDifficultyLevel(readInt(in, target.getDifficultyLevel()));
+                    return true;
+                case "mealType":
+                    target.setMealType(mealTypeAdapter.read(in));
+                    return true;
+                case "mealDate":
+                    target.setMealDate(readString(in));
+                    return true;
+                case "consumedAt":
+                    target.setConsumedAt(readString(in));
+                    return true;
+                case "ingredients":
+                    target.setIngredients(ingredientListAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, FoodDataResponseDto value) throws IOException {
+            out.name("id").value(value.getId());
+            out.name("name").value(value.getName());
+            out.name("description").value(value.getDescription());
+            out.name("imageUrl").value(value.getImageUrl());
+            out.name("preparationTimeMinutes").value(value.getPreparationTimeMinutes());
+            out.name("cookingTimeMinutes").value(value.getCookingTimeMinutes());
+            out.name("calories").value(value.getCalories());
+            out.name("protein").value(value.getProtein());
+            out.name("carbohydrates").value(value.getCarbohydrates());
+            out.name("fat").value(value.getFat());
+            out.name("fiber").value(value.getFiber());
+            out.name("instructions");
+            stringListAdapter.write(out, value.getInstructions());
+            out.name("tips");
+            stringListAdapter.write(out, value.getTips());
+            out.name("difficultyLevel").value(value.getDifficultyLevel());
+            out.name("mealType");
+            mealTypeAdapter.write(out, value.getMealType());
+            out.name("mealDate").value(value.getMealDate());
+            out.name("consumedAt").value(value.getConsumedAt());
+            out.name("ingredients");
+            ingredientListAdapter.write(out, value.getIngredients());
+        }
+    }
+
+    static class FoodIngredientAdapter extends ObjectAdapter<FoodIngredientDto> {
+        private final TypeAdapter<IngredientUnit> unitAdapter;
+
+        FoodIngredientAdapter(Gson gson) {
+            this.unitAdapter = gson.getAdapter(IngredientUnit.class);
+        }
+
+        @Override
+        FoodIngredientDto newInstance() {
+            return new FoodIngredientDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, FoodIngredientDto target) throws IOException {
+            switch (name) {
+                case "ingredientId":
+                    target.setIngredientId(readInteger(in));
+                    return true;
+                case "quantity":
+                    target.setQuantity(readBigDecimal(in));
+                    return true;
+                case "unit":
+                    target.setUnit(unitAdapter.read(in));
+                    return true;
+                case "ingredientName":
+                    target.setIngredientName(readString(in));
+                    return true;
+                case "remainingQuantity":
+                    target.setRemainingQuantity(readBigDecimal(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, FoodIngredientDto value) throws IOException {
+            out.name("ingredientId").value(value.getIngredientId());
+            out.name("quantity").value(value.getQuantity());
+            out.name("unit");
+            unitAdapter.write(out, value.getUnit());
+            out.name("ingredientName").value(value.getIngredientName());
+            out.name("remainingQuantity").value(value.getRemainingQuantity());
+        }
+    }
+
+    static class IngredientDataAdapter extends ObjectAdapter<IngredientDataResponseDto> {
+        private final TypeAdapter<IngredientUnit> unitAdapter;
+        private final TypeAdapter<IngredientCategory> categoryAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+
+        IngredientDataAdapter(Gson gson) {
+            this.unitAdapter = gson.getAdapter(IngredientUnit.class);
+            this.categoryAdapter = gson.getAdapter(IngredientCategory.class);
+            this.dateAdapter = gson.getAdapter(Date.class);
+        }
+
+        @Override
+        IngredientDataResponseDto newInstance() {
+            return new IngredientDataResponseDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, IngredientDataResponseDto target) throws IOException {
+            switch (name) {
+                case "id":
+                    target.setId(readInt(in, target.getId()));
+                    return true;
+                case "name":
+                    target.setName(readString(in));
+                    return true;
+                case "description":
+                    target.setDescription(readString(in));
+                    return true;
+                case "quantity":
+                    target.setQuantity(readBigDecimal(in));
+                    return true;
+                case "unit":
+                    target.setUnit(unitAdapter.read(in));
+                    return true;
+                case "category":
+                    target.setCategory(categoryAdapter.read(in));
+                    return true;
+                case "expiryDate":
+                    target.setExpiryDate(dateAdapter.read(in));
+                    return true;
+                case "imageUrl":
+                    target.setImageUrl(readString(in));
+                    return true;
+                case "updatedAt":
+                    target.setUpdatedAt(dateAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, IngredientDataResponseDto value) throws IOException {
+            out.name("id").value(value.getId());
+            out.name("name").value(value.getName());
+            out.name("description").value(value.getDescription());
+            out.name("quantity").value(value.getQuantity());
+            out.name("unit");
+            unitAdapter.write(out, value.getUnit());
+            out.name("category");
+            categoryAdapter.write(out, value.getCategory());
+            out.name("expiryDate");
+            dateAdapter.write(out, value.getExpiryDate());
+            out.name("imageUrl").value(value.getImageUrl());
+            out.name("updatedAt");
+            dateAdapter.write(out, value.getUpdatedAt());
+        }
+    }
+
+    static class IngredientSearchResultAdapter extends ObjectAdapter<IngredientSearchResultDto> {
+        private final TypeAdapter<List<IngredientDataResponseDto>> listAdapter;
+        private final TypeAdapter<List<Integer>> idListAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+
+        IngredientSearchResultAdapter(Gson gson) {
+            this.listAdapter = gson.getAdapter(new TypeToken<List<IngredientDataResponseDto>>() {});
+            this.idListAdapter = gson.getAdapter(new TypeToken<List<Integer>>() {});
+            this.dateAdapter = gson.getAdapter(Date.class);
+        }
+
+        @Override
+        IngredientSearchResultDto newInstance() {
+            return new IngredientSearchResultDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, IngredientSearchResultDto target) throws IOException {
+            switch (name) {
+                case "ingredients":
+                    target.setIngredients(listAdapter.read(in));
+                    return true;
+                case "totalCount":
+                    target.setTotalCount(readInt(in, target.getTotalCount()));
+                    return true;
+                case "deletedIds":
+                    target.setDeletedIds(idListAdapter.read(in));
+                    return true;
+                case "serverTime":
+                    target.setServerTime(dateAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, IngredientSearchResultDto value) throws IOException {
+            out.name("ingredients");
+            listAdapter.write(out, value.getIngredients());
+            out.name("totalCount").value(value.getTotalCount());
+            if (value.isDelta()) {
+                out.name("deletedIds");
+                idListAdapter.write(out, value.getDeletedIds());
+                out.name("serverTime");
+                dateAdapter.write(out, value.getServerTime());
+            }
+        }
+    }
+
+    static class DailyNutritionAdapter extends ObjectAdapter<DailyNutritionSummaryDto> {
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<List<NutritionDto>> mealListAdapter;
+
+        DailyNutritionAdapter(Gson gson) {
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.mealListAdapter = gson.getAdapter(new TypeToken<List<NutritionDto>>() {});
+        }
+
+        @Override
+        DailyNutritionSummaryDto newInstance() {
+            return new DailyNutritionSummaryDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, DailyNutritionSummaryDto target) throws IOException {
+            switch (name) {
+                case "date":
+                    target.setDate(dateAdapter.read(in));
+                    return true;
+                case "totalCalories":
+                    target.setTotalCalories(readDouble(in, target.getTotalCalories()));
+                    return true;
+                case "totalProtein":
+                    target.setTotalProtein(readDouble(in, target.getTotalProtein()));
+                    return true;
+                case "totalCarbs":
+                    target.setTotalCarbs(readDouble(in, target.getTotalCarbs()));
+                    return true;
+                case "totalFat":
+                    target.setTotalFat(readDouble(in, target.getTotalFat()));
+                    return true;
+                case "totalFiber":
+                    target.setTotalFiber(readDouble(in, target.getTotalFiber()));
+                    return true;
+                case "targetCalories":
+                    target.setTargetCalories(readDouble(in));
+                    return true;
+                case "targetProtein":
+                    target.setTargetProtein(readDouble(in));
+                    return true;
+                case "targetCarbs":
+                    target.setTargetCarbs(readDouble(in));
+                    return true;
+                case "targetFat":
+                    target.setTargetFat(readDouble(in));
+                    return true;
+                case "targetFiber":
+                    target.setTargetFiber(readDouble(in));
+                    return true;
+                case "mealBreakdown":
+                    target.setMealBreakdown(mealListAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, DailyNutritionSummaryDto value) throws IOException {
+            out.name("date");
+            dateAdapter.write(out, value.getDate());
+            out.name("totalCalories").value(value.getTotalCalories());
+            out.name("totalProtein").value(value.getTotalProtein());
+            out.name("totalCarbs").value(value.getTotalCarbs());
+            out.name("totalFat").value(value.getTotalFat());
+            out.name("totalFiber").value(value.getTotalFiber());
+            out.name("targetCalories").value(value.getTargetCalories());
+            out.name("targetProtein").value(value.getTargetProtein());
+            out.name("targetCarbs").value(value.getTargetCarbs());
+            out.name("targetFat").value(value.getTargetFat());
+            out.name("targetFiber").value(value.getTargetFiber());
+            out.name("mealBreakdown");
+            mealListAdapter.write(out, value.getMealBreakdown());
+        }
+    }
+
+    static class WeeklyNutritionAdapter extends ObjectAdapter<WeeklyNutritionSummaryDto> {
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<List<DailyNutritionSummaryDto>> dailyListAdapter;
+
+        WeeklyNutritionAdapter(Gson gson) {
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.dailyListAdapter = gson.getAdapter(new TypeToken<List<DailyNutritionSummaryDto>>() {});
+        }
+
+        @Override
+        WeeklyNutritionSummaryDto newInstance() {
+            return new WeeklyNutritionSummaryDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, WeeklyNutritionSummaryDto target) throws IOException {
+            switch (name) {
+                case "weekStart":
+                    target.setWeekStart(dateAdapter.read(in));
+                    return true;
+                case "weekEnd":
+                    target.setWeekEnd(dateAdapter.read(in));
+                    return true;
+                case "averageCalories":
+                    target.setAverageCalories(readDouble(in, target.getAverageCalories()));
+                    return true;
+                case "averageProtein":
+                    target.setAverageProtein(readDouble(in, target.getAverageProtein()));
+                    return true;
+                case "averageCarbs":
+                    target.setAverageCarbs(readDouble(in, target.getAverageCarbs()));
+                    return true;
+                case "averageFat":
+                    target.setAverageFat(readDouble(in, target.getAverageFat()));
+                    return true;
+                case "averageFiber":
+                    target.setAverageFiber(readDouble(in, target.getAverageFiber()));
+                    return true;
+                case "targetCalories":
+                    target.setTargetCalories(readDouble(in));
+                    return true;
+                case "targetProtein":
+                    target.setTargetProtein(readDouble(in));
+                    return true;
+                case "targetCarbs":
+                    target.setTargetCarbs(readDouble(in));
+                    return true;
+                case "targetFat":
+                    target.setTargetFat(readDouble(in));
+                    return true;
+                case "targetFiber":
+                    target.setTargetFiber(readDouble(in));
+                    return true;
+                case "dailyBreakdown":
+                    target.setDailyBreakdown(dailyListAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, WeeklyNutritionSummaryDto value) throws IOException {
+            out.name("weekStart");
+            dateAdapter.write(out, value.getWeekStart());
+            out.name("weekEnd");
+            dateAdapter.write(out, value.getWeekEnd());
+            out.name("averageCalories").value(value.getAverageCalories());
+            out.name("averageProtein").value(value.getAverageProtein());
+            out.name("averageCarbs").value(value.getAverageCarbs());
+            out.name("averageFat").value(value.getAverageFat());
+            out.name("averageFiber").value(value.getAverageFiber());
+            out.name("targetCalories").value(value.getTargetCalories());
+            out.name("targetProtein").value(value.getTargetProtein());
+            out.name("targetCarbs").value(value.getTargetCarbs());
+            out.name("targetFat").value(value.getTargetFat());
+            out.name("targetFiber").value(value.getTargetFiber());
+            out.name("dailyBreakdown");
+            dailyListAdapter.write(out, value.getDailyBreakdown());
+        }
+    }
+
+    static class NutritionAdapter extends ObjectAdapter<NutritionDto> {
+        private final TypeAdapter<MealType> mealTypeAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<List<FoodNutritionDto>> foodListAdapter;
+
+        NutritionAdapter(Gson gson) {
+            this.mealTypeAdapter = gson.getAdapter(MealType.class);
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.foodListAdapter = gson.getAdapter(new TypeToken<List<FoodNutritionDto>>() {});
+        }
+
+        @Override
+        NutritionDto newInstance() {
+            return new NutritionDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, NutritionDto target) throws IOException {
+            switch (name) {
+                case "mealId":
+                    target.setMealId(readInt(in, target.getMealId()));
+                    return true;
+                case "mealType":
+                    target.setMealType(mealTypeAdapter.read(in));
+                    return true;
+                case "mealDate":
+                    target.setMealDate(dateAdapter.read(in));
+                    return true;
+                case "totalCalories":
+                    target.setTotalCalories(readDouble(in, target.getTotalCalories()));
+                    return true;
+                case "totalProtein":
+                    target.setTotalProtein(readDouble(in, target.getTotalProtein()));
+                    return true;
+                case "totalCarbs":
+                    target.setTotalCarbs(readDouble(in, target.getTotalCarbs()));
+                    return true;
+                case "totalFat":
+                    target.setTotalFat(readDouble(in, target.getTotalFat()));
+                    return true;
+                case "totalFiber":
+                    target.setTotalFiber(readDouble(in, target.getTotalFiber()));
+                    return true;
+                case "foods":
+                    target.setFoods(foodListAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, NutritionDto value) throws IOException {
+            out.name("mealId").value(value.getMealId());
+            out.name("mealType");
+            mealTypeAdapter.write(out, value.getMealType());
+            out.name("mealDate");
+            dateAdapter.write(out, value.getMealDate());
+            out.name("totalCalories").value(value.getTotalCalories());
+            out.name("totalProtein").value(value.getTotalProtein());
+            out.name("totalCarbs").value(value.getTotalCarbs());
+            out.name("totalFat").value(value.getTotalFat());
+            out.name("totalFiber").value(value.getTotalFiber());
+            out.name("foods");
+            foodListAdapter.write(out, value.getFoods());
+        }
+    }
+
+    static class FoodNutritionAdapter extends ObjectAdapter<FoodNutritionDto> {
+        @Override
+        FoodNutritionDto newInstance() {
+            return new FoodNutritionDto();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, FoodNutritionDto target) throws IOException {
+            switch (name) {
+                case "foodId":
+                    target.setFoodId(readInt(in, target.getFoodId()));
+                    return true;
+                case "foodName":
+                    target.setFoodName(readString(in));
+                    return true;
+                case "calories":
+                    target.setCalories(readBigDecimal(in));
+                    return true;
+                case "protein":
+                    target.setProtein(readBigDecimal(in));
+                    return true;
+                case "carbs":
+                    target.setCarbs(readBigDecimal(in));
+                    return true;
+                case "fat":
+                    target.setFat(readBigDecimal(in));
+                    return true;
+                case "fiber":
+                    target.setFiber(readBigDecimal(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        void writeFields(JsonWriter out, FoodNutritionDto value) throws IOException {
+            out.name("foodId").value(value.getFoodId());
+            out.name("foodName").value(value.getFoodName());
+            out.name("calories").value(value.getCalories());
+            out.name("protein").value(value.getProtein());
+            out.name("carbs").value(value.getCarbs());
+            out.name("fat").value(value.getFat());
+            out.name("fiber").value(value.getFiber());
+        }
+    }
+}
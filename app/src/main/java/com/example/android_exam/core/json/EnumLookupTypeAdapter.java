@@ -0,0 +1,109 @@
+package com.example.android_exam.core.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Streaming TypeAdapter cho enum, đọc qua bảng lookup dựng sẵn một lần thay vì JsonDeserializer (tree model).
+ * - String: tra theo @SerializedName, name() và dạng lowercase; alias khác (ví dụ "kg") gọi fromString
+ *   một lần rồi được nhớ lại. Chỉ nhớ alias map ra enum thật (không nhớ chuỗi lạ rơi về fallback)
+ *   và tối đa MAX_ALIASES chuỗi, vì input đến từ server
+ * - Number: tra theo mã int (backward compatibility)
+ * - Ghi ra @SerializedName giống Gson mặc định
+ */
+public class EnumLookupTypeAdapter<E extends Enum<E>> extends TypeAdapter<E> {
+    private static final int MAX_ALIASES = 64;
+
+    private final Map<String, E> byName = new HashMap<>();
+    private final Map<String, E> aliases = new ConcurrentHashMap<>();
+    private final Map<Integer, E> byCode = new HashMap<>();
+    private final Map<E, String> serializedNames = new HashMap<>();
+    private final Function<String, E> fromString;
+    private final IntFunction<E> fromInt;
+    private final E fallback;
+
+    public EnumLookupTypeAdapter(Class<E> enumClass, Function<String, E> fromString,
+                                 ToIntFunction<E> toInt, IntFunction<E> fromInt, E fallback) {
+        this.fromString = fromString;
+        this.fromInt = fromInt;
+        this.fallback = fallback;
+        for (E constant : enumClass.getEnumConstants()) {
+            String serializedName = serializedNameOf(enumClass, constant);
+            serializedNames.put(constant, serializedName);
+            byName.put(serializedName, constant);
+            byName.put(serializedName.toLowerCase(), constant);
+            byName.putIfAbsent(constant.name(), constant);
+            byCode.put(toInt.applyAsInt(constant), constant);
+        }
+    }
+
+    // Chỉ đọc annotation một lần khi dựng bảng
+    private static <E extends Enum<E>> String serializedNameOf(Class<E> enumClass, E constant) {
+        try {
+            Field field = enumClass.getField(constant.name());
+            SerializedName annotation = field.getAnnotation(SerializedName.class);
+            return annotation != null ? annotation.value() : constant.name();
+        } catch (NoSuchFieldException e) {
+            return constant.name();
+        }
+    }
+
+    @Override
+    public void write(JsonWriter out, E value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(serializedNames.get(value));
+    }
+
+    @Override
+    public E read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        switch (token) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case NUMBER: {
+                int code = in.nextInt();
+                E constant = byCode.get(code);
+                return constant != null ? constant : fromInt.apply(code);
+            }
+            case STRING:
+                return lookup(in.nextString());
+            default:
+                in.skipValue();
+                return fallback;
+        }
+    }
+
+    private E lookup(String value) {
+        E constant = byName.get(value);
+        if (constant != null) {
+            return constant;
+        }
+        constant = aliases.get(value);
+        if (constant == null) {
+            constant = fromString.apply(value);
+            if (constant == null) {
+                return fallback;
+            }
+            if (constant != fallback && aliases.size() < MAX_ALIASES) {
+                aliases.put(value, constant);
+            }
+        }
+        return constant;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.android_exam.core.json;
+
+import com.example.android_exam.core.datetime.DateTimeTypeAdapter;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+import com.example.android_exam.data.models.enums.IngredientUnit;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.Date;
+
+/**
+ * Gson dùng chung cho toàn app (API client, cache local...).
+ * Gson thread-safe và cache adapter theo type, nên tạo một lần và dùng lại.
+ */
+public final class GsonProvider {
+    private static volatile Gson gson;
+
+    private GsonProvider() {
+    }
+
+    public static Gson getGson() {
+        Gson local = gson;
+        if (local == null) {
+            synchronized (GsonProvider.class) {
+                local = gson;
+                if (local == null) {
+                    local = create();
+                    gson = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private static Gson create() {
+        return baseBuilder()
+                .registerTypeAdapterFactory(new DtoTypeAdapterFactory())
+                .create();
+    }
+
+    /**
+     * Adapter cho enum / Date, chưa có DtoTypeAdapterFactory (DTO đi qua reflection) - test dùng làm chuẩn so sánh
+     */
+    static GsonBuilder baseBuilder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(IngredientCategory.class, new EnumLookupTypeAdapter<>(
+                        IngredientCategory.class,
+                        IngredientCategory::fromString,
+                        IngredientCategory::toInt,
+                        IngredientCategory::fromInt,
+                        IngredientCategory.OTHER).nullSafe())
+                .registerTypeAdapter(IngredientUnit.class, new EnumLookupTypeAdapter<>(
+                        IngredientUnit.class,
+                        IngredientUnit::fromString,
+                        IngredientUnit::toInt,
+                        IngredientUnit::fromInt,
+                        IngredientUnit.OTHER).nullSafe())
+                .registerTypeAdapter(Date.class, new DateTimeTypeAdapter());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.android_exam.core.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index tìm kiếm trong bộ nhớ theo id, text được chuẩn hoá bằng TextNormalizer.
+ * - Query 1-2 ký tự: index tiền tố của từng từ ("ca" khớp "cà chua", "bắp cải").
+ * - Query từ 3 ký tự: index trigram, giao các posting list rồi kiểm tra lại bằng contains.
+ * - Query dài thêm từ query trước (gõ tiếp): chỉ lọc lại kết quả trước, không tra index.
+ * Không thread-safe: caller phải truy cập từ một thread (IngredientViewModel dùng một executor riêng).
+ */
+public class SearchIndex {
+    private static final int GRAM = 3;
+
+    private final Map<Integer, String> textById = new HashMap<>();
+    private final Map<String, Set<Integer>> trigrams = new HashMap<>();
+    private final Map<String, Set<Integer>> wordPrefixes = new HashMap<>();
+
+    // Kết quả query trước để thu hẹp khi gõ tiếp
+    private String lastQuery;
+    private Set<Integer> lastResult;
+
+    public interface Cancellation {
+        boolean isCanceled();
+    }
+
+    public void put(int id, String text) {
+        remove(id);
+        String normalized = TextNormalizer.normalize(text);
+        textById.put(id, normalized);
+        for (String gram : grams(normalized)) {
+            trigrams.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+        }
+        for (String prefix : prefixes(normalized)) {
+            wordPrefixes.computeIfAbsent(prefix, k -> new HashSet<>()).add(id);
+        }
+        invalidateLast();
+    }
+
+    public void remove(int id) {
+        String previous = textById.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            removePosting(trigrams, gram, id);
+        }
+        for (String prefix : prefixes(previous)) {
+            removePosting(wordPrefixes, prefix, id);
+        }
+        invalidateLast();
+    }
+
+    public void clear() {
+        textById.clear();
+        trigrams.clear();
+        wordPrefixes.clear();
+        invalidateLast();
+    }
+
+    public int size() {
+        return textById.size();
+    }
+
+    /**
+     * Id khớp query (đã/không chuẩn hoá đều được), null nếu bị huỷ giữa chừng
+     */
+    public Set<Integer> search(String query, Cancellation cancellation) {
+        String q = TextNormalizer.normalize(query);
+        if (q.isEmpty()) {
+            return new HashSet<>(textById.keySet());
+        }
+
+        Set<Integer> candidates;
+        boolean needsVerify;
+        if (canNarrow(q)) {
+            // Gõ thêm ký tự: kết quả mới là tập con của kết quả trước
+            candidates = lastResult;
+            needsVerify = !q.equals(lastQuery);
+        } else if (q.length() < GRAM) {
+            Set<Integer> posting = wordPrefixes.get(q);
+            candidates = posting != null ? posting : Collections.emptySet();
+            needsVerify = false;
+        } else {
+            candidates = intersectGrams(q);
+            needsVerify = true;
+        }
+
+        Set<Integer> result = new HashSet<>();
+        int checked = 0;
+        for (Integer id : candidates) {
+            if ((++checked & 255) == 0 && cancellation != null && cancellation.isCanceled()) {
+                return null;
+            }
+            if (!needsVerify || matches(textById.get(id), q)) {
+                result.add(id);
+            }
+        }
+        lastQuery = q;
+        lastResult = result;
+        return result;
+    }
+
+    /**
+     * Chỉ thu hẹp được khi hai query cùng kiểu khớp: cùng tiền tố từ (ngắn) hoặc cùng substring (trigram)
+     */
+    private boolean canNarrow(String q) {
+        if (lastQuery == null) {
+            return false;
+        }
+        if (q.length() < GRAM) {
+            return lastQuery.length() < GRAM && q.startsWith(lastQuery);
+        }
+        return lastQuery.length() >= GRAM && q.contains(lastQuery);
+    }
+
+    private boolean matches(String text, String q) {
+        if (text == null) {
+            return false;
+        }
+        if (q.length() < GRAM) {
+            return text.startsWith(q) || text.contains(" " + q);
+        }
+        return text.contains(q);
+    }
+
+    private Set<Integer> intersectGrams(String q) {
+        List<Set<Integer>> postings = new ArrayList<>();
+        for (String gram : grams(q)) {
+            Set<Integer> posting = trigrams.get(gram);
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            postings.add(posting);
+        }
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<Integer> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private void invalidateLast() {
+        lastQuery = null;
+        lastResult = null;
+    }
+
+    private static void removePosting(Map<String, Set<Integer>> index, String key, int id) {
+        Set<Integer> posting = index.get(key);
+        if (posting != null) {
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Tiền tố 1 và 2 ký tự của từng từ
+     */
+    private static Set<String> prefixes(String text) {
+        Set<String> prefixes = new HashSet<>();
+        for (String word : text.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            prefixes.add(word.substring(0, 1));
+            if (word.length() >= 2) {
+                prefixes.add(word.substring(0, 2));
+            }
+        }
+        return prefixes;
+    }
+}
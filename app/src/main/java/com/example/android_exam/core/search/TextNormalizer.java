@@ -0,0 +1,42 @@
+package com.example.android_exam.core.search;
+
+import java.text.Normalizer;
+
+/**
+ * Chuẩn hoá text cho tìm kiếm: chữ thường, bỏ dấu tiếng Việt (kể cả đ → d), gộp khoảng trắng.
+ * "Thịt Bò  Úc" → "thit bo uc"
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                out.append('d');
+            } else {
+                out.append(Character.toLowerCase(c));
+            }
+        }
+        return out.toString();
+    }
+}
@@ -4,6 +4,8 @@ import com.example.android_exam.core.config.AppConfig;
 import com.example.android_exam.data.dto.food.FoodAnalysticResponseDto;
 import com.example.android_exam.data.dto.ingredient.IngredientAnalysticResponseDto;
 import com.example.android_exam.data.dto.response.ApiResponse;
+import com.example.android_exam.module.image.ImagePreprocessor;
+import com.example.android_exam.module.image.ImageSource;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.File;
@@ -16,33 +18,81 @@ public class AiClient extends BaseApiClient {
      * Gọi API để phát hiện món ăn từ ảnh
      * Endpoint: POST api/ai/detect-food (multipart)
      */
-    public void detectFood(File imageFile, ResponseCallback<ApiResponse<FoodAnalysticResponseDto>> callback) {
-        Map<String, String> formFields = Collections.emptyMap();
-        postMultipart(
-                AppConfig.Endpoints.AI_DETECT_FOOD,
-                formFields,
-                imageFile,
-                "Image",
-                new TypeToken<ApiResponse<FoodAnalysticResponseDto>>() {},
-                callback
-        );
+    public ApiCall detectFood(File imageFile, ResponseCallback<ApiResponse<FoodAnalysticResponseDto>> callback) {
+        return detectFood(imageFile != null ? ImageSource.of(imageFile) : null, callback);
+    }
+
+    public ApiCall detectFood(ImageSource image, ResponseCallback<ApiResponse<FoodAnalysticResponseDto>> callback) {
+        return detectCached(AppConfig.Endpoints.AI_DETECT_FOOD, image,
+                new TypeToken<ApiResponse<FoodAnalysticResponseDto>>() {}, callback);
     }
 
     /**
      * Gọi API để phân tích nguyên liệu từ ảnh
      * Endpoint: POST api/ai/detect-ingredient (multipart)
      */
-    public void detectIngredient(File imageFile, ResponseCallback<ApiResponse<IngredientAnalysticResponseDto>> callback) {
-        Map<String, String> formFields = Collections.emptyMap();
-        postMultipart(
-                AppConfig.Endpoints.AI_DETECT_INGREDIENT,
-                formFields,
-                imageFile,
-                "Image",
-                new TypeToken<ApiResponse<IngredientAnalysticResponseDto>>() {},
-                callback
-        );
+    public ApiCall detectIngredient(File imageFile, ResponseCallback<ApiResponse<IngredientAnalysticResponseDto>> callback) {
+        return detectIngredient(imageFile != null ? ImageSource.of(imageFile) : null, callback);
     }
 
+    public ApiCall detectIngredient(ImageSource image, ResponseCallback<ApiResponse<IngredientAnalysticResponseDto>> callback) {
+        return detectCached(AppConfig.Endpoints.AI_DETECT_INGREDIENT, image,
+                new TypeToken<ApiResponse<IngredientAnalysticResponseDto>>() {}, callback);
+    }
 
+    /**
+     * Thống kê cache kết quả detection (hit rate)
+     */
+    public static DetectionCache.Stats getDetectionCacheStats() {
+        return DetectionCache.getInstance().getStats();
+    }
+
+    /**
+     * Tra cache theo perceptual hash trước; ảnh gần giống ảnh đã detect thì trả kết quả cũ ngay,
+     * ngược lại gọi server và lưu kết quả có data vào cache
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ApiCall detectCached(String endpoint, ImageSource image, TypeToken<ApiResponse<T>> responseType,
+                                     ResponseCallback<ApiResponse<T>> callback) {
+        Map<String, String> formFields = Collections.emptyMap();
+        if (image == null) {
+            return postMultipart(endpoint, formFields, (File) null, "Image", responseType, callback);
+        }
+        ApiCall handle = new ApiCall();
+        ResponseCallback<ApiResponse<T>> guarded = handle.guard(callback);
+        DetectionCache cache = DetectionCache.getInstance();
+        cache.lookup(image, endpoint, responseType.getType(), (hash, cached) -> {
+            if (handle.isCanceled()) {
+                return;
+            }
+            if (cached != null) {
+                // Cache hit cũng trả trên thread OkHttp như response từ server
+                HttpEngine.getInstance().callbackExecutor()
+                        .execute(() -> guarded.onSuccess((ApiResponse<T>) cached));
+                return;
+            }
+            handle.follow(postMultipart(endpoint, formFields, image, "Image",
+                    ImagePreprocessor.Target.AI_DETECTION, RequestPriority.INTERACTIVE, responseType, new ResponseCallback<ApiResponse<T>>() {
+                        @Override
+                        public void onSuccess(ApiResponse<T> result) {
+                            if (hash != null && result != null && result.getData() != null) {
+                                // Serialize trước khi trả kết quả: UI có thể sửa object trong lúc cache đang ghi file
+                                cache.store(endpoint, hash, gson.toJsonTree(result, responseType.getType()));
+                            }
+                            guarded.onSuccess(result);
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            guarded.onError(error);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            guarded.onFailure(throwable);
+                        }
+                    }));
+        });
+        return handle;
+    }
 }
@@ -0,0 +1,206 @@
+package com.example.android_exam.data.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Call;
+
+/**
+ * Handle cho một request của BaseApiClient.
+ * - cancel(): huỷ OkHttp call (trước khi đọc body nếu còn kịp) và không gửi callback nữa.
+ * - detach(): chỉ bỏ callback, request vẫn chạy tới server (dùng cho request thay đổi dữ liệu).
+ * - onProgress(): tiến độ ghi request body cho các request upload ảnh.
+ * Handle được gắn owner bởi ApiCallGroup để biết request thuộc màn hình nào.
+ */
+public class ApiCall {
+    private volatile boolean canceled;
+    private volatile boolean detached;
+    private volatile boolean finished;
+    private volatile Call call;
+    private volatile String owner;
+    private volatile ProgressListener progressListener;
+
+    private final List<Runnable> cancelActions = new ArrayList<>();
+    private final List<Runnable> finishActions = new ArrayList<>();
+
+    public interface ProgressListener {
+        /**
+         * Chạy trên thread OkHttp đang ghi request body (không phải main thread)
+         *
+         * @param percent 0..100
+         */
+        void onProgress(int percent);
+    }
+
+    /**
+     * Handle cho kết quả đã có sẵn (cache hit, lỗi validate...) - không có gì để huỷ
+     */
+    public static ApiCall completed() {
+        ApiCall call = new ApiCall();
+        call.finished = true;
+        return call;
+    }
+
+    public void cancel() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (canceled) {
+                return;
+            }
+            canceled = true;
+            actions = new ArrayList<>(cancelActions);
+            cancelActions.clear();
+        }
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+        markFinished();
+    }
+
+    /**
+     * Bỏ callback nhưng để request chạy tiếp
+     */
+    public void detach() {
+        detached = true;
+        markFinished();
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Còn cần gửi kết quả cho caller hay không
+     */
+    public boolean isActive() {
+        return !canceled && !detached;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Nhận tiến độ upload (chỉ request multipart kèm ảnh mới báo)
+     */
+    public ApiCall onProgress(ProgressListener listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    void reportProgress(int percent) {
+        ProgressListener listener = progressListener;
+        if (listener != null && isActive() && !finished) {
+            listener.onProgress(percent);
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Gắn OkHttp call hiện tại (mỗi lần retry là một call mới)
+     */
+    void attach(Call call) {
+        this.call = call;
+        if (canceled) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * OkHttp call của lần gửi hiện tại (null nếu chưa gửi hoặc đã xong)
+     */
+    Call currentCall() {
+        return call;
+    }
+
+    /**
+     * Đăng ký action chạy khi handle bị huỷ (chạy ngay nếu đã huỷ)
+     */
+    public void onCancel(Runnable action) {
+        synchronized (this) {
+            if (!canceled) {
+                cancelActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Huỷ handle này thì huỷ luôn inner (dùng khi repository gọi API sau một bước async)
+     */
+    public ApiCall follow(ApiCall inner) {
+        onCancel(inner::cancel);
+        inner.onProgress(this::reportProgress);
+        inner.whenFinished(this::markFinished);
+        return this;
+    }
+
+    void whenFinished(Runnable action) {
+        synchronized (this) {
+            if (!finished) {
+                finishActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    public void markFinished() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            actions = new ArrayList<>(finishActions);
+            finishActions.clear();
+        }
+        call = null;
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    /**
+     * Bọc callback: chỉ gửi kết quả khi handle còn active, sau đó đánh dấu hoàn tất
+     */
+    <T> ResponseCallback<T> guard(ResponseCallback<T> callback) {
+        return new ResponseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                if (isActive()) {
+                    markFinished();
+                    callback.onSuccess(result);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (isActive()) {
+                    markFinished();
+                    callback.onError(error);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                if (isActive()) {
+                    markFinished();
+                    callback.onFailure(throwable);
+                }
+            }
+        };
+    }
+}
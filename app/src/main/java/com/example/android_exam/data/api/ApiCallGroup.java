@@ -0,0 +1,111 @@
+package com.example.android_exam.data.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Nhóm các ApiCall thuộc cùng một owner (ViewModel / Activity).
+ * - track(call): huỷ khi owner bị huỷ (ViewModel.onCleared).
+ * - track(key, call): request mới cùng key sẽ huỷ request cũ (ví dụ chọn ngày khác).
+ * - trackMutation(call): request ghi dữ liệu - khi owner bị huỷ chỉ bỏ callback, không huỷ request.
+ */
+public class ApiCallGroup {
+    private final String owner;
+    private final Set<ApiCall> calls = new HashSet<>();
+    private final Set<ApiCall> mutations = new HashSet<>();
+    private final Map<String, ApiCall> latestByKey = new HashMap<>();
+    private boolean cleared;
+
+    public ApiCallGroup(String owner) {
+        this.owner = owner;
+    }
+
+    public ApiCall track(ApiCall call) {
+        synchronized (this) {
+            if (!cleared) {
+                call.setOwner(owner);
+                calls.add(call);
+                call.whenFinished(() -> remove(call));
+                return call;
+            }
+        }
+        call.cancel();
+        return call;
+    }
+
+    /**
+     * Track request có thể bị thay thế: request trước đó cùng key sẽ bị huỷ
+     */
+    public ApiCall track(String key, ApiCall call) {
+        ApiCall previous;
+        synchronized (this) {
+            previous = latestByKey.put(key, call);
+        }
+        if (previous != null && previous != call) {
+            previous.cancel();
+        }
+        return track(call);
+    }
+
+    public ApiCall trackMutation(ApiCall call) {
+        synchronized (this) {
+            if (!cleared) {
+                call.setOwner(owner);
+                mutations.add(call);
+                call.whenFinished(() -> remove(call));
+                return call;
+            }
+        }
+        call.detach();
+        return call;
+    }
+
+    /**
+     * Huỷ request đang chạy theo key (nếu có)
+     */
+    public void cancel(String key) {
+        ApiCall call;
+        synchronized (this) {
+            call = latestByKey.remove(key);
+        }
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * Gọi trong onCleared / onDestroy: huỷ mọi request đọc và bỏ callback của request ghi
+     */
+    public void cancelAll() {
+        List<ApiCall> toCancel;
+        List<ApiCall> toDetach;
+        synchronized (this) {
+            cleared = true;
+            toCancel = new ArrayList<>(calls);
+            toDetach = new ArrayList<>(mutations);
+            calls.clear();
+            mutations.clear();
+            latestByKey.clear();
+        }
+        for (ApiCall call : toCancel) {
+            call.cancel();
+        }
+        for (ApiCall call : toDetach) {
+            call.detach();
+        }
+    }
+
+    public synchronized int getActiveCount() {
+        return calls.size() + mutations.size();
+    }
+
+    private synchronized void remove(ApiCall call) {
+        calls.remove(call);
+        mutations.remove(call);
+        latestByKey.values().remove(call);
+    }
+}
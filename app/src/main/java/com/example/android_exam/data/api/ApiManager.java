@@ -1,13 +1,6 @@
 package com.example.android_exam.data.api;
 
 
-import com.example.android_exam.data.models.enums.IngredientCategory;
-import com.example.android_exam.data.models.enums.IngredientUnit;
-import com.example.android_exam.utils.IngredientCategoryDeserializer;
-import com.example.android_exam.utils.IngredientUnitDeserializer;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
 public class ApiManager {
     private static ApiManager instance;
 
@@ -16,6 +9,8 @@ public class ApiManager {
     private AiClient aiClient;
     private IngredientApiClient ingredientClient;
     private NutritionApiClient nutritionClient;
+    private String currentToken;
+
     private ApiManager() {
         authClient = new AuthApiClient();
         foodClient = new FoodApiClient();
@@ -32,6 +27,11 @@ public class ApiManager {
     }
 
     public void setAuthToken(String token) {
+        // Cache HTTP không phân biệt user: xoá khi đổi token (login/logout)
+        if (currentToken != null && !currentToken.equals(token)) {
+            BaseApiClient.clearResponseCaches();
+        }
+        currentToken = token;
         authClient.setAuthToken(token);
         foodClient.setAuthToken(token);
         ingredientClient.setAuthToken(token);
@@ -57,4 +57,25 @@ public class ApiManager {
     public AiClient getAiClient() {
         return aiClient;
     }
+
+    /**
+     * Thống kê connection pool / dispatcher của HTTP engine dùng chung
+     */
+    public HttpEngine.Stats getHttpStats() {
+        return HttpEngine.getInstance().getStats();
+    }
+
+    /**
+     * Thống kê gộp request trùng lặp (single-flight)
+     */
+    public RequestCoalescer.Stats getCoalescingStats() {
+        return BaseApiClient.getCoalescingStats();
+    }
+
+    /**
+     * Thống kê hàng đợi theo priority (interactive / prefetch / background)
+     */
+    public RequestScheduler.Stats getSchedulerStats() {
+        return BaseApiClient.getSchedulerStats();
+    }
 }
\ No newline at end of file
@@ -15,30 +15,30 @@ import okhttp3.RequestBody;
 
 public class AuthApiClient extends BaseApiClient {
 
-    public void login(LoginDto loginDto, AuthCallback<ApiResponse<AuthResponseDto>> callback) {
+    public ApiCall login(LoginDto loginDto, AuthCallback<ApiResponse<AuthResponseDto>> callback) {
         RequestBody requestBody = createJsonRequestBody(loginDto);
 
         Request request = createRequestBuilder(AppConfig.Endpoints.AUTH_LOGIN)
                 .post(requestBody)
                 .build();
 
-        executeRequest(request, new TypeToken<ApiResponse<AuthResponseDto>>() {}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<AuthResponseDto>>() {}, callback);
     }
 
-    public void register(RegisterDto registerDto, AuthCallback<ApiResponse<AuthResponseDto>> callback) {
+    public ApiCall register(RegisterDto registerDto, AuthCallback<ApiResponse<AuthResponseDto>> callback) {
         RequestBody requestBody = createJsonRequestBody(registerDto);
 
         Request request = createRequestBuilder(AppConfig.Endpoints.AUTH_REGISTER)
                 .post(requestBody)
                 .build();
 
-        executeRequest(request, new TypeToken<ApiResponse<AuthResponseDto>>(){} , callback);
+        return executeRequest(request, new TypeToken<ApiResponse<AuthResponseDto>>(){} , callback);
     }
 
-    public void validateToken(String token, AuthCallback<ApiResponse<UserProfileDto>> callback) {
+    public ApiCall validateToken(String token, AuthCallback<ApiResponse<UserProfileDto>> callback) {
         if (token == null || token.trim().isEmpty()) {
             callback.onFailure(new Throwable("Token is required"));
-            return;
+            return ApiCall.completed();
         }
 
         // Tạo request với token trong query parameter
@@ -50,37 +50,37 @@ public class AuthApiClient extends BaseApiClient {
                 .build();
 
         // Execute request
-        executeRequest(request, new TypeToken<ApiResponse<UserProfileDto>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<UserProfileDto>>(){}, callback);
     }
 
-    public void logout(AuthCallback<ApiResponse<Boolean>> callback) {
+    public ApiCall logout(AuthCallback<ApiResponse<Boolean>> callback) {
         Request request = createRequestBuilder("auth/logout")
                 .post(RequestBody.create("", MediaType.parse(AppConfig.API_CONTENT_TYPE_JSON)))
                 .build();
 
         //Change to ResponseCallback
-        executeRequest(request, new TypeToken<ApiResponse<Boolean>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<Boolean>>(){}, callback);
     }
 
-    public void getUserProfile(AuthCallback<ApiResponse<UserProfileDto>> callback) {
+    public ApiCall getUserProfile(AuthCallback<ApiResponse<UserProfileDto>> callback) {
         Request request = createRequestBuilder(AppConfig.Endpoints.AUTH_ME)
                 .get()
                 .build();
 
-        executeRequest(request, new TypeToken<ApiResponse<UserProfileDto>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<UserProfileDto>>(){}, callback);
     }
 
-    public void updateUserProfile(UserProfileDto userProfileDto, AuthCallback<ApiResponse<UserProfileDto>> callback) {
-        executeJsonRequest(AppConfig.Endpoints.AUTH_UPDATE_PROFILE, "PUT", userProfileDto, new TypeToken<ApiResponse<UserProfileDto>>(){}, callback);
+    public ApiCall updateUserProfile(UserProfileDto userProfileDto, AuthCallback<ApiResponse<UserProfileDto>> callback) {
+        return executeJsonRequest(AppConfig.Endpoints.AUTH_UPDATE_PROFILE, "PUT", userProfileDto, new TypeToken<ApiResponse<UserProfileDto>>(){}, callback);
     }
 
-    public void changePassword(ChangePasswordDto changePasswordDto, AuthCallback<ApiResponse<Object>> callback) {
+    public ApiCall changePassword(ChangePasswordDto changePasswordDto, AuthCallback<ApiResponse<Object>> callback) {
         RequestBody requestBody = createJsonRequestBody(changePasswordDto);
 
         Request request = createRequestBuilder(AppConfig.Endpoints.AUTH_CHANGE_PASSWORD)
                 .put(requestBody)
                 .build();
 
-        executeRequest(request, new TypeToken<ApiResponse<Object>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<Object>>(){}, callback);
     }
 }
\ No newline at end of file
@@ -4,51 +4,61 @@ import android.util.Log;
 
 import okhttp3.*;
 import com.example.android_exam.core.config.AppConfig;
-import com.example.android_exam.core.datetime.DateTimeTypeAdapter;
+import com.example.android_exam.core.error.ErrorHandler;
+import com.example.android_exam.core.json.GsonProvider;
 import com.example.android_exam.data.dto.response.ApiResponse;
-import com.example.android_exam.data.models.enums.IngredientCategory;
-import com.example.android_exam.data.models.enums.IngredientUnit;
-import com.example.android_exam.utils.IngredientCategoryDeserializer;
-import com.example.android_exam.utils.IngredientUnitDeserializer;
+import com.example.android_exam.module.image.ImagePreprocessor;
+import com.example.android_exam.module.image.ImageSource;
+import com.example.android_exam.module.image.ProgressRequestBody;
+import com.example.android_exam.module.image.UploadQueue;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Date;
+import java.io.InterruptedIOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 public class BaseApiClient {
-    // Singleton Gson instance for better performance
-    private static Gson sharedGson;
-
-    private OkHttpClient httpClient;
+    // Gộp các request giống hệt nhau đang chạy (dùng chung cho mọi client)
+    private static final RequestCoalescer coalescer = new RequestCoalescer(GsonProvider.getGson());
+
+    // Circuit breaker theo host + scheduler cho các lần retry có backoff
+    private static final CircuitBreaker circuitBreaker = new CircuitBreaker(
+            AppConfig.Http.CIRCUIT_FAILURE_THRESHOLD, AppConfig.Http.CIRCUIT_OPEN_MS);
+    private static final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "api-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Xếp hàng theo priority trước khi vào Dispatcher (INTERACTIVE luôn đi trước widget / upload)
+    private static final RequestScheduler scheduler = new RequestScheduler();
+
+    // JSON đã parse cho các GET có HTTP cache, tránh đọc / tokenize lại body khi 304 / cache hit
+    private static final DecodedResponseCache decodedCache =
+            new DecodedResponseCache(AppConfig.Http.DECODED_CACHE_MAX_ENTRIES);
+
+    // Shared HTTP engine (một connection pool + dispatcher cho toàn app)
+    private final HttpEngine httpEngine;
     protected Gson gson;
     private String authToken;
 
     public BaseApiClient() {
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(AppConfig.API_TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .readTimeout(AppConfig.API_TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .writeTimeout(AppConfig.API_TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .build();
-        this.gson = getSharedGson();
-    }
-
-    /**
-     * Get shared Gson instance for better performance
-     */
-    private static synchronized Gson getSharedGson() {
-        if (sharedGson == null) {
-            sharedGson = new GsonBuilder()
-                    .registerTypeAdapter(IngredientCategory.class, new IngredientCategoryDeserializer())
-                    .registerTypeAdapter(IngredientUnit.class, new IngredientUnitDeserializer())
-                    .registerTypeAdapter(Date.class, new DateTimeTypeAdapter())
-                    .create();
-        }
-        return sharedGson;
+        this.httpEngine = HttpEngine.getInstance();
+        this.gson = GsonProvider.getGson();
     }
 
     public void setAuthToken(String token) {
@@ -79,6 +89,21 @@ public class BaseApiClient {
 
     // Tạo multipart request body
     protected RequestBody createMultipartRequestBody(Map<String, String> formFields, File file, String fileFieldName) {
+        return createMultipartRequestBody(formFields, file, fileFieldName, null);
+    }
+
+    // mimeType null thì dùng content type ảnh mặc định
+    protected RequestBody createMultipartRequestBody(Map<String, String> formFields, File file, String fileFieldName, String mimeType) {
+        return createMultipartRequestBody(formFields, file != null ? ImageSource.of(file) : null, fileFieldName, mimeType);
+    }
+
+    // Part ảnh được stream thẳng từ nguồn (file hoặc content URI) khi OkHttp ghi body
+    protected RequestBody createMultipartRequestBody(Map<String, String> formFields, ImageSource image, String fileFieldName, String mimeType) {
+        return createMultipartRequestBody(formFields, image, fileFieldName, mimeType, null);
+    }
+
+    // progress != null: part ảnh được bọc ProgressRequestBody để báo số byte đã ghi ra socket
+    protected RequestBody createMultipartRequestBody(Map<String, String> formFields, ImageSource image, String fileFieldName, String mimeType, ProgressRequestBody.Listener progress) {
         MultipartBody.Builder multipartBuilder = new MultipartBody.Builder().setType(MultipartBody.FORM);
 
         // Add form fields
@@ -91,9 +116,13 @@ public class BaseApiClient {
         }
 
         // Add file if exists
-        if (file != null && fileFieldName != null) {
-            RequestBody fileBody = RequestBody.create(file, MediaType.parse(AppConfig.API_CONTENT_TYPE_IMAGE));
-            multipartBuilder.addFormDataPart(fileFieldName, file.getName(), fileBody);
+        if (image != null && fileFieldName != null) {
+            RequestBody fileBody = image.asRequestBody(
+                    MediaType.parse(mimeType != null ? mimeType : AppConfig.API_CONTENT_TYPE_IMAGE));
+            if (progress != null) {
+                fileBody = new ProgressRequestBody(fileBody, progress);
+            }
+            multipartBuilder.addFormDataPart(fileFieldName, image.getName(), fileBody);
         }
 
         return multipartBuilder.build();
@@ -125,8 +154,20 @@ public class BaseApiClient {
 
     // Tạo multipart request
     protected Request createMultipartRequest(String endpoint, String method, Map<String, String> formFields, File file, String fileFieldName) {
+        return createMultipartRequest(endpoint, method, formFields, file, fileFieldName, null);
+    }
+
+    protected Request createMultipartRequest(String endpoint, String method, Map<String, String> formFields, File file, String fileFieldName, String mimeType) {
+        return createMultipartRequest(endpoint, method, formFields, file != null ? ImageSource.of(file) : null, fileFieldName, mimeType);
+    }
+
+    protected Request createMultipartRequest(String endpoint, String method, Map<String, String> formFields, ImageSource image, String fileFieldName, String mimeType) {
+        return createMultipartRequest(endpoint, method, formFields, image, fileFieldName, mimeType, null);
+    }
+
+    protected Request createMultipartRequest(String endpoint, String method, Map<String, String> formFields, ImageSource image, String fileFieldName, String mimeType, ProgressRequestBody.Listener progress) {
         Request.Builder builder = createRequestBuilder(endpoint);
-        RequestBody body = createMultipartRequestBody(formFields, file, fileFieldName);
+        RequestBody body = createMultipartRequestBody(formFields, image, fileFieldName, mimeType, progress);
 
         switch (method.toUpperCase()) {
             case "POST":
@@ -138,51 +179,132 @@ public class BaseApiClient {
         }
     }
 
-    // Execute request với callback
-    protected <T> void executeRequest(Request request, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        httpClient.newCall(request).enqueue(new Callback() {
+    // Execute request với callback, trả về handle để caller có thể huỷ
+    protected <T> ApiCall executeRequest(Request request, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        ApiCall handle = new ApiCall();
+        ResponseCallback<T> guarded = handle.guard(callback);
+
+        String coalescingKey = RequestCoalescer.keyFor(request, responseType.getType());
+        if (coalescingKey == null) {
+            enqueue(request, responseType, guarded, handle);
+            return handle;
+        }
+        ApiCall sharedCall = coalescer.join(coalescingKey, guarded);
+        if (sharedCall != null) {
+            enqueue(request, responseType, coalescer.fanOut(coalescingKey, sharedCall, responseType.getType()), sharedCall);
+        } else {
+            Log.d("API_DEBUG", "Joined in-flight request: " + request.method() + " " + request.url());
+            if (RequestPriority.of(request) == RequestPriority.INTERACTIVE) {
+                // Request đang chạy có thể là prefetch/background còn nằm trong hàng đợi
+                ApiCall inFlight = coalescer.sharedCallFor(coalescingKey);
+                if (inFlight != null) {
+                    scheduler.boost(inFlight.currentCall());
+                }
+            }
+        }
+        // Huỷ một caller chỉ gỡ callback của caller đó; request dùng chung bị huỷ khi không còn ai chờ
+        handle.onCancel(() -> coalescer.leave(coalescingKey, guarded));
+        return handle;
+    }
+
+    /**
+     * Thống kê single-flight: số request đã gọi mạng và số request trùng đã được gộp
+     */
+    public static RequestCoalescer.Stats getCoalescingStats() {
+        return coalescer.getStats();
+    }
+
+    /**
+     * Thống kê hàng đợi theo priority
+     */
+    public static RequestScheduler.Stats getSchedulerStats() {
+        return scheduler.getStats();
+    }
+
+    private <T> void enqueue(Request request, TypeToken<T> responseType, ResponseCallback<T> callback, ApiCall handle) {
+        enqueueAttempt(request, responseType, callback, handle, RetryPolicy.forRequest(request), 1);
+    }
+
+    private <T> void enqueueAttempt(Request request, TypeToken<T> responseType, ResponseCallback<T> callback,
+                                    ApiCall handle, RetryPolicy retryPolicy, int attempt) {
+        if (handle.isCanceled()) {
+            return;
+        }
+        String host = request.url().host();
+        Request outgoing = request;
+        if (!circuitBreaker.allowRequest(host)) {
+            if (!HttpCachePolicy.isCacheable(request)) {
+                callback.onFailure(new CircuitBreaker.CircuitOpenException(host));
+                return;
+            }
+            // Backend đang down: chỉ đọc từ cache (có thể stale), không chạm mạng
+            outgoing = request.newBuilder()
+                    .cacheControl(new CacheControl.Builder()
+                            .onlyIfCached()
+                            .maxStale(AppConfig.Http.CACHE_MAX_STALE_DAYS, TimeUnit.DAYS)
+                            .build())
+                    .build();
+        }
+
+        // Slot để NetworkMetrics nhận decode time sau khi call đã kết thúc
+        outgoing = outgoing.newBuilder()
+                .tag(NetworkMetrics.DecodeTiming.class, new NetworkMetrics.DecodeTiming())
+                .build();
+        Call newCall = httpEngine.clientFor(outgoing).newCall(outgoing);
+        handle.attach(newCall);
+        scheduler.enqueue(newCall, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
-                callback.onFailure(e);
+                if (call.isCanceled() || handle.isCanceled()) {
+                    callback.onFailure(e);
+                    return;
+                }
+                circuitBreaker.recordFailure(host);
+                if (retryPolicy.shouldRetryOnFailure(attempt, e)) {
+                    scheduleRetry(request, responseType, callback, handle, retryPolicy, attempt, null);
+                } else {
+                    callback.onFailure(e);
+                }
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                try {
-
-                    String responseBody = response.body().string();
-
-                    // ===== THÊM CÁC LOG DEBUG =====
-                    Log.d("API_DEBUG", "==========================================");
-                    Log.d("API_DEBUG", "Request URL: " + request.url());
-                    Log.d("API_DEBUG", "Response Code: " + response.code());
-                    Log.d("API_DEBUG", "Response Message: " + response.message());
-                    Log.d("API_DEBUG", "Content-Type: " + response.header("Content-Type"));
-                    Log.d("API_DEBUG", "Response Body: " + responseBody);
-                    Log.d("API_DEBUG", "Response Body Length: " + responseBody.length());
-                    Log.d("API_DEBUG", "Is Successful: " + response.isSuccessful());
-
-                    // Kiểm tra định dạng response
-                    if (responseBody.trim().startsWith("{")) {
-                        Log.d("API_DEBUG", "Response format: JSON Object");
-                    } else if (responseBody.trim().startsWith("[")) {
-                        Log.d("API_DEBUG", "Response format: JSON Array");
-                    } else if (responseBody.trim().startsWith("\"")) {
-                        Log.d("API_DEBUG", "Response format: JSON String");
-                    } else if (responseBody.trim().startsWith("<")) {
-                        Log.d("API_DEBUG", "Response format: HTML/XML");
+            public void onResponse(Call call, Response response) {
+                if (handle.isCanceled()) {
+                    // Owner đã huỷ: không đọc và decode body
+                    response.close();
+                    return;
+                }
+                if (response.networkResponse() != null) {
+                    if (ErrorHandler.isServerError(response.code())) {
+                        circuitBreaker.recordFailure(host);
                     } else {
-                        Log.d("API_DEBUG", "Response format: Plain Text");
+                        circuitBreaker.recordSuccess(host);
                     }
-                    Log.d("API_DEBUG", "==========================================");
+                }
+                if (response.code() == 504 && response.networkResponse() == null) {
+                    // onlyIfCached nhưng không có trong cache
+                    response.close();
+                    callback.onFailure(new CircuitBreaker.CircuitOpenException(host));
+                    return;
+                }
+                if (retryPolicy.shouldRetryOnResponse(attempt, response)) {
+                    response.close();
+                    scheduleRetry(request, responseType, callback, handle, retryPolicy, attempt, response);
+                    return;
+                }
+
+                try (ResponseBody body = response.body()) {
+                    logSampledResponse(request, response);
 
                     if (response.isSuccessful()) {
-                        T result = gson.fromJson(responseBody, responseType);
+                        // Decode đọc body dạng stream nên thời gian này gồm cả phần đọc body còn lại
+                        long decodeStart = System.nanoTime();
+                        T result = decodeCacheable(request, responseType.getType(), response, body);
+                        NetworkMetrics.getInstance().recordDecode(call, System.nanoTime() - decodeStart);
+                        invalidateAfterMutation(request);
                         callback.onSuccess(result);
                     } else {
-                        ApiResponse<Object> errorResponse = gson.fromJson(responseBody, ApiResponse.class);
-                        String errorMessage = errorResponse != null ? errorResponse.getMessage() : "Unknown error";
-                        callback.onError(errorMessage);
+                        callback.onError(decodeErrorMessage(response, body));
                     }
                 } catch (Exception e) {
                     callback.onFailure(e);
@@ -191,43 +313,280 @@ public class BaseApiClient {
         });
     }
 
+    private <T> void scheduleRetry(Request request, TypeToken<T> responseType, ResponseCallback<T> callback,
+                                   ApiCall handle, RetryPolicy retryPolicy, int attempt, Response response) {
+        long delay = retryPolicy.delayMs(attempt, response);
+        Log.d("API_DEBUG", "Retry " + (attempt + 1) + "/" + retryPolicy.getMaxAttempts() +
+                " in " + delay + "ms: " + request.method() + " " + request.url());
+        retryScheduler.schedule(
+                () -> enqueueAttempt(request, responseType, callback, handle, retryPolicy, attempt + 1),
+                delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Trạng thái circuit breaker của backend chính
+     */
+    public static CircuitBreaker.State getBackendCircuitState() {
+        return circuitBreaker.getState(HttpUrl.get(AppConfig.BASE_URL).host());
+    }
+
+    /**
+     * Với GET có cache: nếu response đến từ disk cache / 304 và cùng validator thì decode từ JSON tree đã parse,
+     * không đọc lại body. Mỗi lần gọi trả về object mới (caller được phép sửa kết quả).
+     */
+    private <T> T decodeCacheable(Request request, Type type, Response response, ResponseBody body) throws IOException {
+        if (!HttpCachePolicy.isCacheable(request)) {
+            return decodeBody(body, type, AppConfig.Http.MAX_RESPONSE_BYTES);
+        }
+        JsonElement tree = decodedCache.treeFor(request, response, body,
+                raw -> decodeBody(raw, JsonElement.class, AppConfig.Http.MAX_RESPONSE_BYTES));
+        return tree != null ? gson.fromJson(tree, type) : null;
+    }
+
+    /**
+     * Sau khi tạo/sửa/xoá thành công, xoá cache của resource tương ứng (ví dụ "ingredient", "food")
+     */
+    private void invalidateAfterMutation(Request request) {
+        if ("GET".equals(request.method()) || RequestCoalescer.isReadOnlyPost(request)) {
+            return;
+        }
+        String path = HttpCachePolicy.relativePath(request.url());
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        int slash = path.indexOf('/');
+        String prefix = AppConfig.BASE_URL + (slash > 0 ? path.substring(0, slash) : path);
+        httpEngine.invalidateCache(prefix);
+        decodedCache.invalidate(prefix);
+        if (path.startsWith("auth/")) {
+            String mePrefix = AppConfig.BASE_URL + AppConfig.Endpoints.AUTH_ME;
+            httpEngine.invalidateCache(mePrefix);
+            decodedCache.invalidate(mePrefix);
+        }
+    }
+
+    /**
+     * Xoá toàn bộ HTTP cache, cache object đã decode và cache AI detection (khi đổi tài khoản/token).
+     * Được gọi từ main thread (login / logout): cache trong bộ nhớ xoá ngay, phần xoá file trên disk chạy nền.
+     */
+    public static void clearResponseCaches() {
+        decodedCache.clear();
+        DetectionCache.getInstance().clear();
+        HttpEngine engine = HttpEngine.getInstance();
+        engine.callbackExecutor().execute(engine::clearCache);
+    }
+
+    /**
+     * Decode body trực tiếp từ stream bằng JsonReader, không tạo String trung gian.
+     * Body vượt quá byteBudget sẽ fail ngay bằng IOException.
+     */
+    protected <T> T decodeBody(ResponseBody body, Type type, long byteBudget) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        long contentLength = body.contentLength();
+        if (contentLength > byteBudget) {
+            throw new ByteBudgetInputStream.ResponseTooLargeException(byteBudget);
+        }
+
+        MediaType contentType = body.contentType();
+        Charset charset = contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new ByteBudgetInputStream(body.byteStream(), byteBudget), charset))) {
+            return gson.fromJson(reader, type);
+        } catch (JsonParseException e) {
+            // Gson bọc IOException (ví dụ vượt budget) trong JsonParseException
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lấy message lỗi từ body ApiResponse, fallback về HTTP status nếu body không phải JSON
+     */
+    private String decodeErrorMessage(Response response, ResponseBody body) {
+        try {
+            ApiResponse<Object> errorResponse = decodeBody(body, ApiResponse.class, AppConfig.Http.MAX_ERROR_RESPONSE_BYTES);
+            if (errorResponse != null && errorResponse.getMessage() != null && !errorResponse.getMessage().isEmpty()) {
+                return errorResponse.getMessage();
+            }
+        } catch (IOException | JsonParseException e) {
+            Log.w("API_DEBUG", "Cannot decode error body for " + response.request().url() + ": " + e.getMessage());
+        }
+        return "HTTP " + response.code() + " " + response.message();
+    }
+
+    /**
+     * Log raw body chỉ khi bật debug flag và request được sample.
+     * Dùng peekBody nên body gốc vẫn được stream cho decoder.
+     */
+    private void logSampledResponse(Request request, Response response) throws IOException {
+        if (!AppConfig.Http.DEBUG_LOG_RESPONSE_BODY
+                || ThreadLocalRandom.current().nextDouble() >= AppConfig.Http.DEBUG_BODY_SAMPLE_RATE) {
+            return;
+        }
+        String sample = response.peekBody(AppConfig.Http.DEBUG_BODY_MAX_BYTES).string();
+        Log.d("API_DEBUG", "==========================================");
+        Log.d("API_DEBUG", "Request URL: " + request.url());
+        Log.d("API_DEBUG", "Response Code: " + response.code() + " " + response.message());
+        Log.d("API_DEBUG", "Content-Type: " + response.header("Content-Type"));
+        Log.d("API_DEBUG", "Response Body (sampled): " + sample);
+        Log.d("API_DEBUG", "==========================================");
+    }
+
     // Các phương thức tiện ích để tạo request nhanh
-    protected <T> void executeJsonRequest(String endpoint, String method, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
+    protected <T> ApiCall executeJsonRequest(String endpoint, String method, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
         Request request = createJsonRequest(endpoint, method, data);
-        executeRequest(request, responseType, callback);
+        return executeRequest(request, responseType, callback);
+    }
+
+    protected <T> ApiCall executeJsonRequest(String endpoint, String method, Object data, RequestPriority priority, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        Request request = withPriority(createJsonRequest(endpoint, method, data), priority);
+        return executeRequest(request, responseType, callback);
     }
 
-    protected <T> void executeMultipartRequest(String endpoint, String method, Map<String, String> formFields, File file, String fileFieldName, TypeToken<T> responseType, ResponseCallback<T> callback) {
+    // Gắn priority cho request (không gắn thì là INTERACTIVE)
+    protected Request withPriority(Request request, RequestPriority priority) {
+        return request.newBuilder().tag(RequestPriority.class, priority).build();
+    }
+
+    protected <T> ApiCall executeMultipartRequest(String endpoint, String method, Map<String, String> formFields, File file, String fileFieldName, TypeToken<T> responseType, ResponseCallback<T> callback) {
         Request request = createMultipartRequest(endpoint, method, formFields, file, fileFieldName);
-        executeRequest(request, responseType, callback);
+        return executeRequest(request, responseType, callback);
+    }
+
+    /**
+     * Multipart kèm ảnh: thu nhỏ / nén lại ảnh theo target trên thread nền rồi mới gửi.
+     * Bản gửi đi chạy trong UploadQueue (giới hạn số upload song song, xếp theo priority).
+     * File tạm được xoá khi request kết thúc; log số byte tiết kiệm và thời gian upload của từng request.
+     * Tiến độ ghi part ảnh được báo qua ApiCall.onProgress() của handle trả về.
+     */
+    protected <T> ApiCall executeMultipartRequest(String endpoint, String method, Map<String, String> formFields, ImageSource image, String fileFieldName, ImagePreprocessor.Target target, RequestPriority priority, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        if (image == null) {
+            Request request = withPriority(createMultipartRequest(endpoint, method, formFields, (File) null, fileFieldName), priority);
+            return executeRequest(request, responseType, callback);
+        }
+        ApiCall handle = new ApiCall();
+        ResponseCallback<T> guarded = handle.guard(callback);
+        ImagePreprocessor.getInstance().process(image, target, processed -> {
+            if (handle.isCanceled()) {
+                processed.release();
+                return;
+            }
+            String label = method + " " + endpoint;
+            long uploadId = UploadQueue.getInstance().enqueue(null, priority, task -> {
+                Request request = withPriority(createMultipartRequest(endpoint, method, formFields,
+                        processed.getSource(), fileFieldName, processed.getMimeType(), task::progress), priority);
+                long uploadStart = System.nanoTime();
+                ApiCall upload = executeRequest(request, responseType, new ResponseCallback<T>() {
+                    @Override
+                    public void onSuccess(T result) {
+                        logUpload(label, processed, uploadStart, "ok");
+                        guarded.onSuccess(result);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        logUpload(label, processed, uploadStart, "error");
+                        guarded.onError(error);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        logUpload(label, processed, uploadStart, "failed");
+                        guarded.onFailure(throwable);
+                    }
+                });
+                upload.whenFinished(processed::release);
+                handle.follow(upload);
+                awaitUpload(upload);
+                return null;
+            }, Runnable::run, new UploadQueue.Callback() {
+                @Override
+                public void onSuccess(String result) {
+                    // Kết quả đã gửi qua callback của request
+                }
+
+                @Override
+                public void onError(String error) {
+                    // Job không chạy được tới lúc gửi request
+                    processed.release();
+                    guarded.onFailure(new IOException(error));
+                }
+
+                @Override
+                public void onProgress(int percent) {
+                    handle.reportProgress(percent);
+                }
+            });
+            handle.onCancel(() -> {
+                UploadQueue.getInstance().cancel(uploadId);
+                processed.release();
+            });
+        });
+        return handle;
+    }
+
+    /**
+     * Giữ slot của UploadQueue tới khi request (kể cả retry) kết thúc
+     */
+    private static void awaitUpload(ApiCall upload) throws InterruptedIOException {
+        CountDownLatch done = new CountDownLatch(1);
+        upload.whenFinished(done::countDown);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            upload.cancel();
+            throw new InterruptedIOException("Upload canceled");
+        }
+    }
+
+    private static void logUpload(String label, ImagePreprocessor.Result image, long uploadStart, String outcome) {
+        Log.d("API_DEBUG", "Upload " + label + " " + outcome + ": " + image +
+                ", upload " + (System.nanoTime() - uploadStart) / 1_000_000 + "ms");
     }
 
     // Các phương thức GET, POST, PUT, DELETE đơn giản
-    protected <T> void get(String endpoint, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        executeJsonRequest(endpoint, "GET", null, responseType, callback);
+    protected <T> ApiCall get(String endpoint, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeJsonRequest(endpoint, "GET", null, responseType, callback);
+    }
+
+    protected <T> ApiCall post(String endpoint, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeJsonRequest(endpoint, "POST", data, responseType, callback);
+    }
+
+    protected <T> ApiCall post(String endpoint, Object data, RequestPriority priority, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeJsonRequest(endpoint, "POST", data, priority, responseType, callback);
+    }
+
+    protected <T> ApiCall put(String endpoint, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeJsonRequest(endpoint, "PUT", data, responseType, callback);
     }
 
-    protected <T> void post(String endpoint, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        executeJsonRequest(endpoint, "POST", data, responseType, callback);
+    protected <T> ApiCall delete(String endpoint, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeJsonRequest(endpoint, "DELETE", null, responseType, callback);
     }
 
-    protected <T> void put(String endpoint, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        executeJsonRequest(endpoint, "PUT", data, responseType, callback);
+    protected <T> ApiCall delete(String endpoint, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeJsonRequest(endpoint, "DELETE", data, responseType, callback);
     }
 
-    protected <T> void delete(String endpoint, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        executeJsonRequest(endpoint, "DELETE", null, responseType, callback);
+    protected <T> ApiCall postMultipart(String endpoint, Map<String, String> formFields, File file, String fileFieldName, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeMultipartRequest(endpoint, "POST", formFields, file, fileFieldName, responseType, callback);
     }
 
-    protected <T> void delete(String endpoint, Object data, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        executeJsonRequest(endpoint, "DELETE", data, responseType, callback);
+    protected <T> ApiCall putMultipart(String endpoint, Map<String, String> formFields, File file, String fileFieldName, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeMultipartRequest(endpoint, "PUT", formFields, file, fileFieldName, responseType, callback);
     }
 
-    protected <T> void postMultipart(String endpoint, Map<String, String> formFields, File file, String fileFieldName, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        executeMultipartRequest(endpoint, "POST", formFields, file, fileFieldName, responseType, callback);
+    protected <T> ApiCall postMultipart(String endpoint, Map<String, String> formFields, ImageSource image, String fileFieldName, ImagePreprocessor.Target target, RequestPriority priority, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeMultipartRequest(endpoint, "POST", formFields, image, fileFieldName, target, priority, responseType, callback);
     }
 
-    protected <T> void putMultipart(String endpoint, Map<String, String> formFields, File file, String fileFieldName, TypeToken<T> responseType, ResponseCallback<T> callback) {
-        executeMultipartRequest(endpoint, "PUT", formFields, file, fileFieldName, responseType, callback);
+    protected <T> ApiCall putMultipart(String endpoint, Map<String, String> formFields, ImageSource image, String fileFieldName, ImagePreprocessor.Target target, RequestPriority priority, TypeToken<T> responseType, ResponseCallback<T> callback) {
+        return executeMultipartRequest(endpoint, "PUT", formFields, image, fileFieldName, target, priority, responseType, callback);
     }
 }
\ No newline at end of file
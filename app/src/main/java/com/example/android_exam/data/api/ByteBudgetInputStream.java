@@ -0,0 +1,71 @@
+package com.example.android_exam.data.api;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream giới hạn số byte được đọc.
+ * Dùng khi decode response để các error page quá lớn fail sớm thay vì đọc hết vào bộ nhớ.
+ */
+class ByteBudgetInputStream extends FilterInputStream {
+    private final long budget;
+    private long consumed;
+
+    ByteBudgetInputStream(InputStream in, long budget) {
+        super(in);
+        this.budget = budget;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            consume(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            consume(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            consume(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getConsumed() {
+        return consumed;
+    }
+
+    private void consume(long n) throws IOException {
+        consumed += n;
+        if (consumed > budget) {
+            throw new ResponseTooLargeException(budget);
+        }
+    }
+
+    /**
+     * Response vượt quá byte budget cho phép
+     */
+    static class ResponseTooLargeException extends IOException {
+        ResponseTooLargeException(long budget) {
+            super("Response body exceeds byte budget of " + budget + " bytes");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.android_exam.data.api;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker theo host.
+ * Sau N lỗi liên tiếp (lỗi mạng / 5xx) mạch sẽ mở và các request tới host đó fail ngay,
+ * hết thời gian mở thì cho đúng một request thử (half-open) để kiểm tra backend đã hồi phục chưa.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final ConcurrentHashMap<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+    }
+
+    /**
+     * @return true nếu được phép gửi request tới host
+     */
+    public boolean allowRequest(String host) {
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+        synchronized (state) {
+            switch (state.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                case HALF_OPEN:
+                default:
+                    // Hết thời gian mở: cho một request thử. Nếu request thử bị huỷ mà không báo kết quả,
+                    // sau thêm một chu kỳ sẽ cho thử lại
+                    long now = System.currentTimeMillis();
+                    if (now - state.openedAt >= openDurationMs) {
+                        state.state = State.HALF_OPEN;
+                        state.openedAt = now;
+                        return true;
+                    }
+                    return false;
+            }
+        }
+    }
+
+    public void recordSuccess(String host) {
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+        synchronized (state) {
+            state.state = State.CLOSED;
+            state.consecutiveFailures = 0;
+        }
+    }
+
+    public void recordFailure(String host) {
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+        synchronized (state) {
+            state.consecutiveFailures++;
+            if (state.state == State.HALF_OPEN || state.consecutiveFailures >= failureThreshold) {
+                state.state = State.OPEN;
+                state.openedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    public State getState(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return State.CLOSED;
+        }
+        synchronized (state) {
+            return state.state;
+        }
+    }
+
+    private static class HostState {
+        State state = State.CLOSED;
+        int consecutiveFailures;
+        long openedAt;
+    }
+
+    /**
+     * Request bị từ chối vì mạch đang mở
+     */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String host) {
+            super("Circuit open for host " + host + ", failing fast");
+        }
+    }
+}
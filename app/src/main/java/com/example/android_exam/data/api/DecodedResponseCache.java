@@ -0,0 +1,138 @@
+package com.example.android_exam.data.api;
+
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * LRU cache trong bộ nhớ cho JSON đã parse từ response GET có cache.
+ * Khi OkHttp trả response từ disk cache hoặc sau khi revalidate (304) với cùng validator,
+ * JSON tree được trả lại ngay, không cần đọc và tokenize lại body.
+ * Chỉ lưu tree (không lưu DTO): caller decode ra object mới cho mỗi lần hit, vì DTO là mutable
+ * và màn hình có thể sửa kết quả của mình. Tree không bao giờ được đưa ra ngoài BaseApiClient.
+ */
+class DecodedResponseCache {
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+
+    interface TreeDecoder {
+        JsonElement decode(ResponseBody body) throws IOException;
+    }
+
+    DecodedResponseCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > DecodedResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * JSON tree của response: dùng lại tree đã parse nếu response đến từ cache / 304 cùng validator
+     * (body không được đọc), ngược lại decode body và lưu lại cho lần sau.
+     */
+    JsonElement treeFor(Request request, Response response, ResponseBody body, TreeDecoder decoder) throws IOException {
+        JsonElement tree = lookup(request, response);
+        if (tree == null) {
+            tree = decoder.decode(body);
+            store(request, response, tree);
+        }
+        return tree;
+    }
+
+    /**
+     * Tìm object đã decode cho response được phục vụ từ cache (hit hoặc 304)
+     */
+    synchronized JsonElement lookup(Request request, Response response) {
+        if (!servedFromCache(response)) {
+            return null;
+        }
+        Entry entry = entries.get(key(request));
+        String validator = validator(response);
+        if (entry != null && entry.validator.equals(validator)) {
+            hits++;
+            return entry.value;
+        }
+        misses++;
+        return null;
+    }
+
+    synchronized void store(Request request, Response response, JsonElement value) {
+        if (value == null || value.isJsonNull() || !response.isSuccessful()) {
+            return;
+        }
+        entries.put(key(request), new Entry(validator(response), value));
+    }
+
+    /**
+     * Xoá các entry có URL bắt đầu bằng prefix (sau khi tạo/sửa/xoá resource)
+     */
+    synchronized void invalidate(String urlPrefix) {
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(urlPrefix)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    private static boolean servedFromCache(Response response) {
+        if (response.cacheResponse() == null) {
+            return false;
+        }
+        Response network = response.networkResponse();
+        return network == null || network.code() == 304;
+    }
+
+    private static String key(Request request) {
+        return request.url().toString();
+    }
+
+    private static String validator(Response response) {
+        String etag = response.header("ETag");
+        if (etag != null) {
+            return "etag:" + etag;
+        }
+        String lastModified = response.header("Last-Modified");
+        if (lastModified != null) {
+            return "lm:" + lastModified;
+        }
+        Response cacheResponse = response.cacheResponse();
+        long sentAt = cacheResponse != null ? cacheResponse.sentRequestAtMillis() : response.sentRequestAtMillis();
+        return "sent:" + sentAt;
+    }
+
+    private static class Entry {
+        final String validator;
+        final JsonElement value;
+
+        Entry(String validator, JsonElement value) {
+            this.validator = validator;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.android_exam.data.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.App;
+import com.example.android_exam.core.config.AppConfig;
+import com.example.android_exam.core.json.GsonProvider;
+import com.example.android_exam.module.image.ImageSource;
+import com.example.android_exam.module.image.PerceptualHash;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache trên disk cho kết quả AI detection, key là dHash 64-bit của ảnh:
+ * - Ảnh chụp lại / chọn lại gần giống (Hamming <= DETECTION_CACHE_MAX_HAMMING) trả kết quả cũ ngay, không gọi server
+ * - Mỗi entry một file JSON, tên file chứa endpoint + hash + thời điểm tạo nên index dựng lại chỉ bằng listFiles()
+ * - Hết TTL thì bỏ; vượt DETECTION_CACHE_MAX_ENTRIES thì xoá entry truy cập lâu nhất (lastModified = lần dùng cuối)
+ * Hash, đọc / ghi file đều chạy trên một thread nền riêng; index chỉ được chạm trên thread đó.
+ */
+public class DetectionCache {
+    private static final String TAG = "DetectionCache";
+    private static final String SUFFIX = ".json";
+    private static DetectionCache instance;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ai-detection-cache");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Gson gson = GsonProvider.getGson();
+    private final List<Entry> entries = new ArrayList<>();
+    private boolean loaded;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    interface LookupCallback {
+        /**
+         * Chạy trên thread của cache (caller tự chuyển sang thread callback của mình)
+         *
+         * @param hash   dHash của ảnh (null nếu không decode được - khi đó không cache kết quả)
+         * @param cached kết quả đã lưu cho ảnh gần giống, null nếu miss
+         */
+        void onResult(@Nullable Long hash, @Nullable Object cached);
+    }
+
+    private static final class Entry {
+        final String endpoint;
+        final long hash;
+        final long createdAt;
+        final File file;
+        long lastAccess;
+
+        Entry(String endpoint, long hash, long createdAt, File file, long lastAccess) {
+            this.endpoint = endpoint;
+            this.hash = hash;
+            this.createdAt = createdAt;
+            this.file = file;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private DetectionCache() {
+    }
+
+    static synchronized DetectionCache getInstance() {
+        if (instance == null) {
+            instance = new DetectionCache();
+        }
+        return instance;
+    }
+
+    void lookup(@NonNull ImageSource image, @NonNull String endpoint, @NonNull Type type, @NonNull LookupCallback callback) {
+        executor.execute(() -> {
+            lookups.incrementAndGet();
+            Long hash;
+            try {
+                hash = PerceptualHash.compute(image);
+            } catch (IOException | SecurityException | OutOfMemoryError e) {
+                Log.w(TAG, "Cannot hash " + image + ": " + e);
+                callback.onResult(null, null);
+                return;
+            }
+            Object cached = find(endpoint, hash, type);
+            if (cached != null) {
+                hits.incrementAndGet();
+            }
+            callback.onResult(hash, cached);
+        });
+    }
+
+    /**
+     * @param value JSON tree chụp từ kết quả trước khi trả cho caller - caller được phép sửa object kết quả
+     *              trong lúc file đang được ghi trên thread của cache
+     */
+    void store(@NonNull String endpoint, long hash, @NonNull JsonElement value) {
+        executor.execute(() -> {
+            File dir = directory();
+            if (dir == null) {
+                return;
+            }
+            load(dir);
+            long now = System.currentTimeMillis();
+            // Ảnh trùng hash thì ghi đè kết quả cũ
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.endpoint.equals(endpoint(endpoint)) && entry.hash == hash) {
+                    entry.file.delete();
+                    iterator.remove();
+                }
+            }
+            File file = new File(dir, endpoint(endpoint) + "-" + Long.toHexString(hash) + "-" + now + SUFFIX);
+            File temp = new File(dir, file.getName() + ".tmp");
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                gson.toJson(value, writer);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Cannot write " + file.getName() + ": " + e.getMessage());
+                temp.delete();
+                return;
+            }
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                return;
+            }
+            entries.add(new Entry(endpoint(endpoint), hash, now, file, now));
+            evictOverflow();
+        });
+    }
+
+    void clear() {
+        executor.execute(() -> {
+            File dir = directory();
+            File[] files = dir != null ? dir.listFiles() : null;
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            entries.clear();
+            loaded = true;
+        });
+    }
+
+    /**
+     * Entry gần nhất (theo Hamming) còn hạn của endpoint, decode từ file
+     */
+    @Nullable
+    private Object find(String endpoint, long hash, Type type) {
+        File dir = directory();
+        if (dir == null) {
+            return null;
+        }
+        load(dir);
+        String key = endpoint(endpoint);
+        long now = System.currentTimeMillis();
+        Entry best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.createdAt > AppConfig.Image.DETECTION_CACHE_TTL_MS) {
+                entry.file.delete();
+                iterator.remove();
+                continue;
+            }
+            if (!entry.endpoint.equals(key)) {
+                continue;
+            }
+            int distance = PerceptualHash.distance(hash, entry.hash);
+            if (distance < bestDistance) {
+                best = entry;
+                bestDistance = distance;
+            }
+        }
+        if (best == null || bestDistance > AppConfig.Image.DETECTION_CACHE_MAX_HAMMING) {
+            return null;
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(best.file), StandardCharsets.UTF_8)) {
+            Object value = gson.fromJson(reader, type);
+            if (value != null) {
+                best.lastAccess = now;
+                best.file.setLastModified(now);
+                Log.d(TAG, "Hit " + key + " (distance " + bestDistance + ")");
+                return value;
+            }
+        } catch (IOException | JsonParseException e) {
+            Log.w(TAG, "Dropping unreadable entry " + best.file.getName() + ": " + e.getMessage());
+        }
+        best.file.delete();
+        entries.remove(best);
+        return null;
+    }
+
+    /**
+     * Dựng index từ tên file (lần đầu dùng trong process)
+     */
+    private void load(File dir) {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            String[] parts = name.endsWith(SUFFIX)
+                    ? name.substring(0, name.length() - SUFFIX.length()).split("-") : new String[0];
+            if (parts.length != 3) {
+                // File tạm / hỏng
+                file.delete();
+                continue;
+            }
+            try {
+                long hash = Long.parseUnsignedLong(parts[1], 16);
+                long createdAt = Long.parseLong(parts[2]);
+                entries.add(new Entry(parts[0], hash, createdAt, file, file.lastModified()));
+            } catch (NumberFormatException e) {
+                file.delete();
+            }
+        }
+        evictOverflow();
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > AppConfig.Image.DETECTION_CACHE_MAX_ENTRIES) {
+            Entry oldest = entries.get(0);
+            for (Entry entry : entries) {
+                if (entry.lastAccess < oldest.lastAccess) {
+                    oldest = entry;
+                }
+            }
+            oldest.file.delete();
+            entries.remove(oldest);
+        }
+    }
+
+    @Nullable
+    private static File directory() {
+        App app = App.getInstance();
+        if (app == null) {
+            return null;
+        }
+        File dir = new File(app.getCacheDir(), AppConfig.Image.DETECTION_CACHE_DIR_NAME);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return null;
+        }
+        return dir;
+    }
+
+    // "ai/detect_food" -> "ai_detect_food" (không chứa '-' để tách tên file)
+    private static String endpoint(String endpoint) {
+        return endpoint.replaceAll("[^A-Za-z0-9]", "_");
+    }
+
+    Stats getStats() {
+        return new Stats(lookups.get(), hits.get());
+    }
+
+    public static class Stats {
+        private final long lookups;
+        private final long hits;
+
+        Stats(long lookups, long hits) {
+            this.lookups = lookups;
+            this.hits = hits;
+        }
+
+        public long getLookups() {
+            return lookups;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Tỉ lệ request detection được trả từ cache (0..1)
+         */
+        public double getHitRate() {
+            return lookups > 0 ? (double) hits / lookups : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "DetectionCache.Stats{lookups=" + lookups + ", hits=" + hits +
+                    ", hitRate=" + String.format("%.2f", getHitRate()) + "}";
+        }
+    }
+}
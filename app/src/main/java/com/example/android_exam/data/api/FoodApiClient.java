@@ -9,7 +9,8 @@ import com.example.android_exam.data.dto.food.FoodSuggestionRequestDto;
 import com.example.android_exam.data.dto.food.FoodSuggestionResponseDto;
 import com.example.android_exam.data.dto.food.UpdateFoodRequestDto;
 import com.example.android_exam.data.dto.response.ApiResponse;
-import com.google.gson.Gson;
+import com.example.android_exam.module.image.ImagePreprocessor;
+import com.example.android_exam.module.image.ImageSource;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.File;
@@ -20,58 +21,74 @@ import java.util.Map;
 public class FoodApiClient extends BaseApiClient {
 
     // Create food
-    public void createFood(CreateFoodRequestDto dto, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
-        createFood(dto, null, callback);
+    public ApiCall createFood(CreateFoodRequestDto dto, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+        return createFood(dto, (ImageSource) null, callback);
     }
 
     // Update food
-    public void updateFood(UpdateFoodRequestDto dto, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
-        updateFood(dto, null, callback);
+    public ApiCall updateFood(UpdateFoodRequestDto dto, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+        return updateFood(dto, (ImageSource) null, callback);
     }
 
     // Delete food
-    public void deleteFood(DeleteFoodRequestDto dto, DataCallback<ApiResponse<Boolean>> callback) {
-        delete(AppConfig.Endpoints.FOOD_DELETE, dto, new TypeToken<ApiResponse<Boolean>>() {}, callback);
+    public ApiCall deleteFood(DeleteFoodRequestDto dto, DataCallback<ApiResponse<Boolean>> callback) {
+        return delete(AppConfig.Endpoints.FOOD_DELETE, dto, new TypeToken<ApiResponse<Boolean>>() {}, callback);
     }
 
     // Get food by ID
-    public void getFoodById(int id, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
-        get(String.format(AppConfig.Endpoints.FOOD_BY_ID, id), new TypeToken<ApiResponse<FoodDataResponseDto>>(){}, callback);
+    public ApiCall getFoodById(int id, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+        return get(String.format(AppConfig.Endpoints.FOOD_BY_ID, id), new TypeToken<ApiResponse<FoodDataResponseDto>>(){}, callback);
     }
 
     // Get food suggestions
-    public void getFoodSuggestions(FoodSuggestionRequestDto requestDto, DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>> callback) {
-        post(AppConfig.Endpoints.FOOD_SUGGESTIONS, requestDto, new TypeToken<ApiResponse<List<FoodSuggestionResponseDto>>>(){}, callback);
+    public ApiCall getFoodSuggestions(FoodSuggestionRequestDto requestDto, DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>> callback) {
+        return post(AppConfig.Endpoints.FOOD_SUGGESTIONS, requestDto, new TypeToken<ApiResponse<List<FoodSuggestionResponseDto>>>(){}, callback);
+    }
+
+    public ApiCall getFoodSuggestions(FoodSuggestionRequestDto requestDto, RequestPriority priority, DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>> callback) {
+        return post(AppConfig.Endpoints.FOOD_SUGGESTIONS, requestDto, priority, new TypeToken<ApiResponse<List<FoodSuggestionResponseDto>>>(){}, callback);
     }
 
     // Get recipe suggestions
-    public void getRecipeSuggestions(FoodRecipeRequestDto recipeRequest, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
-        post(AppConfig.Endpoints.FOOD_RECIPES, recipeRequest, new TypeToken<ApiResponse<FoodDataResponseDto>>(){}, callback);
+    public ApiCall getRecipeSuggestions(FoodRecipeRequestDto recipeRequest, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+        return post(AppConfig.Endpoints.FOOD_RECIPES, recipeRequest, new TypeToken<ApiResponse<FoodDataResponseDto>>(){}, callback);
     }
 
 
-    public void createFood(CreateFoodRequestDto dto, File imageFile, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+    public ApiCall createFood(CreateFoodRequestDto dto, File imageFile, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+        return createFood(dto, imageFile != null ? ImageSource.of(imageFile) : null, callback);
+    }
+
+    public ApiCall createFood(CreateFoodRequestDto dto, ImageSource image, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
         Map<String, String> formFields = createFormFieldsFromDto(dto);
 
-        postMultipart(
+        return postMultipart(
                 AppConfig.Endpoints.FOOD_CREATE,
                 formFields,
-                imageFile,
+                image,
                 "Image",
+                ImagePreprocessor.Target.UPLOAD,
+                RequestPriority.INTERACTIVE,
                 new TypeToken<ApiResponse<FoodDataResponseDto>>() {},
                 callback
         );
     }
 
     // Update food with image file
-    public void updateFood(UpdateFoodRequestDto dto, File imageFile, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+    public ApiCall updateFood(UpdateFoodRequestDto dto, File imageFile, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
+        return updateFood(dto, imageFile != null ? ImageSource.of(imageFile) : null, callback);
+    }
+
+    public ApiCall updateFood(UpdateFoodRequestDto dto, ImageSource image, DataCallback<ApiResponse<FoodDataResponseDto>> callback) {
         Map<String, String> formFields = createFormFieldsFromDto(dto);
 
-        putMultipart(
+        return putMultipart(
                 AppConfig.Endpoints.FOOD_UPDATE,
                 formFields,
-                imageFile,
+                image,
                 "Image",
+                ImagePreprocessor.Target.UPLOAD,
+                RequestPriority.INTERACTIVE,
                 new TypeToken<ApiResponse<FoodDataResponseDto>>() {},
                 callback
         );
@@ -111,11 +128,11 @@ public class FoodApiClient extends BaseApiClient {
         }
         if (dto.getInstructions() != null && !dto.getInstructions().isEmpty()) {
             // Convert list to JSON string
-            formFields.put("Instructions", new Gson().toJson(dto.getInstructions()));
+            formFields.put("Instructions", gson.toJson(dto.getInstructions()));
         }
         if (dto.getTips() != null && !dto.getTips().isEmpty()) {
             // Convert list to JSON string
-            formFields.put("Tips", new Gson().toJson(dto.getTips()));
+            formFields.put("Tips", gson.toJson(dto.getTips()));
         }
         formFields.put("DifficultyLevel", String.valueOf(dto.getDifficultyLevel()));
 
@@ -172,11 +189,11 @@ public class FoodApiClient extends BaseApiClient {
         }
         if (dto.getInstructions() != null && !dto.getInstructions().isEmpty()) {
             // Convert list to JSON string
-            formFields.put("Instructions", new Gson().toJson(dto.getInstructions()));
+            formFields.put("Instructions", gson.toJson(dto.getInstructions()));
         }
         if (dto.getTips() != null && !dto.getTips().isEmpty()) {
             // Convert list to JSON string
-            formFields.put("Tips", new Gson().toJson(dto.getTips()));
+            formFields.put("Tips", gson.toJson(dto.getTips()));
         }
         formFields.put("DifficultyLevel", String.valueOf(dto.getDifficultyLevel()));
 
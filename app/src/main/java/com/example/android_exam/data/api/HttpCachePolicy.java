@@ -0,0 +1,126 @@
+package com.example.android_exam.data.api;
+
+import com.example.android_exam.core.config.AppConfig;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Chính sách cache HTTP theo endpoint cho các GET.
+ * - Network interceptor gắn Cache-Control max-age khi server không gửi, để OkHttp Cache lưu response
+ *   và tự revalidate bằng If-None-Match / If-Modified-Since khi hết hạn.
+ * - Application interceptor trả dữ liệu cũ (stale) từ cache khi mất mạng.
+ */
+public class HttpCachePolicy {
+
+    // Endpoint path (tương đối với BASE_URL) -> thời gian fresh (giây)
+    private static final Map<Pattern, Integer> FRESHNESS = new LinkedHashMap<>();
+
+    static {
+        FRESHNESS.put(Pattern.compile("^" + AppConfig.Endpoints.FOOD_BASE + "/\\d+$"),
+                AppConfig.Http.CACHE_FOOD_MAX_AGE_SECONDS);
+        FRESHNESS.put(Pattern.compile("^" + AppConfig.Endpoints.INGREDIENT_BASE + "/\\d+$"),
+                AppConfig.Http.CACHE_INGREDIENT_MAX_AGE_SECONDS);
+        FRESHNESS.put(Pattern.compile("^" + AppConfig.Endpoints.INGREDIENT_LIST + "$"),
+                AppConfig.Http.CACHE_INGREDIENT_LIST_MAX_AGE_SECONDS);
+        FRESHNESS.put(Pattern.compile("^" + AppConfig.Endpoints.AUTH_ME + "$"),
+                AppConfig.Http.CACHE_AUTH_ME_MAX_AGE_SECONDS);
+    }
+
+    private HttpCachePolicy() {
+    }
+
+    /**
+     * Path của URL tương đối với BASE_URL, null nếu URL không thuộc backend
+     */
+    static String relativePath(HttpUrl url) {
+        String full = url.newBuilder().query(null).build().toString();
+        if (!full.startsWith(AppConfig.BASE_URL)) {
+            return null;
+        }
+        return full.substring(AppConfig.BASE_URL.length());
+    }
+
+    /**
+     * Thời gian fresh (giây) cho request, -1 nếu endpoint không được cache
+     * hoặc request đòi dữ liệu mới từ server (CacheControl.FORCE_NETWORK - không fallback sang bản stale)
+     */
+    static int maxAgeFor(Request request) {
+        if (!"GET".equals(request.method()) || request.cacheControl().noCache()) {
+            return -1;
+        }
+        String path = relativePath(request.url());
+        if (path == null) {
+            return -1;
+        }
+        for (Map.Entry<Pattern, Integer> entry : FRESHNESS.entrySet()) {
+            if (entry.getKey().matcher(path).matches()) {
+                return entry.getValue();
+            }
+        }
+        return -1;
+    }
+
+    static boolean isCacheable(Request request) {
+        return maxAgeFor(request) >= 0;
+    }
+
+    /**
+     * Network interceptor: gắn freshness cho response nếu server không khai báo Cache-Control
+     */
+    static class FreshnessInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+
+            int maxAge = maxAgeFor(request);
+            if (maxAge < 0 || !response.isSuccessful() || response.header("Cache-Control") != null) {
+                return response;
+            }
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "private, max-age=" + maxAge)
+                    .build();
+        }
+    }
+
+    /**
+     * Application interceptor: khi mất mạng thì trả response cũ trong cache (nếu có)
+     */
+    static class OfflineFallbackInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            try {
+                return chain.proceed(request);
+            } catch (IOException e) {
+                if (!isCacheable(request) || chain.call().isCanceled()) {
+                    throw e;
+                }
+                Request offlineRequest = request.newBuilder()
+                        .cacheControl(new CacheControl.Builder()
+                                .onlyIfCached()
+                                .maxStale(AppConfig.Http.CACHE_MAX_STALE_DAYS, TimeUnit.DAYS)
+                                .build())
+                        .build();
+                Response cached = chain.proceed(offlineRequest);
+                if (cached.code() == 504) {
+                    // Không có trong cache: trả lỗi mạng gốc
+                    cached.close();
+                    throw e;
+                }
+                return cached;
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.android_exam.data.api;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.android_exam.App;
+import com.example.android_exam.core.config.AppConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+/**
+ * App-wide HTTP engine.
+ * Mọi API client và uploader dùng chung một ConnectionPool và một Dispatcher,
+ * nên keep-alive socket được tái sử dụng giữa các màn hình.
+ * Các profile timeout được tạo bằng newBuilder() nên vẫn chia sẻ pool/dispatcher.
+ */
+public class HttpEngine {
+    private static HttpEngine instance;
+
+    /**
+     * Timeout profile cho từng loại request
+     */
+    public enum Profile {
+        JSON,
+        UPLOAD
+    }
+
+    private final ConnectionPool connectionPool;
+    private final Dispatcher dispatcher;
+    private final Cache cache;
+    private final OkHttpClient baseClient;
+    private final OkHttpClient jsonClient;
+    private final OkHttpClient uploadClient;
+
+    private HttpEngine() {
+        connectionPool = new ConnectionPool(
+                AppConfig.Http.MAX_IDLE_CONNECTIONS,
+                AppConfig.Http.KEEP_ALIVE_MINUTES,
+                TimeUnit.MINUTES);
+
+        dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(AppConfig.Http.MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(AppConfig.Http.MAX_REQUESTS_PER_HOST);
+
+        cache = createCache();
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .dispatcher(dispatcher)
+                .eventListenerFactory(NetworkMetrics.getInstance().getListenerFactory())
+                .retryOnConnectionFailure(true);
+        if (cache != null) {
+            builder.cache(cache)
+                    .addInterceptor(new HttpCachePolicy.OfflineFallbackInterceptor())
+                    .addNetworkInterceptor(new HttpCachePolicy.FreshnessInterceptor());
+        }
+        baseClient = builder.build();
+
+        jsonClient = baseClient.newBuilder()
+                .connectTimeout(AppConfig.Http.JSON_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(AppConfig.Http.JSON_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(AppConfig.Http.JSON_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+
+        uploadClient = baseClient.newBuilder()
+                .connectTimeout(AppConfig.Http.UPLOAD_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(AppConfig.Http.UPLOAD_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(AppConfig.Http.UPLOAD_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    private static Cache createCache() {
+        App app = App.getInstance();
+        if (app == null) {
+            return null;
+        }
+        Context context = app.getApplicationContext();
+        File dir = new File(context.getCacheDir(), AppConfig.Http.CACHE_DIR_NAME);
+        return new Cache(dir, AppConfig.Http.CACHE_SIZE_BYTES);
+    }
+
+    public static synchronized HttpEngine getInstance() {
+        if (instance == null) {
+            instance = new HttpEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Get client cho profile cụ thể
+     */
+    public OkHttpClient client(Profile profile) {
+        return profile == Profile.UPLOAD ? uploadClient : jsonClient;
+    }
+
+    /**
+     * Chọn profile theo request: multipart body dùng profile UPLOAD
+     */
+    public OkHttpClient clientFor(Request request) {
+        return client(profileFor(request));
+    }
+
+    public static Profile profileFor(Request request) {
+        return request.body() instanceof MultipartBody ? Profile.UPLOAD : Profile.JSON;
+    }
+
+    /**
+     * Executor của Dispatcher - thread mà callback của API client chạy trên đó
+     */
+    public Executor callbackExecutor() {
+        return dispatcher.executorService();
+    }
+
+    /**
+     * Snapshot thống kê pool và dispatcher
+     */
+    public Stats getStats() {
+        return new Stats(
+                connectionPool.connectionCount(),
+                connectionPool.idleConnectionCount(),
+                dispatcher.runningCallsCount(),
+                dispatcher.queuedCallsCount(),
+                cache != null ? cache.hitCount() : 0,
+                cache != null ? cache.networkCount() : 0,
+                cache != null ? cache.requestCount() : 0);
+    }
+
+    /**
+     * Đóng các kết nối idle (ví dụ khi app vào background lâu)
+     */
+    public void evictIdleConnections() {
+        connectionPool.evictAll();
+    }
+
+    /**
+     * Xoá các response trong disk cache có URL bắt đầu bằng prefix
+     */
+    public void invalidateCache(String urlPrefix) {
+        if (cache == null) {
+            return;
+        }
+        try {
+            Iterator<String> urls = cache.urls();
+            while (urls.hasNext()) {
+                if (urls.next().startsWith(urlPrefix)) {
+                    urls.remove();
+                }
+            }
+        } catch (IOException e) {
+            Log.w("HttpEngine", "Cannot invalidate cache for " + urlPrefix, e);
+        }
+    }
+
+    /**
+     * Xoá toàn bộ disk cache (ví dụ khi đổi tài khoản). Xoá file trên disk nên không gọi trên main thread.
+     */
+    public void clearCache() {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.evictAll();
+        } catch (IOException e) {
+            Log.w("HttpEngine", "Cannot clear cache", e);
+        }
+    }
+
+    public static class Stats {
+        private final int connectionCount;
+        private final int idleConnectionCount;
+        private final int runningCalls;
+        private final int queuedCalls;
+        private final int cacheHits;
+        private final int cacheNetworkCount;
+        private final int cacheRequestCount;
+
+        Stats(int connectionCount, int idleConnectionCount, int runningCalls, int queuedCalls,
+              int cacheHits, int cacheNetworkCount, int cacheRequestCount) {
+            this.connectionCount = connectionCount;
+            this.idleConnectionCount = idleConnectionCount;
+            this.runningCalls = runningCalls;
+            this.queuedCalls = queuedCalls;
+            this.cacheHits = cacheHits;
+            this.cacheNetworkCount = cacheNetworkCount;
+            this.cacheRequestCount = cacheRequestCount;
+        }
+
+        public int getConnectionCount() {
+            return connectionCount;
+        }
+
+        public int getIdleConnectionCount() {
+            return idleConnectionCount;
+        }
+
+        public int getActiveConnectionCount() {
+            return connectionCount - idleConnectionCount;
+        }
+
+        public int getRunningCalls() {
+            return runningCalls;
+        }
+
+        public int getQueuedCalls() {
+            return queuedCalls;
+        }
+
+        /**
+         * Số response phục vụ từ disk cache (bao gồm cả revalidate 304)
+         */
+        public int getCacheHits() {
+            return cacheHits;
+        }
+
+        public int getCacheNetworkCount() {
+            return cacheNetworkCount;
+        }
+
+        public int getCacheRequestCount() {
+            return cacheRequestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "HttpEngine.Stats{connections=" + connectionCount +
+                    ", idle=" + idleConnectionCount +
+                    ", running=" + runningCalls +
+                    ", queued=" + queuedCalls +
+                    ", cacheHits=" + cacheHits +
+                    ", cacheNetwork=" + cacheNetworkCount +
+                    ", cacheRequests=" + cacheRequestCount + "}";
+        }
+    }
+}
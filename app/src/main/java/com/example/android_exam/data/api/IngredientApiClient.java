@@ -10,46 +10,59 @@ import com.example.android_exam.data.dto.ingredient.IngredientFilterDto;
 import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
 import com.example.android_exam.data.dto.ingredient.UpdateIngredientRequestDto;
 import com.example.android_exam.data.dto.response.ApiResponse;
+import com.example.android_exam.module.image.ImagePreprocessor;
+import com.example.android_exam.module.image.ImageSource;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
+import okhttp3.CacheControl;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
 
 public class IngredientApiClient extends BaseApiClient {
 
     // Tạo ingredient chỉ với JSON (không có file)
-    public void createIngredient(CreateIngredientRequestDto dto, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
-        createIngredient(dto, null, callback);
+    public ApiCall createIngredient(CreateIngredientRequestDto dto, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
+        return createIngredient(dto, (ImageSource) null, callback);
     }
 
     // Tạo ingredient với file
-    public void createIngredient(CreateIngredientRequestDto dto, File imageFile, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
+    public ApiCall createIngredient(CreateIngredientRequestDto dto, File imageFile, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
+        return createIngredient(dto, imageFile != null ? ImageSource.of(imageFile) : null, callback);
+    }
+
+    public ApiCall createIngredient(CreateIngredientRequestDto dto, ImageSource image, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
         Map<String, String> formFields = createFormFieldsFromDto(dto);
 
-        postMultipart(
+        return postMultipart(
                 AppConfig.Endpoints.INGREDIENT_CREATE,
                 formFields,
-                imageFile,
+                image,
                 "Image",
+                ImagePreprocessor.Target.UPLOAD,
+                RequestPriority.INTERACTIVE,
                 new TypeToken<ApiResponse<IngredientDataResponseDto>>() {},
                 callback
         );
     }
 
     // Update ingredient chỉ với JSON
-    public void updateIngredient(UpdateIngredientRequestDto dto, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
-        updateIngredient(dto, null, callback);
+    public ApiCall updateIngredient(UpdateIngredientRequestDto dto, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
+        return updateIngredient(dto, (ImageSource) null, callback);
     }
 
     // Update ingredient với file
-    public void updateIngredient(UpdateIngredientRequestDto dto, File imageFile, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
+    public ApiCall updateIngredient(UpdateIngredientRequestDto dto, File imageFile, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
+        return updateIngredient(dto, imageFile != null ? ImageSource.of(imageFile) : null, callback);
+    }
+
+    public ApiCall updateIngredient(UpdateIngredientRequestDto dto, ImageSource image, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
         if (dto.getId() == null) {
             callback.onError("Ingredient ID is required for update");
-            return;
+            return ApiCall.completed();
         }
         
         Map<String, String> formFields = createFormFieldsFromDto(dto);
@@ -57,32 +70,35 @@ public class IngredientApiClient extends BaseApiClient {
         formFields.remove("Id");
         
         String endpoint = String.format(AppConfig.Endpoints.INGREDIENT_UPDATE, dto.getId());
-        putMultipart(
+        return putMultipart(
                 endpoint,
                 formFields,
-                imageFile,
+                image,
                 "Image",
+                ImagePreprocessor.Target.UPLOAD,
+                RequestPriority.INTERACTIVE,
                 new TypeToken<ApiResponse<IngredientDataResponseDto>>() {},
                 callback
         );
     }
 
     // Delete ingredient - id in path, body is optional according to API doc
-    public void deleteIngredient(int id, DataCallback<ApiResponse<Boolean>> callback) {
+    public ApiCall deleteIngredient(int id, DataCallback<ApiResponse<Boolean>> callback) {
         String endpoint = String.format(AppConfig.Endpoints.INGREDIENT_DELETE, id);
         // DELETE with path parameter, body contains id (as per API doc)
         DeleteIngredientRequestDto dto = new DeleteIngredientRequestDto();
         dto.setId(id);
-        delete(endpoint, dto, new TypeToken<ApiResponse<Boolean>>(){}, callback);
+        return delete(endpoint, dto, new TypeToken<ApiResponse<Boolean>>(){}, callback);
     }
 
     // Get ingredient by ID
-    public void getIngredientById(int id, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
-        get(String.format(AppConfig.Endpoints.INGREDIENT_BY_ID, id), new TypeToken<ApiResponse<IngredientDataResponseDto>>(){}, callback);
+    public ApiCall getIngredientById(int id, DataCallback<ApiResponse<IngredientDataResponseDto>> callback) {
+        return get(String.format(AppConfig.Endpoints.INGREDIENT_BY_ID, id), new TypeToken<ApiResponse<IngredientDataResponseDto>>(){}, callback);
     }
 
     // Get all ingredients với filter - matches API documentation
-    public void getAllIngredients(IngredientFilterDto filter, DataCallback<ApiResponse<IngredientSearchResultDto>> callback) {
+    // priority: các trang của lượt sync dùng VISIBLE_PREFETCH để nhường chỗ cho request người dùng đang chờ
+    public ApiCall getAllIngredients(IngredientFilterDto filter, RequestPriority priority, DataCallback<ApiResponse<IngredientSearchResultDto>> callback) {
         // Build query parameters according to API doc
         HttpUrl.Builder urlBuilder = HttpUrl.parse(AppConfig.BASE_URL + AppConfig.Endpoints.INGREDIENT_LIST).newBuilder();
 
@@ -110,16 +126,25 @@ public class IngredientApiClient extends BaseApiClient {
                     .formatDateTimeToIsoUTC(filter.getExpiryDateTo());
             urlBuilder.addQueryParameter("expiryDateTo", dateTo);
         }
+        if (filter.getUpdatedSince() != null) {
+            // Delta sync: server chỉ trả các row thay đổi sau thời điểm này (kèm deletedIds)
+            String updatedSince = com.example.android_exam.core.datetime.DateTimeManager.getInstance()
+                    .formatDateTimeToIsoUTC(filter.getUpdatedSince());
+            urlBuilder.addQueryParameter("updatedSince", updatedSince);
+        }
 
         HttpUrl finalUrl = urlBuilder.build();
         Log.d("IngredientApiClient", "Query URL: " + finalUrl.toString());
 
-        Request request = createRequestBuilder("")
+        // Danh sách chỉ dùng để sync vào Room: luôn lấy từ server, không trả bản trong HTTP cache
+        // (max-age của endpoint), nếu không pull-to-refresh trong vòng max-age sẽ không thấy thay đổi mới
+        Request request = withPriority(createRequestBuilder("")
                 .url(finalUrl)
+                .cacheControl(CacheControl.FORCE_NETWORK)
                 .get()
-                .build();
+                .build(), priority);
 
-        executeRequest(request, new TypeToken<ApiResponse<IngredientSearchResultDto>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<IngredientSearchResultDto>>(){}, callback);
     }
 
     // Utility method để tạo form fields từ CreateIngredientRequestDto
@@ -0,0 +1,297 @@
+package com.example.android_exam.data.api;
+
+import com.example.android_exam.core.config.AppConfig;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+
+/**
+ * Thu thập timing mạng theo từng request (connect, ghi request, TTFB, đọc body, decode) và kích thước payload.
+ * Các mẫu được lưu trong ring buffer lock-free; histogram theo endpoint được tính khi cần (debug screen / JSON report).
+ */
+public class NetworkMetrics {
+    private static final NetworkMetrics instance = new NetworkMetrics(AppConfig.Http.METRICS_RING_CAPACITY);
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    // Biên trên (ms) của các bucket histogram, bucket cuối là "lớn hơn"
+    private static final long[] BUCKET_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    public enum Phase {
+        CONNECT,
+        REQUEST_WRITE,
+        TTFB,
+        BODY_READ,
+        DECODE,
+        TOTAL
+    }
+
+    private final AtomicReferenceArray<Sample> ring;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+
+    // Không giữ map call -> listener: call bị huỷ khi còn trong RequestScheduler không bao giờ chạy
+    // nên không có callEnd / callFailed để gỡ entry. Decode time đi qua tag DecodeTiming của request.
+    private final EventListener.Factory listenerFactory = call -> new TimingEventListener(this, endpointOf(call));
+
+    private NetworkMetrics(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public static NetworkMetrics getInstance() {
+        return instance;
+    }
+
+    EventListener.Factory getListenerFactory() {
+        return listenerFactory;
+    }
+
+    /**
+     * Ghi nhận thời gian decode JSON cho call (request phải có tag DecodeTiming).
+     * Gọi được cả sau khi call đã kết thúc và sample đã nằm trong ring buffer.
+     */
+    void recordDecode(Call call, long decodeNanos) {
+        DecodeTiming timing = call.request().tag(DecodeTiming.class);
+        if (timing != null) {
+            timing.record(decodeNanos);
+        }
+    }
+
+    void publish(Sample sample) {
+        ring.set((int) (cursor.getAndIncrement() & mask), sample);
+    }
+
+    /**
+     * Gắn vào Request qua tag(DecodeTiming.class, ...) để nối decode time với sample của call.
+     * Đọc body tới EOF / đóng body làm OkHttp gọi callEnd nên sample thường được publish trước khi decode xong;
+     * khi đó decode time được ghi thẳng vào sample. Decode xong trước (ví dụ trả từ cache, không đọc body)
+     * thì giữ lại cho tới khi sample được tạo.
+     */
+    static final class DecodeTiming {
+        private Sample sample;
+        private long decodeNanos = -1;
+
+        synchronized void attach(Sample sample) {
+            this.sample = sample;
+            if (decodeNanos >= 0) {
+                sample.decodeNanos = decodeNanos;
+            }
+        }
+
+        synchronized void record(long nanos) {
+            decodeNanos = nanos;
+            if (sample != null) {
+                sample.decodeNanos = nanos;
+            }
+        }
+    }
+
+    /**
+     * Tên endpoint đã chuẩn hoá, ví dụ "GET food/{id}"
+     */
+    static String endpointOf(Call call) {
+        HttpUrl url = call.request().url();
+        String path = HttpCachePolicy.relativePath(url);
+        if (path == null) {
+            path = url.host() + url.encodedPath();
+        }
+        return call.request().method() + " " + NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    /**
+     * Copy các mẫu hiện có trong ring buffer
+     */
+    public List<Sample> snapshot() {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < ring.length(); i++) {
+            Sample sample = ring.get(i);
+            if (sample != null) {
+                samples.add(sample);
+            }
+        }
+        return samples;
+    }
+
+    public void clear() {
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, null);
+        }
+    }
+
+    /**
+     * Report JSON theo endpoint: số lượng, percentile và histogram cho từng phase, kích thước payload
+     */
+    public String dumpJson() {
+        Map<String, List<Sample>> byEndpoint = new TreeMap<>();
+        for (Sample sample : snapshot()) {
+            List<Sample> list = byEndpoint.get(sample.endpoint);
+            if (list == null) {
+                list = new ArrayList<>();
+                byEndpoint.put(sample.endpoint, list);
+            }
+            list.add(sample);
+        }
+
+        JsonObject root = new JsonObject();
+        root.addProperty("generatedAt", System.currentTimeMillis());
+        JsonArray bounds = new JsonArray();
+        for (long bound : BUCKET_BOUNDS_MS) {
+            bounds.add(bound);
+        }
+        root.add("bucketBoundsMs", bounds);
+
+        JsonObject endpoints = new JsonObject();
+        for (Map.Entry<String, List<Sample>> entry : byEndpoint.entrySet()) {
+            endpoints.add(entry.getKey(), endpointReport(entry.getValue()));
+        }
+        root.add("endpoints", endpoints);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(root);
+    }
+
+    private static JsonObject endpointReport(List<Sample> samples) {
+        JsonObject report = new JsonObject();
+        int failed = 0;
+        int fromCache = 0;
+        long requestBytes = 0;
+        long responseBytes = 0;
+        long maxResponseBytes = 0;
+        for (Sample sample : samples) {
+            if (sample.failed) failed++;
+            if (sample.fromCache) fromCache++;
+            requestBytes += sample.requestBytes;
+            responseBytes += sample.responseBytes;
+            maxResponseBytes = Math.max(maxResponseBytes, sample.responseBytes);
+        }
+        report.addProperty("count", samples.size());
+        report.addProperty("failed", failed);
+        report.addProperty("fromCache", fromCache);
+        report.addProperty("avgRequestBytes", requestBytes / samples.size());
+        report.addProperty("avgResponseBytes", responseBytes / samples.size());
+        report.addProperty("maxResponseBytes", maxResponseBytes);
+
+        JsonObject phases = new JsonObject();
+        for (Phase phase : Phase.values()) {
+            long[] values = new long[samples.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = samples.get(i).millis(phase);
+            }
+            phases.add(phase.name().toLowerCase(), phaseReport(values));
+        }
+        report.add("phasesMs", phases);
+        return report;
+    }
+
+    private static JsonObject phaseReport(long[] values) {
+        Arrays.sort(values);
+        JsonObject report = new JsonObject();
+        report.addProperty("p50", percentile(values, 50));
+        report.addProperty("p90", percentile(values, 90));
+        report.addProperty("p99", percentile(values, 99));
+        report.addProperty("max", values.length > 0 ? values[values.length - 1] : 0);
+
+        long[] buckets = new long[BUCKET_BOUNDS_MS.length + 1];
+        for (long value : values) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && value > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket]++;
+        }
+        JsonArray histogram = new JsonArray();
+        for (long count : buckets) {
+            histogram.add(count);
+        }
+        report.add("histogram", histogram);
+        return report;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Một mẫu timing (immutable, trừ decodeNanos được gắn sau khi publish)
+     */
+    public static class Sample {
+        final String endpoint;
+        final long timestamp;
+        final int code;
+        final boolean failed;
+        final boolean fromCache;
+        final long connectNanos;
+        final long requestWriteNanos;
+        final long ttfbNanos;
+        final long bodyReadNanos;
+        volatile long decodeNanos;
+        final long totalNanos;
+        final long requestBytes;
+        final long responseBytes;
+
+        Sample(String endpoint, long timestamp, int code, boolean failed, boolean fromCache,
+               long connectNanos, long requestWriteNanos, long ttfbNanos, long bodyReadNanos,
+               long decodeNanos, long totalNanos, long requestBytes, long responseBytes) {
+            this.endpoint = endpoint;
+            this.timestamp = timestamp;
+            this.code = code;
+            this.failed = failed;
+            this.fromCache = fromCache;
+            this.connectNanos = connectNanos;
+            this.requestWriteNanos = requestWriteNanos;
+            this.ttfbNanos = ttfbNanos;
+            this.bodyReadNanos = bodyReadNanos;
+            this.decodeNanos = decodeNanos;
+            this.totalNanos = totalNanos;
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public long millis(Phase phase) {
+            switch (phase) {
+                case CONNECT:
+                    return connectNanos / 1_000_000;
+                case REQUEST_WRITE:
+                    return requestWriteNanos / 1_000_000;
+                case TTFB:
+                    return ttfbNanos / 1_000_000;
+                case BODY_READ:
+                    return bodyReadNanos / 1_000_000;
+                case DECODE:
+                    return decodeNanos / 1_000_000;
+                case TOTAL:
+                default:
+                    return totalNanos / 1_000_000;
+            }
+        }
+    }
+}
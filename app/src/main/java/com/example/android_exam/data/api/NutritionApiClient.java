@@ -20,7 +20,7 @@ public class NutritionApiClient extends BaseApiClient {
      * @param userNutritionRequest Request containing date and user information
      * @param callback Callback to handle the response
      */
-    public void getDailyNutritionSummary(UserNutritionRequestDto userNutritionRequest,
+    public ApiCall getDailyNutritionSummary(UserNutritionRequestDto userNutritionRequest,
                                          DataCallback<ApiResponse<DailyNutritionSummaryDto>> callback) {
         String json = gson.toJson(userNutritionRequest);
         RequestBody body = RequestBody.create(json, MediaType.get(AppConfig.API_CONTENT_TYPE_JSON + "; charset=utf-8"));
@@ -29,7 +29,7 @@ public class NutritionApiClient extends BaseApiClient {
                 .post(body)
                 .build();
 
-        executeRequest(request, new TypeToken<ApiResponse<DailyNutritionSummaryDto>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<DailyNutritionSummaryDto>>(){}, callback);
     }
 
     /**
@@ -37,7 +37,7 @@ public class NutritionApiClient extends BaseApiClient {
      * @param userNutritionRequest Request containing start date, end date and user information
      * @param callback Callback to handle the response
      */
-    public void getWeeklyNutritionSummary(UserNutritionRequestDto userNutritionRequest,
+    public ApiCall getWeeklyNutritionSummary(UserNutritionRequestDto userNutritionRequest,
                                           DataCallback<ApiResponse<WeeklyNutritionSummaryDto>> callback) {
         String json = gson.toJson(userNutritionRequest);
         RequestBody body = RequestBody.create(json, MediaType.get(AppConfig.API_CONTENT_TYPE_JSON + "; charset=utf-8"));
@@ -46,7 +46,7 @@ public class NutritionApiClient extends BaseApiClient {
                 .post(body)
                 .build();
 
-        executeRequest(request, new TypeToken<ApiResponse<WeeklyNutritionSummaryDto>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<WeeklyNutritionSummaryDto>>(){}, callback);
     }
 
     /**
@@ -54,15 +54,21 @@ public class NutritionApiClient extends BaseApiClient {
      * @param userInformationDto User information for calculating nutrition targets
      * @param callback Callback to handle the response
      */
-    public void getOverviewNutritionSummary(UserInformationDto userInformationDto,
+    public ApiCall getOverviewNutritionSummary(UserInformationDto userInformationDto,
+                                            DataCallback<ApiResponse<OverviewNutritionSummaryDto>> callback) {
+        return getOverviewNutritionSummary(userInformationDto, RequestPriority.INTERACTIVE, callback);
+    }
+
+    public ApiCall getOverviewNutritionSummary(UserInformationDto userInformationDto, RequestPriority priority,
                                             DataCallback<ApiResponse<OverviewNutritionSummaryDto>> callback) {
         String json = gson.toJson(userInformationDto);
         RequestBody body = RequestBody.create(json, MediaType.get(AppConfig.API_CONTENT_TYPE_JSON + "; charset=utf-8"));
 
         Request request = createRequestBuilder(AppConfig.Endpoints.NUTRITION_OVERVIEW)
                 .post(body)
+                .tag(RequestPriority.class, priority)
                 .build();
 
-        executeRequest(request, new TypeToken<ApiResponse<OverviewNutritionSummaryDto>>(){}, callback);
+        return executeRequest(request, new TypeToken<ApiResponse<OverviewNutritionSummaryDto>>(){}, callback);
     }
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.example.android_exam.data.api;
+
+import com.example.android_exam.core.config.AppConfig;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
+
+/**
+ * Single-flight cho các request giống hệt nhau đang chạy.
+ * Key = method + URL + hash(body) (+ Authorization + response type).
+ * Request đầu tiên (leader) thực sự gọi mạng, các request sau join vào.
+ * Mỗi waiter nhận một object riêng (waiter đầu nhận bản đã decode, các waiter sau nhận bản copy qua JSON tree),
+ * nên một màn hình sửa kết quả của mình không làm thay đổi dữ liệu của màn hình khác.
+ */
+public class RequestCoalescer {
+    private final Gson gson;
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+
+    private final AtomicLong leaderCount = new AtomicLong();
+    private final AtomicLong joinedCount = new AtomicLong();
+
+    RequestCoalescer(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Tạo key cho request, trả về null nếu request không được phép gộp
+     * (multipart upload, POST không nằm trong danh sách read-only...)
+     */
+    static String keyFor(Request request, Type responseType) {
+        String method = request.method();
+        RequestBody body = request.body();
+        if (body instanceof MultipartBody) {
+            return null;
+        }
+        if (!"GET".equals(method) && !isReadOnlyPost(request)) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder()
+                .append(method).append(' ')
+                .append(request.url());
+        if (body != null) {
+            try {
+                Buffer buffer = new Buffer();
+                body.writeTo(buffer);
+                key.append('#').append(buffer.sha256().hex());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        String auth = request.header("Authorization");
+        if (auth != null) {
+            key.append("|auth=").append(auth.hashCode());
+        }
+        key.append("|type=").append(responseType.getTypeName());
+        return key.toString();
+    }
+
+    /**
+     * POST chỉ đọc dữ liệu (nutrition, suggestions) - an toàn để gộp
+     */
+    static boolean isReadOnlyPost(Request request) {
+        if (!"POST".equals(request.method())) {
+            return false;
+        }
+        String url = request.url().toString();
+        for (String endpoint : AppConfig.Http.COALESCED_POST_ENDPOINTS) {
+            if (url.equals(AppConfig.BASE_URL + endpoint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Đăng ký callback cho key.
+     * @return ApiCall dùng chung nếu caller là leader và phải tự thực hiện request,
+     *         null nếu đã join vào request đang chạy
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T> ApiCall join(String key, ResponseCallback<T> callback) {
+        InFlight flight = inFlight.get(key);
+        if (flight != null) {
+            flight.waiters.add((ResponseCallback<Object>) callback);
+            joinedCount.incrementAndGet();
+            return null;
+        }
+        flight = new InFlight();
+        flight.waiters.add((ResponseCallback<Object>) callback);
+        inFlight.put(key, flight);
+        leaderCount.incrementAndGet();
+        return flight.sharedCall;
+    }
+
+    /**
+     * ApiCall dùng chung của request đang chạy cho key (null nếu không có)
+     */
+    synchronized ApiCall sharedCallFor(String key) {
+        InFlight flight = inFlight.get(key);
+        return flight != null ? flight.sharedCall : null;
+    }
+
+    /**
+     * Caller huỷ: gỡ callback khỏi request đang chạy. Nếu không còn ai chờ thì huỷ luôn request dùng chung.
+     */
+    <T> void leave(String key, ResponseCallback<T> callback) {
+        ApiCall orphaned = null;
+        synchronized (this) {
+            InFlight flight = inFlight.get(key);
+            if (flight == null) {
+                return;
+            }
+            flight.waiters.remove(callback);
+            if (flight.waiters.isEmpty()) {
+                inFlight.remove(key);
+                orphaned = flight.sharedCall;
+            }
+        }
+        if (orphaned != null) {
+            orphaned.cancel();
+        }
+    }
+
+    /**
+     * Callback dùng cho request thật: khi hoàn tất sẽ gỡ key và phát kết quả cho mọi waiter
+     *
+     * @param type kiểu response, dùng để tạo bản copy cho từng waiter
+     */
+    <T> ResponseCallback<T> fanOut(String key, ApiCall sharedCall, Type type) {
+        return sharedCall.guard(new ResponseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                List<ResponseCallback<Object>> waiters = complete(key, sharedCall);
+                JsonElement tree = null;
+                for (int i = 0; i < waiters.size(); i++) {
+                    ResponseCallback<Object> waiter = waiters.get(i);
+                    if (i == 0 || result == null) {
+                        waiter.onSuccess(result);
+                        continue;
+                    }
+                    // Chỉ serialize một lần, decode ra object mới cho từng waiter còn lại
+                    Object copy;
+                    try {
+                        if (tree == null) {
+                            tree = gson.toJsonTree(result, type);
+                        }
+                        copy = gson.fromJson(tree, type);
+                    } catch (JsonParseException e) {
+                        waiter.onFailure(e);
+                        continue;
+                    }
+                    waiter.onSuccess(copy);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                for (ResponseCallback<Object> waiter : complete(key, sharedCall)) {
+                    waiter.onError(error);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                for (ResponseCallback<Object> waiter : complete(key, sharedCall)) {
+                    waiter.onFailure(throwable);
+                }
+            }
+        });
+    }
+
+    private synchronized List<ResponseCallback<Object>> complete(String key, ApiCall sharedCall) {
+        InFlight flight = inFlight.get(key);
+        if (flight == null || flight.sharedCall != sharedCall) {
+            // Request này đã bị bỏ (mọi waiter đã huỷ), key có thể thuộc request mới
+            return new ArrayList<>();
+        }
+        inFlight.remove(key);
+        return flight.waiters;
+    }
+
+    Stats getStats() {
+        synchronized (this) {
+            return new Stats(leaderCount.get(), joinedCount.get(), inFlight.size());
+        }
+    }
+
+    private static class InFlight {
+        final List<ResponseCallback<Object>> waiters = new ArrayList<>();
+        final ApiCall sharedCall = new ApiCall();
+    }
+
+    public static class Stats {
+        private final long executedRequests;
+        private final long savedRequests;
+        private final int inFlightKeys;
+
+        Stats(long executedRequests, long savedRequests, int inFlightKeys) {
+            this.executedRequests = executedRequests;
+            this.savedRequests = savedRequests;
+            this.inFlightKeys = inFlightKeys;
+        }
+
+        public long getExecutedRequests() {
+            return executedRequests;
+        }
+
+        /**
+         * Số request trùng lặp đã được gộp (không gọi mạng)
+         */
+        public long getSavedRequests() {
+            return savedRequests;
+        }
+
+        public int getInFlightKeys() {
+            return inFlightKeys;
+        }
+
+        @Override
+        public String toString() {
+            return "RequestCoalescer.Stats{executed=" + executedRequests +
+                    ", saved=" + savedRequests +
+                    ", inFlight=" + inFlightKeys + "}";
+        }
+    }
+}
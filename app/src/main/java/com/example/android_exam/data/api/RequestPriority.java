@@ -0,0 +1,24 @@
+package com.example.android_exam.data.api;
+
+import okhttp3.Request;
+
+/**
+ * Lớp ưu tiên của request, gắn vào Request qua tag(RequestPriority.class, ...).
+ * - INTERACTIVE: người dùng đang chờ (tap, mở màn hình, AI detection, tạo / sửa kèm ảnh) - gửi ngay, không xếp hàng
+ * - VISIBLE_PREFETCH: dữ liệu đang hiển thị nhưng không ai chờ (refresh gợi ý món ăn, đồng bộ kho nguyên liệu...)
+ * - BACKGROUND: widget, prefetch / sync nền - bị giới hạn và nhường cho request INTERACTIVE
+ */
+public enum RequestPriority {
+    INTERACTIVE,
+    VISIBLE_PREFETCH,
+    BACKGROUND;
+
+    /**
+     * Priority của request: theo tag nếu có, mặc định INTERACTIVE (kể cả multipart - upload do người dùng bấm).
+     * Việc nền phải tự gắn VISIBLE_PREFETCH / BACKGROUND.
+     */
+    public static RequestPriority of(Request request) {
+        RequestPriority tagged = request.tag(RequestPriority.class);
+        return tagged != null ? tagged : INTERACTIVE;
+    }
+}
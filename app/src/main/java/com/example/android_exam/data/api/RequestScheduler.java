@@ -0,0 +1,247 @@
+package com.example.android_exam.data.api;
+
+import com.example.android_exam.core.config.AppConfig;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * Lớp xếp hàng theo priority đứng trước Dispatcher của OkHttp (Dispatcher chỉ có FIFO).
+ * - INTERACTIVE được enqueue ngay vào Dispatcher.
+ * - VISIBLE_PREFETCH và BACKGROUND bị giới hạn số request chạy đồng thời, tổng của chúng luôn nhỏ hơn
+ *   MAX_REQUESTS_PER_HOST nên Dispatcher luôn còn chỗ cho request INTERACTIVE.
+ * - BACKGROUND chỉ chạy khi không có request INTERACTIVE nào đang chạy, trừ khi đã chờ quá
+ *   SCHEDULER_BACKGROUND_MAX_WAIT_MS (tránh bị đói). Hạn chờ được kiểm tra bằng timer, không chỉ khi có slot
+ *   được trả, vì request INTERACTIVE chạy lâu (hoặc liên tục) sẽ không gọi release trong khoảng đó.
+ */
+public class RequestScheduler {
+    private final int prefetchLimit;
+    private final int backgroundLimit;
+    private final long backgroundMaxWaitMs;
+
+    private final ArrayDeque<Pending> prefetchQueue = new ArrayDeque<>();
+    private final ArrayDeque<Pending> backgroundQueue = new ArrayDeque<>();
+    private final int[] running = new int[RequestPriority.values().length];
+    private long boostedCount;
+
+    // Kiểm tra lại hàng đợi BACKGROUND khi request cũ nhất hết hạn chờ
+    private final ScheduledExecutorService starvationTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "api-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    RequestScheduler(int prefetchLimit, int backgroundLimit, long backgroundMaxWaitMs) {
+        this.prefetchLimit = prefetchLimit;
+        this.backgroundLimit = backgroundLimit;
+        this.backgroundMaxWaitMs = backgroundMaxWaitMs;
+    }
+
+    RequestScheduler() {
+        this(AppConfig.Http.SCHEDULER_PREFETCH_MAX_CONCURRENT,
+                AppConfig.Http.SCHEDULER_BACKGROUND_MAX_CONCURRENT,
+                AppConfig.Http.SCHEDULER_BACKGROUND_MAX_WAIT_MS);
+    }
+
+    /**
+     * Enqueue call theo priority của request
+     */
+    void enqueue(Call call, Callback callback) {
+        RequestPriority priority = RequestPriority.of(call.request());
+        Pending pending = new Pending(call, callback, priority);
+        synchronized (this) {
+            if (priority != RequestPriority.INTERACTIVE && !canStart(priority)) {
+                queueFor(priority).addLast(pending);
+                if (priority == RequestPriority.BACKGROUND) {
+                    starvationTimer.schedule(this::promote, backgroundMaxWaitMs, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            running[priority.ordinal()]++;
+        }
+        dispatch(pending);
+    }
+
+    /**
+     * Caller INTERACTIVE đang chờ một call còn nằm trong hàng đợi (ví dụ join request bị gộp):
+     * đẩy call đó lên chạy ngay như INTERACTIVE
+     */
+    void boost(Call call) {
+        if (call == null) {
+            return;
+        }
+        Pending found = null;
+        synchronized (this) {
+            found = removePending(prefetchQueue, call);
+            if (found == null) {
+                found = removePending(backgroundQueue, call);
+            }
+            if (found == null) {
+                return;
+            }
+            found.priority = RequestPriority.INTERACTIVE;
+            running[RequestPriority.INTERACTIVE.ordinal()]++;
+            boostedCount++;
+        }
+        dispatch(found);
+    }
+
+    private void dispatch(Pending pending) {
+        if (pending.call.isCanceled()) {
+            // Bị huỷ khi còn trong hàng đợi: báo lỗi như OkHttp, không chiếm slot
+            release(pending.priority);
+            pending.callback.onFailure(pending.call, new IOException("Canceled"));
+            return;
+        }
+        pending.call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                try {
+                    pending.callback.onFailure(call, e);
+                } finally {
+                    release(pending.priority);
+                }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                // Giữ slot cho tới khi body đã đọc xong
+                try {
+                    pending.callback.onResponse(call, response);
+                } finally {
+                    release(pending.priority);
+                }
+            }
+        });
+    }
+
+    private void release(RequestPriority priority) {
+        synchronized (this) {
+            running[priority.ordinal()]--;
+        }
+        promote();
+    }
+
+    /**
+     * Chạy các request đang chờ khi có slot trống
+     */
+    private void promote() {
+        while (true) {
+            Pending next;
+            synchronized (this) {
+                if (!prefetchQueue.isEmpty() && canStart(RequestPriority.VISIBLE_PREFETCH)) {
+                    next = prefetchQueue.pollFirst();
+                } else if (!backgroundQueue.isEmpty() && canStart(RequestPriority.BACKGROUND)) {
+                    next = backgroundQueue.pollFirst();
+                } else {
+                    return;
+                }
+                running[next.priority.ordinal()]++;
+            }
+            dispatch(next);
+        }
+    }
+
+    private boolean canStart(RequestPriority priority) {
+        switch (priority) {
+            case VISIBLE_PREFETCH:
+                return running[priority.ordinal()] < prefetchLimit;
+            case BACKGROUND:
+                if (running[priority.ordinal()] >= backgroundLimit) {
+                    return false;
+                }
+                if (running[RequestPriority.INTERACTIVE.ordinal()] == 0) {
+                    return true;
+                }
+                Pending oldest = backgroundQueue.peekFirst();
+                return oldest != null && System.currentTimeMillis() - oldest.queuedAt >= backgroundMaxWaitMs;
+            case INTERACTIVE:
+            default:
+                return true;
+        }
+    }
+
+    private ArrayDeque<Pending> queueFor(RequestPriority priority) {
+        return priority == RequestPriority.BACKGROUND ? backgroundQueue : prefetchQueue;
+    }
+
+    private static Pending removePending(ArrayDeque<Pending> queue, Call call) {
+        Iterator<Pending> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Pending pending = iterator.next();
+            if (pending.call == call) {
+                iterator.remove();
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    synchronized Stats getStats() {
+        return new Stats(
+                running[RequestPriority.INTERACTIVE.ordinal()],
+                running[RequestPriority.VISIBLE_PREFETCH.ordinal()],
+                running[RequestPriority.BACKGROUND.ordinal()],
+                prefetchQueue.size(),
+                backgroundQueue.size(),
+                boostedCount);
+    }
+
+    private static class Pending {
+        final Call call;
+        final Callback callback;
+        final long queuedAt = System.currentTimeMillis();
+        RequestPriority priority;
+
+        Pending(Call call, Callback callback, RequestPriority priority) {
+            this.call = call;
+            this.callback = callback;
+            this.priority = priority;
+        }
+    }
+
+    public static class Stats {
+        private final int interactiveRunning;
+        private final int prefetchRunning;
+        private final int backgroundRunning;
+        private final int prefetchQueued;
+        private final int backgroundQueued;
+        private final long boosted;
+
+        Stats(int interactiveRunning, int prefetchRunning, int backgroundRunning,
+              int prefetchQueued, int backgroundQueued, long boosted) {
+            this.interactiveRunning = interactiveRunning;
+            this.prefetchRunning = prefetchRunning;
+            this.backgroundRunning = backgroundRunning;
+            this.prefetchQueued = prefetchQueued;
+            this.backgroundQueued = backgroundQueued;
+            this.boosted = boosted;
+        }
+
+        public int getPrefetchQueued() {
+            return prefetchQueued;
+        }
+
+        public int getBackgroundQueued() {
+            return backgroundQueued;
+        }
+
+        @Override
+        public String toString() {
+            return "RequestScheduler.Stats{running=[interactive=" + interactiveRunning +
+                    ", prefetch=" + prefetchRunning +
+                    ", background=" + backgroundRunning +
+                    "], queued=[prefetch=" + prefetchQueued +
+                    ", background=" + backgroundQueued +
+                    "], boosted=" + boosted + "}";
+        }
+    }
+}
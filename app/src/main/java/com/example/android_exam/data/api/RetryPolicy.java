@@ -0,0 +1,101 @@
+package com.example.android_exam.data.api;
+
+import com.example.android_exam.core.config.AppConfig;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Chính sách retry theo endpoint.
+ * - GET và các POST chỉ đọc: exponential backoff với full jitter.
+ * - Multipart POST (AI detect, tạo food/ingredient) và các request thay đổi dữ liệu: không retry,
+ *   trừ khi request có header Idempotency-Key.
+ */
+public class RetryPolicy {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final RetryPolicy NO_RETRY = new RetryPolicy(1, 0, 0);
+    private static final RetryPolicy READ = new RetryPolicy(
+            AppConfig.Http.RETRY_MAX_ATTEMPTS,
+            AppConfig.Http.RETRY_BASE_DELAY_MS,
+            AppConfig.Http.RETRY_MAX_DELAY_MS);
+    private static final RetryPolicy UPLOAD = new RetryPolicy(
+            AppConfig.Http.UPLOAD_RETRY_MAX_ATTEMPTS,
+            AppConfig.Http.UPLOAD_RETRY_BASE_DELAY_MS,
+            AppConfig.Http.RETRY_MAX_DELAY_MS);
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Chọn policy cho request
+     */
+    public static RetryPolicy forRequest(Request request) {
+        boolean hasIdempotencyKey = request.header(IDEMPOTENCY_KEY_HEADER) != null;
+        if (request.body() instanceof MultipartBody) {
+            return hasIdempotencyKey ? UPLOAD : NO_RETRY;
+        }
+        if ("GET".equals(request.method()) || RequestCoalescer.isReadOnlyPost(request) || hasIdempotencyKey) {
+            return READ;
+        }
+        return NO_RETRY;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Có nên thử lại sau lỗi mạng ở lần thử thứ attempt (bắt đầu từ 1)
+     */
+    public boolean shouldRetryOnFailure(int attempt, IOException e) {
+        if (attempt >= maxAttempts || e instanceof CircuitBreaker.CircuitOpenException) {
+            return false;
+        }
+        // Call bị huỷ (InterruptedIOException không phải timeout) thì không retry
+        return !(e instanceof InterruptedIOException) || e instanceof SocketTimeoutException;
+    }
+
+    /**
+     * Có nên thử lại sau response lỗi tạm thời (429, 502, 503, 504)
+     */
+    public boolean shouldRetryOnResponse(int attempt, Response response) {
+        return attempt < maxAttempts && isTransient(response.code());
+    }
+
+    public static boolean isTransient(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Thời gian chờ trước lần thử attempt + 1: full jitter trong [0, min(max, base * 2^(attempt-1))].
+     * Tôn trọng Retry-After (giây) nếu server gửi.
+     */
+    public long delayMs(int attempt, Response response) {
+        if (response != null) {
+            String retryAfter = response.header("Retry-After");
+            if (retryAfter != null) {
+                try {
+                    return Math.min(maxDelayMs, Long.parseLong(retryAfter.trim()) * 1000L);
+                } catch (NumberFormatException ignored) {
+                    // HTTP-date: dùng backoff bình thường
+                }
+            }
+        }
+        long cap = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.android_exam.data.api;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * EventListener cho từng call: đo các phase của request và publish vào NetworkMetrics khi call kết thúc.
+ * Mỗi call có một instance riêng và các event của một call được gọi tuần tự, nên không cần đồng bộ.
+ */
+class TimingEventListener extends EventListener {
+    private final NetworkMetrics metrics;
+    private final String endpoint;
+
+    private long callStart;
+    private long connectStart;
+    private long connectNanos;
+    private long requestStart;
+    private long requestEnd;
+    private long responseHeadersStart;
+    private long responseBodyStart;
+    private long responseBodyEnd;
+    private long requestBytes;
+    private long responseBytes;
+    private int code;
+    private boolean fromCache;
+
+    TimingEventListener(NetworkMetrics metrics, String endpoint) {
+        this.metrics = metrics;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                              Protocol protocol, IOException ioe) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+        requestBytes = byteCount;
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        responseHeadersStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        code = response.code();
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        responseBodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        responseBodyEnd = System.nanoTime();
+        responseBytes = byteCount;
+    }
+
+    @Override
+    public void cacheHit(Call call, Response response) {
+        fromCache = true;
+        code = response.code();
+    }
+
+    @Override
+    public void cacheConditionalHit(Call call, Response cachedResponse) {
+        fromCache = true;
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        publish(call, false);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        publish(call, true);
+    }
+
+    private void publish(Call call, boolean failed) {
+        long end = System.nanoTime();
+        NetworkMetrics.Sample sample = new NetworkMetrics.Sample(
+                endpoint,
+                System.currentTimeMillis(),
+                code,
+                failed,
+                fromCache,
+                connectNanos,
+                span(requestStart, requestEnd),
+                span(requestEnd, responseHeadersStart),
+                span(responseBodyStart, responseBodyEnd),
+                0,
+                span(callStart, end),
+                requestBytes,
+                responseBytes);
+        // Decode chạy sau callEnd: BaseApiClient ghi decode time vào sample qua tag của request
+        NetworkMetrics.DecodeTiming timing = call.request().tag(NetworkMetrics.DecodeTiming.class);
+        if (timing != null) {
+            timing.attach(sample);
+        }
+        metrics.publish(sample);
+    }
+
+    private static long span(long start, long end) {
+        return start > 0 && end >= start ? end - start : 0;
+    }
+}
@@ -21,6 +21,8 @@ public class IngredientDataResponseDto implements Serializable {
     private IngredientCategory category;
     private Date expiryDate;
     private String imageUrl;
+    // Thời điểm server cập nhật row lần cuối (dùng cho delta sync)
+    private Date updatedAt;
 
     // Constructors
     public IngredientDataResponseDto() {}
@@ -149,4 +151,12 @@ public class IngredientDataResponseDto implements Serializable {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
-}
\ No newline at end of file
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -28,6 +28,9 @@ public class IngredientFilterDto {
     @SerializedName("expiryDateTo")
     private Date expiryDateTo;
 
+    @SerializedName("updatedSince")
+    private Date updatedSince;
+
     // Getters and Setters
     public Integer getPage() {
         return page;
@@ -76,4 +79,12 @@ public class IngredientFilterDto {
     public void setExpiryDateTo(Date expiryDateTo) {
         this.expiryDateTo = expiryDateTo;
     }
+
+    public Date getUpdatedSince() {
+        return updatedSince;
+    }
+
+    public void setUpdatedSince(Date updatedSince) {
+        this.updatedSince = updatedSince;
+    }
 }
@@ -4,6 +4,7 @@ import com.google.gson.annotations.SerializedName;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 public class IngredientSearchResultDto implements Serializable {
@@ -11,10 +12,24 @@ public class IngredientSearchResultDto implements Serializable {
     private List<IngredientDataResponseDto> ingredients = new ArrayList<>();
     @SerializedName("totalCount")
     private int totalCount;
+    // Chỉ có khi server hỗ trợ updatedSince: id đã bị xoá (tombstone) và thời điểm server trả kết quả
+    @SerializedName("deletedIds")
+    private List<Integer> deletedIds;
+    @SerializedName("serverTime")
+    private Date serverTime;
 
     // Getters and Setters
     public List<IngredientDataResponseDto> getIngredients() { return ingredients; }
     public void setIngredients(List<IngredientDataResponseDto> ingredients) { this.ingredients = ingredients; }
     public int getTotalCount() { return totalCount; }
     public void setTotalCount(int totalCount) { this.totalCount = totalCount; }
+    public List<Integer> getDeletedIds() { return deletedIds; }
+    public void setDeletedIds(List<Integer> deletedIds) { this.deletedIds = deletedIds; }
+    public Date getServerTime() { return serverTime; }
+    public void setServerTime(Date serverTime) { this.serverTime = serverTime; }
+
+    /**
+     * Kết quả delta (chỉ các row thay đổi từ updatedSince) - server không hỗ trợ sẽ trả danh sách đầy đủ không có serverTime
+     */
+    public boolean isDelta() { return serverTime != null; }
 }
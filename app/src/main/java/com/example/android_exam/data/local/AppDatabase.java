@@ -0,0 +1,34 @@
+package com.example.android_exam.data.local;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+/**
+ * Database local của app (Room): kho nguyên liệu và trạng thái sync.
+ * Dữ liệu chỉ là bản sao của server nên khi đổi schema cho phép xoá và đồng bộ lại.
+ */
+@Database(entities = {IngredientEntity.class, SyncStateEntity.class}, version = 3, exportSchema = false)
+public abstract class AppDatabase extends RoomDatabase {
+    private static final String DATABASE_NAME = "android_exam.db";
+    private static volatile AppDatabase instance;
+
+    public abstract IngredientDao ingredientDao();
+
+    public abstract SyncStateDao syncStateDao();
+
+    public static AppDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (AppDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, DATABASE_NAME)
+                            .fallbackToDestructiveMigration()
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
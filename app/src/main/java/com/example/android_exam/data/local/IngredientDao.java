@@ -0,0 +1,83 @@
+package com.example.android_exam.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public abstract class IngredientDao {
+    // SQLite giới hạn 999 tham số bind mỗi câu lệnh (SQLITE_MAX_VARIABLE_NUMBER trên các bản Android cũ)
+    static final int MAX_IDS_PER_QUERY = 500;
+
+    @Query("SELECT * FROM ingredients ORDER BY expiry_date IS NULL, expiry_date")
+    public abstract List<IngredientEntity> getAll();
+
+    @Query("SELECT * FROM ingredients WHERE id = :id")
+    public abstract IngredientEntity getById(int id);
+
+    @Query("SELECT * FROM ingredients WHERE category = :category ORDER BY expiry_date IS NULL, expiry_date")
+    public abstract List<IngredientEntity> getByCategory(int category);
+
+    /**
+     * Nguyên liệu hết hạn trước thời điểm (dùng index expiry_date)
+     */
+    @Query("SELECT * FROM ingredients WHERE expiry_date IS NOT NULL AND expiry_date < :before ORDER BY expiry_date")
+    public abstract List<IngredientEntity> getExpiringBefore(long before);
+
+    /**
+     * Nguyên liệu còn có thể đổi trạng thái hạn dùng sau thời điểm after (range scan trên index expiry_date)
+     */
+    @Query("SELECT id, name, expiry_date FROM ingredients WHERE expiry_date >= :after")
+    public abstract List<IngredientExpiry> getExpiryTimeline(long after);
+
+    /**
+     * Tìm theo tiền tố tên, không phân biệt hoa thường (index name COLLATE NOCASE)
+     */
+    @Query("SELECT * FROM ingredients WHERE name LIKE :prefix || '%' ORDER BY name")
+    public abstract List<IngredientEntity> searchByNamePrefix(String prefix);
+
+    @Query("SELECT COUNT(*) FROM ingredients")
+    public abstract int count();
+
+    /**
+     * id + hash + thời điểm ghi của mọi row (không load cả row) để so sánh với dữ liệu server
+     */
+    @Query("SELECT id, row_hash, synced_at FROM ingredients")
+    public abstract List<IngredientRowHash> getRowHashes();
+
+    @Query("SELECT MAX(updated_at) FROM ingredients")
+    public abstract Long getMaxUpdatedAt();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void upsert(IngredientEntity entity);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void upsertAll(List<IngredientEntity> entities);
+
+    @Query("DELETE FROM ingredients WHERE id = :id")
+    public abstract void deleteById(int id);
+
+    @Query("DELETE FROM ingredients WHERE id IN (:ids)")
+    public abstract void deleteByIds(List<Integer> ids);
+
+    @Query("DELETE FROM ingredients")
+    public abstract void deleteAll();
+
+    /**
+     * Ghi một lượt thay đổi của sync (upsert + tombstone) trong một transaction.
+     * Tombstone được xoá theo từng nhóm MAX_IDS_PER_QUERY id vì IN (:ids) bind mỗi id thành một tham số.
+     */
+    @Transaction
+    public void applyChanges(List<IngredientEntity> upserts, List<Integer> deletedIds) {
+        for (int from = 0; from < deletedIds.size(); from += MAX_IDS_PER_QUERY) {
+            deleteByIds(deletedIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, deletedIds.size())));
+        }
+        if (!upserts.isEmpty()) {
+            upsertAll(upserts);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.android_exam.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+import com.example.android_exam.data.models.enums.IngredientUnit;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Row của kho nguyên liệu local (Room), id trùng với id trên server.
+ * Enum lưu theo mã int (toInt / fromInt), expiryDate lưu epoch millis, quantity lưu dạng string để giữ nguyên BigDecimal.
+ */
+@Entity(tableName = "ingredients",
+        indices = {
+                @Index("category"),
+                @Index("expiry_date"),
+                @Index("name")
+        })
+public class IngredientEntity {
+    // FNV-1a 64-bit
+    private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+    // Byte không xuất hiện trong UTF-8: đánh dấu field null / kết thúc field
+    private static final int HASH_NULL = 0xff;
+    private static final int HASH_SEPARATOR = 0xfe;
+
+    @PrimaryKey
+    private int id;
+
+    @NonNull
+    @ColumnInfo(name = "name", collate = ColumnInfo.NOCASE)
+    private String name = "";
+
+    private String description;
+
+    private String quantity;
+
+    private int unit;
+
+    @ColumnInfo(name = "category")
+    private int category;
+
+    @ColumnInfo(name = "expiry_date")
+    private Long expiryDate;
+
+    @ColumnInfo(name = "image_url")
+    private String imageUrl;
+
+    // Thời điểm row được đồng bộ từ server lần cuối
+    @ColumnInfo(name = "synced_at")
+    private long syncedAt;
+
+    // updatedAt của server - dùng tính high-water mark cho delta sync
+    @ColumnInfo(name = "updated_at")
+    private Long updatedAt;
+
+    // Hash nội dung row, so sánh khi server không hỗ trợ delta để chỉ ghi các row thay đổi
+    @ColumnInfo(name = "row_hash")
+    private long rowHash;
+
+    public static IngredientEntity fromDto(IngredientDataResponseDto dto, long syncedAt) {
+        IngredientEntity entity = new IngredientEntity();
+        entity.id = dto.getId();
+        entity.name = dto.getName() != null ? dto.getName() : "";
+        entity.description = dto.getDescription();
+        entity.quantity = dto.getQuantity() != null ? dto.getQuantity().toPlainString() : null;
+        entity.unit = (dto.getUnit() != null ? dto.getUnit() : IngredientUnit.OTHER).toInt();
+        entity.category = (dto.getCategory() != null ? dto.getCategory() : IngredientCategory.OTHER).toInt();
+        entity.expiryDate = dto.getExpiryDate() != null ? dto.getExpiryDate().getTime() : null;
+        entity.imageUrl = dto.getImageUrl();
+        entity.syncedAt = syncedAt;
+        entity.updatedAt = dto.getUpdatedAt() != null ? dto.getUpdatedAt().getTime() : null;
+        entity.rowHash = rowHash(dto);
+        return entity;
+    }
+
+    /**
+     * Hash 64-bit các field hiển thị của nguyên liệu (không gồm updatedAt / syncedAt).
+     * Chỉ dùng giá trị ổn định giữa các process (enum theo mã int, không dùng hashCode()) vì hash được lưu trong Room.
+     */
+    public static long rowHash(IngredientDataResponseDto dto) {
+        long hash = HASH_OFFSET;
+        hash = hashField(hash, dto.getName());
+        hash = hashField(hash, dto.getDescription());
+        hash = hashField(hash, dto.getQuantity() != null ? dto.getQuantity().stripTrailingZeros().toPlainString() : null);
+        hash = hashField(hash, dto.getUnit() != null ? String.valueOf(dto.getUnit().toInt()) : null);
+        hash = hashField(hash, dto.getCategory() != null ? String.valueOf(dto.getCategory().toInt()) : null);
+        hash = hashField(hash, dto.getExpiryDate() != null ? String.valueOf(dto.getExpiryDate().getTime()) : null);
+        hash = hashField(hash, dto.getImageUrl());
+        return hash;
+    }
+
+    private static long hashField(long hash, @Nullable String value) {
+        if (value == null) {
+            return (hash ^ HASH_NULL) * HASH_PRIME;
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * HASH_PRIME;
+        }
+        return (hash ^ HASH_SEPARATOR) * HASH_PRIME;
+    }
+
+    public IngredientDataResponseDto toDto() {
+        IngredientDataResponseDto dto = new IngredientDataResponseDto(
+                id,
+                name,
+                description,
+                quantity != null ? new BigDecimal(quantity) : null,
+                IngredientUnit.fromInt(unit),
+                IngredientCategory.fromInt(category),
+                expiryDate != null ? new Date(expiryDate) : null,
+                imageUrl);
+        dto.setUpdatedAt(updatedAt != null ? new Date(updatedAt) : null);
+        return dto;
+    }
+
+    // Getters and Setters (Room)
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(String quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getUnit() {
+        return unit;
+    }
+
+    public void setUnit(int unit) {
+        this.unit = unit;
+    }
+
+    public int getCategory() {
+        return category;
+    }
+
+    public void setCategory(int category) {
+        this.category = category;
+    }
+
+    public Long getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(Long expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+
+    public void setSyncedAt(long syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getRowHash() {
+        return rowHash;
+    }
+
+    public void setRowHash(long rowHash) {
+        this.rowHash = rowHash;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.android_exam.data.local;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Projection (id, name, expiry_date) của bảng ingredients cho lịch nhắc hạn dùng
+ */
+public class IngredientExpiry {
+    public int id;
+
+    public String name;
+
+    @ColumnInfo(name = "expiry_date")
+    public Long expiryDate;
+}
@@ -0,0 +1,16 @@
+package com.example.android_exam.data.local;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Projection (id, row_hash, synced_at) của bảng ingredients
+ */
+public class IngredientRowHash {
+    public int id;
+
+    @ColumnInfo(name = "row_hash")
+    public long rowHash;
+
+    @ColumnInfo(name = "synced_at")
+    public long syncedAt;
+}
@@ -0,0 +1,19 @@
+package com.example.android_exam.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@Dao
+public interface SyncStateDao {
+
+    @Query("SELECT * FROM sync_state WHERE resource = :resource AND user_id = :userId")
+    SyncStateEntity get(String resource, int userId);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(SyncStateEntity state);
+
+    @Query("DELETE FROM sync_state WHERE resource = :resource")
+    void clear(String resource);
+}
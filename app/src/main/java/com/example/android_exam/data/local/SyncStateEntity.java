@@ -0,0 +1,71 @@
+package com.example.android_exam.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * High-water mark của delta sync theo từng user và loại dữ liệu (resource)
+ */
+@Entity(tableName = "sync_state", primaryKeys = {"resource", "user_id"})
+public class SyncStateEntity {
+    public static final String RESOURCE_INGREDIENTS = "ingredients";
+
+    @NonNull
+    private String resource = "";
+
+    @ColumnInfo(name = "user_id")
+    private int userId;
+
+    // serverTime (hoặc updatedAt lớn nhất) của lần sync thành công gần nhất, epoch millis
+    @ColumnInfo(name = "high_water_mark")
+    private Long highWaterMark;
+
+    // Lần sync gần nhất server có trả kết quả delta hay không
+    @ColumnInfo(name = "delta_supported")
+    private boolean deltaSupported;
+
+    @ColumnInfo(name = "last_sync_at")
+    private long lastSyncAt;
+
+    @NonNull
+    public String getResource() {
+        return resource;
+    }
+
+    public void setResource(@NonNull String resource) {
+        this.resource = resource;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public Long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public void setHighWaterMark(Long highWaterMark) {
+        this.highWaterMark = highWaterMark;
+    }
+
+    public boolean isDeltaSupported() {
+        return deltaSupported;
+    }
+
+    public void setDeltaSupported(boolean deltaSupported) {
+        this.deltaSupported = deltaSupported;
+    }
+
+    public long getLastSyncAt() {
+        return lastSyncAt;
+    }
+
+    public void setLastSyncAt(long lastSyncAt) {
+        this.lastSyncAt = lastSyncAt;
+    }
+}
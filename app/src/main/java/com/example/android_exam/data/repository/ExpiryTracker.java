@@ -0,0 +1,215 @@
+package com.example.android_exam.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.core.config.AppConfig;
+import com.example.android_exam.data.repository.IngredientStats.ExpiryBucket;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Trạng thái hạn dùng của từng nguyên liệu, cập nhật theo sự kiện thay vì quét lại cả kho.
+ * - Mỗi nguyên liệu chỉ có tối đa một lần chuyển bucket đang chờ: FRESH -> EXPIRING_SOON lúc 0h của ngày
+ *   (hạn dùng - EXPIRY_WARNING_DAYS), EXPIRING_SOON -> EXPIRED ngay sau thời điểm hết hạn.
+ * - Các lần chuyển nằm trong min-heap theo thời điểm; advance(now) chỉ lấy các phần tử đã tới hạn, O(k log n).
+ * - put / remove không xoá khỏi heap mà tăng generation (lazy deletion), heap được dựng lại khi quá nhiều phần tử cũ.
+ * Không thread-safe: mỗi instance chỉ dùng trên một thread.
+ */
+public class ExpiryTracker {
+    // Heap được dựng lại khi số phần tử cũ vượt quá số nguyên liệu + hằng số này
+    private static final int COMPACT_SLACK = 64;
+
+    public interface TransitionListener {
+        void onTransition(int id, @NonNull ExpiryBucket from, @NonNull ExpiryBucket to);
+    }
+
+    private static class Entry {
+        final Long expiryAt;
+        final int generation;
+        ExpiryBucket bucket;
+
+        Entry(Long expiryAt, int generation, ExpiryBucket bucket) {
+            this.expiryAt = expiryAt;
+            this.generation = generation;
+            this.bucket = bucket;
+        }
+    }
+
+    private static class Transition {
+        final long at;
+        final int id;
+        final int generation;
+        final ExpiryBucket to;
+
+        Transition(long at, int id, int generation, ExpiryBucket to) {
+            this.at = at;
+            this.id = id;
+            this.generation = generation;
+            this.to = to;
+        }
+    }
+
+    private final ZoneId zone;
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final PriorityQueue<Transition> heap = new PriorityQueue<>((a, b) -> Long.compare(a.at, b.at));
+    private final int[] counts = new int[ExpiryBucket.values().length];
+    private int nextGeneration;
+
+    public ExpiryTracker() {
+        this(ZoneId.systemDefault());
+    }
+
+    public ExpiryTracker(@NonNull ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Thêm hoặc cập nhật một nguyên liệu, bucket được tính tại thời điểm now
+     *
+     * @param expiryAt epoch millis của hạn dùng, null nếu không có hạn dùng
+     */
+    @NonNull
+    public ExpiryBucket put(int id, @Nullable Long expiryAt, long now) {
+        remove(id);
+        ExpiryBucket bucket = classify(expiryAt, now);
+        Entry entry = new Entry(expiryAt, nextGeneration++, bucket);
+        entries.put(id, entry);
+        counts[bucket.ordinal()]++;
+        schedule(id, entry);
+        compactIfNeeded();
+        return bucket;
+    }
+
+    /**
+     * @return bucket trước khi xoá, null nếu id không có
+     */
+    @Nullable
+    public ExpiryBucket remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        counts[entry.bucket.ordinal()]--;
+        return entry.bucket;
+    }
+
+    public void clear() {
+        entries.clear();
+        heap.clear();
+        Arrays.fill(counts, 0);
+    }
+
+    /**
+     * Áp mọi lần chuyển bucket có thời điểm <= now
+     *
+     * @return số nguyên liệu đã đổi bucket
+     */
+    public int advance(long now, @Nullable TransitionListener listener) {
+        int changed = 0;
+        while (!heap.isEmpty() && heap.peek().at <= now) {
+            Transition transition = heap.poll();
+            Entry entry = entries.get(transition.id);
+            if (entry == null || entry.generation != transition.generation) {
+                continue;
+            }
+            ExpiryBucket from = entry.bucket;
+            counts[from.ordinal()]--;
+            counts[transition.to.ordinal()]++;
+            entry.bucket = transition.to;
+            schedule(transition.id, entry);
+            changed++;
+            if (listener != null) {
+                listener.onTransition(transition.id, from, transition.to);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Thời điểm của lần chuyển bucket kế tiếp, Long.MAX_VALUE nếu không còn
+     */
+    public long nextTransitionAt() {
+        while (!heap.isEmpty()) {
+            Transition head = heap.peek();
+            Entry entry = entries.get(head.id);
+            if (entry != null && entry.generation == head.generation) {
+                return head.at;
+            }
+            heap.poll();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Nullable
+    public ExpiryBucket bucketOf(int id) {
+        Entry entry = entries.get(id);
+        return entry != null ? entry.bucket : null;
+    }
+
+    public int count(@NonNull ExpiryBucket bucket) {
+        return counts[bucket.ordinal()];
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Bucket của một hạn dùng tại thời điểm now - cùng quy tắc với IngredientDataResponseDto.isExpired()
+     * và số ngày còn lại <= EXPIRY_WARNING_DAYS
+     */
+    @NonNull
+    public ExpiryBucket classify(@Nullable Long expiryAt, long now) {
+        if (expiryAt == null) {
+            return ExpiryBucket.FRESH;
+        }
+        if (expiryAt < now) {
+            return ExpiryBucket.EXPIRED;
+        }
+        return now >= warningStartsAt(expiryAt) ? ExpiryBucket.EXPIRING_SOON : ExpiryBucket.FRESH;
+    }
+
+    /**
+     * 0h của ngày (hạn dùng - EXPIRY_WARNING_DAYS) theo múi giờ của tracker
+     */
+    private long warningStartsAt(long expiryAt) {
+        LocalDate expiryDay = Instant.ofEpochMilli(expiryAt).atZone(zone).toLocalDate();
+        return expiryDay.minusDays(AppConfig.DateTime.EXPIRY_WARNING_DAYS)
+                .atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private void schedule(int id, Entry entry) {
+        if (entry.expiryAt == null) {
+            return;
+        }
+        switch (entry.bucket) {
+            case FRESH:
+                heap.add(new Transition(warningStartsAt(entry.expiryAt), id, entry.generation, ExpiryBucket.EXPIRING_SOON));
+                break;
+            case EXPIRING_SOON:
+                // Hết hạn khi expiryAt < now, tức từ expiryAt + 1ms
+                heap.add(new Transition(entry.expiryAt + 1, id, entry.generation, ExpiryBucket.EXPIRED));
+                break;
+            case EXPIRED:
+            default:
+                break;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (heap.size() <= entries.size() + COMPACT_SLACK) {
+            return;
+        }
+        heap.clear();
+        for (Map.Entry<Integer, Entry> item : entries.entrySet()) {
+            schedule(item.getKey(), item.getValue());
+        }
+    }
+}
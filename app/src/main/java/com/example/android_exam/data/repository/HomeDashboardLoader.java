@@ -0,0 +1,345 @@
+package com.example.android_exam.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.android_exam.core.config.AppConfig;
+import com.example.android_exam.core.mapper.DtoMapper;
+import com.example.android_exam.data.api.ApiCall;
+import com.example.android_exam.data.api.ApiManager;
+import com.example.android_exam.data.api.AuthCallback;
+import com.example.android_exam.data.api.DataCallback;
+import com.example.android_exam.data.api.RequestPriority;
+import com.example.android_exam.data.dto.food.FoodSuggestionResponseDto;
+import com.example.android_exam.data.dto.nutrition.NutritionTip;
+import com.example.android_exam.data.dto.nutrition.OverviewNutritionSummaryDto;
+import com.example.android_exam.data.dto.response.ApiResponse;
+import com.example.android_exam.data.dto.user.UserProfileDto;
+import com.example.android_exam.data.models.base.User;
+import com.example.android_exam.utils.SessionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Load dashboard Home trong một lượt:
+ * - Tip tạo local ngay, profile gọi API song song từ đầu
+ * - User đọc từ SessionManager đúng một lần rồi dùng cho overview và gợi ý (chạy song song)
+ * - Mỗi phần xong là báo ngay cho listener; hết deadline chung thì huỷ các phần còn lại
+ * - Khi xong báo tổng thời gian và thời gian từng phần
+ * Callback của listener có thể chạy trên background thread.
+ */
+public class HomeDashboardLoader {
+    private static final String TAG = "HomeDashboardLoader";
+
+    public enum Part {
+        TIP,
+        OVERVIEW,
+        SUGGESTIONS,
+        PROFILE
+    }
+
+    public interface Listener {
+        void onTip(NutritionTip tip);
+
+        void onOverview(OverviewNutritionSummaryDto overview);
+
+        void onSuggestions(List<FoodSuggestionResponseDto> suggestions);
+
+        void onProfile(User user);
+
+        void onPartFailed(Part part, String error);
+
+        void onComplete(Result result);
+    }
+
+    private final HomeRepository repository;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long deadlineMs;
+
+    public HomeDashboardLoader(HomeRepository repository) {
+        this(repository, AppConfig.UI.DASHBOARD_DEADLINE_MS);
+    }
+
+    public HomeDashboardLoader(HomeRepository repository, long deadlineMs) {
+        this.repository = repository;
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * @param forceSuggestions bỏ qua cache gợi ý món ăn
+     * @return handle để huỷ toàn bộ lượt load (ví dụ khi load lại hoặc ViewModel bị clear)
+     */
+    public ApiCall load(boolean forceSuggestions, @NonNull Listener listener) {
+        Run run = new Run(listener);
+        run.start(forceSuggestions);
+        return run.handle;
+    }
+
+    private class Run {
+        final ApiCall handle = new ApiCall();
+        final Listener listener;
+        final long startedAt = SystemClock.elapsedRealtime();
+        final Set<Part> pending = EnumSet.allOf(Part.class);
+        final Map<Part, Long> partMs = new EnumMap<>(Part.class);
+        final List<ApiCall> calls = new ArrayList<>();
+        final Runnable deadline = this::onDeadline;
+
+        // Profile API lỗi thì dùng user trong SessionManager
+        boolean profileFailed;
+        boolean sessionUserFailed;
+        User sessionUser;
+
+        Run(Listener listener) {
+            this.listener = listener;
+            handle.onCancel(() -> {
+                handler.removeCallbacks(deadline);
+                cancelCalls();
+            });
+        }
+
+        void start(boolean forceSuggestions) {
+            handler.postDelayed(deadline, deadlineMs);
+
+            finish(Part.TIP, () -> listener.onTip(repository.createNutritionTip()));
+
+            track(ApiManager.getInstance().getAuthClient().getUserProfile(new AuthCallback<ApiResponse<UserProfileDto>>() {
+                @Override
+                public void onSuccess(ApiResponse<UserProfileDto> response) {
+                    if (response.isSuccess() && response.getData() != null) {
+                        User user = DtoMapper.toUser(response.getData());
+                        finish(Part.PROFILE, () -> listener.onProfile(user));
+                    } else {
+                        onProfileFailed(response.getMessage());
+                    }
+                }
+
+                @Override
+                public void onError(String error) {
+                    onProfileFailed(error);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    onProfileFailed(throwable.getMessage());
+                }
+            }));
+
+            List<FoodSuggestionResponseDto> cached = forceSuggestions ? null : repository.getCachedSuggestions();
+            if (cached != null) {
+                finish(Part.SUGGESTIONS, () -> listener.onSuggestions(cached));
+            }
+
+            SessionManager.getUser(new SessionManager.UserCallback() {
+                @Override
+                public void onUserLoaded(User user) {
+                    if (handle.isCanceled()) {
+                        return;
+                    }
+                    onUserResolved(user, cached == null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    String message = "Failed to load user information: " + error;
+                    fail(Part.OVERVIEW, message);
+                    fail(Part.SUGGESTIONS, message);
+                    boolean fallbackPending;
+                    synchronized (Run.this) {
+                        sessionUserFailed = true;
+                        fallbackPending = profileFailed;
+                    }
+                    if (fallbackPending) {
+                        fail(Part.PROFILE, message);
+                    }
+                }
+            });
+        }
+
+        void onUserResolved(User user, boolean loadSuggestions) {
+            boolean useAsProfile;
+            synchronized (this) {
+                sessionUser = user;
+                useAsProfile = profileFailed;
+            }
+            if (useAsProfile) {
+                finish(Part.PROFILE, () -> listener.onProfile(user));
+            }
+
+            track(repository.getNutritionOverview(user, RequestPriority.INTERACTIVE,
+                    new DataCallback<ApiResponse<OverviewNutritionSummaryDto>>() {
+                        @Override
+                        public void onSuccess(ApiResponse<OverviewNutritionSummaryDto> response) {
+                            finish(Part.OVERVIEW, () -> listener.onOverview(response.getData()));
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            fail(Part.OVERVIEW, error);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            fail(Part.OVERVIEW, throwable.getMessage());
+                        }
+                    }));
+
+            if (!loadSuggestions) {
+                return;
+            }
+            track(repository.getFoodSuggestions(user, new DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>>() {
+                @Override
+                public void onSuccess(ApiResponse<List<FoodSuggestionResponseDto>> response) {
+                    finish(Part.SUGGESTIONS, () -> listener.onSuggestions(response.getData()));
+                }
+
+                @Override
+                public void onError(String error) {
+                    fail(Part.SUGGESTIONS, error);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    fail(Part.SUGGESTIONS, throwable.getMessage());
+                }
+            }));
+        }
+
+        void onProfileFailed(String error) {
+            User fallback;
+            boolean noFallback;
+            synchronized (this) {
+                profileFailed = true;
+                fallback = sessionUser;
+                noFallback = sessionUserFailed;
+            }
+            Log.w(TAG, "Profile API failed, falling back to session user: " + error);
+            if (fallback != null) {
+                finish(Part.PROFILE, () -> listener.onProfile(fallback));
+            } else if (noFallback) {
+                fail(Part.PROFILE, error);
+            }
+        }
+
+        void track(ApiCall call) {
+            boolean canceled;
+            synchronized (this) {
+                canceled = handle.isCanceled();
+                if (!canceled) {
+                    calls.add(call);
+                }
+            }
+            if (canceled) {
+                call.cancel();
+            }
+        }
+
+        void fail(Part part, String error) {
+            finish(part, () -> listener.onPartFailed(part, error));
+        }
+
+        /**
+         * Đánh dấu một phần đã xong và gửi kết quả (bỏ qua nếu đã hết deadline hoặc bị huỷ)
+         */
+        void finish(Part part, Runnable deliver) {
+            boolean completed;
+            synchronized (this) {
+                if (!handle.isActive() || !pending.remove(part)) {
+                    return;
+                }
+                partMs.put(part, SystemClock.elapsedRealtime() - startedAt);
+                completed = pending.isEmpty();
+            }
+            deliver.run();
+            if (completed) {
+                complete(Collections.emptySet());
+            }
+        }
+
+        void onDeadline() {
+            Set<Part> timedOut;
+            synchronized (this) {
+                if (!handle.isActive() || pending.isEmpty()) {
+                    return;
+                }
+                timedOut = EnumSet.copyOf(pending);
+                pending.clear();
+            }
+            cancelCalls();
+            for (Part part : timedOut) {
+                listener.onPartFailed(part, "Timeout");
+            }
+            complete(timedOut);
+        }
+
+        void complete(Set<Part> timedOut) {
+            handler.removeCallbacks(deadline);
+            Result result;
+            synchronized (this) {
+                result = new Result(SystemClock.elapsedRealtime() - startedAt, new EnumMap<>(partMs), timedOut);
+            }
+            handle.markFinished();
+            Log.d(TAG, "Dashboard loaded: " + result);
+            listener.onComplete(result);
+        }
+
+        void cancelCalls() {
+            List<ApiCall> toCancel;
+            synchronized (this) {
+                toCancel = new ArrayList<>(calls);
+                calls.clear();
+            }
+            for (ApiCall call : toCancel) {
+                call.cancel();
+            }
+        }
+    }
+
+    /**
+     * Thời gian load dashboard: tổng và từng phần (ms tính từ lúc bắt đầu)
+     */
+    public static class Result {
+        private final long totalMs;
+        private final Map<Part, Long> partMs;
+        private final Set<Part> timedOut;
+
+        Result(long totalMs, Map<Part, Long> partMs, Set<Part> timedOut) {
+            this.totalMs = totalMs;
+            this.partMs = partMs;
+            this.timedOut = timedOut;
+        }
+
+        public long getTotalMs() {
+            return totalMs;
+        }
+
+        public Map<Part, Long> getPartMs() {
+            return partMs;
+        }
+
+        public Set<Part> getTimedOut() {
+            return timedOut;
+        }
+
+        public boolean isComplete() {
+            return timedOut.isEmpty();
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "HomeDashboardLoader.Result{totalMs=" + totalMs +
+                    ", partMs=" + partMs +
+                    ", timedOut=" + timedOut + "}";
+        }
+    }
+}
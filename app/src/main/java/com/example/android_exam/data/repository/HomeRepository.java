@@ -8,9 +8,12 @@ import android.os.Handler;
 import android.os.Looper;
 
 import com.example.android_exam.core.config.AppConfig;
+import com.example.android_exam.core.json.GsonProvider;
 import com.example.android_exam.core.mapper.DtoMapper;
+import com.example.android_exam.data.api.ApiCall;
 import com.example.android_exam.data.api.ApiManager;
 import com.example.android_exam.data.api.DataCallback;
+import com.example.android_exam.data.api.RequestPriority;
 import com.example.android_exam.data.dto.food.FoodIngredientDto;
 import com.example.android_exam.data.dto.food.FoodSuggestionRequestDto;
 import com.example.android_exam.data.dto.food.FoodSuggestionResponseDto;
@@ -23,7 +26,6 @@ import com.example.android_exam.data.models.enums.ActivityLevel;
 import com.example.android_exam.data.models.enums.Gender;
 import com.example.android_exam.data.models.enums.NutritionGoal;
 import com.example.android_exam.utils.SessionManager;
-import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
@@ -51,40 +53,14 @@ public class HomeRepository {
         cachedSuggestions = loadCacheFromLocal();
     }
 
-    // Simulate API call for nutrition tip
+    // Nutrition tip được tạo local, không cần chờ mạng
     public void getNutritionTip(DataCallback<ApiResponse<NutritionTip>> callback) {
         callback.onLoading(true);
-
-        // Simulate network delay
-        handler.postDelayed(() -> {
+        handler.post(() -> {
             try {
-                // Mock data with various nutrition tips
-                String[] tips = {
-                        "Uống đủ nước là chìa khóa cho sức khỏe tốt. Mục tiêu 8-10 ly nước mỗi ngày.",
-                        "Protein trong bữa sáng giúp bạn cảm thấy no lâu hơn và duy trì năng lượng.",
-                        "Ăn nhiều rau xanh giúp cung cấp vitamin và khoáng chất thiết yếu.",
-                        "Hạn chế đường và thực phẩm chế biến sẵn để cải thiện sức khỏe tổng thể.",
-                        "Ăn chậm và nhai kỹ giúp tiêu hóa tốt hơn và kiểm soát cân nặng."
-                };
-
-                String[] titles = {
-                        "💧 Mẹo hydration hôm nay",
-                        "🥚 Protein cho bữa sáng",
-                        "🥬 Rau xanh trong bữa ăn",
-                        "🍎 Ăn uống lành mạnh",
-                        "🍽️ Thói quen ăn uống"
-                };
-
-                int randomIndex = (int) (Math.random() * tips.length);
-
-                NutritionTip tip = new NutritionTip();
-                tip.setTitle(titles[randomIndex]);
-                tip.setContent(tips[randomIndex]);
-                tip.setType("nutrition");
-
                 ApiResponse<NutritionTip> response = new ApiResponse<>();
                 response.setSuccess(true);
-                response.setData(tip);
+                response.setData(createNutritionTip());
                 response.setMessage("Success");
 
                 callback.onLoading(false);
@@ -93,8 +69,43 @@ public class HomeRepository {
                 callback.onLoading(false);
                 callback.onError("Failed to load nutrition tip: " + e.getMessage());
             }
-        }, 1000);
+        });
+    }
+
+    public NutritionTip createNutritionTip() {
+        // Mock data with various nutrition tips
+        String[] tips = {
+                "Uống đủ nước là chìa khóa cho sức khỏe tốt. Mục tiêu 8-10 ly nước mỗi ngày.",
+                "Protein trong bữa sáng giúp bạn cảm thấy no lâu hơn và duy trì năng lượng.",
+                "Ăn nhiều rau xanh giúp cung cấp vitamin và khoáng chất thiết yếu.",
+                "Hạn chế đường và thực phẩm chế biến sẵn để cải thiện sức khỏe tổng thể.",
+                "Ăn chậm và nhai kỹ giúp tiêu hóa tốt hơn và kiểm soát cân nặng."
+        };
+
+        String[] titles = {
+                "💧 Mẹo hydration hôm nay",
+                "🥚 Protein cho bữa sáng",
+                "🥬 Rau xanh trong bữa ăn",
+                "🍎 Ăn uống lành mạnh",
+                "🍽️ Thói quen ăn uống"
+        };
+
+        int randomIndex = (int) (Math.random() * tips.length);
+
+        NutritionTip tip = new NutritionTip();
+        tip.setTitle(titles[randomIndex]);
+        tip.setContent(tips[randomIndex]);
+        tip.setType("nutrition");
+        return tip;
     }
+
+    /**
+     * Gợi ý món ăn đang có trong cache (RAM / local), null nếu chưa có
+     */
+    public List<FoodSuggestionResponseDto> getCachedSuggestions() {
+        return cachedSuggestions != null && !cachedSuggestions.isEmpty() ? cachedSuggestions : null;
+    }
+
     public void getFoodSuggestions(boolean forceFetch, DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>> callback) {
         if (!forceFetch && cachedSuggestions != null && !cachedSuggestions.isEmpty()) {
             // Trả về cache nếu không force fetch
@@ -112,37 +123,7 @@ public class HomeRepository {
         SessionManager.getUser(new SessionManager.UserCallback() {
             @Override
             public void onUserLoaded(User user) {
-                var foodSuggestionRequest = new FoodSuggestionRequestDto();
-                foodSuggestionRequest.setUserInformation(DtoMapper.toUserInformationDto(user));
-
-                // Call API
-                ApiManager.getInstance().getFoodClient().getFoodSuggestions(foodSuggestionRequest, new DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>>() {
-                    @Override
-                    public void onLoading(boolean loading) {
-                        callback.onLoading(loading);
-                    }
-
-                    @Override
-                    public void onSuccess(ApiResponse<List<FoodSuggestionResponseDto>> response) {
-                        if (response.isSuccess() && response.getData() != null) {
-                            cachedSuggestions = response.getData(); // Lưu cache RAM
-                            saveCacheToLocal(cachedSuggestions);    // Lưu cache local
-                            callback.onSuccess(response);
-                        } else {
-                            callback.onError("Failed to load food suggestions: " + response.getMessage());
-                        }
-                    }
-
-                    @Override
-                    public void onError(String error) {
-                        callback.onError("Failed to load food suggestions: " + error);
-                    }
-
-                    @Override
-                    public void onFailure(Throwable throwable) {
-                        callback.onError("Failed to load food suggestions: " + throwable);
-                    }
-                });
+                getFoodSuggestions(user, callback);
             }
 
             @Override
@@ -152,8 +133,45 @@ public class HomeRepository {
         });
     }
 
+    /**
+     * Gọi API gợi ý món ăn với user đã resolve sẵn (không đọc lại SessionManager)
+     */
+    public ApiCall getFoodSuggestions(User user, DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>> callback) {
+        var foodSuggestionRequest = new FoodSuggestionRequestDto();
+        foodSuggestionRequest.setUserInformation(DtoMapper.toUserInformationDto(user));
+
+        // Refresh gợi ý không chặn các thao tác người dùng đang chờ
+        return ApiManager.getInstance().getFoodClient().getFoodSuggestions(foodSuggestionRequest, RequestPriority.VISIBLE_PREFETCH, new DataCallback<ApiResponse<List<FoodSuggestionResponseDto>>>() {
+            @Override
+            public void onLoading(boolean loading) {
+                callback.onLoading(loading);
+            }
+
+            @Override
+            public void onSuccess(ApiResponse<List<FoodSuggestionResponseDto>> response) {
+                if (response.isSuccess() && response.getData() != null) {
+                    cachedSuggestions = response.getData(); // Lưu cache RAM
+                    saveCacheToLocal(cachedSuggestions);    // Lưu cache local
+                    callback.onSuccess(response);
+                } else {
+                    callback.onError("Failed to load food suggestions: " + response.getMessage());
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError("Failed to load food suggestions: " + error);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                callback.onError("Failed to load food suggestions: " + throwable);
+            }
+        });
+    }
+
     private void saveCacheToLocal(List<FoodSuggestionResponseDto> suggestions) {
-        String json = new Gson().toJson(suggestions);
+        String json = GsonProvider.getGson().toJson(suggestions);
         SharedPreferences preferences = getContext().getSharedPreferences(CACHE_PREF_NAME, Context.MODE_PRIVATE);
         preferences.edit().putString(CACHE_KEY, json).apply();
     }
@@ -163,7 +181,7 @@ public class HomeRepository {
         String json = preferences.getString(CACHE_KEY, null);
         if (json != null) {
             Type type = new TypeToken<List<FoodSuggestionResponseDto>>() {}.getType();
-            return new Gson().fromJson(json, type);
+            return GsonProvider.getGson().fromJson(json, type);
         }
         return null;
     }
@@ -178,35 +196,19 @@ public class HomeRepository {
 
     // Simulate API call for nutrition progress
     public void getNutritionOverview(DataCallback<ApiResponse<OverviewNutritionSummaryDto>> callback) {
+        getNutritionOverview(RequestPriority.INTERACTIVE, callback);
+    }
+
+    /**
+     * @param priority BACKGROUND khi gọi từ widget để không tranh với request của app
+     */
+    public void getNutritionOverview(RequestPriority priority, DataCallback<ApiResponse<OverviewNutritionSummaryDto>> callback) {
         callback.onLoading(true);
 
         SessionManager.getUser(new SessionManager.UserCallback() {
             @Override
             public void onUserLoaded(User user) {
-                UserInformationDto userInfo = DtoMapper.toUserInformationDto(user);
-                ApiManager.getInstance().getNutritionClient().getOverviewNutritionSummary(userInfo, new DataCallback<ApiResponse<OverviewNutritionSummaryDto>>() {
-                    @Override
-                    public void onSuccess(ApiResponse<OverviewNutritionSummaryDto> result) {
-                        if (result.isSuccess() && result.getData() != null) {
-                            callback.onSuccess(result);
-                        } else {
-                            callback.onError(result.getMessage());
-                        }
-                        callback.onLoading(false);
-                    }
-
-                    @Override
-                    public void onError(String error) {
-                        callback.onLoading(false);
-                        callback.onError(error);
-                    }
-
-                    @Override
-                    public void onFailure(Throwable throwable) {
-                        callback.onLoading(false);
-                        callback.onFailure(throwable);
-                    }
-                });
+                getNutritionOverview(user, priority, callback);
             }
 
             @Override
@@ -226,6 +228,36 @@ public class HomeRepository {
 
     }
 
+    /**
+     * Gọi API overview với user đã resolve sẵn
+     */
+    public ApiCall getNutritionOverview(User user, RequestPriority priority, DataCallback<ApiResponse<OverviewNutritionSummaryDto>> callback) {
+        UserInformationDto userInfo = DtoMapper.toUserInformationDto(user);
+        return ApiManager.getInstance().getNutritionClient().getOverviewNutritionSummary(userInfo, priority, new DataCallback<ApiResponse<OverviewNutritionSummaryDto>>() {
+            @Override
+            public void onSuccess(ApiResponse<OverviewNutritionSummaryDto> result) {
+                if (result.isSuccess() && result.getData() != null) {
+                    callback.onSuccess(result);
+                } else {
+                    callback.onError(result.getMessage());
+                }
+                callback.onLoading(false);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onLoading(false);
+                callback.onError(error);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                callback.onLoading(false);
+                callback.onFailure(throwable);
+            }
+        });
+    }
+
     // Simulate API call for user profile
     public void getUserProfile(DataCallback<ApiResponse<UserInformationDto>> callback) {
         callback.onLoading(true);
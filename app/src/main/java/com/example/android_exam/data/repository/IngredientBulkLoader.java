@@ -0,0 +1,271 @@
+package com.example.android_exam.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.data.api.ApiCall;
+import com.example.android_exam.data.api.ApiManager;
+import com.example.android_exam.data.api.DataCallback;
+import com.example.android_exam.data.api.RequestPriority;
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.dto.ingredient.IngredientFilterDto;
+import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
+import com.example.android_exam.data.dto.response.ApiResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tải toàn bộ kho nguyên liệu qua nhiều trang:
+ * trang 1 cho biết totalCount, các trang còn lại được tải song song (tối đa maxParallel request cùng lúc)
+ * rồi ghép theo thứ tự trang thành một snapshot.
+ * Thời gian tổng ≈ 2 round trip + thời gian truyền thay vì N round trip khi tải tuần tự.
+ * Không phụ thuộc Android; từng trang được tải qua PageFetcher (mặc định là IngredientClient).
+ */
+public class IngredientBulkLoader {
+    private final int pageSize;
+    private final int maxPages;
+    private final int maxParallel;
+    private final PageFetcher fetcher;
+
+    public static class Snapshot {
+        private final List<IngredientDataResponseDto> rows;
+        private final int totalCount;
+        private final Date serverTime;
+        private final List<Integer> deletedIds;
+        private final int pageCount;
+        private final long requestedAt;
+        private final long elapsedMs;
+
+        Snapshot(List<IngredientDataResponseDto> rows, int totalCount, Date serverTime,
+                 List<Integer> deletedIds, int pageCount, long requestedAt, long elapsedMs) {
+            this.rows = rows;
+            this.totalCount = totalCount;
+            this.serverTime = serverTime;
+            this.deletedIds = deletedIds;
+            this.pageCount = pageCount;
+            this.requestedAt = requestedAt;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public List<IngredientDataResponseDto> getRows() {
+            return rows;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * serverTime của trang đầu, null nếu server không trả kết quả delta
+         */
+        @Nullable
+        public Date getServerTime() {
+            return serverTime;
+        }
+
+        public List<Integer> getDeletedIds() {
+            return deletedIds;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        /**
+         * Thời điểm (epoch ms) gửi request trang đầu - thay đổi local sau thời điểm này có thể chưa có trong snapshot
+         */
+        public long getRequestedAt() {
+            return requestedAt;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        /**
+         * Đã tải đủ totalCount row (không bị cắt bởi maxPages)
+         */
+        public boolean isComplete() {
+            return rows.size() >= totalCount;
+        }
+    }
+
+    public interface Callback {
+        void onSnapshot(@NonNull Snapshot snapshot);
+
+        void onError(@NonNull String error);
+    }
+
+    /**
+     * Tải một trang theo filter (callback có thể tới trên bất kỳ thread nào)
+     */
+    public interface PageFetcher {
+        ApiCall fetch(@NonNull IngredientFilterDto filter,
+                      @NonNull DataCallback<ApiResponse<IngredientSearchResultDto>> callback);
+    }
+
+    /**
+     * @param priority priority gắn cho từng request trang (RequestScheduler giới hạn số request chạy cùng lúc theo priority)
+     */
+    public IngredientBulkLoader(int pageSize, int maxPages, int maxParallel, @NonNull RequestPriority priority) {
+        this(pageSize, maxPages, maxParallel, (filter, callback) ->
+                ApiManager.getInstance().getIngredientClient().getAllIngredients(filter, priority, callback));
+    }
+
+    public IngredientBulkLoader(int pageSize, int maxPages, int maxParallel, @NonNull PageFetcher fetcher) {
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.maxParallel = Math.max(1, maxParallel);
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * @param updatedSince null để tải toàn bộ, khác null để lấy delta (server không hỗ trợ sẽ trả toàn bộ)
+     */
+    public ApiCall load(@Nullable Date updatedSince, @NonNull Callback callback) {
+        ApiCall handle = new ApiCall();
+        new Run(handle, updatedSince, callback).start();
+        return handle;
+    }
+
+    /**
+     * Một lượt tải. Callback của các trang tới từ thread OkHttp nên mọi state được đồng bộ trên instance.
+     */
+    private class Run {
+        private final ApiCall handle;
+        private final Date updatedSince;
+        private final Callback callback;
+        private final long requestedAt = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+
+        private List<List<IngredientDataResponseDto>> pages;
+        private final List<Integer> deletedIds = new ArrayList<>();
+        private Date serverTime;
+        private int totalCount;
+        private int pageCount;
+        private int nextPage;
+        private int remaining;
+        private boolean done;
+
+        Run(ApiCall handle, Date updatedSince, Callback callback) {
+            this.handle = handle;
+            this.updatedSince = updatedSince;
+            this.callback = callback;
+        }
+
+        void start() {
+            fetch(1);
+        }
+
+        private void fetch(int page) {
+            if (handle.isCanceled()) {
+                return;
+            }
+            IngredientFilterDto filter = new IngredientFilterDto();
+            filter.setPage(page);
+            filter.setPageSize(pageSize);
+            filter.setUpdatedSince(updatedSince);
+
+            ApiCall pageCall = fetcher.fetch(filter, new DataCallback<ApiResponse<IngredientSearchResultDto>>() {
+                @Override
+                public void onSuccess(ApiResponse<IngredientSearchResultDto> response) {
+                    if (!response.isSuccess() || response.getData() == null) {
+                        fail(response.getMessage() != null ? response.getMessage() : "Không thể tải danh sách thực phẩm");
+                        return;
+                    }
+                    onPage(page, response.getData());
+                }
+
+                @Override
+                public void onError(String error) {
+                    fail(error);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    fail("Lỗi kết nối: " + throwable.getMessage());
+                }
+            });
+            handle.onCancel(pageCall::cancel);
+        }
+
+        private void onPage(int page, IngredientSearchResultDto result) {
+            List<IngredientDataResponseDto> rows = result.getIngredients() != null
+                    ? result.getIngredients() : Collections.emptyList();
+            List<Integer> launch = new ArrayList<>();
+            boolean finished;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (result.getDeletedIds() != null) {
+                    deletedIds.addAll(result.getDeletedIds());
+                }
+                if (page == 1) {
+                    totalCount = result.getTotalCount();
+                    serverTime = result.getServerTime();
+                    int needed = rows.isEmpty() ? 1 : (totalCount + pageSize - 1) / pageSize;
+                    pageCount = Math.max(1, Math.min(needed, maxPages));
+                    pages = new ArrayList<>(Collections.nCopies(pageCount, null));
+                    remaining = pageCount - 1;
+                    nextPage = 2;
+                    pages.set(0, rows);
+                    while (nextPage <= pageCount && launch.size() < maxParallel) {
+                        launch.add(nextPage++);
+                    }
+                } else {
+                    pages.set(page - 1, rows);
+                    remaining--;
+                    if (nextPage <= pageCount) {
+                        launch.add(nextPage++);
+                    }
+                }
+                finished = remaining == 0;
+                if (finished) {
+                    done = true;
+                }
+            }
+            if (finished) {
+                complete();
+                return;
+            }
+            for (int next : launch) {
+                fetch(next);
+            }
+        }
+
+        private void complete() {
+            List<IngredientDataResponseDto> merged = new ArrayList<>(totalCount);
+            for (List<IngredientDataResponseDto> page : pages) {
+                if (page != null) {
+                    merged.addAll(page);
+                }
+            }
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            handle.markFinished();
+            if (!handle.isCanceled()) {
+                callback.onSnapshot(new Snapshot(merged, totalCount, serverTime, deletedIds, pageCount, requestedAt, elapsedMs));
+            }
+        }
+
+        /**
+         * Một trang lỗi thì huỷ các trang còn lại, kết quả dở dang không được dùng
+         */
+        private void fail(String error) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            boolean canceled = handle.isCanceled();
+            handle.cancel();
+            if (!canceled) {
+                callback.onError(error);
+            }
+        }
+    }
+}
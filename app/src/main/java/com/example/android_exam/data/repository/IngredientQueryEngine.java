@@ -0,0 +1,282 @@
+package com.example.android_exam.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Query engine trên kho nguyên liệu đã cache trong bộ nhớ.
+ * - Mỗi nguyên liệu có một slot; mỗi khoá sort có một TreeSet slot đã sắp xếp sẵn.
+ * - Bitset theo category và trạng thái hết hạn; filter = AND các bitset, sort = duyệt index theo thứ tự.
+ * - put / remove một nguyên liệu là O(log n) trên từng index, không sort lại cả danh sách.
+ * Không thread-safe: IngredientViewModel chỉ dùng trên main thread.
+ */
+public class IngredientQueryEngine {
+
+    public enum SortKey {
+        NAME, QUANTITY, EXPIRY, CATEGORY,
+        // Thứ tự thêm vào (slot) - tương đương "createdAt" khi server không trả field này
+        NONE;
+
+        /**
+         * Khoá sort của IngredientViewModel ("name", "quantity", "expiryDate", "category", "createdAt")
+         */
+        public static SortKey fromString(@Nullable String sortBy) {
+            if (sortBy == null) {
+                return EXPIRY;
+            }
+            switch (sortBy) {
+                case "name":
+                    return NAME;
+                case "quantity":
+                    return QUANTITY;
+                case "category":
+                    return CATEGORY;
+                case "createdAt":
+                    return NONE;
+                case "expiryDate":
+                default:
+                    return EXPIRY;
+            }
+        }
+    }
+
+    private final List<IngredientDataResponseDto> items = new ArrayList<>();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    private final Map<SortKey, TreeSet<Integer>> sortIndexes = new EnumMap<>(SortKey.class);
+    private final Map<IngredientCategory, BitSet> categoryBits = new EnumMap<>(IngredientCategory.class);
+    private final BitSet expiredBits = new BitSet();
+    // Slot chưa hết hạn có expiryDate, sắp theo hạn dùng - đầu hàng đợi là slot sẽ hết hạn sớm nhất
+    private final TreeSet<Integer> pendingExpiry;
+
+    public IngredientQueryEngine() {
+        sortIndexes.put(SortKey.NAME, new TreeSet<>(bySlot(
+                (a, b) -> name(a).compareToIgnoreCase(name(b)))));
+        sortIndexes.put(SortKey.QUANTITY, new TreeSet<>(bySlot(
+                (a, b) -> compareNullsLast(a.getQuantity(), b.getQuantity()))));
+        sortIndexes.put(SortKey.EXPIRY, new TreeSet<>(bySlot(
+                (a, b) -> compareNullsLast(a.getExpiryDate(), b.getExpiryDate()))));
+        sortIndexes.put(SortKey.CATEGORY, new TreeSet<>(bySlot(
+                (a, b) -> categoryName(a).compareToIgnoreCase(categoryName(b)))));
+        pendingExpiry = new TreeSet<>(bySlot(
+                (a, b) -> compareNullsLast(a.getExpiryDate(), b.getExpiryDate())));
+    }
+
+    /**
+     * Thay toàn bộ dữ liệu (load từ Room / server)
+     */
+    public void reset(@NonNull Collection<IngredientDataResponseDto> ingredients) {
+        items.clear();
+        slotById.clear();
+        freeSlots.clear();
+        live.clear();
+        for (TreeSet<Integer> index : sortIndexes.values()) {
+            index.clear();
+        }
+        categoryBits.clear();
+        expiredBits.clear();
+        pendingExpiry.clear();
+        for (IngredientDataResponseDto ingredient : ingredients) {
+            put(ingredient);
+        }
+    }
+
+    /**
+     * Thêm hoặc cập nhật một nguyên liệu theo id
+     */
+    public void put(@NonNull IngredientDataResponseDto ingredient) {
+        Integer slot = slotById.get(ingredient.getId());
+        if (slot != null) {
+            unindex(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? items.size() : freeSlots.pop();
+            if (slot == items.size()) {
+                items.add(null);
+            }
+            slotById.put(ingredient.getId(), slot);
+        }
+        items.set(slot, ingredient);
+        index(slot, ingredient);
+    }
+
+    public void remove(int id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        items.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    public int size() {
+        return slotById.size();
+    }
+
+    /**
+     * @param searchIds id khớp search (null = không search)
+     * @param category  null = mọi category
+     * @param expired   true = đã hết hạn, false = còn hạn, null = tất cả
+     */
+    public List<IngredientDataResponseDto> query(@Nullable Collection<Integer> searchIds,
+                                                 @Nullable IngredientCategory category,
+                                                 @Nullable Boolean expired,
+                                                 @NonNull SortKey sortKey,
+                                                 boolean descending) {
+        BitSet filter = matching(searchIds, category, expired);
+        int remaining = filter.cardinality();
+        List<IngredientDataResponseDto> result = new ArrayList<>(remaining);
+        if (remaining == 0) {
+            return result;
+        }
+
+        if (sortKey == SortKey.NONE) {
+            if (descending) {
+                for (int slot = filter.length() - 1; slot >= 0; slot = filter.previousSetBit(slot - 1)) {
+                    result.add(items.get(slot));
+                }
+            } else {
+                for (int slot = filter.nextSetBit(0); slot >= 0; slot = filter.nextSetBit(slot + 1)) {
+                    result.add(items.get(slot));
+                }
+            }
+            return result;
+        }
+
+        TreeSet<Integer> index = sortIndexes.get(sortKey);
+        Iterator<Integer> it = descending ? index.descendingIterator() : index.iterator();
+        while (it.hasNext() && remaining > 0) {
+            int slot = it.next();
+            if (filter.get(slot)) {
+                result.add(items.get(slot));
+                remaining--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Bitset các slot thoả filter
+     */
+    private BitSet matching(@Nullable Collection<Integer> searchIds,
+                            @Nullable IngredientCategory category,
+                            @Nullable Boolean expired) {
+        refreshExpired(System.currentTimeMillis());
+        BitSet filter = (BitSet) live.clone();
+        if (category != null) {
+            BitSet bits = categoryBits.get(category);
+            if (bits == null) {
+                filter.clear();
+                return filter;
+            }
+            filter.and(bits);
+        }
+        if (expired != null) {
+            if (expired) {
+                filter.and(expiredBits);
+            } else {
+                filter.andNot(expiredBits);
+            }
+        }
+        if (searchIds != null) {
+            BitSet searchBits = new BitSet(items.size());
+            for (Integer id : searchIds) {
+                Integer slot = slotById.get(id);
+                if (slot != null) {
+                    searchBits.set(slot);
+                }
+            }
+            filter.and(searchBits);
+        }
+        return filter;
+    }
+
+    /**
+     * Chuyển các slot vừa quá hạn sang expiredBits - mỗi slot chỉ chuyển một lần, O(k log n)
+     */
+    private void refreshExpired(long now) {
+        while (!pendingExpiry.isEmpty()) {
+            int slot = pendingExpiry.first();
+            Date expiry = items.get(slot).getExpiryDate();
+            if (expiry == null || expiry.getTime() >= now) {
+                return;
+            }
+            pendingExpiry.pollFirst();
+            expiredBits.set(slot);
+        }
+    }
+
+    private void index(int slot, IngredientDataResponseDto ingredient) {
+        live.set(slot);
+        for (TreeSet<Integer> index : sortIndexes.values()) {
+            index.add(slot);
+        }
+        if (ingredient.getCategory() != null) {
+            categoryBits.computeIfAbsent(ingredient.getCategory(), k -> new BitSet()).set(slot);
+        }
+        if (ingredient.isExpired()) {
+            expiredBits.set(slot);
+        } else if (ingredient.getExpiryDate() != null) {
+            pendingExpiry.add(slot);
+        }
+    }
+
+    /**
+     * Gỡ slot khỏi mọi index - phải gọi khi items[slot] vẫn là giá trị cũ (comparator đọc từ items)
+     */
+    private void unindex(int slot) {
+        live.clear(slot);
+        for (TreeSet<Integer> index : sortIndexes.values()) {
+            index.remove(slot);
+        }
+        for (BitSet bits : categoryBits.values()) {
+            bits.clear(slot);
+        }
+        expiredBits.clear(slot);
+        pendingExpiry.remove(slot);
+    }
+
+    /**
+     * So sánh slot theo item, hoà thì theo slot để TreeSet không coi hai item khác nhau là trùng
+     */
+    private Comparator<Integer> bySlot(Comparator<IngredientDataResponseDto> comparator) {
+        return (a, b) -> {
+            int comparison = comparator.compare(items.get(a), items.get(b));
+            return comparison != 0 ? comparison : Integer.compare(a, b);
+        };
+    }
+
+    private static String name(IngredientDataResponseDto ingredient) {
+        return ingredient.getName() != null ? ingredient.getName() : "";
+    }
+
+    private static String categoryName(IngredientDataResponseDto ingredient) {
+        return ingredient.getCategory() != null ? ingredient.getCategory().name() : "";
+    }
+
+    private static <T extends Comparable<? super T>> int compareNullsLast(T a, T b) {
+        if (a == null && b == null) return 0;
+        if (a == null) return 1;
+        if (b == null) return -1;
+        return a.compareTo(b);
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.android_exam.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.android_exam.App;
+import com.example.android_exam.core.config.AppConfig;
+import com.example.android_exam.data.api.ApiCall;
+import com.example.android_exam.data.api.RequestPriority;
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.local.AppDatabase;
+import com.example.android_exam.data.local.IngredientDao;
+import com.example.android_exam.data.local.IngredientEntity;
+import com.example.android_exam.data.models.base.User;
+import com.example.android_exam.expiry.ExpiryScheduler;
+import com.example.android_exam.utils.SessionManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Kho nguyên liệu offline-first: Room là nguồn dữ liệu chính.
+ * - loadInventory(): trả ngay các row local, sau đó đồng bộ với IngredientApiClient ở background.
+ * - Đồng bộ dùng delta sync (updatedSince = high-water mark của user) và chỉ trả phần thay đổi;
+ *   server không hỗ trợ delta thì tải toàn bộ và so hash từng row (IngredientSyncEngine).
+ *   Các trang được tải song song bởi IngredientBulkLoader.
+ * - Các thao tác ghi (thêm / sửa / xoá) sau khi server xác nhận được ghi thẳng vào Room.
+ * - Mọi thay đổi hạn dùng được đẩy sang ExpiryScheduler để giữ đúng một alarm nhắc hạn dùng.
+ * Mọi truy cập DB chạy trên một thread riêng, callback luôn được gửi về main thread.
+ */
+public class IngredientRepository {
+    private static final String TAG = "IngredientRepository";
+    private static final int SYNC_PAGE_SIZE = 100;
+    // Giới hạn an toàn số trang mỗi lượt sync (10.000 nguyên liệu)
+    private static final int SYNC_MAX_PAGES = 100;
+
+    private static volatile IngredientRepository instance;
+
+    private final IngredientDao dao;
+    private final IngredientSyncEngine syncEngine;
+    private final ExpiryScheduler expiryScheduler;
+    private final IngredientBulkLoader bulkLoader = new IngredientBulkLoader(
+            SYNC_PAGE_SIZE, SYNC_MAX_PAGES, AppConfig.Http.BULK_LOAD_MAX_PARALLEL_PAGES, RequestPriority.VISIBLE_PREFETCH);
+    private final ExecutorService dbExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "inventory-db");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface InventoryCallback {
+        /**
+         * Toàn bộ dữ liệu trong kho local
+         */
+        void onLocalInventory(@NonNull List<IngredientDataResponseDto> ingredients);
+
+        /**
+         * Phần thay đổi sau khi đồng bộ với server (đã ghi vào Room)
+         */
+        void onSynced(@NonNull IngredientSyncEngine.Changes changes);
+
+        /**
+         * Đồng bộ thất bại - dữ liệu local đã gửi trước đó vẫn dùng được
+         */
+        void onSyncError(@NonNull String error);
+    }
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private IngredientRepository() {
+        AppDatabase database = AppDatabase.getInstance(App.getContext());
+        dao = database.ingredientDao();
+        syncEngine = new IngredientSyncEngine(dao, database.syncStateDao());
+        expiryScheduler = new ExpiryScheduler(App.getContext(), dao);
+    }
+
+    public static IngredientRepository getInstance() {
+        if (instance == null) {
+            synchronized (IngredientRepository.class) {
+                if (instance == null) {
+                    instance = new IngredientRepository();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Đọc kho local rồi đồng bộ với server. Huỷ handle sẽ huỷ request đồng bộ và bỏ các callback còn lại.
+     */
+    public ApiCall loadInventory(@NonNull InventoryCallback callback) {
+        ApiCall handle = new ApiCall();
+        dbExecutor.execute(() -> {
+            List<IngredientDataResponseDto> local = toDtos(dao.getAll());
+            Log.d(TAG, "Loaded " + local.size() + " ingredients from local db");
+            deliver(handle, () -> callback.onLocalInventory(local));
+            expiryScheduler.ensureScheduled();
+            if (!handle.isCanceled()) {
+                mainHandler.post(() -> sync(handle, callback));
+            }
+        });
+        return handle;
+    }
+
+    /**
+     * Chỉ đồng bộ với server (pull-to-refresh)
+     */
+    public ApiCall refresh(@NonNull InventoryCallback callback) {
+        ApiCall handle = new ApiCall();
+        sync(handle, callback);
+        return handle;
+    }
+
+    private void sync(ApiCall handle, InventoryCallback callback) {
+        if (handle.isCanceled()) {
+            return;
+        }
+        SessionManager.getUser(new SessionManager.UserCallback() {
+            @Override
+            public void onUserLoaded(User user) {
+                if (handle.isCanceled()) {
+                    return;
+                }
+                dbExecutor.execute(() -> {
+                    Date highWaterMark = syncEngine.getHighWaterMark(user.getId());
+                    fetchAndApply(handle, user.getId(), highWaterMark, callback);
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                finish(handle, () -> callback.onSyncError(error));
+            }
+        });
+    }
+
+    /**
+     * Tải mọi trang (song song) với updatedSince = high-water mark rồi áp vào Room
+     */
+    private void fetchAndApply(ApiCall handle, int userId, Date highWaterMark, InventoryCallback callback) {
+        if (handle.isCanceled()) {
+            return;
+        }
+        ApiCall bulkCall = bulkLoader.load(highWaterMark, new IngredientBulkLoader.Callback() {
+            @Override
+            public void onSnapshot(@NonNull IngredientBulkLoader.Snapshot snapshot) {
+                dbExecutor.execute(() -> {
+                    // Chỉ là delta khi có gửi updatedSince và server trả serverTime
+                    boolean delta = highWaterMark != null && snapshot.getServerTime() != null;
+                    IngredientSyncEngine.Changes changes = delta
+                            ? syncEngine.applyDelta(userId, snapshot.getRows(), snapshot.getDeletedIds(),
+                                    snapshot.getServerTime(), snapshot.isComplete(), snapshot.getRequestedAt())
+                            : syncEngine.applyFull(userId, snapshot.getRows(), snapshot.isComplete(),
+                                    snapshot.getRequestedAt());
+                    Log.d(TAG, "Synced " + snapshot.getRows().size() + " rows (" + snapshot.getPageCount() + " pages) in " + snapshot.getElapsedMs() + "ms (" + changes + ")");
+                    finish(handle, () -> callback.onSynced(changes));
+                    expiryScheduler.apply(changes);
+                });
+            }
+
+            @Override
+            public void onError(@NonNull String error) {
+                Log.e(TAG, "Sync failed: " + error);
+                finish(handle, () -> callback.onSyncError(error));
+            }
+        });
+        handle.onCancel(bulkCall::cancel);
+    }
+
+    public void getLocalById(int id, @NonNull Callback<IngredientDataResponseDto> callback) {
+        dbExecutor.execute(() -> {
+            IngredientEntity entity = dao.getById(id);
+            IngredientDataResponseDto dto = entity != null ? entity.toDto() : null;
+            mainHandler.post(() -> callback.onResult(dto));
+        });
+    }
+
+    public void saveLocal(@NonNull IngredientDataResponseDto ingredient) {
+        long now = System.currentTimeMillis();
+        dbExecutor.execute(() -> {
+            dao.upsert(IngredientEntity.fromDto(ingredient, now));
+            expiryScheduler.put(ingredient);
+        });
+    }
+
+    public void deleteLocal(int id) {
+        dbExecutor.execute(() -> {
+            dao.deleteById(id);
+            expiryScheduler.remove(id);
+        });
+    }
+
+    /**
+     * Alarm hạn dùng tới (ExpiryAlarmReceiver) - done được gọi khi xử lý xong
+     */
+    public void onExpiryAlarm(@NonNull Runnable done) {
+        dbExecutor.execute(() -> {
+            try {
+                expiryScheduler.onAlarm();
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    /**
+     * Dựng lại lịch hạn dùng sau khi khởi động lại máy / cập nhật app / đổi múi giờ
+     */
+    public void rebuildExpirySchedule(@NonNull Runnable done) {
+        dbExecutor.execute(() -> {
+            try {
+                expiryScheduler.rebuild();
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    /**
+     * Xoá kho local (đăng xuất)
+     */
+    public void clearLocal() {
+        dbExecutor.execute(() -> {
+            dao.deleteAll();
+            syncEngine.clear();
+            expiryScheduler.clear();
+        });
+    }
+
+    private void deliver(ApiCall handle, Runnable action) {
+        mainHandler.post(() -> {
+            if (handle.isActive()) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Gửi kết quả cuối của lượt sync rồi đánh dấu handle hoàn tất
+     */
+    private void finish(ApiCall handle, Runnable action) {
+        mainHandler.post(() -> {
+            if (handle.isActive()) {
+                action.run();
+            }
+            handle.markFinished();
+        });
+    }
+
+    private static List<IngredientDataResponseDto> toDtos(List<IngredientEntity> entities) {
+        List<IngredientDataResponseDto> dtos = new ArrayList<>(entities.size());
+        for (IngredientEntity entity : entities) {
+            dtos.add(entity.toDto());
+        }
+        return dtos;
+    }
+}
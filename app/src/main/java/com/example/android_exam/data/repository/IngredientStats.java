@@ -0,0 +1,164 @@
+package com.example.android_exam.data.repository;
+
+import androidx.annotation.NonNull;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bộ đếm nguyên liệu theo category và theo hạn dùng, cập nhật tăng dần khi thêm / sửa / xoá.
+ * - Hết hạn: expiryDate trước thời điểm hiện tại (giống IngredientDataResponseDto.isExpired()).
+ * - Sắp hết hạn: còn hạn và còn tối đa EXPIRY_WARNING_DAYS ngày.
+ * - Còn hạn: phần còn lại (kể cả chưa có ngày hết hạn).
+ * Bucket phụ thuộc thời gian: ExpiryTracker giữ các lần chuyển bucket trong min-heap,
+ * snapshot() chỉ áp các lần chuyển đã tới hạn thay vì phân loại lại cả kho.
+ * Kết quả được publish dưới dạng Snapshot bất biến. Không thread-safe: chỉ dùng trên main thread.
+ */
+public class IngredientStats {
+
+    public enum ExpiryBucket {
+        EXPIRED, EXPIRING_SOON, FRESH
+    }
+
+    /**
+     * Snapshot bất biến của các bộ đếm
+     */
+    public static class Snapshot {
+        public static final Snapshot EMPTY = new Snapshot(0, new EnumMap<>(IngredientCategory.class), 0, 0, 0);
+
+        private final int total;
+        private final Map<IngredientCategory, Integer> byCategory;
+        private final int expired;
+        private final int expiringSoon;
+        private final int fresh;
+
+        Snapshot(int total, EnumMap<IngredientCategory, Integer> byCategory, int expired, int expiringSoon, int fresh) {
+            this.total = total;
+            this.byCategory = Collections.unmodifiableMap(byCategory);
+            this.expired = expired;
+            this.expiringSoon = expiringSoon;
+            this.fresh = fresh;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getCount(@NonNull IngredientCategory category) {
+            Integer count = byCategory.get(category);
+            return count != null ? count : 0;
+        }
+
+        public Map<IngredientCategory, Integer> getByCategory() {
+            return byCategory;
+        }
+
+        public int getExpired() {
+            return expired;
+        }
+
+        public int getExpiringSoon() {
+            return expiringSoon;
+        }
+
+        public int getFresh() {
+            return fresh;
+        }
+
+        /**
+         * Số nguyên liệu chưa hết hạn (sắp hết hạn + còn hạn)
+         */
+        public int getNotExpired() {
+            return expiringSoon + fresh;
+        }
+    }
+
+    private final Map<Integer, IngredientDataResponseDto> itemsById = new HashMap<>();
+    private final EnumMap<IngredientCategory, Integer> categoryCounts = new EnumMap<>(IngredientCategory.class);
+    private final ExpiryTracker expiryTracker = new ExpiryTracker();
+
+    private Snapshot snapshot = Snapshot.EMPTY;
+    private boolean dirty;
+
+    public void reset(@NonNull Collection<IngredientDataResponseDto> ingredients) {
+        itemsById.clear();
+        categoryCounts.clear();
+        expiryTracker.clear();
+        long now = System.currentTimeMillis();
+        for (IngredientDataResponseDto ingredient : ingredients) {
+            add(ingredient, now);
+        }
+        dirty = true;
+    }
+
+    public void put(@NonNull IngredientDataResponseDto ingredient) {
+        subtract(ingredient.getId());
+        add(ingredient, System.currentTimeMillis());
+        dirty = true;
+    }
+
+    public void remove(int id) {
+        if (subtract(id)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Snapshot hiện tại - chỉ tạo object mới khi bộ đếm thay đổi hoặc có nguyên liệu vừa đổi bucket
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        if (expiryTracker.advance(System.currentTimeMillis(), null) > 0) {
+            dirty = true;
+        }
+        if (dirty) {
+            int total = itemsById.size();
+            snapshot = new Snapshot(total, new EnumMap<>(categoryCounts),
+                    expiryTracker.count(ExpiryBucket.EXPIRED),
+                    expiryTracker.count(ExpiryBucket.EXPIRING_SOON),
+                    expiryTracker.count(ExpiryBucket.FRESH));
+            dirty = false;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Thời điểm có nguyên liệu đổi bucket kế tiếp, Long.MAX_VALUE nếu không còn
+     */
+    public long nextTransitionAt() {
+        return expiryTracker.nextTransitionAt();
+    }
+
+    private void add(IngredientDataResponseDto ingredient, long now) {
+        Long expiryAt = ingredient.getExpiryDate() != null ? ingredient.getExpiryDate().getTime() : null;
+        itemsById.put(ingredient.getId(), ingredient);
+        expiryTracker.put(ingredient.getId(), expiryAt, now);
+        if (ingredient.getCategory() != null) {
+            categoryCounts.merge(ingredient.getCategory(), 1, Integer::sum);
+        }
+    }
+
+    private boolean subtract(int id) {
+        IngredientDataResponseDto previous = itemsById.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        expiryTracker.remove(id);
+        IngredientCategory category = previous.getCategory();
+        if (category != null) {
+            int count = categoryCounts.getOrDefault(category, 0) - 1;
+            if (count > 0) {
+                categoryCounts.put(category, count);
+            } else {
+                categoryCounts.remove(category);
+            }
+        }
+        return true;
+    }
+}
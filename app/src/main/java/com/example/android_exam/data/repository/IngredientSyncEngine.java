@@ -0,0 +1,195 @@
+package com.example.android_exam.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.local.IngredientDao;
+import com.example.android_exam.data.local.IngredientEntity;
+import com.example.android_exam.data.local.IngredientRowHash;
+import com.example.android_exam.data.local.SyncStateDao;
+import com.example.android_exam.data.local.SyncStateEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Áp kết quả sync của kho nguyên liệu vào Room và tính ra phần thay đổi.
+ * - Delta (server hỗ trợ updatedSince): chỉ ghi insert / update và xoá các tombstone, high-water mark = serverTime.
+ * - Full (server bỏ qua updatedSince): so sánh hash từng row với local, chỉ ghi row khác hash,
+ *   xoá row không còn trên server nếu danh sách đầy đủ, high-water mark = updatedAt lớn nhất.
+ * Row được ghi local (synced_at) sau khi bắt đầu request snapshot mới hơn snapshot: không bị ghi đè
+ * bởi dữ liệu trong snapshot và không bị xoá vì thiếu trong snapshot.
+ * Mọi hàm chạy trên thread DB của IngredientRepository; không phụ thuộc Android nên test được trên JVM.
+ */
+public class IngredientSyncEngine {
+    private final IngredientDao ingredientDao;
+    private final SyncStateDao syncStateDao;
+
+    /**
+     * Phần thay đổi sau một lượt sync - ViewModel áp trực tiếp lên danh sách đang hiển thị
+     */
+    public static class Changes {
+        private final List<IngredientDataResponseDto> upserted;
+        private final List<Integer> deletedIds;
+        private final int unchanged;
+        private final boolean delta;
+
+        Changes(List<IngredientDataResponseDto> upserted, List<Integer> deletedIds, int unchanged, boolean delta) {
+            this.upserted = upserted;
+            this.deletedIds = deletedIds;
+            this.unchanged = unchanged;
+            this.delta = delta;
+        }
+
+        public List<IngredientDataResponseDto> getUpserted() {
+            return upserted;
+        }
+
+        public List<Integer> getDeletedIds() {
+            return deletedIds;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public boolean isDelta() {
+            return delta;
+        }
+
+        public boolean isEmpty() {
+            return upserted.isEmpty() && deletedIds.isEmpty();
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return (delta ? "delta" : "full") + " upserted=" + upserted.size() +
+                    " deleted=" + deletedIds.size() + " unchanged=" + unchanged;
+        }
+    }
+
+    public IngredientSyncEngine(IngredientDao ingredientDao, SyncStateDao syncStateDao) {
+        this.ingredientDao = ingredientDao;
+        this.syncStateDao = syncStateDao;
+    }
+
+    /**
+     * updatedSince cho lần sync tiếp theo, null nếu user chưa sync lần nào (cần full fetch)
+     */
+    @Nullable
+    public Date getHighWaterMark(int userId) {
+        SyncStateEntity state = syncStateDao.get(SyncStateEntity.RESOURCE_INGREDIENTS, userId);
+        return state != null && state.getHighWaterMark() != null ? new Date(state.getHighWaterMark()) : null;
+    }
+
+    /**
+     * @param complete    đã tải hết các trang delta - nếu không, giữ high-water mark cũ để lần sau tải lại phần còn thiếu
+     * @param requestedAt thời điểm (epoch ms) bắt đầu gửi request snapshot
+     */
+    public Changes applyDelta(int userId, List<IngredientDataResponseDto> changed,
+                              @Nullable List<Integer> deletedIds, @NonNull Date serverTime, boolean complete,
+                              long requestedAt) {
+        Map<Integer, IngredientRowHash> local = loadLocalRows();
+        List<IngredientEntity> upserts = new ArrayList<>();
+        List<IngredientDataResponseDto> upserted = new ArrayList<>();
+        int unchanged = collectChanged(changed, local, requestedAt, upserts, upserted);
+
+        List<Integer> deleted = new ArrayList<>();
+        if (deletedIds != null) {
+            for (Integer id : deletedIds) {
+                if (id != null && local.containsKey(id)) {
+                    deleted.add(id);
+                }
+            }
+        }
+
+        ingredientDao.applyChanges(upserts, deleted);
+        if (complete) {
+            saveState(userId, serverTime.getTime(), true);
+        }
+        return new Changes(upserted, deleted, unchanged, true);
+    }
+
+    /**
+     * @param complete    server trả về toàn bộ danh sách - chỉ khi đó mới xoá row local không có trên server
+     * @param requestedAt thời điểm (epoch ms) bắt đầu gửi request snapshot
+     */
+    public Changes applyFull(int userId, List<IngredientDataResponseDto> rows, boolean complete, long requestedAt) {
+        Map<Integer, IngredientRowHash> local = loadLocalRows();
+        List<IngredientEntity> upserts = new ArrayList<>();
+        List<IngredientDataResponseDto> upserted = new ArrayList<>();
+        int unchanged = collectChanged(rows, local, requestedAt, upserts, upserted);
+
+        List<Integer> deleted = new ArrayList<>();
+        if (complete) {
+            Set<Integer> remoteIds = new HashSet<>(rows.size() * 2);
+            for (IngredientDataResponseDto dto : rows) {
+                remoteIds.add(dto.getId());
+            }
+            for (IngredientRowHash row : local.values()) {
+                // Row tạo local trong lúc snapshot đang tải chưa có trong snapshot, không phải đã bị xoá trên server
+                if (!remoteIds.contains(row.id) && row.syncedAt < requestedAt) {
+                    deleted.add(row.id);
+                }
+            }
+        }
+
+        ingredientDao.applyChanges(upserts, deleted);
+        // Chỉ có high-water mark khi danh sách đầy đủ, nếu không lần sau delta sẽ bỏ sót các row chưa tải
+        saveState(userId, complete ? ingredientDao.getMaxUpdatedAt() : null, false);
+        return new Changes(upserted, deleted, unchanged, false);
+    }
+
+    public void clear() {
+        syncStateDao.clear(SyncStateEntity.RESOURCE_INGREDIENTS);
+    }
+
+    private Map<Integer, IngredientRowHash> loadLocalRows() {
+        List<IngredientRowHash> rows = ingredientDao.getRowHashes();
+        Map<Integer, IngredientRowHash> byId = new HashMap<>(rows.size() * 2);
+        for (IngredientRowHash row : rows) {
+            byId.put(row.id, row);
+        }
+        return byId;
+    }
+
+    /**
+     * Tách các row mới / khác hash so với local, trả về số row giữ nguyên
+     * (cùng hash, hoặc row local được ghi sau requestedAt nên mới hơn snapshot)
+     */
+    private static int collectChanged(List<IngredientDataResponseDto> rows, Map<Integer, IngredientRowHash> local,
+                                      long requestedAt, List<IngredientEntity> upserts,
+                                      List<IngredientDataResponseDto> upserted) {
+        long now = System.currentTimeMillis();
+        int unchanged = 0;
+        for (IngredientDataResponseDto dto : rows == null ? Collections.<IngredientDataResponseDto>emptyList() : rows) {
+            IngredientEntity entity = IngredientEntity.fromDto(dto, now);
+            IngredientRowHash localRow = local.get(dto.getId());
+            if (localRow != null && (localRow.rowHash == entity.getRowHash() || localRow.syncedAt >= requestedAt)) {
+                unchanged++;
+                continue;
+            }
+            upserts.add(entity);
+            upserted.add(dto);
+        }
+        return unchanged;
+    }
+
+    private void saveState(int userId, @Nullable Long highWaterMark, boolean deltaSupported) {
+        SyncStateEntity state = new SyncStateEntity();
+        state.setResource(SyncStateEntity.RESOURCE_INGREDIENTS);
+        state.setUserId(userId);
+        state.setHighWaterMark(highWaterMark);
+        state.setDeltaSupported(deltaSupported);
+        state.setLastSyncAt(System.currentTimeMillis());
+        syncStateDao.upsert(state);
+    }
+}
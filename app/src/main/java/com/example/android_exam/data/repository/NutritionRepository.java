@@ -4,6 +4,7 @@ import android.util.Log;
 
 import com.example.android_exam.core.datetime.DateTimeManager;
 import com.example.android_exam.core.mapper.DtoMapper;
+import com.example.android_exam.data.api.ApiCall;
 import com.example.android_exam.data.api.ApiManager;
 import com.example.android_exam.data.api.DataCallback;
 import com.example.android_exam.data.dto.nutrition.DailyNutritionSummaryDto;
@@ -33,7 +34,10 @@ public class NutritionRepository {
         weeklyCache.clear();
     }
 
-    public void getDailyNutrition(Date date, Callback<DailyNutritionSummaryDto> callback) {
+    /**
+     * Trả về ApiCall để ViewModel huỷ được khi chọn ngày khác hoặc rời màn hình
+     */
+    public ApiCall getDailyNutrition(Date date, Callback<DailyNutritionSummaryDto> callback) {
         Log.d("NutritionRepository", "getDailyNutrition called for date: " + date);
         // Sử dụng LocalDate để tránh timezone issues khi format key
         // Format key theo yyyy-MM-dd để consistent với API
@@ -42,18 +46,23 @@ public class NutritionRepository {
         if (dailyCache.containsKey(dateKey)) {
             Log.d("NutritionRepository", "Returning cached data for date: " + dateKey);
             callback.onSuccess(dailyCache.get(dateKey));
-            return;
+            return ApiCall.completed();
         }
 
+        ApiCall handle = new ApiCall();
+
         SessionManager.getUser(new SessionManager.UserCallback() {
             @Override
             public void onUserLoaded(User user) {
+                if (handle.isCanceled()) {
+                    return;
+                }
                 var userNutritionRequest = new UserNutritionRequestDto();
                 // Sử dụng đúng ngày được chọn, không lùi ngày
                 // Date sẽ được serialize thành ISO UTC string bởi DateTimeTypeAdapter
                 userNutritionRequest.setCurrentDate(date);
                 userNutritionRequest.setUserInformationDto(DtoMapper.toUserInformationDto(user));
-                ApiManager.getInstance().getNutritionClient().getDailyNutritionSummary(userNutritionRequest, new DataCallback<ApiResponse<DailyNutritionSummaryDto>>() {
+                handle.follow(ApiManager.getInstance().getNutritionClient().getDailyNutritionSummary(userNutritionRequest, new DataCallback<ApiResponse<DailyNutritionSummaryDto>>() {
                     @Override
                     public void onSuccess(ApiResponse<DailyNutritionSummaryDto> result) {
                         //Add to cache
@@ -71,35 +80,43 @@ public class NutritionRepository {
                     public void onFailure(Throwable throwable) {
                         callback.onError("Lỗi kết nối: " + throwable.getMessage());
                     }
-                });
+                }));
             }
 
             @Override
             public void onError(String error) {
-                callback.onError("Lỗi khi tải dữ liệu: " + error);
+                if (handle.isActive()) {
+                    handle.markFinished();
+                    callback.onError("Lỗi khi tải dữ liệu: " + error);
+                }
             }
         });
-
+        return handle;
 
     }
 
-    public void getWeeklyNutrition(Date weekStart, Callback<WeeklyNutritionSummaryDto> callback) {
+    public ApiCall getWeeklyNutrition(Date weekStart, Callback<WeeklyNutritionSummaryDto> callback) {
         // Sử dụng LocalDate để tránh timezone issues khi format key
         java.time.LocalDate localDate = dateTimeManager.convertToLocalDate(weekStart);
         String weekKey = (localDate != null ? localDate.format(dateTimeManager.DATE_FORMAT) : dateTimeManager.getTodayString()) + "-week";
         if (weeklyCache.containsKey(weekKey)) {
             callback.onSuccess(weeklyCache.get(weekKey));
-            return;
+            return ApiCall.completed();
         }
 
+        ApiCall handle = new ApiCall();
+
         //Get user information
         SessionManager.getUser(new SessionManager.UserCallback() {
             @Override
             public void onUserLoaded(User user) {
+                if (handle.isCanceled()) {
+                    return;
+                }
                 var userNutritionRequest = new UserNutritionRequestDto();
                 userNutritionRequest.setStartDate(weekStart);
                 userNutritionRequest.setUserInformationDto(DtoMapper.toUserInformationDto(user));
-                ApiManager.getInstance().getNutritionClient().getWeeklyNutritionSummary(userNutritionRequest, new DataCallback<ApiResponse<WeeklyNutritionSummaryDto>>() {
+                handle.follow(ApiManager.getInstance().getNutritionClient().getWeeklyNutritionSummary(userNutritionRequest, new DataCallback<ApiResponse<WeeklyNutritionSummaryDto>>() {
                     @Override
                     public void onSuccess(ApiResponse<WeeklyNutritionSummaryDto> result) {
                         //Add to cache
@@ -116,15 +133,18 @@ public class NutritionRepository {
                     public void onFailure(Throwable throwable) {
                         callback.onError("Lỗi kết nối: " + throwable.getMessage());
                     }
-                });
+                }));
             }
 
             @Override
             public void onError(String error) {
-                callback.onError("Lỗi khi tải dữ liệu: " + error);
+                if (handle.isActive()) {
+                    handle.markFinished();
+                    callback.onError("Lỗi khi tải dữ liệu: " + error);
+                }
             }
         });
-
+        return handle;
 
     }
 
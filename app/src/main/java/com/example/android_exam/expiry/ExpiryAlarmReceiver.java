@@ -0,0 +1,39 @@
+package com.example.android_exam.expiry;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import com.example.android_exam.data.repository.IngredientRepository;
+
+/**
+ * Nhận alarm hạn dùng của ExpiryScheduler, và các sự kiện hệ thống làm mất / lệch alarm
+ * (khởi động lại máy, cập nhật app, đổi múi giờ). Việc đọc Room chạy trên thread DB của IngredientRepository.
+ */
+public class ExpiryAlarmReceiver extends BroadcastReceiver {
+
+    public static final String ACTION_EXPIRY_ALARM = "com.example.android_exam.expiry.ExpiryAlarmReceiver.ALARM";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (action == null) {
+            return;
+        }
+        PendingResult result = goAsync();
+        IngredientRepository repository = IngredientRepository.getInstance();
+        switch (action) {
+            case ACTION_EXPIRY_ALARM:
+                repository.onExpiryAlarm(result::finish);
+                break;
+            case Intent.ACTION_BOOT_COMPLETED:
+            case Intent.ACTION_MY_PACKAGE_REPLACED:
+            case Intent.ACTION_TIMEZONE_CHANGED:
+                repository.rebuildExpirySchedule(result::finish);
+                break;
+            default:
+                result.finish();
+                break;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.android_exam.expiry;
+
+import android.Manifest;
+import android.app.Activity;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.ActivityCompat;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+
+import com.example.android_exam.R;
+import com.example.android_exam.activities.IngredientManagementActivity;
+
+import java.util.List;
+
+/**
+ * Thông báo gộp về hạn dùng nguyên liệu: mỗi lần alarm chỉ một notification (luôn cùng id, thay thế bản cũ)
+ */
+public class ExpiryNotifier {
+    private static final String CHANNEL_ID = "ingredient_expiry";
+    private static final int NOTIFICATION_ID = 0xE0F1;
+    private static final int PERMISSION_REQUEST_CODE = 0xE0F2;
+    // Số tên nguyên liệu tối đa hiển thị trong InboxStyle
+    private static final int MAX_LINES = 5;
+
+    private final Context context;
+
+    public ExpiryNotifier(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Xin quyền POST_NOTIFICATIONS (Android 13+) nếu chưa có
+     */
+    public static void requestPermissionIfNeeded(@NonNull Activity activity) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(activity, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(activity,
+                    new String[]{Manifest.permission.POST_NOTIFICATIONS}, PERMISSION_REQUEST_CODE);
+        }
+    }
+
+    /**
+     * @param expiringSoon tên các nguyên liệu vừa vào khoảng sắp hết hạn
+     * @param expired      tên các nguyên liệu vừa hết hạn
+     */
+    public void notify(@NonNull List<String> expiringSoon, @NonNull List<String> expired) {
+        if (expiringSoon.isEmpty() && expired.isEmpty()) {
+            return;
+        }
+        if (!canNotify()) {
+            return;
+        }
+        ensureChannel();
+
+        String title;
+        if (!expiringSoon.isEmpty() && !expired.isEmpty()) {
+            title = String.format("%d nguyên liệu sắp hết hạn, %d đã hết hạn", expiringSoon.size(), expired.size());
+        } else if (!expiringSoon.isEmpty()) {
+            title = String.format("%d nguyên liệu sắp hết hạn", expiringSoon.size());
+        } else {
+            title = String.format("%d nguyên liệu đã hết hạn", expired.size());
+        }
+
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle().setBigContentTitle(title);
+        int lines = 0;
+        for (String name : expired) {
+            if (lines++ < MAX_LINES) style.addLine("Đã hết hạn: " + name);
+        }
+        for (String name : expiringSoon) {
+            if (lines++ < MAX_LINES) style.addLine("Sắp hết hạn: " + name);
+        }
+        if (lines > MAX_LINES) {
+            style.setSummaryText(String.format("và %d nguyên liệu khác", lines - MAX_LINES));
+        }
+
+        Intent open = new Intent(context, IngredientManagementActivity.class);
+        open.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent contentIntent = PendingIntent.getActivity(
+                context, 0, open, PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_calendar)
+                .setContentTitle(title)
+                .setContentText("Kiểm tra kho nguyên liệu để dùng trước khi hỏng")
+                .setStyle(style)
+                .setNumber(expiringSoon.size() + expired.size())
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true)
+                .setOnlyAlertOnce(true)
+                .setPriority(NotificationCompat.PRIORITY_DEFAULT);
+
+        try {
+            NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, builder.build());
+        } catch (SecurityException e) {
+            // Quyền bị thu hồi giữa chừng
+        }
+    }
+
+    public void cancel() {
+        NotificationManagerCompat.from(context).cancel(NOTIFICATION_ID);
+    }
+
+    private boolean canNotify() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            return false;
+        }
+        return NotificationManagerCompat.from(context).areNotificationsEnabled();
+    }
+
+    private void ensureChannel() {
+        NotificationManager manager = context.getSystemService(NotificationManager.class);
+        if (manager != null && manager.getNotificationChannel(CHANNEL_ID) == null) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID, "Hạn dùng nguyên liệu", NotificationManager.IMPORTANCE_DEFAULT);
+            channel.setDescription("Nhắc khi nguyên liệu sắp hết hạn hoặc đã hết hạn");
+            manager.createNotificationChannel(channel);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.android_exam.expiry;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.local.IngredientDao;
+import com.example.android_exam.data.local.IngredientExpiry;
+import com.example.android_exam.data.repository.ExpiryTracker;
+import com.example.android_exam.data.repository.IngredientStats.ExpiryBucket;
+import com.example.android_exam.data.repository.IngredientSyncEngine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lịch nhắc hạn dùng chạy nền:
+ * - ExpiryTracker giữ các lần chuyển bucket (sắp hết hạn / hết hạn) của kho trong min-heap theo thời điểm.
+ * - Chỉ đặt đúng một alarm của hệ thống cho lần chuyển sớm nhất; alarm tới thì chỉ lấy các phần tử đã tới hạn,
+ *   gửi một thông báo gộp và đặt alarm kế tiếp - không bao giờ quét cả kho.
+ * - processedAt (SharedPreferences) là mốc đã thông báo tới đâu; khi process bị kill, heap được dựng lại từ
+ *   range query trên index expiry_date (chỉ các nguyên liệu chưa hết hạn tại mốc đó).
+ * Không thread-safe: IngredientRepository gọi mọi hàm trên thread DB của nó.
+ */
+public class ExpiryScheduler {
+    private static final String TAG = "ExpiryScheduler";
+    private static final String PREFS_NAME = "expiry_scheduler";
+    private static final String KEY_PROCESSED_AT = "processed_at";
+    // Chưa đặt alarm nào trong process này
+    private static final long NOT_SCHEDULED = Long.MIN_VALUE;
+
+    private final Context context;
+    private final IngredientDao dao;
+    private final SharedPreferences prefs;
+    private final ExpiryNotifier notifier;
+    private final Map<Integer, String> names = new HashMap<>();
+
+    private ExpiryTracker tracker = new ExpiryTracker();
+    private boolean loaded;
+    private long scheduledAt = NOT_SCHEDULED;
+
+    public ExpiryScheduler(@NonNull Context context, @NonNull IngredientDao dao) {
+        this.context = context.getApplicationContext();
+        this.dao = dao;
+        this.prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.notifier = new ExpiryNotifier(this.context);
+    }
+
+    /**
+     * Dựng heap (nếu chưa có) và đảm bảo alarm đang trỏ tới lần chuyển kế tiếp
+     */
+    public void ensureScheduled() {
+        load();
+        reschedule();
+    }
+
+    /**
+     * Khởi động lại máy / đổi múi giờ: alarm cũ không còn hoặc mốc 0h đã đổi, dựng lại từ Room
+     */
+    public void rebuild() {
+        tracker = new ExpiryTracker();
+        names.clear();
+        loaded = false;
+        scheduledAt = NOT_SCHEDULED;
+        ensureScheduled();
+    }
+
+    public void put(@NonNull IngredientDataResponseDto ingredient) {
+        load();
+        track(ingredient.getId(), ingredient.getName(),
+                ingredient.getExpiryDate() != null ? ingredient.getExpiryDate().getTime() : null,
+                System.currentTimeMillis());
+        reschedule();
+    }
+
+    public void remove(int id) {
+        load();
+        tracker.remove(id);
+        names.remove(id);
+        reschedule();
+    }
+
+    /**
+     * Áp phần thay đổi của một lượt sync
+     */
+    public void apply(@NonNull IngredientSyncEngine.Changes changes) {
+        if (changes.isEmpty()) {
+            ensureScheduled();
+            return;
+        }
+        load();
+        long now = System.currentTimeMillis();
+        for (IngredientDataResponseDto ingredient : changes.getUpserted()) {
+            track(ingredient.getId(), ingredient.getName(),
+                    ingredient.getExpiryDate() != null ? ingredient.getExpiryDate().getTime() : null, now);
+        }
+        for (Integer id : changes.getDeletedIds()) {
+            tracker.remove(id);
+            names.remove(id);
+        }
+        reschedule();
+    }
+
+    /**
+     * Alarm tới: áp các lần chuyển đã tới hạn, gửi một thông báo gộp rồi đặt alarm kế tiếp
+     */
+    public void onAlarm() {
+        load();
+        scheduledAt = NOT_SCHEDULED;
+        long now = System.currentTimeMillis();
+        Set<Integer> expiringSoon = new LinkedHashSet<>();
+        Set<Integer> expired = new LinkedHashSet<>();
+        int changed = tracker.advance(now, (id, from, to) -> {
+            if (to == ExpiryBucket.EXPIRING_SOON) {
+                expiringSoon.add(id);
+            } else if (to == ExpiryBucket.EXPIRED) {
+                // Có thể đi qua cả hai mốc trong một lần (máy tắt lâu): chỉ báo trạng thái cuối
+                expiringSoon.remove(id);
+                expired.add(id);
+            }
+        });
+        prefs.edit().putLong(KEY_PROCESSED_AT, now).apply();
+
+        // Nguyên liệu đã hết hạn không còn lần chuyển nào nữa
+        List<String> expiredNames = new ArrayList<>(expired.size());
+        for (Integer id : expired) {
+            expiredNames.add(nameOf(id));
+            tracker.remove(id);
+            names.remove(id);
+        }
+        List<String> soonNames = new ArrayList<>(expiringSoon.size());
+        for (Integer id : expiringSoon) {
+            soonNames.add(nameOf(id));
+        }
+        Log.d(TAG, "Alarm: " + changed + " transitions, " + soonNames.size() + " expiring soon, " + expiredNames.size() + " expired");
+        notifier.notify(soonNames, expiredNames);
+        reschedule();
+    }
+
+    /**
+     * Đăng xuất: huỷ alarm, thông báo và mốc đã xử lý
+     */
+    public void clear() {
+        tracker.clear();
+        names.clear();
+        loaded = false;
+        scheduledAt = NOT_SCHEDULED;
+        prefs.edit().remove(KEY_PROCESSED_AT).apply();
+        AlarmManager alarmManager = context.getSystemService(AlarmManager.class);
+        if (alarmManager != null) {
+            alarmManager.cancel(alarmIntent());
+        }
+        notifier.cancel();
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        long processedAt = prefs.getLong(KEY_PROCESSED_AT, -1);
+        if (processedAt < 0) {
+            // Lần đầu: không thông báo lại các mốc đã qua trước khi cài lịch
+            processedAt = System.currentTimeMillis();
+            prefs.edit().putLong(KEY_PROCESSED_AT, processedAt).apply();
+        }
+        // Phân bucket tại processedAt để các mốc bị lỡ khi process không chạy vẫn được báo ở alarm kế tiếp
+        List<IngredientExpiry> rows = dao.getExpiryTimeline(processedAt);
+        for (IngredientExpiry row : rows) {
+            track(row.id, row.name, row.expiryDate, processedAt);
+        }
+        loaded = true;
+        Log.d(TAG, "Loaded " + rows.size() + " upcoming expiries");
+    }
+
+    /**
+     * Chỉ giữ nguyên liệu còn lần chuyển bucket phía trước
+     */
+    private void track(int id, @Nullable String name, @Nullable Long expiryAt, long now) {
+        if (expiryAt == null || tracker.classify(expiryAt, now) == ExpiryBucket.EXPIRED) {
+            tracker.remove(id);
+            names.remove(id);
+            return;
+        }
+        tracker.put(id, expiryAt, now);
+        names.put(id, name);
+    }
+
+    /**
+     * Đặt lại alarm duy nhất nếu lần chuyển kế tiếp thay đổi (cùng PendingIntent nên alarm cũ bị thay thế)
+     */
+    private void reschedule() {
+        long nextAt = tracker.nextTransitionAt();
+        if (nextAt == scheduledAt) {
+            return;
+        }
+        AlarmManager alarmManager = context.getSystemService(AlarmManager.class);
+        if (alarmManager == null) {
+            return;
+        }
+        if (nextAt == Long.MAX_VALUE) {
+            alarmManager.cancel(alarmIntent());
+        } else {
+            // Không cần exact alarm: trễ vài phút khi Doze vẫn chấp nhận được với mốc theo ngày
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, nextAt, alarmIntent());
+        }
+        scheduledAt = nextAt;
+    }
+
+    private PendingIntent alarmIntent() {
+        Intent intent = new Intent(context, ExpiryAlarmReceiver.class).setAction(ExpiryAlarmReceiver.ACTION_EXPIRY_ALARM);
+        return PendingIntent.getBroadcast(context, 0, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    private String nameOf(int id) {
+        String name = names.get(id);
+        return name != null && !name.isEmpty() ? name : "Nguyên liệu #" + id;
+    }
+}
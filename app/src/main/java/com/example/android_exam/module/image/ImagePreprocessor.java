@@ -0,0 +1,421 @@
+package com.example.android_exam.module.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.App;
+import com.example.android_exam.core.config.AppConfig;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thu nhỏ ảnh trước khi upload: decode có subsampling (không giữ ảnh full-res trong RAM), xoay theo EXIF,
+ * scale về cạnh dài của Target rồi nén lại thành file tạm trong cacheDir.
+ * Nguồn có thể là content URI (đọc stream trực tiếp, không copy ảnh gốc ra disk).
+ * Mọi thao tác chạy trên một thread nền riêng (decode bitmap tốn RAM nên không chạy song song).
+ * Ảnh không decode được hoặc nén ra lớn hơn bản gốc thì upload nguyên file gốc.
+ */
+public class ImagePreprocessor {
+    private static final String TAG = "ImagePreprocessor";
+    private static ImagePreprocessor instance;
+
+    // File tạm còn sót lại khi process bị kill giữa lúc upload
+    private static final long STALE_FILE_MS = 60 * 60 * 1000L;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "image-preprocess");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final AtomicLong processedImages = new AtomicLong();
+    private final AtomicLong originalBytes = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final AtomicLong processNanos = new AtomicLong();
+
+    /**
+     * Kích thước / định dạng đích theo endpoint
+     */
+    public enum Target {
+        // Model nhận diện chỉ cần ảnh nhỏ
+        AI_DETECTION(AppConfig.Image.AI_DETECTION_MAX_DIMENSION, Format.JPEG, AppConfig.Image.AI_DETECTION_QUALITY),
+        // Ảnh món ăn / nguyên liệu được hiển thị lại trong app
+        UPLOAD(AppConfig.Image.UPLOAD_MAX_DIMENSION, Format.JPEG, AppConfig.Image.UPLOAD_QUALITY);
+
+        final int maxDimension;
+        final Format format;
+        final int quality;
+
+        Target(int maxDimension, Format format, int quality) {
+            this.maxDimension = maxDimension;
+            this.format = format;
+            this.quality = quality;
+        }
+    }
+
+    public enum Format {
+        JPEG("image/jpeg", ".jpg"),
+        WEBP("image/webp", ".webp");
+
+        final String mimeType;
+        final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+
+        @SuppressWarnings("deprecation")
+        Bitmap.CompressFormat compressFormat() {
+            if (this == JPEG) {
+                return Bitmap.CompressFormat.JPEG;
+            }
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                    ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+        }
+    }
+
+    public interface Callback {
+        /**
+         * Chạy trên thread image-preprocess
+         */
+        void onProcessed(@NonNull Result result);
+    }
+
+    /**
+     * Ảnh sẽ được upload. Gọi release() khi request xong để xoá file tạm.
+     */
+    public static class Result {
+        private final ImageSource source;
+        @Nullable
+        private final File tempFile;
+        private final String mimeType;
+        private final long originalBytes;
+        private final long processedBytes;
+        private final long elapsedMs;
+
+        Result(ImageSource source, @Nullable File tempFile, String mimeType, long originalBytes, long processedBytes, long elapsedMs) {
+            this.source = source;
+            this.tempFile = tempFile;
+            this.mimeType = mimeType;
+            this.originalBytes = originalBytes;
+            this.processedBytes = processedBytes;
+            this.elapsedMs = elapsedMs;
+        }
+
+        /**
+         * Ảnh đã nén, hoặc nguồn gốc nếu không cần / không thể nén
+         */
+        public ImageSource getSource() {
+            return source;
+        }
+
+        /**
+         * Content-Type của part ảnh (null nếu dùng file gốc)
+         */
+        @Nullable
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public long getOriginalBytes() {
+            return originalBytes;
+        }
+
+        public long getProcessedBytes() {
+            return processedBytes;
+        }
+
+        public long getSavedBytes() {
+            return Math.max(0, originalBytes - processedBytes);
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public void release() {
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                Log.w(TAG, "Cannot delete " + tempFile.getName());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return originalBytes / 1024 + "KB -> " + processedBytes / 1024 + "KB"
+                    + " (saved " + (originalBytes > 0 ? getSavedBytes() * 100 / originalBytes : 0) + "%)"
+                    + ", preprocess " + elapsedMs + "ms";
+        }
+    }
+
+    private ImagePreprocessor() {
+        executor.execute(this::deleteStaleFiles);
+    }
+
+    public static synchronized ImagePreprocessor getInstance() {
+        if (instance == null) {
+            instance = new ImagePreprocessor();
+        }
+        return instance;
+    }
+
+    /**
+     * Xử lý ảnh trên thread nền, callback luôn được gọi (fallback về file gốc khi lỗi)
+     */
+    public void process(@NonNull ImageSource source, @NonNull Target target, @NonNull Callback callback) {
+        executor.execute(() -> callback.onProcessed(processBlocking(source, target)));
+    }
+
+    /**
+     * Bản đồng bộ - không gọi trên main thread
+     */
+    @NonNull
+    public Result processBlocking(@NonNull ImageSource source, @NonNull Target target) {
+        long start = System.nanoTime();
+        long sourceBytes = Math.max(0, source.length());
+        File dir = outputDir();
+        Result result;
+        if (dir == null) {
+            result = passThrough(source, start);
+        } else {
+            try {
+                result = compress(source, target, dir, start);
+            } catch (IOException | SecurityException | OutOfMemoryError e) {
+                Log.w(TAG, "Preprocess failed, uploading original " + source + ": " + e);
+                result = passThrough(source, start);
+            }
+        }
+        processedImages.incrementAndGet();
+        originalBytes.addAndGet(sourceBytes);
+        uploadedBytes.addAndGet(result.getProcessedBytes());
+        processNanos.addAndGet(System.nanoTime() - start);
+        Log.d(TAG, source.getName() + " [" + target + "]: " + result);
+        return result;
+    }
+
+    private Result compress(ImageSource source, Target target, File dir, long start) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = source.open()) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            // Không phải ảnh BitmapFactory đọc được
+            return passThrough(source, start);
+        }
+
+        int orientation = readOrientation(source);
+        int longSide = Math.max(bounds.outWidth, bounds.outHeight);
+        boolean oversized = longSide > target.maxDimension;
+        boolean upright = orientation == ExifInterface.ORIENTATION_NORMAL
+                || orientation == ExifInterface.ORIENTATION_UNDEFINED;
+        boolean sameFormat = target.format.mimeType.equals(bounds.outMimeType);
+        if (!oversized && upright && sameFormat) {
+            // Đã đủ nhỏ và đúng chiều: nén lại chỉ làm giảm chất lượng
+            return passThrough(source, start);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(longSide, target.maxDimension);
+        Bitmap decoded;
+        try (InputStream in = source.open()) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            return passThrough(source, start);
+        }
+
+        Bitmap output = null;
+        File file = null;
+        try {
+            output = transform(decoded, orientation, target.maxDimension);
+            file = File.createTempFile("upload_", target.format.extension, dir);
+            try (OutputStream out = new FileOutputStream(file)) {
+                if (!output.compress(target.format.compressFormat(), target.quality, out)) {
+                    throw new IOException("Bitmap.compress failed");
+                }
+            }
+        } catch (IOException | OutOfMemoryError e) {
+            if (file != null) {
+                file.delete();
+            }
+            throw e;
+        } finally {
+            if (output != null && output != decoded) {
+                output.recycle();
+            }
+            decoded.recycle();
+        }
+
+        long sourceBytes = source.length();
+        if (upright && sourceBytes != ImageSource.UNKNOWN_LENGTH && file.length() >= sourceBytes) {
+            // Ảnh gốc đã nén mạnh hơn: giữ bản gốc
+            file.delete();
+            return passThrough(source, start);
+        }
+        return new Result(ImageSource.of(file), file, target.format.mimeType, Math.max(0, sourceBytes), file.length(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    static int readOrientation(ImageSource source) throws IOException {
+        ExifInterface exif;
+        if (source.isFile()) {
+            exif = new ExifInterface(source.getFile().getPath());
+        } else {
+            try (InputStream in = source.open()) {
+                exif = new ExifInterface(in);
+            }
+        }
+        return exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+    }
+
+    /**
+     * inSampleSize lớn nhất (luỹ thừa 2) mà cạnh đã cho sau decode vẫn >= maxDimension
+     */
+    static int sampleSize(int longSide, int maxDimension) {
+        int sample = 1;
+        while (longSide / (sample * 2) >= maxDimension) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * Scale phần còn thừa sau subsampling và xoay / lật theo EXIF trong một lần createBitmap
+     */
+    static Bitmap transform(Bitmap bitmap, int orientation, int maxDimension) {
+        Matrix matrix = new Matrix();
+        int longSide = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        if (longSide > maxDimension) {
+            float scale = (float) maxDimension / longSide;
+            matrix.postScale(scale, scale);
+        }
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(-90);
+                break;
+            default:
+                break;
+        }
+        if (matrix.isIdentity()) {
+            return bitmap;
+        }
+        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    }
+
+    private static Result passThrough(ImageSource source, long start) {
+        long size = Math.max(0, source.length());
+        return new Result(source, null, null, size, size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Nullable
+    private static File outputDir() {
+        App app = App.getInstance();
+        if (app == null) {
+            return null;
+        }
+        File dir = new File(app.getCacheDir(), AppConfig.Image.PROCESSED_DIR_NAME);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return null;
+        }
+        return dir;
+    }
+
+    private void deleteStaleFiles() {
+        File dir = outputDir();
+        File[] files = dir != null ? dir.listFiles() : null;
+        if (files == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - STALE_FILE_MS;
+        for (File file : files) {
+            if (file.lastModified() < cutoff) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Tổng số ảnh đã xử lý và số byte tiết kiệm được
+     */
+    public Stats getStats() {
+        return new Stats(processedImages.get(), originalBytes.get(), uploadedBytes.get(), processNanos.get() / 1_000_000);
+    }
+
+    public static class Stats {
+        private final long processedImages;
+        private final long originalBytes;
+        private final long uploadedBytes;
+        private final long processMs;
+
+        Stats(long processedImages, long originalBytes, long uploadedBytes, long processMs) {
+            this.processedImages = processedImages;
+            this.originalBytes = originalBytes;
+            this.uploadedBytes = uploadedBytes;
+            this.processMs = processMs;
+        }
+
+        public long getProcessedImages() {
+            return processedImages;
+        }
+
+        public long getOriginalBytes() {
+            return originalBytes;
+        }
+
+        public long getUploadedBytes() {
+            return uploadedBytes;
+        }
+
+        public long getSavedBytes() {
+            return Math.max(0, originalBytes - uploadedBytes);
+        }
+
+        public long getProcessMs() {
+            return processMs;
+        }
+
+        @Override
+        public String toString() {
+            return "ImagePreprocessor.Stats{images=" + processedImages +
+                    ", original=" + originalBytes +
+                    ", uploaded=" + uploadedBytes +
+                    ", saved=" + getSavedBytes() +
+                    ", processMs=" + processMs + "}";
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.android_exam.module.image;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+
+/**
+ * Ảnh cần upload: file trên disk hoặc content URI từ picker / camera.
+ * Đọc thẳng từ ContentResolver nên không cần copy ảnh vào cacheDir trước khi gửi.
+ * Tên và kích thước (OpenableColumns) được query lazily - nên gọi trên thread nền.
+ */
+public final class ImageSource {
+    private static final String TAG = "ImageSource";
+    public static final long UNKNOWN_LENGTH = -1;
+
+    @Nullable
+    private final ContentResolver resolver;
+    @Nullable
+    private final Uri uri;
+    @Nullable
+    private final File file;
+
+    private volatile boolean queried;
+    private String name;
+    private long length = UNKNOWN_LENGTH;
+
+    private ImageSource(@Nullable ContentResolver resolver, @Nullable Uri uri, @Nullable File file) {
+        this.resolver = resolver;
+        this.uri = uri;
+        this.file = file;
+    }
+
+    public static ImageSource of(@NonNull File file) {
+        return new ImageSource(null, null, file);
+    }
+
+    public static ImageSource of(@NonNull Context context, @NonNull Uri uri) {
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme()) && uri.getPath() != null) {
+            return of(new File(uri.getPath()));
+        }
+        return new ImageSource(context.getApplicationContext().getContentResolver(), uri, null);
+    }
+
+    /**
+     * File trên disk (null với content URI)
+     */
+    @Nullable
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isFile() {
+        return file != null;
+    }
+
+    @NonNull
+    public InputStream open() throws IOException {
+        if (file != null) {
+            return new FileInputStream(file);
+        }
+        InputStream stream = resolver.openInputStream(uri);
+        if (stream == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        return stream;
+    }
+
+    /**
+     * Số byte của ảnh, UNKNOWN_LENGTH nếu provider không cho biết
+     */
+    public long length() {
+        if (file != null) {
+            return file.length();
+        }
+        query();
+        return length;
+    }
+
+    @NonNull
+    public String getName() {
+        if (file != null) {
+            return file.getName();
+        }
+        query();
+        return name;
+    }
+
+    /**
+     * RequestBody stream thẳng từ nguồn ảnh
+     */
+    public RequestBody asRequestBody(@Nullable MediaType contentType) {
+        return new UriRequestBody(this, contentType);
+    }
+
+    private void query() {
+        if (queried) {
+            return;
+        }
+        synchronized (this) {
+            if (queried) {
+                return;
+            }
+            String displayName = null;
+            try (Cursor cursor = resolver.query(uri,
+                    new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE}, null, null, null)) {
+                if (cursor != null && cursor.moveToFirst()) {
+                    int nameIndex = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                    int sizeIndex = cursor.getColumnIndex(OpenableColumns.SIZE);
+                    if (nameIndex >= 0 && !cursor.isNull(nameIndex)) {
+                        displayName = cursor.getString(nameIndex);
+                    }
+                    if (sizeIndex >= 0 && !cursor.isNull(sizeIndex) && cursor.getLong(sizeIndex) > 0) {
+                        length = cursor.getLong(sizeIndex);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Một số provider không hỗ trợ query
+                Log.w(TAG, "Cannot query " + uri + ": " + e.getMessage());
+            }
+            if (displayName == null || displayName.isEmpty()) {
+                String segment = uri.getLastPathSegment();
+                displayName = segment != null ? segment : "image.jpg";
+            }
+            name = displayName;
+            queried = true;
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return file != null ? file.getPath() : String.valueOf(uri);
+    }
+}
@@ -1,173 +1,93 @@
 package com.example.android_exam.module.image;
 
 import android.content.Context;
-import android.database.Cursor;
 import android.net.Uri;
-import android.provider.MediaStore;
-import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+import com.example.android_exam.data.api.HttpEngine;
+import com.example.android_exam.data.api.RequestPriority;
+
 import okhttp3.*;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
 
 public class ImageUploadUtil {
 
-    private static final String TAG = "ImageUploadUtil";
-    private static final int TIMEOUT_SECONDS = 30;
-
     private OkHttpClient client;
     private Context context;
+    // Executor nhận callback (mặc định main thread)
+    private Executor callbackExecutor;
 
-    public interface UploadCallback {
-        void onSuccess(String response);
-        void onError(String error);
-        void onProgress(int progress);
+    public interface UploadCallback extends UploadQueue.Callback {
     }
 
     public ImageUploadUtil(Context context) {
-        this.context = context;
-        this.client = new OkHttpClient.Builder()
-                .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .writeTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .build();
+        this(context, ContextCompat.getMainExecutor(context));
     }
 
-    public void uploadImage(Uri imageUri, String apiUrl, UploadCallback callback) {
-        new Thread(() -> {
-            try {
-                File imageFile = getFileFromUri(imageUri);
-                if (imageFile == null) {
-                    callback.onError("Cannot get file from URI");
-                    return;
-                }
-
-                RequestBody requestBody = new MultipartBody.Builder()
-                        .setType(MultipartBody.FORM)
-                        .addFormDataPart("Image", imageFile.getName(),
-                                RequestBody.create(imageFile, MediaType.parse("image/*")))
-                        .build();
-
-                Request request = new Request.Builder()
-                        .url(apiUrl)
-                        .post(requestBody)
-                        .addHeader("Content-Type", "multipart/form-data")
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful()) {
-                        String responseBody = response.body() != null ? response.body().string() : "";
-                        callback.onSuccess(responseBody);
-                    } else {
-                        callback.onError("Upload failed: " + response.code() + " - " + response.message());
-                    }
-                }
+    public ImageUploadUtil(Context context, Executor callbackExecutor) {
+        this.context = context.getApplicationContext();
+        this.callbackExecutor = callbackExecutor;
+        // Dùng chung HTTP engine với các API client (profile upload)
+        this.client = HttpEngine.getInstance().client(HttpEngine.Profile.UPLOAD);
+    }
 
-            } catch (IOException e) {
-                Log.e(TAG, "Upload error", e);
-                callback.onError("Upload error: " + e.getMessage());
-            }
-        }).start();
+    /**
+     * Upload qua UploadQueue (giới hạn số upload song song), trả về id để cancel()
+     */
+    public long uploadImage(Uri imageUri, String apiUrl, UploadCallback callback) {
+        return uploadImageWithAuth(imageUri, apiUrl, null, RequestPriority.BACKGROUND, callback);
     }
 
-    private File getFileFromUri(Uri uri) {
-        try {
-            // Nếu là file URI trực tiếp
-            if ("file".equals(uri.getScheme())) {
-                return new File(uri.getPath());
-            }
+    // Phương thức upload với authentication header
+    public long uploadImageWithAuth(Uri imageUri, String apiUrl, String authToken, UploadCallback callback) {
+        return uploadImageWithAuth(imageUri, apiUrl, authToken, RequestPriority.BACKGROUND, callback);
+    }
 
-            // Nếu là content URI, copy về cache
-            String fileName = getFileName(uri);
-            if (fileName == null) {
-                fileName = "temp_image_" + System.currentTimeMillis() + ".jpg";
+    public long uploadImageWithAuth(Uri imageUri, String apiUrl, String authToken, RequestPriority priority, UploadCallback callback) {
+        return UploadQueue.getInstance().enqueue(uploadKey(imageUri, apiUrl), priority, task -> {
+            // Stream thẳng từ URI vào multipart body, không copy ra cacheDir
+            ImageSource image = ImageSource.of(context, imageUri);
+            RequestBody requestBody = new MultipartBody.Builder()
+                    .setType(MultipartBody.FORM)
+                    .addFormDataPart("Image", image.getName(),
+                            image.asRequestBody(MediaType.parse("image/*")))
+                    .build();
+            requestBody = new ProgressRequestBody(requestBody, task::progress);
+
+            Request.Builder builder = new Request.Builder()
+                    .url(apiUrl)
+                    .post(requestBody)
+                    .addHeader("Content-Type", "multipart/form-data");
+            if (authToken != null && !authToken.isEmpty()) {
+                builder.addHeader("Authorization", "Bearer " + authToken);
             }
 
-            File tempFile = new File(context.getCacheDir(), fileName);
-
-            try (InputStream inputStream = context.getContentResolver().openInputStream(uri);
-                 FileOutputStream outputStream = new FileOutputStream(tempFile)) {
-
-                if (inputStream == null) {
-                    return null;
+            Call call = client.newCall(builder.build());
+            task.attach(call);
+            try (Response response = call.execute()) {
+                if (!response.isSuccessful()) {
+                    throw new IOException(response.code() + " - " + response.message());
                 }
-
-                byte[] buffer = new byte[1024];
-                int bytesRead;
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    outputStream.write(buffer, 0, bytesRead);
-                }
-
-                return tempFile;
+                return response.body() != null ? response.body().string() : "";
             }
-
-        } catch (IOException e) {
-            Log.e(TAG, "Error getting file from URI", e);
-            return null;
-        }
+        }, callbackExecutor, callback);
     }
 
-    private String getFileName(Uri uri) {
-        String result = null;
-        if ("content".equals(uri.getScheme())) {
-            try (Cursor cursor = context.getContentResolver().query(uri, null, null, null, null)) {
-                if (cursor != null && cursor.moveToFirst()) {
-                    int nameIndex = cursor.getColumnIndex(MediaStore.Images.Media.DISPLAY_NAME);
-                    if (nameIndex >= 0) {
-                        result = cursor.getString(nameIndex);
-                    }
-                }
-            }
-        }
-
-        if (result == null) {
-            result = uri.getPath();
-            int cut = result.lastIndexOf('/');
-            if (cut != -1) {
-                result = result.substring(cut + 1);
-            }
-        }
-        return result;
+    /**
+     * Huỷ upload của caller này; upload dùng chung với caller khác (cùng ảnh + endpoint) vẫn chạy tiếp
+     */
+    public boolean cancel(long uploadId) {
+        return UploadQueue.getInstance().cancel(uploadId);
     }
 
-    // Phương thức upload với authentication header
-    public void uploadImageWithAuth(Uri imageUri, String apiUrl, String authToken, UploadCallback callback) {
-        new Thread(() -> {
-            try {
-                File imageFile = getFileFromUri(imageUri);
-                if (imageFile == null) {
-                    callback.onError("Cannot get file from URI");
-                    return;
-                }
-
-                RequestBody requestBody = new MultipartBody.Builder()
-                        .setType(MultipartBody.FORM)
-                        .addFormDataPart("Image", imageFile.getName(),
-                                RequestBody.create(imageFile, MediaType.parse("image/*")))
-                        .build();
-
-                Request request = new Request.Builder()
-                        .url(apiUrl)
-                        .post(requestBody)
-                        .addHeader("Authorization", "Bearer " + authToken)
-                        .addHeader("Content-Type", "multipart/form-data")
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful()) {
-                        String responseBody = response.body() != null ? response.body().string() : "";
-                        callback.onSuccess(responseBody);
-                    } else {
-                        callback.onError("Upload failed: " + response.code() + " - " + response.message());
-                    }
-                }
+    public static UploadQueue.Stats getQueueStats() {
+        return UploadQueue.getInstance().getStats();
+    }
 
-            } catch (IOException e) {
-                Log.e(TAG, "Upload error", e);
-                callback.onError("Upload error: " + e.getMessage());
-            }
-        }).start();
+    // Cùng ảnh lên cùng endpoint thì gộp làm một lần upload
+    private static String uploadKey(Uri imageUri, String url) {
+        return url + "|" + imageUri;
     }
-}
\ No newline at end of file
+}
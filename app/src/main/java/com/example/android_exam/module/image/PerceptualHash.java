@@ -0,0 +1,94 @@
+package com.example.android_exam.module.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Difference hash (dHash) 64-bit của ảnh: thu về 9x8 grayscale, mỗi bit = pixel trái sáng hơn pixel phải.
+ * Ảnh được xoay / lật theo EXIF trước nên cùng một ảnh lưu với orientation khác nhau vẫn cho cùng hash.
+ * Ảnh giống nhau (nén lại, scale, chỉnh sáng nhẹ) cho hash lệch vài bit - so bằng khoảng cách Hamming.
+ * Decode với subsampling nên chỉ tốn vài chục KB RAM; không gọi trên main thread.
+ */
+public final class PerceptualHash {
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+    // Cạnh ngắn tối thiểu sau subsampling trước khi scale về 9x8 (đủ để trung bình hoá nhiễu)
+    private static final int DECODE_MIN_SIDE = 64;
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * @throws IOException nếu không đọc / decode được ảnh
+     */
+    public static long compute(@NonNull ImageSource source) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = source.open()) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Cannot decode image: " + source);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = ImagePreprocessor.sampleSize(
+                Math.min(bounds.outWidth, bounds.outHeight), DECODE_MIN_SIDE);
+        Bitmap decoded;
+        try (InputStream in = source.open()) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Cannot decode image: " + source);
+        }
+
+        Bitmap upright;
+        try {
+            upright = ImagePreprocessor.transform(decoded, ImagePreprocessor.readOrientation(source), Integer.MAX_VALUE);
+        } catch (IOException e) {
+            decoded.recycle();
+            throw e;
+        }
+        if (upright != decoded) {
+            decoded.recycle();
+        }
+
+        Bitmap small = Bitmap.createScaledBitmap(upright, HASH_WIDTH, HASH_HEIGHT, true);
+        int[] pixels = new int[HASH_WIDTH * HASH_HEIGHT];
+        small.getPixels(pixels, 0, HASH_WIDTH, 0, 0, HASH_WIDTH, HASH_HEIGHT);
+        if (small != upright) {
+            small.recycle();
+        }
+        upright.recycle();
+
+        long hash = 0;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                hash <<= 1;
+                if (luminance(pixels[y * HASH_WIDTH + x]) > luminance(pixels[y * HASH_WIDTH + x + 1])) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Số bit khác nhau giữa hai hash (0 = gần như trùng)
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static int luminance(int argb) {
+        int r = (argb >> 16) & 0xff;
+        int g = (argb >> 8) & 0xff;
+        int b = argb & 0xff;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+}
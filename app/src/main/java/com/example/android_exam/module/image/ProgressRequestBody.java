@@ -0,0 +1,105 @@
+package com.example.android_exam.module.image;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.core.config.AppConfig;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+
+/**
+ * Bọc RequestBody để đếm số byte đã ghi ra socket và báo tiến độ.
+ * Callback được throttle: chỉ gọi khi phần trăm tăng và cách lần trước ít nhất PROGRESS_MIN_INTERVAL_MS
+ * (lần cuối 100% luôn được gọi). Mỗi lần writeTo (retry) đếm lại từ 0.
+ */
+public class ProgressRequestBody extends RequestBody {
+
+    public interface Listener {
+        /**
+         * @param total -1 nếu không biết độ dài body
+         */
+        void onProgress(long bytesWritten, long total);
+    }
+
+    private final RequestBody delegate;
+    private final Listener listener;
+
+    public ProgressRequestBody(@NonNull RequestBody delegate, @NonNull Listener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return delegate.isOneShot();
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        CountingSink counting = new CountingSink(sink, contentLength());
+        BufferedSink buffered = Okio.buffer(counting);
+        delegate.writeTo(buffered);
+        buffered.flush();
+        counting.finish();
+    }
+
+    private final class CountingSink extends ForwardingSink {
+        private final long overall;
+        private long written;
+        private int lastPercent = -1;
+        private long lastReportAt;
+
+        CountingSink(okio.Sink delegate, long overall) {
+            super(delegate);
+            this.overall = overall;
+        }
+
+        @Override
+        public void write(@NonNull Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            written += byteCount;
+            report(false);
+        }
+
+        void finish() {
+            report(true);
+        }
+
+        private void report(boolean force) {
+            long current = written;
+            long now = SystemClock.elapsedRealtime();
+            if (!force && now - lastReportAt < AppConfig.Upload.PROGRESS_MIN_INTERVAL_MS) {
+                return;
+            }
+            if (overall > 0) {
+                int percent = (int) (current * 100 / overall);
+                if (percent == lastPercent && !force) {
+                    return;
+                }
+                lastPercent = percent;
+            }
+            lastReportAt = now;
+            listener.onProgress(current, overall);
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.android_exam.module.image;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android_exam.core.config.AppConfig;
+import com.example.android_exam.data.api.RequestPriority;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+
+/**
+ * Hàng đợi upload dùng chung thay cho mỗi upload một Thread:
+ * - Tối đa MAX_CONCURRENT_UPLOADS upload chạy cùng lúc (không tranh nhau uplink)
+ * - Thứ tự theo RequestPriority, cùng priority thì FIFO
+ * - Cùng key (URI + endpoint) đang chờ / đang chạy thì dùng chung một lần upload, callback gửi cho tất cả
+ * - Mỗi lần enqueue nhận một id riêng (kể cả khi gộp vào upload đang có). cancel(id) chỉ gỡ caller đó;
+ *   upload chỉ bị bỏ khỏi hàng đợi / huỷ OkHttp call / interrupt thread khi không còn caller nào chờ
+ *   (giống RequestCoalescer.leave)
+ * - Callback chạy trên executor do caller chọn
+ */
+public class UploadQueue {
+    private static final String TAG = "UploadQueue";
+    private static UploadQueue instance;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger threadCount = new AtomicInteger();
+    // Task còn sống (đang chờ hoặc đang chạy) theo key để gộp upload trùng
+    private final Map<String, Task> activeByKey = new HashMap<>();
+    // Id của từng caller (subscriber) -> task mà caller đang chờ
+    private final Map<Long, Task> activeBySubscriber = new HashMap<>();
+
+    private final AtomicLong completedUploads = new AtomicLong();
+    private final AtomicLong failedUploads = new AtomicLong();
+    private final AtomicLong canceledUploads = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final AtomicLong uploadMs = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Phần việc upload thật, chạy blocking trên thread của hàng đợi
+     */
+    public interface Job {
+        String run(@NonNull Task task) throws IOException;
+    }
+
+    public interface Callback {
+        void onSuccess(String response);
+
+        void onError(String error);
+
+        void onProgress(int progress);
+    }
+
+    private UploadQueue() {
+        int concurrency = AppConfig.Upload.MAX_CONCURRENT_UPLOADS;
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "upload-" + threadCount.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized UploadQueue getInstance() {
+        if (instance == null) {
+            instance = new UploadQueue();
+        }
+        return instance;
+    }
+
+    /**
+     * Xếp một upload vào hàng đợi
+     *
+     * @param key              định danh nội dung upload (URI + endpoint) để gộp upload trùng, null thì không gộp
+     * @param callbackExecutor executor nhận callback (ví dụ main thread)
+     * @return id của caller này, dùng cho cancel() (upload trùng key vẫn nhận id riêng)
+     */
+    public long enqueue(@Nullable String key, @NonNull RequestPriority priority, @NonNull Job job,
+                        @NonNull Executor callbackExecutor, @NonNull Callback callback) {
+        Subscriber subscriber = new Subscriber(sequence.incrementAndGet(), callbackExecutor, callback);
+        Task task;
+        synchronized (this) {
+            Task existing = key != null ? activeByKey.get(key) : null;
+            if (existing != null && existing.subscribe(subscriber)) {
+                activeBySubscriber.put(subscriber.id, existing);
+                deduplicated.incrementAndGet();
+                Log.d(TAG, "Joined upload #" + existing.id + " for " + key);
+                return subscriber.id;
+            }
+            task = new Task(sequence.incrementAndGet(), key, priority, job);
+            task.subscribe(subscriber);
+            if (key != null) {
+                activeByKey.put(key, task);
+            }
+            activeBySubscriber.put(subscriber.id, task);
+        }
+        executor.execute(task);
+        return subscriber.id;
+    }
+
+    /**
+     * Caller huỷ: gỡ callback của caller đó (không nhận onError). Nếu không còn ai chờ thì huỷ luôn upload.
+     *
+     * @param id id trả về từ enqueue()
+     */
+    public boolean cancel(long id) {
+        Task task;
+        boolean orphaned;
+        synchronized (this) {
+            task = activeBySubscriber.remove(id);
+            if (task == null) {
+                return false;
+            }
+            orphaned = task.unsubscribe(id);
+        }
+        if (!orphaned) {
+            Log.d(TAG, "Left upload #" + task.id + ", other callers still waiting");
+            return true;
+        }
+        task.cancel();
+        if (executor.remove(task)) {
+            // Chưa chạy: bỏ khỏi hàng đợi
+            task.finish(null, "Upload canceled");
+        }
+        return true;
+    }
+
+    private synchronized void retire(Task task) {
+        activeBySubscriber.values().removeIf(active -> active == task);
+        if (task.key != null && activeByKey.get(task.key) == task) {
+            activeByKey.remove(task.key);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(executor.getQueue().size(), running.get(), completedUploads.get(), failedUploads.get(), canceledUploads.get(),
+                deduplicated.get(), uploadedBytes.get(), uploadMs.get());
+    }
+
+    private static final class Subscriber {
+        final long id;
+        final Executor executor;
+        final Callback callback;
+
+        Subscriber(long id, Executor executor, Callback callback) {
+            this.id = id;
+            this.executor = executor;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Một upload trong hàng đợi. Job gắn OkHttp call hiện tại qua attach() để cancel() huỷ được.
+     */
+    public final class Task implements Runnable, Comparable<Task> {
+        private final long id;
+        @Nullable
+        private final String key;
+        private final RequestPriority priority;
+        private final Job job;
+        private final List<Subscriber> subscribers = new ArrayList<>();
+
+        private volatile boolean canceled;
+        private volatile Call call;
+        private volatile Thread worker;
+        private volatile long bytesSent;
+        private int lastProgress = -1;
+        private boolean finished;
+
+        Task(long id, @Nullable String key, RequestPriority priority, Job job) {
+            this.id = id;
+            this.key = key;
+            this.priority = priority;
+            this.job = job;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        /**
+         * Gắn call đang chạy; nếu task đã bị huỷ thì huỷ call ngay
+         */
+        public void attach(@NonNull Call call) {
+            this.call = call;
+            if (canceled) {
+                call.cancel();
+            }
+        }
+
+        /**
+         * Báo tiến độ theo byte cho mọi subscriber (chỉ khi phần trăm thay đổi)
+         */
+        public void progress(long bytesWritten, long total) {
+            bytesSent = bytesWritten;
+            if (total <= 0) {
+                return;
+            }
+            int percent = (int) (bytesWritten * 100 / total);
+            List<Subscriber> targets;
+            synchronized (this) {
+                if (percent == lastProgress || finished) {
+                    return;
+                }
+                lastProgress = percent;
+                targets = new ArrayList<>(subscribers);
+            }
+            for (Subscriber subscriber : targets) {
+                subscriber.executor.execute(() -> subscriber.callback.onProgress(percent));
+            }
+        }
+
+        synchronized boolean subscribe(Subscriber subscriber) {
+            if (finished || canceled) {
+                return false;
+            }
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        /**
+         * @return true nếu không còn subscriber nào (upload có thể huỷ)
+         */
+        synchronized boolean unsubscribe(long subscriberId) {
+            subscribers.removeIf(subscriber -> subscriber.id == subscriberId);
+            return subscribers.isEmpty() && !finished;
+        }
+
+        void cancel() {
+            canceled = true;
+            Call current = call;
+            if (current != null) {
+                current.cancel();
+            }
+            Thread thread = worker;
+            if (thread != null) {
+                // Task có thể đang chờ (đọc file / sleep) ngoài OkHttp call
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (canceled) {
+                finish(null, "Upload canceled");
+                return;
+            }
+            worker = Thread.currentThread();
+            running.incrementAndGet();
+            long start = SystemClock.elapsedRealtime();
+            String result = null;
+            String error = null;
+            try {
+                result = job.run(this);
+            } catch (InterruptedIOException e) {
+                error = "Upload canceled";
+            } catch (IOException | RuntimeException e) {
+                error = canceled ? "Upload canceled" : "Upload error: " + e.getMessage();
+                if (!canceled) {
+                    Log.e(TAG, "Upload #" + id + " failed", e);
+                }
+            } finally {
+                running.decrementAndGet();
+                worker = null;
+                call = null;
+                // Xoá cờ interrupt trước khi thread quay lại pool
+                Thread.interrupted();
+            }
+            uploadedBytes.addAndGet(bytesSent);
+            uploadMs.addAndGet(SystemClock.elapsedRealtime() - start);
+            finish(canceled ? null : result, canceled ? "Upload canceled" : error);
+        }
+
+        /**
+         * Gửi kết quả một lần cho mọi subscriber rồi gỡ task khỏi hàng đợi
+         */
+        void finish(@Nullable String result, @Nullable String error) {
+            List<Subscriber> targets;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                targets = new ArrayList<>(subscribers);
+                subscribers.clear();
+            }
+            retire(this);
+            if (canceled) {
+                canceledUploads.incrementAndGet();
+            } else if (error != null) {
+                failedUploads.incrementAndGet();
+            } else {
+                completedUploads.incrementAndGet();
+            }
+            for (Subscriber subscriber : targets) {
+                if (error != null) {
+                    subscriber.executor.execute(() -> subscriber.callback.onError(error));
+                } else {
+                    subscriber.executor.execute(() -> subscriber.callback.onSuccess(result));
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(id, other.id);
+        }
+    }
+
+    public static class Stats {
+        private final int queued;
+        private final int running;
+        private final long completed;
+        private final long failed;
+        private final long canceled;
+        private final long deduplicated;
+        private final long uploadedBytes;
+        private final long uploadMs;
+
+        Stats(int queued, int running, long completed, long failed, long canceled, long deduplicated,
+              long uploadedBytes, long uploadMs) {
+            this.queued = queued;
+            this.running = running;
+            this.completed = completed;
+            this.failed = failed;
+            this.canceled = canceled;
+            this.deduplicated = deduplicated;
+            this.uploadedBytes = uploadedBytes;
+            this.uploadMs = uploadMs;
+        }
+
+        /**
+         * Số upload đang chờ trong hàng đợi
+         */
+        public int getQueued() {
+            return queued;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getCanceled() {
+            return canceled;
+        }
+
+        /**
+         * Số lần upload trùng được gộp vào upload đang có
+         */
+        public long getDeduplicated() {
+            return deduplicated;
+        }
+
+        public long getUploadedBytes() {
+            return uploadedBytes;
+        }
+
+        /**
+         * Byte/giây tính trên tổng thời gian các upload chạy (0 nếu chưa có)
+         */
+        public long getThroughputBytesPerSecond() {
+            return uploadMs > 0 ? uploadedBytes * 1000 / uploadMs : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "UploadQueue.Stats{queued=" + queued +
+                    ", running=" + running +
+                    ", completed=" + completed +
+                    ", failed=" + failed +
+                    ", canceled=" + canceled +
+                    ", deduplicated=" + deduplicated +
+                    ", uploadedBytes=" + uploadedBytes +
+                    ", throughput=" + getThroughputBytesPerSecond() + "B/s}";
+        }
+    }
+}
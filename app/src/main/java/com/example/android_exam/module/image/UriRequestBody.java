@@ -0,0 +1,72 @@
+package com.example.android_exam.module.image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * RequestBody đọc ảnh trực tiếp khi OkHttp ghi body (không có file tạm):
+ * - file: FileChannel.transferTo vào sink
+ * - content URI: mở InputStream từ ContentResolver và copy với buffer lớn
+ * Mỗi lần ghi mở lại nguồn nên retry vẫn gửi lại được.
+ */
+public class UriRequestBody extends RequestBody {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ImageSource source;
+    @Nullable
+    private final MediaType contentType;
+
+    public UriRequestBody(@NonNull ImageSource source, @Nullable MediaType contentType) {
+        this.source = source;
+        this.contentType = contentType;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    /**
+     * Từ OpenableColumns.SIZE; -1 (chunked) nếu không biết
+     */
+    @Override
+    public long contentLength() {
+        return source.length();
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        if (source.isFile()) {
+            try (FileInputStream input = new FileInputStream(source.getFile());
+                 FileChannel channel = input.getChannel()) {
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    long written = channel.transferTo(position, size - position, sink);
+                    if (written <= 0) {
+                        throw new IOException("transferTo stalled at " + position + "/" + size);
+                    }
+                    position += written;
+                }
+            }
+            return;
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = source.open()) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                sink.write(buffer, 0, read);
+            }
+        }
+    }
+}
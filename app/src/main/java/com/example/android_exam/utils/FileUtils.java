@@ -22,7 +22,9 @@ public class FileUtils {
      * @param context Context
      * @param uri URI của ảnh
      * @return File object hoặc null nếu thất bại
+     * @deprecated upload ảnh dùng ImageSource.of(context, uri) để stream trực tiếp, không copy ra cacheDir
      */
+    @Deprecated
     public static File getFileFromUri(Context context, Uri uri) {
         if (uri == null) return null;
 
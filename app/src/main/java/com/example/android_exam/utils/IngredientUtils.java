@@ -3,6 +3,7 @@ import com.example.android_exam.R;
 import com.example.android_exam.data.models.enums.IngredientCategory;
 import com.example.android_exam.data.models.enums.IngredientUnit;
 
+import java.math.BigDecimal;
 import java.util.Locale;
 
 public class IngredientUtils {
@@ -104,6 +105,73 @@ public class IngredientUtils {
         return quantityStr + " " + getUnitDisplayName(unit);
     }
 
+    /**
+     * Bước tăng / giảm số lượng (nút +/-) phù hợp với đơn vị
+     */
+    public static BigDecimal getQuantityStep(IngredientUnit unit) {
+        if (unit == null) {
+            return new BigDecimal("1");
+        }
+        
+        // Với đơn vị khối lượng nhỏ (Gram, Teaspoon, etc.) -> bước nhảy 0.1
+        // Với đơn vị lớn (Kilogram, Liter, etc.) -> bước nhảy 0.5
+        // Với đơn vị đếm (Piece, Slice, etc.) -> bước nhảy 1
+        switch (unit) {
+            // Weight Units - nhỏ
+            case GRAM:
+            case OUNCE:
+            // Volume Units - nhỏ
+            case MILLILITER:
+            case TEASPOON:
+            case TABLESPOON:
+            case FLUID_OUNCE:
+            // Small Quantity Units
+            case PINCH:
+            case DASH:
+            case DROP:
+                return new BigDecimal("0.1");
+            
+            // Weight Units - lớn
+            case KILOGRAM:
+            case POUND:
+            // Volume Units - lớn
+            case LITER:
+            case CUP:
+            case PINT:
+            case QUART:
+            case GALLON:
+                return new BigDecimal("0.5");
+            
+            // Countable Units
+            case PIECE:
+            case SLICE:
+            case CLOVE:
+            case HEAD:
+            case BUNCH:
+            case STALK:
+            case WEDGE:
+            case SHEET:
+            case POD:
+            // Container Units
+            case BOX:
+            case CAN:
+            case BOTTLE:
+            case PACKAGE:
+            case BAG:
+            case JAR:
+            case TUBE:
+            case CARTON:
+            // Other Units
+            case SERVING:
+            case PORTION:
+            case OTHER:
+                return new BigDecimal("1");
+            
+            default:
+                return new BigDecimal("0.1");
+        }
+    }
+
     public static int getDefaultImageForCategory(IngredientCategory category) {
         if (category == null) {
             return R.drawable.ic_ingredient_placeholder;
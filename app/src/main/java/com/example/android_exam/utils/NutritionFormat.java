@@ -0,0 +1,67 @@
+package com.example.android_exam.utils;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Formatter dùng chung cho các màn hình dinh dưỡng - tạo một lần thay vì mỗi lần bind.
+ * Kết quả giống String.format("%.0f ...") trước đây (làm tròn HALF_UP, không phân tách hàng nghìn).
+ */
+public final class NutritionFormat {
+    private static final Locale VI = new Locale("vi", "VN");
+
+    // DecimalFormat không thread-safe, mỗi thread một instance
+    private static final ThreadLocal<DecimalFormat> WHOLE_NUMBER = ThreadLocal.withInitial(() -> {
+        DecimalFormat format = new DecimalFormat("0", DecimalFormatSymbols.getInstance(Locale.getDefault()));
+        format.setRoundingMode(RoundingMode.HALF_UP);
+        return format;
+    });
+
+    private static final DateTimeFormatter MEAL_DATE =
+            DateTimeFormatter.ofPattern("dd 'Tháng' MM, yyyy", VI).withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DAY_NAME =
+            DateTimeFormatter.ofPattern("EEEE", VI).withZone(ZoneId.systemDefault());
+
+    private NutritionFormat() {
+    }
+
+    /**
+     * 450 kcal
+     */
+    public static String kcal(Number value) {
+        return number(value) + " kcal";
+    }
+
+    /**
+     * 12g
+     */
+    public static String grams(Number value) {
+        return number(value) + "g";
+    }
+
+    public static String number(Number value) {
+        if (value == null) {
+            return "0";
+        }
+        return WHOLE_NUMBER.get().format(value);
+    }
+
+    /**
+     * 05 Tháng 03, 2025
+     */
+    public static String date(Date date) {
+        return date != null ? MEAL_DATE.format(date.toInstant()) : "";
+    }
+
+    /**
+     * Thứ Hai, Thứ Ba...
+     */
+    public static String dayName(Date date) {
+        return date != null ? DAY_NAME.format(date.toInstant()) : "";
+    }
+}
@@ -10,6 +10,7 @@ import com.example.android_exam.data.api.AuthCallback;
 import com.example.android_exam.data.dto.response.ApiResponse;
 import com.example.android_exam.data.dto.user.UserProfileDto;
 import com.example.android_exam.data.models.base.User;
+import com.example.android_exam.data.repository.IngredientRepository;
 import com.google.gson.Gson;
 
 public class SessionManager {
@@ -140,6 +141,8 @@ public class SessionManager {
     // Xóa User (Logout)
     public static void clearUser() {
         sharedPreferences.edit().remove(KEY_USER).apply();
+        // Kho nguyên liệu local thuộc về user hiện tại
+        IngredientRepository.getInstance().clearLocal();
     }
 
 
@@ -5,6 +5,7 @@ import android.util.Log;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.example.android_exam.data.api.ApiCallGroup;
 import com.example.android_exam.data.api.ApiManager;
 import com.example.android_exam.data.api.DataCallback;
 import com.example.android_exam.data.dto.food.CreateFoodRequestDto;
@@ -15,6 +16,7 @@ import com.example.android_exam.data.dto.food.UpdateFoodRequestDto;
 import com.example.android_exam.data.dto.response.ApiResponse;
 import com.example.android_exam.core.datetime.DateTimeManager;
 import com.example.android_exam.utils.FoodUtils;
+import com.example.android_exam.utils.IngredientUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -48,6 +50,9 @@ public class FoodDetailViewModel extends ViewModel {
     private String selectedConsumeTime;
     private String selectedConsumeTimeUtc;
 
+    // Các request ghi dữ liệu: khi rời màn hình vẫn gửi tới server, chỉ bỏ callback
+    private final ApiCallGroup calls = new ApiCallGroup("FoodDetailViewModel");
+
     // Local time formatter (for display)
     private static final DateTimeFormatter LOCAL_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
@@ -93,13 +98,24 @@ public class FoodDetailViewModel extends ViewModel {
         updateConfirmButtonState();
     }
 
-    public void updateIngredientQuantity(int ingredientId, BigDecimal newQuantity) {
+    /**
+     * Tăng / giảm số lượng một bước (theo đơn vị) tính từ số lượng hiện tại trong ViewModel,
+     * không từ item adapter đang hiển thị - bấm nhanh liên tiếp không bị mất bước
+     */
+    public void stepIngredientQuantity(int ingredientId, boolean increase) {
         if (currentFood == null || currentFood.getIngredients() == null) return;
 
+        // Thay bằng bản sao thay vì sửa tại chỗ để adapter diff ra đúng dòng có số lượng thay đổi
         List<FoodIngredientDto> ingredients = currentFood.getIngredients();
-        for (FoodIngredientDto ingredient : ingredients) {
-            if (ingredient.getIngredientId() == ingredientId) {
-                ingredient.setQuantity(newQuantity);
+        for (int i = 0; i < ingredients.size(); i++) {
+            FoodIngredientDto ingredient = ingredients.get(i);
+            if (ingredient.getIngredientId() != null && ingredient.getIngredientId() == ingredientId) {
+                BigDecimal current = ingredient.getQuantity() != null ? ingredient.getQuantity() : BigDecimal.ZERO;
+                BigDecimal step = IngredientUtils.getQuantityStep(ingredient.getUnit());
+                BigDecimal newQuantity = increase ? current.add(step) : current.subtract(step).max(BigDecimal.ZERO);
+                FoodIngredientDto updated = copyIngredient(ingredient);
+                updated.setQuantity(newQuantity);
+                ingredients.set(i, updated);
                 break;
             }
         }
@@ -169,7 +185,7 @@ public class FoodDetailViewModel extends ViewModel {
             return;
         }
 
-        apiManager.getFoodClient().updateFood(updateRequest, new DataCallback<ApiResponse<FoodDataResponseDto>>() {
+        calls.trackMutation(apiManager.getFoodClient().updateFood(updateRequest, new DataCallback<ApiResponse<FoodDataResponseDto>>() {
             @Override
             public void onLoading(boolean isLoading) {
                 isLoadingLiveData.postValue(isLoading);
@@ -206,7 +222,7 @@ public class FoodDetailViewModel extends ViewModel {
             public void onFailure(Throwable throwable) {
                 errorLiveData.postValue("Lỗi khi cập nhật món ăn: " + throwable.getMessage());
             }
-        });
+        }));
     }
 
     private void addFoodToMenu() {
@@ -232,7 +248,7 @@ public class FoodDetailViewModel extends ViewModel {
             return;
         }
 
-        apiManager.getFoodClient().createFood(createRequest, new DataCallback<ApiResponse<FoodDataResponseDto>>() {
+        calls.trackMutation(apiManager.getFoodClient().createFood(createRequest, new DataCallback<ApiResponse<FoodDataResponseDto>>() {
             @Override
             public void onLoading(boolean isLoading) {
                 isLoadingLiveData.postValue(isLoading);
@@ -269,7 +285,7 @@ public class FoodDetailViewModel extends ViewModel {
             public void onFailure(Throwable throwable) {
                 errorLiveData.postValue("Lỗi khi thêm món ăn: " + throwable.getMessage());
             }
-        });
+        }));
     }
 
     public void deleteFood() {
@@ -287,7 +303,7 @@ public class FoodDetailViewModel extends ViewModel {
             return;
         }
 
-        apiManager.getFoodClient().deleteFood(dto, new DataCallback<ApiResponse<Boolean>>() {
+        calls.trackMutation(apiManager.getFoodClient().deleteFood(dto, new DataCallback<ApiResponse<Boolean>>() {
             @Override
             public void onLoading(boolean isLoading) {
                 isLoadingLiveData.postValue(isLoading);
@@ -311,7 +327,7 @@ public class FoodDetailViewModel extends ViewModel {
             public void onFailure(Throwable throwable) {
                 errorLiveData.postValue("Lỗi khi xóa món ăn: " + throwable.getMessage());
             }
-        });
+        }));
     }
 
     private void checkForChanges() {
@@ -372,13 +388,7 @@ public class FoodDetailViewModel extends ViewModel {
         List<FoodIngredientDto> copiedIngredients = new ArrayList<>();
         if (original.getIngredients() != null) {
             for (FoodIngredientDto ingredient : original.getIngredients()) {
-                FoodIngredientDto copiedIngredient = new FoodIngredientDto();
-                copiedIngredient.setIngredientId(ingredient.getIngredientId());
-                copiedIngredient.setIngredientName(ingredient.getIngredientName());
-                copiedIngredient.setQuantity(ingredient.getQuantity());
-                copiedIngredient.setUnit(ingredient.getUnit());
-                copiedIngredient.setRemainingQuantity(ingredient.getRemainingQuantity());
-                copiedIngredients.add(copiedIngredient);
+                copiedIngredients.add(copyIngredient(ingredient));
             }
         }
         copy.setIngredients(copiedIngredients);
@@ -396,6 +406,16 @@ public class FoodDetailViewModel extends ViewModel {
         return copy;
     }
 
+    private FoodIngredientDto copyIngredient(FoodIngredientDto ingredient) {
+        FoodIngredientDto copiedIngredient = new FoodIngredientDto();
+        copiedIngredient.setIngredientId(ingredient.getIngredientId());
+        copiedIngredient.setIngredientName(ingredient.getIngredientName());
+        copiedIngredient.setQuantity(ingredient.getQuantity());
+        copiedIngredient.setUnit(ingredient.getUnit());
+        copiedIngredient.setRemainingQuantity(ingredient.getRemainingQuantity());
+        return copiedIngredient;
+    }
+
     private void applySelectedConsumeDateTime(LocalDateTime dateTime) {
         LocalDateTime effectiveDateTime = dateTime != null ? dateTime : dateTimeManager.getCurrentDateTime();
         selectedConsumeTime = effectiveDateTime.format(LOCAL_TIME_FORMATTER);
@@ -481,4 +501,10 @@ public class FoodDetailViewModel extends ViewModel {
     public MutableLiveData<String> getSuccessMessageLiveData() { return successMessageLiveData; }
     public MutableLiveData<Boolean> getShowDateTimePickerLiveData() { return showDateTimePickerLiveData; }
     public MutableLiveData<String> getConsumeTimeLiveData() { return consumeTimeLiveData; }
-}
\ No newline at end of file
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        calls.cancelAll();
+    }
+}
@@ -28,29 +28,28 @@ import com.example.android_exam.activities.IngredientManagementActivity;
 import com.example.android_exam.activities.LoadingActivity;
 import com.example.android_exam.activities.LoginActivity;
 import com.example.android_exam.activities.NutritionAnalysisActivity;
+import com.example.android_exam.data.api.ApiCallGroup;
 import com.example.android_exam.data.api.ApiManager;
 import com.example.android_exam.data.api.AuthCallback;
 import com.example.android_exam.data.api.DataCallback;
 import com.example.android_exam.data.dto.food.FoodAnalysticResponseDto;
 import com.example.android_exam.data.dto.food.FoodSuggestionResponseDto;
-import com.example.android_exam.data.dto.ingredient.IngredientFilterDto;
-import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
 import com.example.android_exam.data.dto.nutrition.NutritionTip;
 import com.example.android_exam.data.dto.nutrition.OverviewNutritionSummaryDto;
 import com.example.android_exam.data.dto.response.ApiResponse;
-import com.example.android_exam.core.mapper.DtoMapper;
 import com.example.android_exam.data.dto.user.UserProfileDto;
 import com.example.android_exam.data.models.base.User;
 import com.example.android_exam.data.models.enums.ActivityLevel;
 import com.example.android_exam.data.models.enums.Gender;
 import com.example.android_exam.data.models.enums.NutritionGoal;
+import com.example.android_exam.data.repository.HomeDashboardLoader;
 import com.example.android_exam.data.repository.HomeRepository;
 import com.example.android_exam.databinding.DialogIngredientDetailBinding;
 import com.example.android_exam.module.image.ImagePickerHelper;
 import com.example.android_exam.module.image.ImagePickerModule;
-import com.example.android_exam.utils.FileUtils;
 import com.example.android_exam.utils.SessionManager;
-import com.google.gson.Gson;
+import com.example.android_exam.core.json.GsonProvider;
+import com.example.android_exam.module.image.ImageSource;
 
 import java.io.File;
 import java.util.List;
@@ -66,8 +65,14 @@ public class HomeViewModel extends ViewModel {
     private MutableLiveData<OverviewNutritionSummaryDto> nutritionProgress = new MutableLiveData<>();
     private MutableLiveData<User> userProfile = new MutableLiveData<>();
     private MutableLiveData<Boolean> isLoadingFoodSuggestions = new MutableLiveData<>(false);
+    private MutableLiveData<HomeDashboardLoader.Result> dashboardResult = new MutableLiveData<>();
+
+    private final HomeDashboardLoader dashboardLoader;
+    private final ApiCallGroup calls = new ApiCallGroup("HomeViewModel");
+
     public HomeViewModel() {
         repository = HomeRepository.getInstance();
+        dashboardLoader = new HomeDashboardLoader(repository);
     }
 
     // Getters for LiveData
@@ -83,39 +88,57 @@ public class HomeViewModel extends ViewModel {
 
     public LiveData<User> getUserProfile() { return userProfile; }
 
+    /**
+     * Thời gian load dashboard (tổng và từng phần) của lượt load gần nhất
+     */
+    public LiveData<HomeDashboardLoader.Result> getDashboardResult() { return dashboardResult; }
+
     public void loadHomeData() {
-        loadNutritionTip();
-        loadFoodSuggestions(false);
-        loadNutritionProgress();
-        loadUserProfile();
-    }
+        isLoading.setValue(true);
+        if (repository.getCachedSuggestions() == null) {
+            isLoadingFoodSuggestions.setValue(true);
+        }
+        // Lượt load mới thay thế lượt trước (onCreate + onResume gọi liên tiếp)
+        calls.track("dashboard", dashboardLoader.load(false, new HomeDashboardLoader.Listener() {
+            @Override
+            public void onTip(NutritionTip tip) {
+                nutritionTip.postValue(tip);
+            }
 
-    private void loadNutritionTip() {
-        repository.getNutritionTip(new DataCallback<ApiResponse<NutritionTip>>() {
             @Override
-            public void onLoading(boolean loading) {
-                isLoading.setValue(loading);
+            public void onOverview(OverviewNutritionSummaryDto overview) {
+                Log.d("HomeViewModel", "Nutrition progress loaded: " + GsonProvider.getGson().toJson(overview));
+                nutritionProgress.postValue(overview);
             }
 
             @Override
-            public void onSuccess(ApiResponse<NutritionTip> response) {
-                if (response.isSuccess()) {
-                    nutritionTip.setValue(response.getData());
-                } else {
-                    errorMessage.setValue(response.getMessage());
-                }
+            public void onSuggestions(List<FoodSuggestionResponseDto> suggestions) {
+                isLoadingFoodSuggestions.postValue(false);
+                foodSuggestions.postValue(suggestions);
             }
 
             @Override
-            public void onError(String message) {
-                errorMessage.setValue(message);
+            public void onProfile(User user) {
+                userProfile.postValue(user);
             }
 
             @Override
-            public void onFailure(Throwable throwable) {
+            public void onPartFailed(HomeDashboardLoader.Part part, String error) {
+                Log.w("HomeViewModel", "Dashboard part " + part + " failed: " + error);
+                if (part == HomeDashboardLoader.Part.SUGGESTIONS) {
+                    isLoadingFoodSuggestions.postValue(false);
+                }
+                if (part != HomeDashboardLoader.Part.PROFILE) {
+                    errorMessage.postValue(error);
+                }
+            }
 
+            @Override
+            public void onComplete(HomeDashboardLoader.Result result) {
+                isLoading.postValue(false);
+                dashboardResult.postValue(result);
             }
-        });
+        }));
     }
 
     public void loadFoodSuggestions(boolean forceRefresh) {
@@ -155,161 +178,18 @@ public class HomeViewModel extends ViewModel {
         });
     }
 
-    private void loadNutritionProgress() {
-        repository.getNutritionOverview(new DataCallback<ApiResponse<OverviewNutritionSummaryDto>>() {
-            @Override
-            public void onLoading(boolean loading) {
-                // Loading state handled by main loading indicator
-            }
-
-            @Override
-            public void onSuccess(ApiResponse<OverviewNutritionSummaryDto> response) {
-                if (response.isSuccess()) {
-                    //log response with json for debugging
-                    Log.d("HomeViewModel", "Nutrition progress loaded: " + new Gson().toJson(response));
-                    nutritionProgress.postValue(response.getData());
-                } else {
-                    errorMessage.postValue(response.getMessage());
-                }
-            }
-
-            @Override
-            public void onError(String message) {
-                errorMessage.postValue(message);
-            }
-
-            @Override
-            public void onFailure(Throwable throwable) {
-
-            }
-        });
-    }
-
-    private void loadUserProfile() {
-        // Load user profile từ API để có đầy đủ thông tin (firstName, lastName, email, etc.)
-        ApiManager.getInstance().getAuthClient().getUserProfile(new AuthCallback<ApiResponse<UserProfileDto>>() {
-            @Override
-            public void onSuccess(ApiResponse<UserProfileDto> response) {
-                if (response.isSuccess() && response.getData() != null) {
-                    UserProfileDto profileDto = response.getData();
-                    // Convert DTO to User model
-                    User user = DtoMapper.toUser(profileDto);
-                    // Sử dụng postValue() vì callback này có thể chạy trên background thread
-                    userProfile.postValue(user);
-                } else {
-                    // Fallback to SessionManager nếu API fail
-                    loadUserFromSessionManager();
-                }
-            }
-
-            @Override
-            public void onError(String error) {
-                Log.w("HomeViewModel", "Error loading user profile from API: " + error);
-                // Fallback to SessionManager
-                loadUserFromSessionManager();
-            }
-
-            @Override
-            public void onFailure(Throwable throwable) {
-                Log.w("HomeViewModel", "Failure loading user profile from API: " + throwable.getMessage(), throwable);
-                // Fallback to SessionManager
-                loadUserFromSessionManager();
-            }
-        });
-    }
-
-    private void loadUserFromSessionManager() {
-        SessionManager.getUser(new SessionManager.UserCallback() {
-            @Override
-            public void onUserLoaded(User user) {
-                // Sử dụng postValue() vì callback này có thể chạy trên background thread
-                userProfile.postValue(user);
-            }
-
-            @Override
-            public void onError(String error) {
-                Log.w("HomeViewModel", "Error loading user from SessionManager: " + error);
-            }
-        });
-    }
-
     // Action methods
     public void onManageIngredientsClick(Context context) {
-        // Call Api to get ingredients
-        IngredientFilterDto filter = new IngredientFilterDto();
-        // Set default pagination
-        filter.setPage(1);
-        filter.setPageSize(100);
-        LoadingActivity.getInstance().show();
-        ApiManager.getInstance().getIngredientClient().getAllIngredients(filter, new DataCallback<ApiResponse<IngredientSearchResultDto>>() {
-            @Override
-            public void onSuccess(ApiResponse<IngredientSearchResultDto> result) {
-                // Navigate to IngredientManagementActivity with the result data
-                LoadingActivity.getInstance().hide();
-                if (result.isSuccess()) {
-                    Intent intent = new Intent(context, IngredientManagementActivity.class);
-                    intent.putExtra("ingredients", result.getData());
-                    context.startActivity(intent);
-                } else {
-                    Log.d("HomeViewModel", "Failed to load ingredients: " + result.getMessage());
-                }
-            }
-
-            @Override
-            public void onError(String error) {
-                // Handle error
-                LoadingActivity.getInstance().hide();
-                Log.d("HomeViewModel", "Error loading ingredients: " + error);
-            }
-
-            @Override
-            public void onFailure(Throwable throwable) {
-                // Handle failure
-                LoadingActivity.getInstance().hide();
-                Log.d("HomeViewModel", "Failure loading ingredients: " + throwable.getMessage());
-            }
-        });
+        // Mở màn hình ngay: IngredientViewModel hiển thị kho local (Room) rồi đồng bộ với server
+        context.startActivity(new Intent(context, IngredientManagementActivity.class));
     }
 
     public void onDetectIngredientsClick(Context context) {
-        IngredientFilterDto filter = new IngredientFilterDto();
-        // Set default pagination
-        filter.setPage(1);
-        filter.setPageSize(100);
-        LoadingActivity.getInstance().show();
-        ApiManager.getInstance().getIngredientClient().getAllIngredients(filter, new DataCallback<ApiResponse<IngredientSearchResultDto>>() {
-            @Override
-            public void onSuccess(ApiResponse<IngredientSearchResultDto> result) {
-                // Navigate to IngredientManagementActivity with the result data
-                LoadingActivity.getInstance().hide();
-                if (result.isSuccess()) {
-                    // Handle navigation to detect ingredients screen
-                    //Show dialog add ingredient
-                    Intent intent = new Intent(context, IngredientManagementActivity.class);
-                    intent.putExtra("ingredients", result.getData());
-                    intent.putExtra("openDialog", true);
-                    intent.putExtra("detectMode", true);
-                    context.startActivity(intent);
-                } else {
-                    Log.d("HomeViewModel", "Failed to load ingredients: " + result.getMessage());
-                }
-            }
-
-            @Override
-            public void onError(String error) {
-                // Handle error
-                LoadingActivity.getInstance().hide();
-                Log.d("HomeViewModel", "Error loading ingredients: " + error);
-            }
-
-            @Override
-            public void onFailure(Throwable throwable) {
-                // Handle failure
-                LoadingActivity.getInstance().hide();
-                Log.d("HomeViewModel", "Failure loading ingredients: " + throwable.getMessage());
-            }
-        });
-
+        // Như onManageIngredientsClick: màn hình tự đọc kho local và đồng bộ (tải song song mọi trang)
+        Intent intent = new Intent(context, IngredientManagementActivity.class);
+        intent.putExtra("openDialog", true);
+        intent.putExtra("detectMode", true);
+        context.startActivity(intent);
     }
 
     public void onDetectFoodClick(Context context) {
@@ -353,12 +233,12 @@ public class HomeViewModel extends ViewModel {
 
         btnDetect.setOnClickListener(v -> {
             if (selectedImageUri[0] != null) {
-                //Convert Uri to File
-                var file = FileUtils.getFileFromUri(context, selectedImageUri[0]);
+                // Stream ảnh trực tiếp từ URI, không copy ra file tạm
+                var image = ImageSource.of(context, selectedImageUri[0]);
                 //Show loading dialog
-                Log.d("HomeViewModel", "Selected image file: " + file.getAbsolutePath());
+                Log.d("HomeViewModel", "Selected image: " + image);
                 LoadingActivity.getInstance().show(context);
-                ApiManager.getInstance().getAiClient().detectFood(file, new AuthCallback<ApiResponse<FoodAnalysticResponseDto>>() {
+                ApiManager.getInstance().getAiClient().detectFood(image, new AuthCallback<ApiResponse<FoodAnalysticResponseDto>>() {
                     @Override
                     public void onSuccess(ApiResponse<FoodAnalysticResponseDto> result) {
                         LoadingActivity.getInstance().hide();
@@ -393,7 +273,7 @@ public class HomeViewModel extends ViewModel {
                             );
                         }
                     }
-                });
+                }).onProgress(LoadingActivity.getInstance()::setProgress);
             } else {
                 Toast.makeText(context, "Vui lòng chọn ảnh trước", Toast.LENGTH_SHORT).show();
             }
@@ -493,4 +373,9 @@ public class HomeViewModel extends ViewModel {
         }
     }
 
-}
\ No newline at end of file
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        calls.cancelAll();
+    }
+}
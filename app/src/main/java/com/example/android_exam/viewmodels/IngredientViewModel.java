@@ -1,30 +1,43 @@
 package com.example.android_exam.viewmodels;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import com.example.android_exam.core.config.AppConfig;
+import com.example.android_exam.core.search.SearchIndex;
+import com.example.android_exam.data.api.ApiCallGroup;
 import com.example.android_exam.data.api.ApiManager;
 import com.example.android_exam.data.api.DataCallback;
 import com.example.android_exam.data.dto.ingredient.CreateIngredientRequestDto;
 import com.example.android_exam.data.dto.ingredient.DeleteIngredientRequestDto;
 import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
-import com.example.android_exam.data.dto.ingredient.IngredientFilterDto;
 import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
 import com.example.android_exam.data.dto.ingredient.UpdateIngredientRequestDto;
 import com.example.android_exam.data.dto.response.ApiResponse;
 import com.example.android_exam.data.models.base.Ingredient;
 import com.example.android_exam.data.models.enums.IngredientCategory;
+import com.example.android_exam.data.repository.IngredientQueryEngine;
+import com.example.android_exam.data.repository.IngredientRepository;
+import com.example.android_exam.data.repository.IngredientStats;
+import com.example.android_exam.data.repository.IngredientSyncEngine;
 import com.example.android_exam.utils.DateUtils;
+import com.example.android_exam.module.image.ImageSource;
 
-import java.io.File;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class IngredientViewModel extends ViewModel {
@@ -33,6 +46,9 @@ public class IngredientViewModel extends ViewModel {
     private final MutableLiveData<String> errorLiveData = new MutableLiveData<>();
     private final MutableLiveData<String> successMessageLiveData = new MutableLiveData<>();
     private final MutableLiveData<Map<String, String>> validationErrorLiveData = new MutableLiveData<>();
+    private final MutableLiveData<IngredientStats.Snapshot> statsLiveData = new MutableLiveData<>(IngredientStats.Snapshot.EMPTY);
+    // % upload ảnh của lần thêm / sửa hiện tại, null khi không upload
+    private final MutableLiveData<Integer> uploadProgressLiveData = new MutableLiveData<>();
 
     // Cache toàn bộ dữ liệu từ server
     private List<IngredientDataResponseDto> allIngredients = new ArrayList<>();
@@ -41,6 +57,23 @@ public class IngredientViewModel extends ViewModel {
     // Trạng thái cache
     private boolean isDataCached = false;
     private boolean isLoadingFromServer = false;
+    private boolean manualRefresh = false;
+
+    // allIngredients, index sort / filter và stats chỉ truy cập trên main thread
+    // (callback của API client chạy trên thread OkHttp nên phải post về mainHandler trước khi sửa)
+    private final IngredientQueryEngine queryEngine = new IngredientQueryEngine();
+    // Bộ đếm category / hạn dùng, cập nhật cùng queryEngine
+    private final IngredientStats stats = new IngredientStats();
+    // Search index (tên đã bỏ dấu, trigram) - chỉ truy cập trên searchExecutor
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "ingredient-search"));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    private Runnable pendingSearch;
+    // Id khớp query hiện tại, null nếu không search
+    private Set<Integer> searchMatches;
+    // Hẹn giờ đúng một lần cho lần đổi bucket hạn dùng kế tiếp (filter hết hạn + chip counts)
+    private final Runnable expiryTick = this::applyFiltersAndSort;
 
     // Filter states
     private String currentSearchQuery = "";
@@ -49,6 +82,11 @@ public class IngredientViewModel extends ViewModel {
     private String currentSortBy = "expiryDate";
     private String currentSortDirection = "asc";
 
+    // Request của màn hình: đọc sẽ bị huỷ khi ViewModel bị clear, ghi chỉ bỏ callback
+    private final ApiCallGroup calls = new ApiCallGroup("IngredientViewModel");
+    // Kho local (Room) - hiển thị ngay rồi đồng bộ với server ở background
+    private final IngredientRepository repository = IngredientRepository.getInstance();
+
     public LiveData<List<IngredientDataResponseDto>> getIngredientsLiveData() {
         return ingredientsLiveData;
     }
@@ -69,6 +107,17 @@ public class IngredientViewModel extends ViewModel {
         return validationErrorLiveData;
     }
 
+    public LiveData<Integer> getUploadProgressLiveData() {
+        return uploadProgressLiveData;
+    }
+
+    /**
+     * Số lượng theo category / hạn dùng của toàn bộ kho (không phụ thuộc filter)
+     */
+    public LiveData<IngredientStats.Snapshot> getStatsLiveData() {
+        return statsLiveData;
+    }
+
     /**
      * Load ingredients - chỉ gọi API nếu chưa có cache hoặc force refresh
      */
@@ -81,12 +130,14 @@ public class IngredientViewModel extends ViewModel {
         if (ingredients != null) {
             allIngredients = new ArrayList<>(ingredients.getIngredients());
             isDataCached = true;
+            reindex();
 
             Log.d("IngredientViewModel", "Cache thành công " + allIngredients.size() + " ingredients");
             // Apply filters trên dữ liệu đã cache
             applyFiltersAndSort();
         } else {
-            errorLiveData.postValue( "Không thể tải danh sách thực phẩm");
+            // Không có dữ liệu truyền vào: đọc kho local rồi đồng bộ với server
+            loadFromLocal();
         }
     }
 
@@ -113,57 +164,69 @@ public class IngredientViewModel extends ViewModel {
     }
 
     /**
-     * Gọi API để lấy dữ liệu từ server
+     * Hiển thị ngay dữ liệu trong Room, sau đó repository đồng bộ với server
+     */
+    private void loadFromLocal() {
+        Log.d("IngredientViewModel", "Đọc dữ liệu từ kho local");
+        isLoadingFromServer = true;
+        loadingLiveData.postValue(true);
+        calls.track("list", repository.loadInventory(inventoryCallback));
+    }
+
+    /**
+     * Gọi API để lấy dữ liệu từ server (kết quả được ghi vào Room)
      */
     private void loadFromServer() {
         Log.d("IngredientViewModel", "Gọi API để lấy dữ liệu");
         isLoadingFromServer = true;
         loadingLiveData.postValue(true);
+        calls.track("list", repository.refresh(inventoryCallback));
+    }
 
-        IngredientFilterDto filter = new IngredientFilterDto();
-        // Set default pagination
-        filter.setPage(1);
-        filter.setPageSize(100);
-
-        ApiManager.getInstance().getIngredientClient().getAllIngredients(filter, new DataCallback<ApiResponse<IngredientSearchResultDto>>() {
-            @Override
-            public void onSuccess(@NonNull ApiResponse<IngredientSearchResultDto> response) {
-                isLoadingFromServer = false;
-                loadingLiveData.postValue(false);
+    private final IngredientRepository.InventoryCallback inventoryCallback = new IngredientRepository.InventoryCallback() {
+        @Override
+        public void onLocalInventory(@NonNull List<IngredientDataResponseDto> ingredients) {
+            if (ingredients.isEmpty()) {
+                // Kho local trống (lần đầu) - giữ loading tới khi server trả về
+                return;
+            }
+            allIngredients = new ArrayList<>(ingredients);
+            isDataCached = true;
+            reindex();
 
-                if (response.isSuccess() && response.getData() != null) {
-                    // Cache dữ liệu
-                    allIngredients = new ArrayList<>(response.getData().getIngredients());
-                    isDataCached = true;
+            Log.d("IngredientViewModel", "Cache thành công " + allIngredients.size() + " ingredients từ kho local");
+            applyFiltersAndSort();
+        }
 
-                    Log.d("IngredientViewModel", "Cache thành công " + allIngredients.size() + " ingredients");
+        @Override
+        public void onSynced(@NonNull IngredientSyncEngine.Changes changes) {
+            isLoadingFromServer = false;
+            manualRefresh = false;
+            loadingLiveData.postValue(false);
+            boolean firstLoad = !isDataCached;
+            isDataCached = true;
+            Log.d("IngredientViewModel", "Sync: " + changes);
 
-                    // Apply filters trên dữ liệu đã cache
-                    applyFiltersAndSort();
-                } else {
-                    String errorMsg = response.getMessage() != null ? response.getMessage() : "Không thể tải danh sách thực phẩm";
-                    errorLiveData.postValue(errorMsg);
-                    Log.e("IngredientViewModel", "API response error: " + errorMsg);
-                }
+            // Không có thay đổi thì không cần filter / sort lại
+            if (changes.isEmpty() && !firstLoad) {
+                return;
             }
+            applyChanges(changes);
+            applyFiltersAndSort();
+        }
 
-            @Override
-            public void onError(@NonNull String error) {
-                isLoadingFromServer = false;
-                loadingLiveData.postValue(false);
+        @Override
+        public void onSyncError(@NonNull String error) {
+            isLoadingFromServer = false;
+            loadingLiveData.postValue(false);
+            // Sync nền lỗi mà đã có dữ liệu local thì không báo, chỉ báo khi user chủ động refresh
+            if (!isDataCached || manualRefresh) {
                 errorLiveData.postValue("Không thể tải danh sách thực phẩm: " + error);
-                Log.e("IngredientViewModel", "API error: " + error);
-            }
-
-            @Override
-            public void onFailure(@NonNull Throwable throwable) {
-                isLoadingFromServer = false;
-                loadingLiveData.postValue(false);
-                errorLiveData.postValue("Lỗi kết nối: " + throwable.getMessage());
-                Log.e("IngredientViewModel", "API failure: " + throwable.getMessage());
             }
-        });
-    }
+            manualRefresh = false;
+            Log.e("IngredientViewModel", "Sync error: " + error);
+        }
+    };
 
     /**
      * Apply filters và sort trên dữ liệu đã cache
@@ -173,75 +236,44 @@ public class IngredientViewModel extends ViewModel {
                 "', Category: " + currentCategoryFilter + ", Expiry: " + currentExpiryFilter +
                 ", Sort: " + currentSortBy + " " + currentSortDirection);
 
-        List<IngredientDataResponseDto> result = new ArrayList<>(allIngredients);
-
-        // Apply search filter
-        if (!currentSearchQuery.isEmpty()) {
-            result = result.stream()
-                    .filter(ingredient -> ingredient.getName().toLowerCase()
-                            .contains(currentSearchQuery.toLowerCase()))
-                    .collect(Collectors.toList());
-            Log.d("IngredientViewModel", "After search filter: " + result.size() + " items");
-        }
-
-        // Apply category filter
-        if (currentCategoryFilter != null) {
-            result = result.stream()
-                    .filter(ingredient -> ingredient.getCategory() == currentCategoryFilter)
-                    .collect(Collectors.toList());
-            Log.d("IngredientViewModel", "After category filter: " + result.size() + " items");
-        }
-
-        // Apply expiry filter
-        if (currentExpiryFilter != null) {
-            if (currentExpiryFilter) {
-                result = result.stream()
-                        .filter(IngredientDataResponseDto::isExpired)
-                        .collect(Collectors.toList());
-            } else {
-                result = result.stream()
-                        .filter(ingredient -> !ingredient.isExpired())
-                        .collect(Collectors.toList());
-            }
-            Log.d("IngredientViewModel", "After expiry filter: " + result.size() + " items");
-        }
-
-        // Apply sorting
-        result = sortIngredientsList(result);
-        Log.d("IngredientViewModel", "After sorting: " + result.size() + " items");
+        // Filter bằng bitset, sort bằng index đã sắp sẵn (IngredientQueryEngine) - không copy / sort lại cả list
+        Set<Integer> matches = currentSearchQuery.isEmpty() ? null : searchMatches;
+        List<IngredientDataResponseDto> result = queryEngine.query(
+                matches,
+                currentCategoryFilter,
+                currentExpiryFilter,
+                IngredientQueryEngine.SortKey.fromString(currentSortBy),
+                "desc".equals(currentSortDirection));
+        Log.d("IngredientViewModel", "After filter + sort: " + result.size() + " items");
 
         filteredIngredients = result;
         ingredientsLiveData.postValue(filteredIngredients);
+        publishStats();
     }
 
-    private List<IngredientDataResponseDto> sortIngredientsList(List<IngredientDataResponseDto> ingredients) {
-        return ingredients.stream()
-                .sorted((a, b) -> {
-                    int comparison = 0;
-                    switch (currentSortBy) {
-                        case "name":
-                            comparison = a.getName().compareToIgnoreCase(b.getName());
-                            break;
-                        case "quantity":
-                            comparison = a.getQuantity().compareTo(b.getQuantity());
-                            break;
-                        case "expiryDate":
-                            if (a.getExpiryDate() == null && b.getExpiryDate() == null) comparison = 0;
-                            else if (a.getExpiryDate() == null) comparison = 1;
-                            else if (b.getExpiryDate() == null) comparison = -1;
-                            else comparison = a.getExpiryDate().compareTo(b.getExpiryDate());
-                            break;
-                        case "category":
-                            comparison = a.getCategory().name().compareToIgnoreCase(b.getCategory().name());
-                            break;
-                        case "createdAt":
-                            // Implement if needed
-                            comparison = 0;
-                            break;
-                    }
-                    return "desc".equals(currentSortDirection) ? -comparison : comparison;
-                })
-                .collect(Collectors.toList());
+    public void refreshStats() {
+        publishStats();
+    }
+
+    /**
+     * Chỉ post khi snapshot đổi (bộ đếm thay đổi hoặc có nguyên liệu đổi bucket),
+     * sau đó hẹn lại expiryTick cho lần đổi bucket kế tiếp.
+     * stats và statsLiveData.setValue chỉ dùng trên main thread; gọi từ thread khác thì chuyển về main.
+     */
+    private void publishStats() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(this::publishStats);
+            return;
+        }
+        IngredientStats.Snapshot snapshot = stats.snapshot();
+        if (snapshot != statsLiveData.getValue()) {
+            statsLiveData.setValue(snapshot);
+        }
+        mainHandler.removeCallbacks(expiryTick);
+        long nextAt = stats.nextTransitionAt();
+        if (nextAt != Long.MAX_VALUE) {
+            mainHandler.postDelayed(expiryTick, Math.max(0, nextAt - System.currentTimeMillis()));
+        }
     }
 
     public void getIngredientById(int id, @NonNull DataCallback<IngredientDataResponseDto> callback) {
@@ -259,7 +291,7 @@ public class IngredientViewModel extends ViewModel {
         // Nếu không tìm thấy trong cache, gọi API
         Log.d("IngredientViewModel", "Ingredient not found in cache, calling API");
         loadingLiveData.postValue(true);
-        ApiManager.getInstance().getIngredientClient().getIngredientById(id, new DataCallback<ApiResponse<IngredientDataResponseDto>>() {
+        calls.track(ApiManager.getInstance().getIngredientClient().getIngredientById(id, new DataCallback<ApiResponse<IngredientDataResponseDto>>() {
             @Override
             public void onSuccess(@NonNull ApiResponse<IngredientDataResponseDto> response) {
                 loadingLiveData.postValue(false);
@@ -291,10 +323,10 @@ public class IngredientViewModel extends ViewModel {
                 callback.onFailure(throwable);
                 Log.e("IngredientViewModel", "Lỗi kết nối: " + throwable.getMessage());
             }
-        });
+        }));
     }
 
-    public void addIngredient(@Nullable Ingredient ingredient, File imageFile) {
+    public void addIngredient(@Nullable Ingredient ingredient, @Nullable ImageSource image) {
         if (ingredient == null) {
             errorLiveData.postValue("Dữ liệu thực phẩm không hợp lệ");
             return;
@@ -307,26 +339,33 @@ public class IngredientViewModel extends ViewModel {
         }
 
         loadingLiveData.postValue(true);
+        uploadProgressLiveData.postValue(null);
         CreateIngredientRequestDto dataDto = IngredientDataResponseDto.toCreateRequest(ingredient);
 
         //Log to debug
         Log.d("IngredientViewModel", "Adding ingredient: " + dataDto.toJson());
-        Log.d("IngredientViewModel", "Image file: " + (imageFile != null ? imageFile.getName() : "No image file"));
+        Log.d("IngredientViewModel", "Image: " + (image != null ? image : "No image"));
 
 
-        ApiManager.getInstance().getIngredientClient().createIngredient(dataDto, imageFile, new DataCallback<ApiResponse<IngredientDataResponseDto>>() {
+        calls.trackMutation(ApiManager.getInstance().getIngredientClient().createIngredient(dataDto, image, new DataCallback<ApiResponse<IngredientDataResponseDto>>() {
             @Override
             public void onSuccess(@NonNull ApiResponse<IngredientDataResponseDto> response) {
                 loadingLiveData.postValue(false);
                 if (response.isSuccess() && response.getData() != null) {
                     successMessageLiveData.postValue("Thêm thực phẩm thành công!");
-
-                    // Thêm ingredient mới vào cache
-                    allIngredients.add(response.getData());
-                    Log.d("IngredientViewModel", "Added to cache: " + response.getData().getName());
-
-                    // Re-apply filters
-                    applyFiltersAndSort();
+                    IngredientDataResponseDto created = response.getData();
+                    repository.saveLocal(created);
+
+                    // Callback chạy trên thread OkHttp: cache, index và stats chỉ được sửa trên main thread
+                    mainHandler.post(() -> {
+                        // Thêm ingredient mới vào cache
+                        allIngredients.add(created);
+                        indexIngredient(created);
+                        Log.d("IngredientViewModel", "Added to cache: " + created.getName());
+
+                        // Re-apply filters
+                        applyFiltersAndSort();
+                    });
                 } else {
                     errorLiveData.postValue(response.getMessage() != null ? response.getMessage() : "Không thể thêm thực phẩm");
                 }
@@ -345,32 +384,38 @@ public class IngredientViewModel extends ViewModel {
                 errorLiveData.postValue("Lỗi kết nối: " + throwable.getMessage());
                 Log.e("IngredientViewModel", "Lỗi kết nối: " + throwable.getMessage());
             }
-        });
+        }).onProgress(uploadProgressLiveData::postValue));
     }
 
-    public void updateIngredient(int id, @NonNull Ingredient ingredient, File imageFile) {
+    public void updateIngredient(int id, @NonNull Ingredient ingredient, @Nullable ImageSource image) {
         Map<String, String> errors = validateIngredient(ingredient);
         if (!errors.isEmpty()) {
             validationErrorLiveData.postValue(errors);
             return;
         }
         loadingLiveData.postValue(true);
+        uploadProgressLiveData.postValue(null);
 
         UpdateIngredientRequestDto dataDto = IngredientDataResponseDto.toUpdateRequest(ingredient);
         dataDto.setId(id);
-        ApiManager.getInstance().getIngredientClient().updateIngredient(dataDto, imageFile, new DataCallback<ApiResponse<IngredientDataResponseDto>>() {
+        calls.trackMutation(ApiManager.getInstance().getIngredientClient().updateIngredient(dataDto, image, new DataCallback<ApiResponse<IngredientDataResponseDto>>() {
             @Override
             public void onSuccess(@NonNull ApiResponse<IngredientDataResponseDto> response) {
                 loadingLiveData.postValue(false);
                 if (response.isSuccess() && response.getData() != null) {
                     successMessageLiveData.postValue("Cập nhật thực phẩm thành công!");
-
-                    // Cập nhật ingredient trong cache
-                    updateLocalIngredient(id, response.getData());
-                    Log.d("IngredientViewModel", "Updated in cache: " + response.getData().getName());
-
-                    // Re-apply filters
-                    applyFiltersAndSort();
+                    IngredientDataResponseDto updated = response.getData();
+                    repository.saveLocal(updated);
+
+                    mainHandler.post(() -> {
+                        // Cập nhật ingredient trong cache
+                        updateLocalIngredient(id, updated);
+                        indexIngredient(updated);
+                        Log.d("IngredientViewModel", "Updated in cache: " + updated.getName());
+
+                        // Re-apply filters
+                        applyFiltersAndSort();
+                    });
                 } else {
                     errorLiveData.postValue(response.getMessage() != null ? response.getMessage() : "Không thể cập nhật thực phẩm");
                 }
@@ -389,7 +434,7 @@ public class IngredientViewModel extends ViewModel {
                 errorLiveData.postValue("Lỗi kết nối: " + throwable.getMessage());
                 Log.e("IngredientViewModel", "Lỗi kết nối: " + throwable.getMessage());
             }
-        });
+        }).onProgress(uploadProgressLiveData::postValue));
     }
 
     private void updateLocalIngredient(int id, IngredientDataResponseDto updatedIngredient) {
@@ -403,19 +448,23 @@ public class IngredientViewModel extends ViewModel {
 
     public void deleteIngredient(int ingredientId) {
         loadingLiveData.postValue(true);
-        ApiManager.getInstance().getIngredientClient().deleteIngredient(ingredientId, new DataCallback<ApiResponse<Boolean>>() {
+        calls.trackMutation(ApiManager.getInstance().getIngredientClient().deleteIngredient(ingredientId, new DataCallback<ApiResponse<Boolean>>() {
             @Override
             public void onSuccess(@NonNull ApiResponse<Boolean> response) {
                 loadingLiveData.postValue(false);
                 if (response.isSuccess()) {
                     successMessageLiveData.postValue("Xóa thực phẩm thành công!");
+                    repository.deleteLocal(ingredientId);
 
-                    // Xóa ingredient khỏi cache
-                    removeLocalIngredient(ingredientId);
-                    Log.d("IngredientViewModel", "Removed from cache: ID " + ingredientId);
+                    mainHandler.post(() -> {
+                        // Xóa ingredient khỏi cache
+                        removeLocalIngredient(ingredientId);
+                        unindexIngredient(ingredientId);
+                        Log.d("IngredientViewModel", "Removed from cache: ID " + ingredientId);
 
-                    // Re-apply filters
-                    applyFiltersAndSort();
+                        // Re-apply filters
+                        applyFiltersAndSort();
+                    });
                 } else {
                     errorLiveData.postValue(response.getMessage() != null ? response.getMessage() : "Không thể xóa thực phẩm");
                 }
@@ -432,13 +481,43 @@ public class IngredientViewModel extends ViewModel {
                 loadingLiveData.postValue(false);
                 errorLiveData.postValue("Lỗi kết nối: " + throwable.getMessage());
             }
-        });
+        }));
     }
 
     private void removeLocalIngredient(int id) {
         allIngredients.removeIf(ingredient -> ingredient.getId() == id);
     }
 
+    /**
+     * Áp insert / update / tombstone của lượt sync lên cache
+     */
+    private void applyChanges(IngredientSyncEngine.Changes changes) {
+        if (!changes.getDeletedIds().isEmpty()) {
+            Set<Integer> deleted = new HashSet<>(changes.getDeletedIds());
+            allIngredients.removeIf(ingredient -> deleted.contains(ingredient.getId()));
+            for (Integer id : deleted) {
+                unindexIngredient(id);
+            }
+        }
+        if (changes.getUpserted().isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < allIngredients.size(); i++) {
+            indexById.put(allIngredients.get(i).getId(), i);
+        }
+        for (IngredientDataResponseDto ingredient : changes.getUpserted()) {
+            indexIngredient(ingredient);
+            Integer index = indexById.get(ingredient.getId());
+            if (index != null) {
+                allIngredients.set(index, ingredient);
+            } else {
+                indexById.put(ingredient.getId(), allIngredients.size());
+                allIngredients.add(ingredient);
+            }
+        }
+    }
+
     /**
      * Search ingredients - chỉ filter local
      */
@@ -446,12 +525,91 @@ public class IngredientViewModel extends ViewModel {
         Log.d("IngredientViewModel", "Search query: '" + query + "'");
         currentSearchQuery = query.trim();
 
-        // Nếu chưa có cache, load từ server
+        // Nếu chưa có cache, load từ server (search chạy lại sau khi index xong)
         if (!isDataCached) {
             loadIngredients();
         } else {
-            // Nếu đã có cache, chỉ filter local
+            scheduleSearch(AppConfig.UI.SEARCH_DEBOUNCE_MS);
+        }
+    }
+
+    /**
+     * Debounce rồi chạy search trên searchExecutor; query cũ hơn bị huỷ (generation)
+     */
+    private void scheduleSearch(long delayMs) {
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        int generation = searchGeneration.incrementAndGet();
+        String query = currentSearchQuery;
+        if (query.isEmpty()) {
+            searchMatches = null;
             applyFiltersAndSort();
+            return;
+        }
+        pendingSearch = () -> {
+            pendingSearch = null;
+            searchExecutor.execute(() -> {
+                if (generation != searchGeneration.get()) {
+                    return;
+                }
+                long start = System.nanoTime();
+                Set<Integer> matches = searchIndex.search(query, () -> generation != searchGeneration.get());
+                if (matches == null) {
+                    return;
+                }
+                Log.d("IngredientViewModel", "Search '" + query + "': " + matches.size() + " matches in " +
+                        (System.nanoTime() - start) / 1000 + "us");
+                mainHandler.post(() -> {
+                    if (generation == searchGeneration.get()) {
+                        searchMatches = matches;
+                        applyFiltersAndSort();
+                    }
+                });
+            });
+        };
+        mainHandler.postDelayed(pendingSearch, delayMs);
+    }
+
+    /**
+     * Dựng lại query engine và search index từ allIngredients (sau khi thay toàn bộ danh sách)
+     */
+    private void reindex() {
+        queryEngine.reset(allIngredients);
+        stats.reset(allIngredients);
+        List<IngredientDataResponseDto> snapshot = new ArrayList<>(allIngredients);
+        searchExecutor.execute(() -> {
+            searchIndex.clear();
+            for (IngredientDataResponseDto ingredient : snapshot) {
+                searchIndex.put(ingredient.getId(), ingredient.getName());
+            }
+        });
+        refreshSearch();
+    }
+
+    private void indexIngredient(IngredientDataResponseDto ingredient) {
+        queryEngine.put(ingredient);
+        stats.put(ingredient);
+        int id = ingredient.getId();
+        String name = ingredient.getName();
+        searchExecutor.execute(() -> searchIndex.put(id, name));
+        refreshSearch();
+    }
+
+    private void unindexIngredient(int id) {
+        queryEngine.remove(id);
+        stats.remove(id);
+        searchExecutor.execute(() -> searchIndex.remove(id));
+        refreshSearch();
+    }
+
+    /**
+     * Index thay đổi khi đang search: chạy lại query hiện tại (không debounce)
+     */
+    private void refreshSearch() {
+        if (!currentSearchQuery.isEmpty()) {
+            scheduleSearch(0);
         }
     }
 
@@ -540,27 +698,21 @@ public class IngredientViewModel extends ViewModel {
      * Get expired ingredients từ cache
      */
     public List<IngredientDataResponseDto> getExpiredIngredients() {
-        return allIngredients.stream()
-                .filter(ingredient -> ingredient.isExpired())
-                .collect(Collectors.toList());
+        return queryEngine.query(null, null, true, IngredientQueryEngine.SortKey.NONE, false);
     }
 
     /**
      * Get not expired ingredients từ cache
      */
     public List<IngredientDataResponseDto> getNotExpiredIngredients() {
-        return allIngredients.stream()
-                .filter(ingredient -> !ingredient.isExpired())
-                .collect(Collectors.toList());
+        return queryEngine.query(null, null, false, IngredientQueryEngine.SortKey.NONE, false);
     }
 
     /**
-     * Get count by category từ cache
+     * Get count by category từ cache (O(1), từ IngredientStats)
      */
     public int getCountByCategory(@NonNull IngredientCategory category) {
-        return (int) allIngredients.stream()
-                .filter(ingredient -> ingredient.getCategory() == category)
-                .count();
+        return stats.snapshot().getCount(category);
     }
 
     public void clearError() {
@@ -576,19 +728,24 @@ public class IngredientViewModel extends ViewModel {
     }
 
     /**
-     * Refresh - xóa cache và load lại từ server
+     * Refresh - đồng bộ với server, chỉ áp phần thay đổi lên cache (delta sync)
      */
     public void refresh() {
         Log.d("IngredientViewModel", "Refreshing data from server");
-        // Clear cache và filters
-        allIngredients.clear();
-        filteredIngredients.clear();
-        isDataCached = false;
-
-        // Load lại từ server
+        manualRefresh = true;
         loadIngredients(true);
     }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        calls.cancelAll();
+        // expiryTick, search đang debounce và kết quả add/update/delete chưa kịp áp lên cache
+        mainHandler.removeCallbacksAndMessages(null);
+        searchGeneration.incrementAndGet();
+        searchExecutor.shutdownNow();
+    }
+
     /**
      * Check if data is cached
      */
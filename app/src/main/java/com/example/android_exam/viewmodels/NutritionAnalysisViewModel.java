@@ -5,6 +5,7 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import com.example.android_exam.data.api.ApiCallGroup;
 import com.example.android_exam.data.dto.nutrition.DailyNutritionSummaryDto;
 import com.example.android_exam.data.dto.nutrition.WeeklyNutritionSummaryDto;
 import com.example.android_exam.data.repository.NutritionRepository;
@@ -19,6 +20,8 @@ public class NutritionAnalysisViewModel extends ViewModel {
     private MutableLiveData<WeeklyNutritionSummaryDto> weeklyNutrition = new MutableLiveData<>();
     private MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
     private MutableLiveData<String> error = new MutableLiveData<>();
+    // Chọn ngày/tuần mới sẽ huỷ request của ngày/tuần trước
+    private final ApiCallGroup calls = new ApiCallGroup("NutritionAnalysisViewModel");
 
     public NutritionAnalysisViewModel() {
         repository = new NutritionRepository();
@@ -46,7 +49,7 @@ public class NutritionAnalysisViewModel extends ViewModel {
         Log.d("NutritionViewModel", "Loading daily nutrition for date: " + date);
         isLoading.setValue(true);
         currentDate.setValue(date);
-        repository.getDailyNutrition(date, new NutritionRepository.Callback<DailyNutritionSummaryDto>() {
+        calls.track("daily", repository.getDailyNutrition(date, new NutritionRepository.Callback<DailyNutritionSummaryDto>() {
             @Override
             public void onSuccess(DailyNutritionSummaryDto result) {
                 dailyNutrition.postValue(result);
@@ -59,7 +62,7 @@ public class NutritionAnalysisViewModel extends ViewModel {
                 error.postValue(errorMessage);
                 isLoading.postValue(false);
             }
-        });
+        }));
     }
 
     public void loadWeeklyNutrition(Date date) {
@@ -69,7 +72,7 @@ public class NutritionAnalysisViewModel extends ViewModel {
         cal.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
         Date weekStart = cal.getTime();
         currentDate.setValue(weekStart);
-        repository.getWeeklyNutrition(weekStart, new NutritionRepository.Callback<WeeklyNutritionSummaryDto>() {
+        calls.track("weekly", repository.getWeeklyNutrition(weekStart, new NutritionRepository.Callback<WeeklyNutritionSummaryDto>() {
             @Override
             public void onSuccess(WeeklyNutritionSummaryDto result) {
                 weeklyNutrition.postValue(result);
@@ -81,7 +84,7 @@ public class NutritionAnalysisViewModel extends ViewModel {
                 error.postValue(errorMessage);
                 isLoading.postValue(false);
             }
-        });
+        }));
     }
 
     public void navigateToPreviousDay() {
@@ -148,6 +151,7 @@ public class NutritionAnalysisViewModel extends ViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
+        calls.cancelAll();
         repository.clearCache();
     }
 
@@ -13,6 +13,7 @@ import androidx.core.app.JobIntentService;
 import com.example.android_exam.R;
 import com.example.android_exam.data.api.ApiManager;
 import com.example.android_exam.data.api.DataCallback;
+import com.example.android_exam.data.api.RequestPriority;
 import com.example.android_exam.data.dto.nutrition.OverviewNutritionSummaryDto;
 import com.example.android_exam.data.dto.response.ApiResponse;
 import com.example.android_exam.data.dto.user.UserInformationDto;
@@ -51,7 +52,7 @@ public class NutritionOverviewWidgetService extends JobIntentService {
 
         // Lấy user & call API lấy overview qua HomeRepository
         HomeRepository repo = new HomeRepository();                    // repo tự dùng SessionManager.getUser()
-        repo.getNutritionOverview(new DataCallback<ApiResponse<OverviewNutritionSummaryDto>>() {
+        repo.getNutritionOverview(RequestPriority.BACKGROUND, new DataCallback<ApiResponse<OverviewNutritionSummaryDto>>() {
             @Override
             public void onLoading(boolean isLoading) { /* no-op for widget */ }
 
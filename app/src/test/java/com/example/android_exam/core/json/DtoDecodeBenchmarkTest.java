@@ -0,0 +1,113 @@
+package com.example.android_exam.core.json;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
+import com.example.android_exam.data.dto.response.ApiResponse;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+import com.example.android_exam.data.models.enums.IngredientUnit;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark decode danh sách nguyên liệu (ApiResponse<IngredientSearchResultDto>):
+ * adapter viết tay so với binding reflection của Gson. In thời gian và số byte cấp phát mỗi lần decode;
+ * chỉ assert kết quả giống nhau (số đo phụ thuộc máy nên không dùng làm điều kiện pass / fail).
+ */
+public class DtoDecodeBenchmarkTest {
+    private static final Type TYPE = new TypeToken<ApiResponse<IngredientSearchResultDto>>() {}.getType();
+    private static final int ROWS = 500;
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 100;
+
+    @Test
+    public void decodeIngredientPage() {
+        Gson fast = GsonProvider.getGson();
+        Gson reflective = GsonProvider.baseBuilder().create();
+        String json = reflective.toJson(samplePage(), TYPE);
+
+        Result reflection = measure(reflective, json);
+        Result handWritten = measure(fast, json);
+        System.out.println("Decode " + ROWS + " ingredients (" + json.length() / 1024 + "KB): reflection " + reflection
+                + ", hand-written " + handWritten);
+
+        ApiResponse<IngredientSearchResultDto> expected = reflective.fromJson(json, TYPE);
+        ApiResponse<IngredientSearchResultDto> actual = fast.fromJson(json, TYPE);
+        assertEquals(reflective.toJsonTree(expected, TYPE), reflective.toJsonTree(actual, TYPE));
+    }
+
+    private static Result measure(Gson gson, String json) {
+        for (int i = 0; i < WARMUP; i++) {
+            gson.fromJson(json, TYPE);
+        }
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            ApiResponse<IngredientSearchResultDto> response = gson.fromJson(json, TYPE);
+            rows += response.getData().getIngredients().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+        assertEquals(ROWS * ITERATIONS, rows);
+        return new Result(elapsed / ITERATIONS, bytesBefore >= 0 ? bytes / ITERATIONS : -1);
+    }
+
+    /**
+     * Số byte thread hiện tại đã cấp phát (HotSpot), -1 nếu JVM không hỗ trợ
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static ApiResponse<IngredientSearchResultDto> samplePage() {
+        List<IngredientDataResponseDto> rows = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            IngredientDataResponseDto dto = new IngredientDataResponseDto(i, "Ingredient " + i, "Description " + i,
+                    new BigDecimal(i + ".25"), IngredientUnit.GRAM, IngredientCategory.VEGETABLES,
+                    new Date(1735689600000L + i * 86_400_000L), "https://example.com/" + i + ".jpg");
+            dto.setUpdatedAt(new Date(1735689600000L));
+            rows.add(dto);
+        }
+        IngredientSearchResultDto page = new IngredientSearchResultDto();
+        page.setIngredients(rows);
+        page.setTotalCount(ROWS);
+        ApiResponse<IngredientSearchResultDto> response = new ApiResponse<>();
+        response.setSuccess(true);
+        response.setData(page);
+        return response;
+    }
+
+    private static final class Result {
+        final long nanosPerDecode;
+        final long bytesPerDecode;
+
+        Result(long nanosPerDecode, long bytesPerDecode) {
+            this.nanosPerDecode = nanosPerDecode;
+            this.bytesPerDecode = bytesPerDecode;
+        }
+
+        @Override
+        public String toString() {
+            return nanosPerDecode / 1000 + "us/" + (bytesPerDecode >= 0 ? bytesPerDecode / 1024 + "KB" : "n/a");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.android_exam.core.json;
+
+import com.example.android_exam.data.dto.food.FoodDataResponseDto;
+import com.example.android_exam.data.dto.food.FoodIngredientDto;
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
+import com.example.android_exam.data.dto.nutrition.DailyNutritionSummaryDto;
+import com.example.android_exam.data.dto.nutrition.FoodNutritionDto;
+import com.example.android_exam.data.dto.nutrition.NutritionDto;
+import com.example.android_exam.data.dto.nutrition.WeeklyNutritionSummaryDto;
+import com.example.android_exam.data.dto.response.ApiResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Adapter viết tay phải cho cùng JSON với binding reflection của Gson.
+ * DTO được điền giá trị khác mặc định cho MỌI field (qua reflection), nên thêm field vào DTO
+ * mà quên cập nhật adapter sẽ làm test fail.
+ */
+public class DtoTypeAdapterFactoryTest {
+    private static final Class<?>[] DTO_CLASSES = {
+            FoodDataResponseDto.class,
+            FoodIngredientDto.class,
+            IngredientDataResponseDto.class,
+            IngredientSearchResultDto.class,
+            DailyNutritionSummaryDto.class,
+            WeeklyNutritionSummaryDto.class,
+            NutritionDto.class,
+            FoodNutritionDto.class
+    };
+    // Số giây tròn để Date không phụ thuộc độ chính xác của format
+    private static final long BASE_TIME = 1735689600000L;
+
+    private final Gson fast = GsonProvider.getGson();
+    private final Gson reflective = GsonProvider.baseBuilder().create();
+    private int counter;
+
+    @Test
+    public void everyDtoHasHandWrittenAdapter() {
+        DtoTypeAdapterFactory factory = new DtoTypeAdapterFactory();
+        for (Class<?> type : DTO_CLASSES) {
+            assertNotNull(type.getSimpleName(), factory.create(fast, TypeToken.get(type)));
+        }
+        assertNotNull(factory.create(fast, new TypeToken<ApiResponse<FoodDataResponseDto>>() {}));
+    }
+
+    @Test
+    public void everyDtoFieldIsWritten() throws Exception {
+        for (Class<?> type : DTO_CLASSES) {
+            Object value = populate(type);
+            assertEquals(type.getSimpleName(), reflective.toJsonTree(value, type), fast.toJsonTree(value, type));
+        }
+    }
+
+    @Test
+    public void everyDtoFieldIsRead() throws Exception {
+        for (Class<?> type : DTO_CLASSES) {
+            JsonElement json = reflective.toJsonTree(populate(type), type);
+            // So sánh qua cùng serializer nên không phụ thuộc equals() của DTO
+            Object expected = reflective.fromJson(json, type);
+            Object actual = fast.fromJson(json, type);
+            assertEquals(type.getSimpleName(), reflective.toJsonTree(expected, type), reflective.toJsonTree(actual, type));
+        }
+    }
+
+    @Test
+    public void apiResponseRoundTrip() throws Exception {
+        Type type = new TypeToken<ApiResponse<IngredientSearchResultDto>>() {}.getType();
+        ApiResponse<IngredientSearchResultDto> response = new ApiResponse<>();
+        response.setSuccess(true);
+        response.setMessage("ok");
+        response.setData((IngredientSearchResultDto) populate(IngredientSearchResultDto.class));
+        Map<String, List<String>> metadata = new LinkedHashMap<>();
+        List<String> values = new ArrayList<>();
+        values.add("v");
+        metadata.put("k", values);
+        response.setMetadata(metadata);
+
+        JsonElement json = reflective.toJsonTree(response, type);
+        assertEquals(json, fast.toJsonTree(response, type));
+        assertEquals(json, reflective.toJsonTree(fast.fromJson(json, type), type));
+    }
+
+    @Test
+    public void unknownFieldsAreSkipped() {
+        IngredientDataResponseDto dto = fast.fromJson(
+                "{\"id\":3,\"extra\":{\"nested\":[1,2]},\"name\":\"Egg\",\"other\":null}", IngredientDataResponseDto.class);
+
+        assertEquals(3, dto.getId());
+        assertEquals("Egg", dto.getName());
+    }
+
+    /**
+     * Tạo instance và điền mọi field (không static / transient) bằng giá trị khác mặc định
+     */
+    private Object populate(Class<?> type) throws Exception {
+        Object instance = type.getDeclaredConstructor().newInstance();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                field.set(instance, sample(field.getGenericType(), field.getName()));
+            }
+        }
+        return instance;
+    }
+
+    private Object sample(Type type, String name) throws Exception {
+        Class<?> raw = rawType(type);
+        if (raw == String.class) {
+            return "s-" + name;
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return ++counter;
+        }
+        if (raw == long.class || raw == Long.class) {
+            return (long) ++counter;
+        }
+        if (raw == double.class || raw == Double.class) {
+            return ++counter + 0.25;
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return true;
+        }
+        if (raw == BigDecimal.class) {
+            return new BigDecimal(++counter + ".5");
+        }
+        if (raw == Date.class) {
+            return new Date(BASE_TIME + 1000L * ++counter);
+        }
+        if (raw.isEnum()) {
+            Object[] constants = raw.getEnumConstants();
+            return constants[++counter % constants.length];
+        }
+        if (List.class.isAssignableFrom(raw)) {
+            List<Object> list = new ArrayList<>();
+            list.add(sample(typeArgument(type, 0), name));
+            return list;
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            map.put(sample(typeArgument(type, 0), name), sample(typeArgument(type, 1), name));
+            return map;
+        }
+        return populate(raw);
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        throw new IllegalArgumentException("Unsupported field type " + type);
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        return ((ParameterizedType) type).getActualTypeArguments()[index];
+    }
+}
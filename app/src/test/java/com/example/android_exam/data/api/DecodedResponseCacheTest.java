@@ -0,0 +1,152 @@
+package com.example.android_exam.data.api;
+
+import com.example.android_exam.core.json.GsonProvider;
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.dto.response.ApiResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Revalidate qua server local: 304 được trả thành ApiResponse từ JSON tree đã parse,
+ * không tải lại và không decode lại body
+ */
+public class DecodedResponseCacheTest {
+    private static final Type TYPE = new TypeToken<ApiResponse<IngredientDataResponseDto>>() {}.getType();
+    private static final String EGG = "{\"success\":true,\"message\":\"ok\",\"data\":{\"id\":5,\"name\":\"Egg\"}}";
+    private static final String DUCK_EGG = "{\"success\":true,\"message\":\"ok\",\"data\":{\"id\":5,\"name\":\"Duck egg\"}}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = GsonProvider.getGson();
+    private MockWebServer server;
+    private OkHttpClient client;
+    private DecodedResponseCache decodedCache;
+    private int bodyDecodes;
+    private Response lastResponse;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient.Builder()
+                .cache(new Cache(folder.newFolder("http_cache"), 1024 * 1024))
+                .build();
+        decodedCache = new DecodedResponseCache(8);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        client.cache().close();
+    }
+
+    @Test
+    public void etag304_returnsCachedTreeWithoutDecodingBody() throws Exception {
+        server.enqueue(revalidated(new MockResponse().setBody(EGG)).setHeader("ETag", "\"v1\""));
+        server.enqueue(revalidated(new MockResponse().setResponseCode(304)).setHeader("ETag", "\"v1\""));
+
+        ApiResponse<IngredientDataResponseDto> first = fetch("/api/ingredient/5");
+        ApiResponse<IngredientDataResponseDto> second = fetch("/api/ingredient/5");
+
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+        assertConditionalHit();
+        assertEquals(1, bodyDecodes);
+        assertEquals(1, decodedCache.getHits());
+        assertEquals("Egg", second.getData().getName());
+        assertEquals(5, second.getData().getId());
+        assertTrue(second.isSuccess());
+        // Mỗi lần gọi nhận object riêng
+        assertNotSame(first, second);
+        assertNotSame(first.getData(), second.getData());
+    }
+
+    @Test
+    public void lastModified304_returnsCachedTree() throws Exception {
+        String lastModified = "Wed, 01 Jan 2025 00:00:00 GMT";
+        server.enqueue(revalidated(new MockResponse().setBody(EGG)).setHeader("Last-Modified", lastModified));
+        server.enqueue(revalidated(new MockResponse().setResponseCode(304)).setHeader("Last-Modified", lastModified));
+
+        fetch("/api/ingredient/5");
+        ApiResponse<IngredientDataResponseDto> second = fetch("/api/ingredient/5");
+
+        server.takeRequest();
+        assertEquals(lastModified, server.takeRequest().getHeader("If-Modified-Since"));
+        assertConditionalHit();
+        assertEquals(1, bodyDecodes);
+        assertEquals("Egg", second.getData().getName());
+    }
+
+    @Test
+    public void changedEtag_decodesNewBody() throws Exception {
+        server.enqueue(revalidated(new MockResponse().setBody(EGG)).setHeader("ETag", "\"v1\""));
+        server.enqueue(revalidated(new MockResponse().setBody(DUCK_EGG)).setHeader("ETag", "\"v2\""));
+
+        fetch("/api/ingredient/5");
+        ApiResponse<IngredientDataResponseDto> second = fetch("/api/ingredient/5");
+
+        assertEquals(200, lastResponse.networkResponse().code());
+        assertEquals(2, bodyDecodes);
+        assertEquals("Duck egg", second.getData().getName());
+    }
+
+    @Test
+    public void callerMutation_doesNotLeakIntoNextHit() throws Exception {
+        server.enqueue(revalidated(new MockResponse().setBody(EGG)).setHeader("ETag", "\"v1\""));
+        server.enqueue(revalidated(new MockResponse().setResponseCode(304)).setHeader("ETag", "\"v1\""));
+
+        fetch("/api/ingredient/5").getData().setName("Edited on screen");
+        ApiResponse<IngredientDataResponseDto> second = fetch("/api/ingredient/5");
+
+        assertEquals("Egg", second.getData().getName());
+    }
+
+    // Luôn revalidate (không fresh) để lần gọi thứ hai chắc chắn là conditional request
+    private static MockResponse revalidated(MockResponse response) {
+        return response.setHeader("Cache-Control", "no-cache");
+    }
+
+    private void assertConditionalHit() {
+        assertNotNull(lastResponse.cacheResponse());
+        assertNotNull(lastResponse.networkResponse());
+        assertEquals(304, lastResponse.networkResponse().code());
+    }
+
+    /**
+     * Giống BaseApiClient.decodeCacheable: tree lấy từ DecodedResponseCache, DTO luôn được tạo mới từ tree
+     */
+    private ApiResponse<IngredientDataResponseDto> fetch(String path) throws IOException {
+        Request request = new Request.Builder().url(server.url(path)).build();
+        try (Response response = client.newCall(request).execute(); ResponseBody body = response.body()) {
+            lastResponse = response;
+            JsonElement tree = decodedCache.treeFor(request, response, body, raw -> {
+                bodyDecodes++;
+                return gson.fromJson(raw.charStream(), JsonElement.class);
+            });
+            return gson.fromJson(tree, TYPE);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.android_exam.data.api;
+
+import com.example.android_exam.core.config.AppConfig;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+/**
+ * Freshness theo endpoint và hai interceptor của HttpCachePolicy (không cần mạng)
+ */
+public class HttpCachePolicyTest {
+
+    @Test
+    public void maxAge_matchesConfiguredEndpoints() {
+        assertEquals(AppConfig.Http.CACHE_FOOD_MAX_AGE_SECONDS, HttpCachePolicy.maxAgeFor(get("food/12")));
+        assertEquals(AppConfig.Http.CACHE_INGREDIENT_MAX_AGE_SECONDS, HttpCachePolicy.maxAgeFor(get("ingredient/5")));
+        assertEquals(AppConfig.Http.CACHE_INGREDIENT_LIST_MAX_AGE_SECONDS, HttpCachePolicy.maxAgeFor(get("ingredient")));
+        assertEquals(AppConfig.Http.CACHE_AUTH_ME_MAX_AGE_SECONDS, HttpCachePolicy.maxAgeFor(get("auth/me")));
+    }
+
+    @Test
+    public void maxAge_ignoresQueryString() {
+        assertEquals(AppConfig.Http.CACHE_INGREDIENT_LIST_MAX_AGE_SECONDS,
+                HttpCachePolicy.maxAgeFor(get("ingredient?page=2&pageSize=50")));
+    }
+
+    @Test
+    public void maxAge_notCacheable() {
+        assertEquals(-1, HttpCachePolicy.maxAgeFor(get("food")));
+        assertEquals(-1, HttpCachePolicy.maxAgeFor(get("food/suggestions")));
+        assertEquals(-1, HttpCachePolicy.maxAgeFor(get("ingredient/abc")));
+        assertEquals(-1, HttpCachePolicy.maxAgeFor(get("nutrition/daily")));
+        assertFalse(HttpCachePolicy.isCacheable(post("ingredient")));
+        assertFalse(HttpCachePolicy.isCacheable(new Request.Builder().url("http://example.com/api/ingredient").build()));
+    }
+
+    @Test
+    public void maxAge_forceNetworkIsNotCacheable() {
+        Request sync = get("ingredient?page=1").newBuilder().cacheControl(CacheControl.FORCE_NETWORK).build();
+
+        assertEquals(-1, HttpCachePolicy.maxAgeFor(sync));
+        assertFalse(HttpCachePolicy.isCacheable(sync));
+    }
+
+    @Test
+    public void relativePath_outsideBackendIsNull() {
+        assertEquals("food/1", HttpCachePolicy.relativePath(get("food/1?x=1").url()));
+        assertNull(HttpCachePolicy.relativePath(new Request.Builder().url("http://example.com/api/food/1").build().url()));
+    }
+
+    @Test
+    public void freshness_addsMaxAgeWhenServerSendsNone() throws IOException {
+        Request request = get("ingredient/5");
+        FakeChain chain = new FakeChain(request, r -> response(r, 200).header("Pragma", "no-cache").build());
+
+        Response response = new HttpCachePolicy.FreshnessInterceptor().intercept(chain);
+
+        assertEquals("private, max-age=" + AppConfig.Http.CACHE_INGREDIENT_MAX_AGE_SECONDS, response.header("Cache-Control"));
+        assertNull(response.header("Pragma"));
+    }
+
+    @Test
+    public void freshness_keepsServerCacheControl() throws IOException {
+        Request request = get("ingredient/5");
+        FakeChain chain = new FakeChain(request, r -> response(r, 200).header("Cache-Control", "no-store").build());
+
+        Response response = new HttpCachePolicy.FreshnessInterceptor().intercept(chain);
+
+        assertEquals("no-store", response.header("Cache-Control"));
+    }
+
+    @Test
+    public void freshness_skipsErrorsAndUncachedEndpoints() throws IOException {
+        Response error = new HttpCachePolicy.FreshnessInterceptor()
+                .intercept(new FakeChain(get("ingredient/5"), r -> response(r, 500).build()));
+        Response uncached = new HttpCachePolicy.FreshnessInterceptor()
+                .intercept(new FakeChain(get("food/suggestions"), r -> response(r, 200).build()));
+
+        assertNull(error.header("Cache-Control"));
+        assertNull(uncached.header("Cache-Control"));
+    }
+
+    @Test
+    public void offline_returnsStaleCopyFromCache() throws IOException {
+        Request request = get("food/3");
+        FakeChain chain = new FakeChain(request, r -> {
+            if (r.cacheControl().onlyIfCached()) {
+                return response(r, 200).build();
+            }
+            throw new IOException("offline");
+        });
+
+        Response response = new HttpCachePolicy.OfflineFallbackInterceptor().intercept(chain);
+
+        assertEquals(200, response.code());
+        assertEquals(2, chain.proceeded.size());
+        Request offline = chain.proceeded.get(1);
+        assertTrue(offline.cacheControl().onlyIfCached());
+        assertEquals(TimeUnit.DAYS.toSeconds(AppConfig.Http.CACHE_MAX_STALE_DAYS), offline.cacheControl().maxStaleSeconds());
+    }
+
+    @Test
+    public void offline_rethrowsWhenNothingCached() {
+        IOException offline = new IOException("offline");
+        FakeChain chain = new FakeChain(get("food/3"), r -> {
+            if (r.cacheControl().onlyIfCached()) {
+                return response(r, 504).build();
+            }
+            throw offline;
+        });
+
+        try {
+            new HttpCachePolicy.OfflineFallbackInterceptor().intercept(chain);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertSame(offline, e);
+        }
+    }
+
+    @Test
+    public void offline_doesNotTouchCacheForUncachedOrCanceledCalls() {
+        FakeChain uncached = new FakeChain(post("ingredient"), r -> {
+            throw new IOException("offline");
+        });
+        FakeChain canceled = new FakeChain(get("food/3"), r -> {
+            throw new IOException("Canceled");
+        });
+        canceled.call.cancel();
+
+        for (FakeChain chain : new FakeChain[]{uncached, canceled}) {
+            try {
+                new HttpCachePolicy.OfflineFallbackInterceptor().intercept(chain);
+                fail("Expected IOException");
+            } catch (IOException e) {
+                assertEquals(1, chain.proceeded.size());
+            }
+        }
+    }
+
+    @Test
+    public void offline_forceNetworkDoesNotFallBackToStaleCopy() {
+        Request sync = get("ingredient").newBuilder().cacheControl(CacheControl.FORCE_NETWORK).build();
+        FakeChain chain = new FakeChain(sync, r -> {
+            if (r.cacheControl().onlyIfCached()) {
+                return response(r, 200).build();
+            }
+            throw new IOException("offline");
+        });
+
+        try {
+            new HttpCachePolicy.OfflineFallbackInterceptor().intercept(chain);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertEquals(1, chain.proceeded.size());
+        }
+    }
+
+    private static Request get(String path) {
+        return new Request.Builder().url(AppConfig.BASE_URL + path).build();
+    }
+
+    private static Request post(String path) {
+        return new Request.Builder().url(AppConfig.BASE_URL + path)
+                .post(RequestBody.create(new byte[0], null)).build();
+    }
+
+    private static Response.Builder response(Request request, int code) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("HTTP " + code);
+    }
+
+    private interface Server {
+        Response handle(Request request) throws IOException;
+    }
+
+    /**
+     * Chain giả: ghi lại các request được proceed và trả response từ Server
+     */
+    private static final class FakeChain implements Interceptor.Chain {
+        final Request request;
+        final Server server;
+        final Call call;
+        final List<Request> proceeded = new ArrayList<>();
+
+        FakeChain(Request request, Server server) {
+            this.request = request;
+            this.server = server;
+            this.call = new OkHttpClient().newCall(request);
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public Response proceed(Request request) throws IOException {
+            proceeded.add(request);
+            return server.handle(request);
+        }
+
+        @Override
+        public Connection connection() {
+            return null;
+        }
+
+        @Override
+        public Call call() {
+            return call;
+        }
+
+        @Override
+        public int connectTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withConnectTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+
+        @Override
+        public int readTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withReadTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+
+        @Override
+        public int writeTimeoutMillis() {
+            return 0;
+        }
+
+        @Override
+        public Interceptor.Chain withWriteTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.android_exam.data.local;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+import com.example.android_exam.data.models.enums.IngredientUnit;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * row_hash được lưu trong Room nên phải giống nhau giữa các lần chạy app - so với giá trị cố định
+ */
+public class IngredientEntityTest {
+
+    @Test
+    public void rowHash_isStableAcrossProcesses() {
+        assertEquals(0xca520cb14219d23bL, IngredientEntity.rowHash(egg()));
+    }
+
+    @Test
+    public void rowHash_allNullFields() {
+        assertEquals(0x7654274f2e7bf6b0L, IngredientEntity.rowHash(new IngredientDataResponseDto()));
+    }
+
+    @Test
+    public void rowHash_ignoresTrailingZerosAndSyncMetadata() {
+        IngredientDataResponseDto copy = egg();
+        copy.setQuantity(new BigDecimal("10.5000"));
+        copy.setUpdatedAt(new Date());
+        copy.setId(99);
+
+        assertEquals(IngredientEntity.rowHash(egg()), IngredientEntity.rowHash(copy));
+    }
+
+    @Test
+    public void rowHash_changesWithVisibleFields() {
+        long base = IngredientEntity.rowHash(egg());
+
+        IngredientDataResponseDto unit = egg();
+        unit.setUnit(IngredientUnit.BOX);
+        IngredientDataResponseDto category = egg();
+        category.setCategory(IngredientCategory.MEAT);
+        IngredientDataResponseDto expiry = egg();
+        expiry.setExpiryDate(null);
+
+        assertNotEquals(base, IngredientEntity.rowHash(unit));
+        assertNotEquals(base, IngredientEntity.rowHash(category));
+        assertNotEquals(base, IngredientEntity.rowHash(expiry));
+    }
+
+    @Test
+    public void rowHash_keepsFieldBoundaries() {
+        IngredientDataResponseDto first = new IngredientDataResponseDto();
+        first.setName("ab");
+        first.setDescription("c");
+        IngredientDataResponseDto second = new IngredientDataResponseDto();
+        second.setName("a");
+        second.setDescription("bc");
+
+        assertNotEquals(IngredientEntity.rowHash(first), IngredientEntity.rowHash(second));
+    }
+
+    @Test
+    public void fromDto_storesRowHash() {
+        assertEquals(IngredientEntity.rowHash(egg()), IngredientEntity.fromDto(egg(), 0).getRowHash());
+    }
+
+    private static IngredientDataResponseDto egg() {
+        return new IngredientDataResponseDto(1, "Trứng gà", "Hộp 10 quả", new BigDecimal("10.50"),
+                IngredientUnit.PIECE, IngredientCategory.DAIRY, new Date(1735689600000L), null);
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.android_exam.data.repository;
+
+import androidx.annotation.NonNull;
+
+import com.example.android_exam.data.api.ApiCall;
+import com.example.android_exam.data.api.DataCallback;
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.dto.ingredient.IngredientFilterDto;
+import com.example.android_exam.data.dto.ingredient.IngredientSearchResultDto;
+import com.example.android_exam.data.dto.response.ApiResponse;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ghép trang và xử lý lỗi của IngredientBulkLoader với PageFetcher giả (test tự quyết thứ tự trả trang),
+ * và thời gian tải tổng với server giả có độ trễ
+ */
+public class IngredientBulkLoaderTest {
+
+    @Test
+    public void singlePage_deliversSnapshotWithoutMoreRequests() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        new IngredientBulkLoader(10, 20, 4, fetcher).load(null, callback);
+
+        fetcher.respond(1, 3, rows(1, 3));
+
+        assertEquals(Collections.singletonList(1), fetcher.requested);
+        IngredientBulkLoader.Snapshot snapshot = callback.single();
+        assertEquals(Arrays.asList(1, 2, 3), ids(snapshot));
+        assertEquals(1, snapshot.getPageCount());
+        assertTrue(snapshot.isComplete());
+        assertNull(snapshot.getServerTime());
+    }
+
+    @Test
+    public void pages_loadInParallelAndMergeInPageOrder() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        ApiCall handle = new IngredientBulkLoader(2, 20, 2, fetcher).load(null, callback);
+
+        fetcher.respond(1, 7, rows(1, 2));
+        // 4 trang, tối đa 2 trang chạy cùng lúc sau trang đầu
+        assertEquals(Arrays.asList(1, 2, 3), fetcher.requested);
+
+        fetcher.respond(3, 7, rows(5, 6));
+        assertEquals(Arrays.asList(1, 2, 3, 4), fetcher.requested);
+        fetcher.respond(4, 7, rows(7, 7));
+        assertTrue(callback.snapshots.isEmpty());
+        fetcher.respond(2, 7, rows(3, 4));
+
+        IngredientBulkLoader.Snapshot snapshot = callback.single();
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), ids(snapshot));
+        assertEquals(4, snapshot.getPageCount());
+        assertEquals(7, snapshot.getTotalCount());
+        assertTrue(snapshot.isComplete());
+        assertTrue(handle.isFinished());
+        assertTrue(callback.errors.isEmpty());
+    }
+
+    @Test
+    public void maxPages_capsLoadAndMarksSnapshotIncomplete() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        new IngredientBulkLoader(2, 2, 4, fetcher).load(null, callback);
+
+        fetcher.respond(1, 10, rows(1, 2));
+        assertEquals(Arrays.asList(1, 2), fetcher.requested);
+        fetcher.respond(2, 10, rows(3, 4));
+
+        IngredientBulkLoader.Snapshot snapshot = callback.single();
+        assertEquals(4, snapshot.getRows().size());
+        assertEquals(2, snapshot.getPageCount());
+        assertFalse(snapshot.isComplete());
+    }
+
+    @Test
+    public void delta_sendsUpdatedSinceAndCollectsTombstonesFromAllPages() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        Date since = new Date(1000);
+        new IngredientBulkLoader(2, 20, 4, fetcher).load(since, callback);
+
+        IngredientSearchResultDto first = page(3, rows(1, 2));
+        first.setServerTime(new Date(5000));
+        first.setDeletedIds(Arrays.asList(10, 11));
+        fetcher.respond(1, first);
+        IngredientSearchResultDto second = page(3, rows(3, 3));
+        second.setDeletedIds(Collections.singletonList(12));
+        fetcher.respond(2, second);
+
+        for (IngredientFilterDto filter : fetcher.filters.values()) {
+            assertEquals(since, filter.getUpdatedSince());
+            assertEquals(Integer.valueOf(2), filter.getPageSize());
+        }
+        IngredientBulkLoader.Snapshot snapshot = callback.single();
+        assertEquals(new Date(5000), snapshot.getServerTime());
+        assertEquals(Arrays.asList(10, 11, 12), snapshot.getDeletedIds());
+    }
+
+    @Test
+    public void emptyInventory_deliversEmptyCompleteSnapshot() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        new IngredientBulkLoader(10, 20, 4, fetcher).load(null, callback);
+
+        fetcher.respond(1, 0, Collections.emptyList());
+
+        IngredientBulkLoader.Snapshot snapshot = callback.single();
+        assertTrue(snapshot.getRows().isEmpty());
+        assertTrue(snapshot.isComplete());
+    }
+
+    @Test
+    public void pageError_cancelsOtherPagesAndReportsOnce() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        ApiCall handle = new IngredientBulkLoader(2, 20, 4, fetcher).load(null, callback);
+
+        fetcher.respond(1, 6, rows(1, 2));
+        fetcher.callbacks.get(2).onError("HTTP 500");
+        // Trang đang tải dở bị huỷ, response tới muộn bị bỏ qua
+        assertTrue(fetcher.calls.get(3).isCanceled());
+        fetcher.respond(3, 6, rows(5, 6));
+        fetcher.callbacks.get(3).onFailure(new RuntimeException("late"));
+
+        assertEquals(Collections.singletonList("HTTP 500"), callback.errors);
+        assertTrue(callback.snapshots.isEmpty());
+        assertTrue(handle.isCanceled());
+    }
+
+    @Test
+    public void unsuccessfulResponse_reportsServerMessage() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        new IngredientBulkLoader(2, 20, 4, fetcher).load(null, callback);
+
+        ApiResponse<IngredientSearchResultDto> response = new ApiResponse<>();
+        response.setSuccess(false);
+        response.setMessage("Unauthorized");
+        fetcher.callbacks.get(1).onSuccess(response);
+
+        assertEquals(Collections.singletonList("Unauthorized"), callback.errors);
+        assertTrue(callback.snapshots.isEmpty());
+    }
+
+    @Test
+    public void failure_reportsConnectionError() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        new IngredientBulkLoader(2, 20, 4, fetcher).load(null, callback);
+
+        fetcher.callbacks.get(1).onFailure(new RuntimeException("timeout"));
+
+        assertEquals(1, callback.errors.size());
+        assertTrue(callback.errors.get(0).contains("timeout"));
+    }
+
+    @Test
+    public void cancel_stopsInFlightPagesWithoutCallbacks() {
+        FakeFetcher fetcher = new FakeFetcher();
+        RecordingCallback callback = new RecordingCallback();
+        ApiCall handle = new IngredientBulkLoader(2, 20, 4, fetcher).load(null, callback);
+
+        fetcher.respond(1, 6, rows(1, 2));
+        handle.cancel();
+
+        assertTrue(fetcher.calls.get(2).isCanceled());
+        assertTrue(fetcher.calls.get(3).isCanceled());
+        fetcher.respond(2, 6, rows(3, 4));
+        fetcher.respond(3, 6, rows(5, 6));
+        assertTrue(callback.snapshots.isEmpty());
+        assertTrue(callback.errors.isEmpty());
+    }
+
+    @Test
+    public void delayedPages_totalTimeIsTwoRoundTripsNotOnePerPage() throws Exception {
+        int pageCount = 6;
+        int pageSize = 2;
+        long latencyMs = 300;
+        ScheduledExecutorService server = Executors.newScheduledThreadPool(pageCount);
+        try {
+            DelayedFetcher fetcher = new DelayedFetcher(server, latencyMs, pageSize, pageCount * pageSize);
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicReference<IngredientBulkLoader.Snapshot> result = new AtomicReference<>();
+            AtomicReference<String> error = new AtomicReference<>();
+
+            long start = System.nanoTime();
+            new IngredientBulkLoader(pageSize, 20, pageCount - 1, fetcher).load(null, new IngredientBulkLoader.Callback() {
+                @Override
+                public void onSnapshot(@NonNull IngredientBulkLoader.Snapshot snapshot) {
+                    result.set(snapshot);
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(@NonNull String message) {
+                    error.set(message);
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertNull(error.get());
+            List<Integer> expected = new ArrayList<>();
+            for (int id = 1; id <= pageCount * pageSize; id++) {
+                expected.add(id);
+            }
+            assertEquals(expected, ids(result.get()));
+            assertEquals(pageCount - 1, fetcher.maxInFlight.get());
+            // Trang 1 (cho biết totalCount) rồi 5 trang còn lại cùng lúc: ≈ 2 latency, tải tuần tự sẽ mất 6 latency
+            assertTrue("elapsed " + elapsedMs + "ms", elapsedMs >= 2 * latencyMs);
+            assertTrue("elapsed " + elapsedMs + "ms", elapsedMs < 3 * latencyMs);
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    private static List<IngredientDataResponseDto> rows(int fromId, int toId) {
+        List<IngredientDataResponseDto> rows = new ArrayList<>();
+        for (int id = fromId; id <= toId; id++) {
+            IngredientDataResponseDto dto = new IngredientDataResponseDto();
+            dto.setId(id);
+            rows.add(dto);
+        }
+        return rows;
+    }
+
+    private static IngredientSearchResultDto page(int totalCount, List<IngredientDataResponseDto> rows) {
+        IngredientSearchResultDto result = new IngredientSearchResultDto();
+        result.setTotalCount(totalCount);
+        result.setIngredients(rows);
+        return result;
+    }
+
+    private static List<Integer> ids(IngredientBulkLoader.Snapshot snapshot) {
+        List<Integer> ids = new ArrayList<>();
+        for (IngredientDataResponseDto dto : snapshot.getRows()) {
+            ids.add(dto.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Giữ callback của từng trang để test trả kết quả theo thứ tự tuỳ ý
+     */
+    private static final class FakeFetcher implements IngredientBulkLoader.PageFetcher {
+        final List<Integer> requested = new ArrayList<>();
+        final Map<Integer, IngredientFilterDto> filters = new HashMap<>();
+        final Map<Integer, DataCallback<ApiResponse<IngredientSearchResultDto>>> callbacks = new HashMap<>();
+        final Map<Integer, ApiCall> calls = new HashMap<>();
+
+        @Override
+        public ApiCall fetch(@NonNull IngredientFilterDto filter,
+                             @NonNull DataCallback<ApiResponse<IngredientSearchResultDto>> callback) {
+            int page = filter.getPage();
+            requested.add(page);
+            filters.put(page, filter);
+            callbacks.put(page, callback);
+            ApiCall call = new ApiCall();
+            calls.put(page, call);
+            return call;
+        }
+
+        void respond(int page, int totalCount, List<IngredientDataResponseDto> rows) {
+            respond(page, page(totalCount, rows));
+        }
+
+        void respond(int page, IngredientSearchResultDto result) {
+            ApiResponse<IngredientSearchResultDto> response = new ApiResponse<>();
+            response.setSuccess(true);
+            response.setData(result);
+            callbacks.get(page).onSuccess(response);
+        }
+    }
+
+    /**
+     * Server giả: mỗi trang trả về sau latencyMs trên thread riêng, đếm số request đang chạy cùng lúc
+     */
+    private static final class DelayedFetcher implements IngredientBulkLoader.PageFetcher {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        private final ScheduledExecutorService server;
+        private final long latencyMs;
+        private final int pageSize;
+        private final int totalCount;
+
+        DelayedFetcher(ScheduledExecutorService server, long latencyMs, int pageSize, int totalCount) {
+            this.server = server;
+            this.latencyMs = latencyMs;
+            this.pageSize = pageSize;
+            this.totalCount = totalCount;
+        }
+
+        @Override
+        public ApiCall fetch(@NonNull IngredientFilterDto filter,
+                             @NonNull DataCallback<ApiResponse<IngredientSearchResultDto>> callback) {
+            int running = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(running, Math::max);
+            int page = filter.getPage();
+            server.schedule(() -> {
+                ApiResponse<IngredientSearchResultDto> response = new ApiResponse<>();
+                response.setSuccess(true);
+                response.setData(page(totalCount,
+                        rows((page - 1) * pageSize + 1, Math.min(page * pageSize, totalCount))));
+                inFlight.decrementAndGet();
+                callback.onSuccess(response);
+            }, latencyMs, TimeUnit.MILLISECONDS);
+            return new ApiCall();
+        }
+    }
+
+    private static final class RecordingCallback implements IngredientBulkLoader.Callback {
+        final List<IngredientBulkLoader.Snapshot> snapshots = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void onSnapshot(@NonNull IngredientBulkLoader.Snapshot snapshot) {
+            snapshots.add(snapshot);
+        }
+
+        @Override
+        public void onError(@NonNull String error) {
+            errors.add(error);
+        }
+
+        IngredientBulkLoader.Snapshot single() {
+            assertTrue(errors.isEmpty());
+            assertEquals(1, snapshots.size());
+            return snapshots.get(0);
+        }
+    }
+}
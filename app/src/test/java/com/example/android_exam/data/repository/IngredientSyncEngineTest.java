@@ -0,0 +1,324 @@
+package com.example.android_exam.data.repository;
+
+import com.example.android_exam.data.dto.ingredient.IngredientDataResponseDto;
+import com.example.android_exam.data.local.IngredientDao;
+import com.example.android_exam.data.local.IngredientEntity;
+import com.example.android_exam.data.local.IngredientExpiry;
+import com.example.android_exam.data.local.IngredientRowHash;
+import com.example.android_exam.data.local.SyncStateDao;
+import com.example.android_exam.data.local.SyncStateEntity;
+import com.example.android_exam.data.models.enums.IngredientCategory;
+import com.example.android_exam.data.models.enums.IngredientUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * applyDelta / applyFull của IngredientSyncEngine trên DAO giả (không cần Room)
+ */
+public class IngredientSyncEngineTest {
+    private static final int USER_ID = 7;
+    // Thời điểm gửi request snapshot; row seed được ghi trước đó (synced_at = 0)
+    private static final long REQUESTED_AT = 10_000;
+
+    private FakeIngredientDao ingredientDao;
+    private FakeSyncStateDao syncStateDao;
+    private IngredientSyncEngine engine;
+
+    @Before
+    public void setUp() {
+        ingredientDao = new FakeIngredientDao();
+        syncStateDao = new FakeSyncStateDao();
+        engine = new IngredientSyncEngine(ingredientDao, syncStateDao);
+    }
+
+    @Test
+    public void highWaterMark_nullBeforeFirstSync() {
+        assertNull(engine.getHighWaterMark(USER_ID));
+    }
+
+    @Test
+    public void applyFull_insertsEverythingIntoEmptyStore() {
+        IngredientSyncEngine.Changes changes = engine.applyFull(USER_ID,
+                Arrays.asList(dto(1, "Egg", 1000), dto(2, "Milk", 3000)), true, REQUESTED_AT);
+
+        assertFalse(changes.isDelta());
+        assertEquals(2, changes.getUpserted().size());
+        assertTrue(changes.getDeletedIds().isEmpty());
+        assertEquals(0, changes.getUnchanged());
+        assertEquals(2, ingredientDao.rows.size());
+        // Full sync: high-water mark = updatedAt lớn nhất, đánh dấu server không hỗ trợ delta
+        assertEquals(new Date(3000), engine.getHighWaterMark(USER_ID));
+        assertFalse(syncStateDao.get(SyncStateEntity.RESOURCE_INGREDIENTS, USER_ID).isDeltaSupported());
+    }
+
+    @Test
+    public void applyFull_writesOnlyRowsWithDifferentHash() {
+        seed(dto(1, "Egg", 1000), dto(2, "Milk", 1000));
+
+        IngredientDataResponseDto renamed = dto(2, "Oat milk", 2000);
+        IngredientSyncEngine.Changes changes = engine.applyFull(USER_ID,
+                Arrays.asList(dto(1, "Egg", 1000), renamed), true, REQUESTED_AT);
+
+        assertEquals(Collections.singletonList(renamed), changes.getUpserted());
+        assertEquals(1, changes.getUnchanged());
+        assertEquals(1, ingredientDao.upsertCalls.size());
+        assertEquals(1, ingredientDao.upsertCalls.get(0).size());
+        assertEquals("Oat milk", ingredientDao.rows.get(2).getName());
+    }
+
+    @Test
+    public void applyFull_completeDeletesRowsMissingOnServer() {
+        seed(dto(1, "Egg", 1000), dto(2, "Milk", 1000), dto(3, "Rice", 1000));
+
+        IngredientSyncEngine.Changes changes = engine.applyFull(USER_ID,
+                Collections.singletonList(dto(1, "Egg", 1000)), true, REQUESTED_AT);
+
+        List<Integer> deleted = new ArrayList<>(changes.getDeletedIds());
+        Collections.sort(deleted);
+        assertEquals(Arrays.asList(2, 3), deleted);
+        assertEquals(Collections.singleton(1), ingredientDao.rows.keySet());
+        assertTrue(changes.getUpserted().isEmpty());
+    }
+
+    @Test
+    public void applyFull_keepsRowSavedLocallyWhileSnapshotWasLoading() {
+        seed(dto(1, "Egg", 1000), dto(2, "Milk", 1000));
+        // saveLocal sau khi tạo trên server, lúc snapshot đang tải
+        ingredientDao.upsert(IngredientEntity.fromDto(dto(3, "Rice", 12_000), REQUESTED_AT + 500));
+
+        IngredientSyncEngine.Changes changes = engine.applyFull(USER_ID,
+                Collections.singletonList(dto(1, "Egg", 1000)), true, REQUESTED_AT);
+
+        assertEquals(Collections.singletonList(2), changes.getDeletedIds());
+        assertEquals(Arrays.asList(1, 3), new ArrayList<>(ingredientDao.rows.keySet()));
+    }
+
+    @Test
+    public void applyFull_doesNotOverwriteRowEditedWhileSnapshotWasLoading() {
+        seed(dto(1, "Egg", 1000));
+        ingredientDao.upsert(IngredientEntity.fromDto(dto(1, "Duck egg", 12_000), REQUESTED_AT + 500));
+
+        IngredientSyncEngine.Changes changes = engine.applyFull(USER_ID,
+                Collections.singletonList(dto(1, "Egg", 1000)), true, REQUESTED_AT);
+
+        assertTrue(changes.isEmpty());
+        assertEquals("Duck egg", ingredientDao.rows.get(1).getName());
+    }
+
+    @Test
+    public void applyFull_deletesLargePruneInChunks() {
+        for (int id = 1; id <= 1200; id++) {
+            seed(dto(id, "Item " + id, 1000));
+        }
+
+        IngredientSyncEngine.Changes changes = engine.applyFull(USER_ID,
+                Collections.emptyList(), true, REQUESTED_AT);
+
+        assertEquals(1200, changes.getDeletedIds().size());
+        assertTrue(ingredientDao.rows.isEmpty());
+        // IN (:ids) không được vượt giới hạn 999 tham số của SQLite
+        assertEquals(3, ingredientDao.deleteCalls.size());
+        for (List<Integer> ids : ingredientDao.deleteCalls) {
+            assertTrue(ids.size() <= 500);
+        }
+    }
+
+    @Test
+    public void applyFull_incompleteKeepsLocalRowsAndHasNoHighWaterMark() {
+        seed(dto(1, "Egg", 1000), dto(2, "Milk", 1000));
+
+        IngredientSyncEngine.Changes changes = engine.applyFull(USER_ID,
+                Collections.singletonList(dto(3, "Rice", 5000)), false, REQUESTED_AT);
+
+        assertTrue(changes.getDeletedIds().isEmpty());
+        assertEquals(3, ingredientDao.rows.size());
+        // Chưa tải hết: lần sau phải full fetch lại, không được dùng delta
+        assertNull(engine.getHighWaterMark(USER_ID));
+    }
+
+    @Test
+    public void applyDelta_appliesUpsertsAndKnownTombstones() {
+        seed(dto(1, "Egg", 1000), dto(2, "Milk", 1000));
+
+        IngredientSyncEngine.Changes changes = engine.applyDelta(USER_ID,
+                Arrays.asList(dto(1, "Egg", 1000), dto(4, "Butter", 6000)),
+                Arrays.asList(2, 99, null), new Date(9000), true, REQUESTED_AT);
+
+        assertTrue(changes.isDelta());
+        assertEquals(1, changes.getUpserted().size());
+        assertEquals(4, changes.getUpserted().get(0).getId());
+        assertEquals(1, changes.getUnchanged());
+        // Tombstone của row không có ở local thì bỏ qua
+        assertEquals(Collections.singletonList(2), changes.getDeletedIds());
+        assertEquals(Arrays.asList(1, 4), new ArrayList<>(ingredientDao.rows.keySet()));
+        assertEquals(new Date(9000), engine.getHighWaterMark(USER_ID));
+        assertTrue(syncStateDao.get(SyncStateEntity.RESOURCE_INGREDIENTS, USER_ID).isDeltaSupported());
+    }
+
+    @Test
+    public void applyDelta_incompleteKeepsPreviousHighWaterMark() {
+        engine.applyDelta(USER_ID, Collections.singletonList(dto(1, "Egg", 1000)), null, new Date(5000), true, REQUESTED_AT);
+
+        IngredientSyncEngine.Changes changes = engine.applyDelta(USER_ID,
+                Collections.singletonList(dto(2, "Milk", 7000)), null, new Date(9000), false, REQUESTED_AT);
+
+        assertEquals(1, changes.getUpserted().size());
+        assertEquals(2, ingredientDao.rows.size());
+        assertEquals(new Date(5000), engine.getHighWaterMark(USER_ID));
+    }
+
+    @Test
+    public void applyDelta_nothingChangedIsEmpty() {
+        seed(dto(1, "Egg", 1000));
+
+        IngredientSyncEngine.Changes changes = engine.applyDelta(USER_ID,
+                Collections.singletonList(dto(1, "Egg", 1000)), Collections.emptyList(), new Date(2000), true, REQUESTED_AT);
+
+        assertTrue(changes.isEmpty());
+        assertTrue(ingredientDao.upsertCalls.isEmpty());
+        assertTrue(ingredientDao.deleteCalls.isEmpty());
+    }
+
+    private void seed(IngredientDataResponseDto... dtos) {
+        for (IngredientDataResponseDto dto : dtos) {
+            ingredientDao.rows.put(dto.getId(), IngredientEntity.fromDto(dto, 0));
+        }
+    }
+
+    private static IngredientDataResponseDto dto(int id, String name, long updatedAt) {
+        IngredientDataResponseDto dto = new IngredientDataResponseDto(id, name, null, new BigDecimal("1"),
+                IngredientUnit.OTHER, IngredientCategory.OTHER, null, null);
+        dto.setUpdatedAt(new Date(updatedAt));
+        return dto;
+    }
+
+    /**
+     * Bảng ingredients trong bộ nhớ; chỉ các query sync dùng tới được cài đặt
+     */
+    private static final class FakeIngredientDao extends IngredientDao {
+        final Map<Integer, IngredientEntity> rows = new TreeMap<>();
+        final List<List<IngredientEntity>> upsertCalls = new ArrayList<>();
+        final List<List<Integer>> deleteCalls = new ArrayList<>();
+
+        @Override
+        public List<IngredientRowHash> getRowHashes() {
+            List<IngredientRowHash> hashes = new ArrayList<>();
+            for (IngredientEntity entity : rows.values()) {
+                IngredientRowHash hash = new IngredientRowHash();
+                hash.id = entity.getId();
+                hash.rowHash = entity.getRowHash();
+                hash.syncedAt = entity.getSyncedAt();
+                hashes.add(hash);
+            }
+            return hashes;
+        }
+
+        @Override
+        public Long getMaxUpdatedAt() {
+            Long max = null;
+            for (IngredientEntity entity : rows.values()) {
+                Long updatedAt = entity.getUpdatedAt();
+                if (updatedAt != null && (max == null || updatedAt > max)) {
+                    max = updatedAt;
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public void upsertAll(List<IngredientEntity> entities) {
+            upsertCalls.add(new ArrayList<>(entities));
+            for (IngredientEntity entity : entities) {
+                rows.put(entity.getId(), entity);
+            }
+        }
+
+        @Override
+        public void deleteByIds(List<Integer> ids) {
+            deleteCalls.add(new ArrayList<>(ids));
+            rows.keySet().removeAll(ids);
+        }
+
+        @Override
+        public List<IngredientEntity> getAll() {
+            return new ArrayList<>(rows.values());
+        }
+
+        @Override
+        public IngredientEntity getById(int id) {
+            return rows.get(id);
+        }
+
+        @Override
+        public List<IngredientEntity> getByCategory(int category) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<IngredientEntity> getExpiringBefore(long before) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<IngredientExpiry> getExpiryTimeline(long after) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<IngredientEntity> searchByNamePrefix(String prefix) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int count() {
+            return rows.size();
+        }
+
+        @Override
+        public void upsert(IngredientEntity entity) {
+            upsertAll(Collections.singletonList(entity));
+        }
+
+        @Override
+        public void deleteById(int id) {
+            deleteByIds(Collections.singletonList(id));
+        }
+
+        @Override
+        public void deleteAll() {
+            rows.clear();
+        }
+    }
+
+    private static final class FakeSyncStateDao implements SyncStateDao {
+        private final Map<String, SyncStateEntity> states = new HashMap<>();
+
+        @Override
+        public SyncStateEntity get(String resource, int userId) {
+            return states.get(resource + "/" + userId);
+        }
+
+        @Override
+        public void upsert(SyncStateEntity state) {
+            states.put(state.getResource() + "/" + state.getUserId(), state);
+        }
+
+        @Override
+        public void clear(String resource) {
+            states.keySet().removeIf(key -> key.startsWith(resource + "/"));
+        }
+    }
+}